@@ -2,9 +2,12 @@ package datastructures.concrete;
 
 import datastructures.concrete.dictionaries.ChainedHashDictionary;
 import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IHashStrategy;
 import datastructures.interfaces.ISet;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 // Represent a data structure that stores unique set of items
 
@@ -16,6 +19,16 @@ public class ChainedHashSet<T> implements ISet<T> {
 		this.map = new ChainedHashDictionary<>();
 	}
 
+	// Creates a set that can hold the given number of items without resizing
+	public ChainedHashSet(int expectedSize) {
+		this.map = new ChainedHashDictionary<>(expectedSize);
+	}
+
+	// Creates a set that hashes and compares items using the given strategy
+	public ChainedHashSet(IHashStrategy<? super T> strategy) {
+		this.map = new ChainedHashDictionary<>(strategy);
+	}
+
 	// Pass an T object as parameter
 	// Adds the given item to the set.
 	// If the item is already in the list, it does nothing
@@ -56,6 +69,13 @@ public class ChainedHashSet<T> implements ISet<T> {
 		return new SetIterator<>(this.map.iterator());
 	}
 
+	// Returns a spliterator over all items in the set. It splits however the
+	// underlying dictionary does, which is by ranges of chains.
+	@Override
+	public Spliterator<T> spliterator() {
+		return new SetSpliterator<>(this.map.spliterator());
+	}
+
 	// return all items in the HashSet
 	private static class SetIterator<T> implements Iterator<T> {
 		// This should be the only field you need
@@ -78,4 +98,38 @@ public class ChainedHashSet<T> implements ISet<T> {
 			return iter.next().getKey();
 		}
 	}
+
+	// Spliterator over the keys handed out by a spliterator over the map's pairs
+	private static class SetSpliterator<T> implements Spliterator<T> {
+		private Spliterator<KVPair<T, Boolean>> pairs;
+
+		public SetSpliterator(Spliterator<KVPair<T, Boolean>> pairs) {
+			this.pairs = pairs;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (action == null) {
+				throw new NullPointerException();
+			}
+			return pairs.tryAdvance(pair -> action.accept(pair.getKey()));
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			Spliterator<KVPair<T, Boolean>> split = pairs.trySplit();
+			return split == null ? null : new SetSpliterator<>(split);
+		}
+
+		@Override
+		public long estimateSize() {
+			return pairs.estimateSize();
+		}
+
+		// Keys are distinct like the pairs are, but may be null
+		@Override
+		public int characteristics() {
+			return (pairs.characteristics() | Spliterator.DISTINCT) & ~Spliterator.NONNULL;
+		}
+	}
 }
@@ -0,0 +1,138 @@
+package datastructures.concrete;
+
+import datastructures.interfaces.ICodec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Contains codecs for common key and value types, for use with the off-heap
+ * and file-backed data structures.
+ */
+public final class Codecs {
+    private Codecs() {
+        // This class only holds static factory methods
+    }
+
+    /**
+     * Returns a codec that stores an Integer in 4 bytes.
+     */
+    public static ICodec<Integer> integers() {
+        return INTEGERS;
+    }
+
+    /**
+     * Returns a codec that stores a Long in 8 bytes.
+     */
+    public static ICodec<Long> longs() {
+        return LONGS;
+    }
+
+    /**
+     * Returns a codec that stores a String as UTF-8.
+     */
+    public static ICodec<String> strings() {
+        return STRINGS;
+    }
+
+    /**
+     * Returns a codec that stores a byte array as is.
+     *
+     * Note: byte arrays do not define equals(), so two arrays with the same
+     *       contents are only the same key to data structures that compare keys
+     *       by their encoded bytes.
+     */
+    public static ICodec<byte[]> bytes() {
+        return BYTES;
+    }
+
+    private static final ICodec<Integer> INTEGERS = new ICodec<Integer>() {
+        @Override
+        public int sizeOf(Integer value) {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(Integer value, ByteBuffer buffer) {
+            buffer.putInt(value);
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer) {
+            return buffer.getInt();
+        }
+    };
+
+    private static final ICodec<Long> LONGS = new ICodec<Long>() {
+        @Override
+        public int sizeOf(Long value) {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void encode(Long value, ByteBuffer buffer) {
+            buffer.putLong(value);
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer) {
+            return buffer.getLong();
+        }
+    };
+
+    private static final ICodec<String> STRINGS = new ICodec<String>() {
+        // Counts the UTF-8 bytes without encoding the string
+        @Override
+        public int sizeOf(String value) {
+            int size = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    size += 1;
+                } else if (c < 0x800) {
+                    size += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    size += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    size += 1; // Encoded as '?' when not part of a pair
+                } else {
+                    size += 3;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public void encode(String value, ByteBuffer buffer) {
+            buffer.put(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    private static final ICodec<byte[]> BYTES = new ICodec<byte[]>() {
+        @Override
+        public int sizeOf(byte[] value) {
+            return value.length;
+        }
+
+        @Override
+        public void encode(byte[] value, ByteBuffer buffer) {
+            buffer.put(value);
+        }
+
+        @Override
+        public byte[] decode(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        }
+    };
+}
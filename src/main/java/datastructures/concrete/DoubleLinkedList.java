@@ -11,6 +11,9 @@ import misc.exceptions.EmptyContainerException;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 
 /**
  * Note: For more info on the expected behavior of your methods, see the source
@@ -182,6 +185,14 @@ public class DoubleLinkedList<T> implements IList<T> {
 		return new DoubleLinkedListIterator<>(this.front);
 	}
 
+	//Returns a spliterator over the list, in order. A linked list can't be split
+	//in the middle without walking to it, so it splits off growing batches from
+	//the front instead, copied into arrays that split evenly from then on.
+	@Override
+	public Spliterator<T> spliterator() {
+		return new DoubleLinkedListSpliterator<>(this.front, this.size);
+	}
+
 	//Helper method that gets a node at a given index
 	//Throws IndexOutOfBoundsException if the given index is not in the list
 	private Node<T> getNode(int index) {
@@ -227,6 +238,64 @@ public class DoubleLinkedList<T> implements IList<T> {
 		// Feel free to add additional constructors or methods to this class.
 	}
 
+	private static class DoubleLinkedListSpliterator<T> implements Spliterator<T> {
+		private static final int BATCH_UNIT = 1 << 10; //Size of the first batch
+		private static final int MAX_BATCH = 1 << 25; //Largest batch size
+		private Node<T> current; //Next node to visit
+		private int remaining; //Number of nodes left to visit
+		private int batch; //Size of the last batch split off
+
+		public DoubleLinkedListSpliterator(Node<T> current, int remaining) {
+			this.current = current;
+			this.remaining = remaining;
+			this.batch = 0;
+		}
+
+		//Visits the next item, returning false if there is none
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (action == null) {
+				throw new NullPointerException();
+			}
+			if (remaining <= 0) {
+				return false;
+			}
+			T data = current.data;
+			current = current.next;
+			remaining--;
+			action.accept(data);
+			return true;
+		}
+
+		//Copies the next batch of items into an array and returns a spliterator
+		//over it. Each batch is larger than the last.
+		@Override
+		public Spliterator<T> trySplit() {
+			if (remaining <= 1) {
+				return null;
+			}
+			int n = Math.min(Math.min(batch + BATCH_UNIT, MAX_BATCH), remaining);
+			Object[] items = new Object[n];
+			for (int i = 0; i < n; i++) {
+				items[i] = current.data;
+				current = current.next;
+			}
+			remaining -= n;
+			batch = n;
+			return Spliterators.spliterator(items, 0, n, Spliterator.ORDERED);
+		}
+
+		@Override
+		public long estimateSize() {
+			return remaining;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+		}
+	}
+
 	private static class DoubleLinkedListIterator<T> implements Iterator<T> {
 		// You should not need to change this field, or add any new fields.
 		private Node<T> current;
@@ -0,0 +1,199 @@
+package datastructures.concrete;
+
+import datastructures.interfaces.IHashStrategy;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiPredicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Contains the standard hash strategies used by the hashed data structures.
+ *
+ * Every strategy here makes sure the low bits of the hash are well mixed, so
+ * tables can pick a bucket with a bit mask instead of a modulo.
+ */
+public final class HashStrategies {
+    private HashStrategies() {
+        // This class only holds static factory methods
+    }
+
+    /**
+     * Returns a strategy that uses hashCode() and equals(), folding the high
+     * bits of the hash code into the low bits. This is the cheapest strategy,
+     * and spreads keys like sequential integers perfectly evenly.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> IHashStrategy<T> standard() {
+        return (IHashStrategy<T>) STANDARD;
+    }
+
+    /**
+     * Returns a strategy that runs hashCode() through the murmur3 finalizer,
+     * seeded with a fresh random seed. Use this when the hash codes of the keys
+     * are poor or attacker-controlled.
+     */
+    public static <T> IHashStrategy<T> murmur() {
+        return murmur(ThreadLocalRandom.current().nextInt());
+    }
+
+    /**
+     * Returns a strategy that runs hashCode() through the murmur3 finalizer
+     * using the given seed.
+     */
+    public static <T> IHashStrategy<T> murmur(int seed) {
+        return new MurmurStrategy<>(seed);
+    }
+
+    /**
+     * Returns a strategy that mixes hashCode() with a single fxhash-style
+     * multiply, seeded with a fresh random seed. Cheaper than murmur(), but
+     * mixes less thoroughly.
+     */
+    public static <T> IHashStrategy<T> fxHash() {
+        return fxHash(ThreadLocalRandom.current().nextInt());
+    }
+
+    /**
+     * Returns a strategy that mixes hashCode() with a single fxhash-style
+     * multiply using the given seed.
+     */
+    public static <T> IHashStrategy<T> fxHash(int seed) {
+        return new FxHashStrategy<>(seed);
+    }
+
+    /**
+     * Returns a strategy that compares keys by reference (==) and hashes them
+     * with System.identityHashCode(), ignoring any equals() or hashCode() they define.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> IHashStrategy<T> identity() {
+        return (IHashStrategy<T>) IDENTITY;
+    }
+
+    /**
+     * Returns a strategy that uses the given functions to hash and compare keys,
+     * for key types whose own hashCode() and equals() are unsuitable.
+     *
+     * The functions are never given null: a null key hashes to 0 and is only
+     * equal to another null key. The hash is murmur-mixed afterwards, so the
+     * given function does not need to mix its low bits.
+     */
+    public static <T> IHashStrategy<T> of(ToIntFunction<? super T> hash, BiPredicate<? super T, ? super T> equals) {
+        if (hash == null || equals == null) {
+            throw new IllegalArgumentException();
+        }
+        return new CustomStrategy<>(hash, equals);
+    }
+
+    // The murmur3 32-bit finalizer
+    private static int fmix32(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static final IHashStrategy<Object> STANDARD = new IHashStrategy<Object>() {
+        @Override
+        public int hash(Object item) {
+            int h = item == null ? 0 : item.hashCode();
+            return h ^ (h >>> 16);
+        }
+
+        @Override
+        public boolean equals(Object a, Object b) {
+            return a == b || (a != null && a.equals(b));
+        }
+
+        @Override
+        public boolean usesObjectEquality() {
+            return true;
+        }
+    };
+
+    private static final IHashStrategy<Object> IDENTITY = new IHashStrategy<Object>() {
+        @Override
+        public int hash(Object item) {
+            return fmix32(System.identityHashCode(item));
+        }
+
+        @Override
+        public boolean equals(Object a, Object b) {
+            return a == b;
+        }
+    };
+
+    private static class MurmurStrategy<T> implements IHashStrategy<T> {
+        private final int seed;
+
+        public MurmurStrategy(int seed) {
+            this.seed = seed;
+        }
+
+        @Override
+        public int hash(T item) {
+            return fmix32((item == null ? 0 : item.hashCode()) ^ seed);
+        }
+
+        @Override
+        public boolean equals(T a, T b) {
+            return a == b || (a != null && a.equals(b));
+        }
+
+        @Override
+        public boolean usesObjectEquality() {
+            return true;
+        }
+    }
+
+    private static class FxHashStrategy<T> implements IHashStrategy<T> {
+        private static final int MULTIPLIER = 0x9e3779b9;
+        private final int seed;
+
+        public FxHashStrategy(int seed) {
+            this.seed = Integer.rotateLeft(seed, 5);
+        }
+
+        @Override
+        public int hash(T item) {
+            int h = (seed ^ (item == null ? 0 : item.hashCode())) * MULTIPLIER;
+            // A multiply only mixes bits upwards, so fold the high half back down
+            return h ^ (h >>> 16);
+        }
+
+        @Override
+        public boolean equals(T a, T b) {
+            return a == b || (a != null && a.equals(b));
+        }
+
+        @Override
+        public boolean usesObjectEquality() {
+            return true;
+        }
+    }
+
+    private static class CustomStrategy<T> implements IHashStrategy<T> {
+        private final ToIntFunction<? super T> hash;
+        private final BiPredicate<? super T, ? super T> equals;
+
+        public CustomStrategy(ToIntFunction<? super T> hash, BiPredicate<? super T, ? super T> equals) {
+            this.hash = hash;
+            this.equals = equals;
+        }
+
+        @Override
+        public int hash(T item) {
+            return item == null ? 0 : fmix32(hash.applyAsInt(item));
+        }
+
+        @Override
+        public boolean equals(T a, T b) {
+            if (a == null || b == null) {
+                return a == b;
+            }
+            return equals.test(a, b);
+        }
+    }
+}
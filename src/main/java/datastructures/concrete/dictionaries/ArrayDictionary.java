@@ -3,10 +3,17 @@
 package datastructures.concrete.dictionaries;
 
 import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IDictionaryCursor;
+import datastructures.interfaces.IHashStrategy;
 import misc.exceptions.NoSuchKeyException;
+import datastructures.concrete.HashStrategies;
 import datastructures.concrete.KVPair;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * See IDictionary for more details on what this class should do
@@ -19,11 +26,31 @@ public class ArrayDictionary<K, V> implements IDictionary<K, V> {
     // You're encouraged to add extra fields (and helper methods) though!
     private int size;		// size of array
     private int arrayMax;	// maximum size of the array
+    private IHashStrategy<? super K> strategy;	// decides which keys are equal
 
     public ArrayDictionary() {
+        this(HashStrategies.standard());
+    }
+
+    //Creates an ArrayDictionary that compares keys using the given strategy
+    //instead of equals(). Used by the hashed dictionaries for their chains.
+    ArrayDictionary(IHashStrategy<? super K> strategy) {
         size = 0;		//set the default size of array as 0 				
         arrayMax = 10;	//set the default maximum size of array as 10
         pairs = makeArrayOfPairs(arrayMax);
+        this.strategy = strategy;
+    }
+
+    //Creates an ArrayDictionary holding copies of the pairs of the given one,
+    //in the same order. Used to copy chains still shared with a snapshot.
+    ArrayDictionary(ArrayDictionary<K, V> other) {
+        size = other.size;
+        arrayMax = other.arrayMax;
+        pairs = makeArrayOfPairs(arrayMax);
+        for (int i = 0; i < size; i++) {
+            pairs[i] = new Pair<>(other.pairs[i].key, other.pairs[i].value);
+        }
+        this.strategy = other.strategy;
     }
 
     /**
@@ -60,28 +87,29 @@ public class ArrayDictionary<K, V> implements IDictionary<K, V> {
         }
     }
 
-    	//pass an object key and the other object V as parameters. Pair K and V
+    //Passes an object K and a default V as parameters. Returns the value
+    //of the pair with key K, or the default value if there is no such pair.
+    //Only searches the array once.
+    @Override
+    public V getOrDefault(K key, V defaultValue) {
+        int index = this.indexOf(key);
+        if(index != -1) {
+            return pairs[index].value;
+        }
+        return defaultValue;
+    }
+
+    //pass an object key and the other object V as parameters. Pair K and V
     //and put them to the dictionary. If K has already existed in 
     //dictionary, V will become the new value. Otherwise, a new pair
     //will be created
     @Override
     public void put(K key, V value) {
-        if(size < arrayMax) {
-        		int index = this.indexOf(key);
-        		if(index != -1) {
-        			pairs[index] = new Pair<>(key, value); //Change a key that already exists, does not modify size
-        		} else {
-        			pairs[size] = new Pair<>(key, value); //Add a new unique key to end
-        			size++;
-        		}
-        } else { //Need to resize and copy everything over to the new array
-        		arrayMax *= 2;
-        		Pair<K, V>[] newArray = makeArrayOfPairs(arrayMax);
-        		for(int i = 0; i < this.size; i++) {
-        			newArray[i] = pairs[i];
-        		}
-        		pairs = newArray;
-        		this.put(key, value); //Rerun put again now that we have more space
+        int index = this.indexOf(key);
+        if(index != -1) {
+            pairs[index] = new Pair<>(key, value); //Change a key that already exists, does not modify size
+        } else {
+            this.append(key, value); //Add a new unique key to end
         }
     }
 
@@ -90,18 +118,114 @@ public class ArrayDictionary<K, V> implements IDictionary<K, V> {
     //NoSuchKeyException if K is not found in dictionary.
     @Override
     public V remove(K key) {
-    		int index = this.indexOf(key);
-    		if(index != -1) {
-    			V value = pairs[index].value;
-    			for(int i = index; i < size - 1; i++) {
-    				pairs[i] = pairs[i+1];
-    			}
-    			pairs[size - 1] = null; //Hard delete last item
-    			size--;
-    			return value;
-    		} else {
-    			throw new NoSuchKeyException();
-    		}
+        int index = this.indexOf(key);
+        if(index != -1) {
+            return this.removeAt(index);
+        } else {
+            throw new NoSuchKeyException();
+        }
+    }
+
+    //The methods below each search the array for the key only once,
+    //instead of calling containsKey() and then get(), put() or remove().
+    //See IDictionary for what each of them does.
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        int index = this.indexOf(key);
+        if(index != -1) {
+            return pairs[index].value;
+        }
+        this.append(key, value);
+        return null;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        int index = this.indexOf(key);
+        if(index != -1) {
+            return pairs[index].value;
+        }
+        V value = mappingFunction.apply(key);
+        if(value != null) {
+            this.append(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        int index = this.indexOf(key);
+        if(index == -1) {
+            return null;
+        }
+        V value = remappingFunction.apply(key, pairs[index].value);
+        this.replaceOrRemoveAt(index, value);
+        return value;
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        int index = this.indexOf(key);
+        if(index == -1) {
+            V value = remappingFunction.apply(key, null);
+            if(value != null) {
+                this.append(key, value);
+            }
+            return value;
+        }
+        V value = remappingFunction.apply(key, pairs[index].value);
+        this.replaceOrRemoveAt(index, value);
+        return value;
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        int index = this.indexOf(key);
+        if(index == -1) {
+            this.append(key, value);
+            return value;
+        }
+        V newValue = remappingFunction.apply(pairs[index].value, value);
+        this.replaceOrRemoveAt(index, newValue);
+        return newValue;
+    }
+
+    //Adds a new pair to the end of the array, doubling the size of
+    //the array first if it is full
+    private void append(K key, V value) {
+        if(size == arrayMax) { //Need to resize and copy everything over to the new array
+            arrayMax *= 2;
+            Pair<K, V>[] newArray = makeArrayOfPairs(arrayMax);
+            for(int i = 0; i < this.size; i++) {
+                newArray[i] = pairs[i];
+            }
+            pairs = newArray;
+        }
+        pairs[size] = new Pair<>(key, value);
+        size++;
+    }
+
+    //Removes the pair at the given index, shifting every later pair
+    //down by one. Returns the value of the removed pair.
+    private V removeAt(int index) {
+        V value = pairs[index].value;
+        for(int i = index; i < size - 1; i++) {
+            pairs[i] = pairs[i+1];
+        }
+        pairs[size - 1] = null; //Hard delete last item
+        size--;
+        return value;
+    }
+
+    //Stores the given value in the pair at the given index, or removes
+    //that pair if the value is null
+    private void replaceOrRemoveAt(int index, V value) {
+        if(value == null) {
+            this.removeAt(index);
+        } else {
+            pairs[index].value = value;
+        }
     }
     
     //Pass an object K as a parameter. Return true if the 
@@ -123,7 +247,7 @@ public class ArrayDictionary<K, V> implements IDictionary<K, V> {
      */
     private int indexOf(K key) {
     		for(int i = 0; i < size; i++) { 
-    			if((pairs[i].key != null && pairs[i].key.equals(key)) || pairs[i].key == key) { //Allow for null keys
+    			if(strategy.equals(pairs[i].key, key)) { //The strategy allows for null keys
     				return i;
     			}
     		}
@@ -153,6 +277,118 @@ public class ArrayDictionary<K, V> implements IDictionary<K, V> {
 		return new DictonaryIterator<KVPair<K, V>>(pairs);
 	}
 
+	// Returns a cursor over all K-V dictionary pairs, which creates
+	// nothing per pair
+	@Override
+	public IDictionaryCursor<K, V> cursor() {
+		ArrayCursor<K, V> cursor = new ArrayCursor<>();
+		cursor.reset(this);
+		return cursor;
+	}
+
+	// Returns a spliterator over all K-V dictionary pairs, which splits
+	// by ranges of array indexes
+	@Override
+	public Spliterator<KVPair<K, V>> spliterator() {
+		return new ArraySpliterator<>(pairs, 0, size);
+	}
+
+	// Spliterator over the pairs between two indexes of a pair array
+	private static class ArraySpliterator<K, V> implements Spliterator<KVPair<K, V>> {
+		private Pair<K, V>[] pairs;
+		private int index;	// next pair to visit
+		private int fence;	// one past the last pair to visit
+
+		public ArraySpliterator(Pair<K, V>[] pairs, int index, int fence) {
+			this.pairs = pairs;
+			this.index = index;
+			this.fence = fence;
+		}
+
+		// Visits the next pair, returning false if there is none
+		@Override
+		public boolean tryAdvance(Consumer<? super KVPair<K, V>> action) {
+			if (action == null) {
+				throw new NullPointerException();
+			}
+			if (index >= fence) {
+				return false;
+			}
+			action.accept(new KVPair<>(pairs[index].key, pairs[index].value));
+			index++;
+			return true;
+		}
+
+		// Hands the first half of the remaining pairs to a new spliterator
+		@Override
+		public Spliterator<KVPair<K, V>> trySplit() {
+			int mid = (index + fence) >>> 1;
+			if (mid <= index) {
+				return null;
+			}
+			Spliterator<KVPair<K, V>> prefix = new ArraySpliterator<>(pairs, index, mid);
+			index = mid;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.DISTINCT | Spliterator.NONNULL;
+		}
+	}
+
+	// Cursor over the pairs of an ArrayDictionary. The same cursor can be
+	// pointed at a different ArrayDictionary with reset(), which lets the
+	// hashed dictionaries walk all of their chains with a single cursor.
+	static class ArrayCursor<K, V> implements IDictionaryCursor<K, V> {
+		private ArrayDictionary<K, V> dict;
+		private int index;
+
+		// Points this cursor before the first pair of the given dictionary
+		public void reset(ArrayDictionary<K, V> dict) {
+			this.dict = dict;
+			this.index = -1;
+		}
+
+		// Moves to the next pair, returning false if there is none
+		@Override
+		public boolean advance() {
+			if (index < dict.size) {
+				index++;
+			}
+			return index < dict.size;
+		}
+
+		@Override
+		public K key() {
+			return this.pair().key;
+		}
+
+		@Override
+		public V value() {
+			return this.pair().value;
+		}
+
+		@Override
+		public void setValue(V value) {
+			this.pair().value = value;
+		}
+
+		// Returns the pair the cursor is on
+		// throw IllegalStateException if the cursor is not on a pair
+		private Pair<K, V> pair() {
+			if (index < 0 || index >= dict.size) {
+				throw new IllegalStateException();
+			}
+			return dict.pairs[index];
+		}
+	}
+
 	private class DictonaryIterator<T> implements Iterator<KVPair<K, V>> {
 		private int currentIndex = 0;
 		private Pair<K, V>[] pairs;
@@ -0,0 +1,790 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionaryCursor;
+import datastructures.interfaces.IList;
+import datastructures.interfaces.ISortedDictionary;
+import misc.exceptions.EmptyContainerException;
+import misc.exceptions.NoSuchKeyException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Represents a data structure that contains a bunch of key-value
+// mappings, kept in ascending order of their keys. Each key must be unique,
+// and keys may not be null.
+//
+// The pairs are kept in a B+-tree with wide nodes. Every pair lives in a leaf,
+// in sorted key and value arrays of up to MAX_KEYS entries, and the leaves are
+// linked to their neighbors in order. The inner nodes above them only hold
+// separator keys and children, up to MAX_KEYS of them, so the tree stays a few
+// levels deep: a million keys need four. Each node is searched with a binary
+// search over one small, contiguous array, so a lookup touches only a handful
+// of nodes instead of the twenty or so a binary tree would.
+//
+// Every node other than the root is at least half full. A node that overflows
+// is split in two, and a node that drops below half full borrows an entry from
+// a neighbor, or is merged with it if the neighbor has none to spare.
+//
+// floorKey() and ceilingKey() search down to one leaf, and only need to look at
+// the leaf next to it if the answer isn't there. range() searches for its first
+// key and then walks along the leaves, so it takes O(log n + k) to visit k pairs.
+// build() creates a whole tree from sorted pairs in O(n), packing the leaves and
+// then each level above them, without searching or splitting.
+public class BTreeDictionary<K extends Comparable<K>, V> implements ISortedDictionary<K, V> {
+	private Node<K> root;
+	private Leaf<K, V> head; // Leftmost leaf
+	private Leaf<K, V> tail; // Rightmost leaf
+	private int size;
+	private K splitKey; // Separator and new right node of the last split, until
+	private Node<K> splitNode; // the parent has taken them in
+	private boolean found; // Whether the last call to delete() found its key
+	static final int MAX_KEYS = 64; // Most entries a leaf, or children an inner node, holds
+	static final int MIN_KEYS = MAX_KEYS / 2; // Fewest a node other than the root holds
+
+	public BTreeDictionary() {
+		this.head = new Leaf<>();
+		this.tail = head;
+		this.root = head;
+		this.size = 0;
+	}
+
+	// Returns a new dictionary holding the given pairs, which must be in strictly
+	// ascending order of their keys. Takes O(n), instead of O(n log n) for putting
+	// the pairs one at a time, and leaves the nodes as full as they can be.
+	// throw IllegalArgumentException if the array is null, or a pair or key in
+	// it is null, or the keys are not in strictly ascending order
+	public static <K extends Comparable<K>, V> BTreeDictionary<K, V> build(KVPair<K, V>[] pairs) {
+		if (pairs == null) {
+			throw new IllegalArgumentException();
+		}
+		for (int i = 0; i < pairs.length; i++) {
+			if (pairs[i] == null || pairs[i].getKey() == null) {
+				throw new IllegalArgumentException();
+			}
+			if (i > 0 && pairs[i - 1].getKey().compareTo(pairs[i].getKey()) >= 0) {
+				throw new IllegalArgumentException();
+			}
+		}
+		BTreeDictionary<K, V> dict = new BTreeDictionary<>();
+		if (pairs.length > 0) {
+			dict.buildFrom(pairs);
+		}
+		return dict;
+	}
+
+	// Same as above, taking the pairs from a list
+	// throw IllegalArgumentException if the list is null
+	@SuppressWarnings("unchecked")
+	public static <K extends Comparable<K>, V> BTreeDictionary<K, V> build(IList<KVPair<K, V>> pairs) {
+		if (pairs == null) {
+			throw new IllegalArgumentException();
+		}
+		// Copied out first, since get(i) may have to walk the whole list
+		KVPair<K, V>[] array = (KVPair<K, V>[]) new KVPair[pairs.size()];
+		int i = 0;
+		for (KVPair<K, V> pair : pairs) {
+			array[i] = pair;
+			i++;
+		}
+		return build(array);
+	}
+
+	// Fills this empty dictionary with the given sorted pairs. Spreads the pairs
+	// evenly over as few leaves as will hold them, so every leaf is at least half
+	// full, then does the same with each level of inner nodes until one is left.
+	private void buildFrom(KVPair<K, V>[] pairs) {
+		int n = pairs.length;
+		int count = (n + MAX_KEYS - 1) / MAX_KEYS;
+		Node<K>[] level = newNodeArray(count);
+		Object[] lowKeys = new Object[count]; // Smallest key under each node of the level
+		Leaf<K, V> prev = null;
+		for (int i = 0; i < count; i++) {
+			int start = (int) ((long) n * i / count);
+			int end = (int) ((long) n * (i + 1) / count);
+			Leaf<K, V> leaf = new Leaf<>();
+			for (int j = start; j < end; j++) {
+				leaf.keys[j - start] = pairs[j].getKey();
+				leaf.values[j - start] = pairs[j].getValue();
+			}
+			leaf.count = end - start;
+			leaf.prev = prev;
+			if (prev == null) {
+				head = leaf;
+			} else {
+				prev.next = leaf;
+			}
+			prev = leaf;
+			level[i] = leaf;
+			lowKeys[i] = leaf.keys[0];
+		}
+		tail = prev;
+
+		while (count > 1) {
+			int parents = (count + MAX_KEYS - 1) / MAX_KEYS;
+			Node<K>[] upper = newNodeArray(parents);
+			Object[] upperLowKeys = new Object[parents];
+			for (int i = 0; i < parents; i++) {
+				int start = (int) ((long) count * i / parents);
+				int end = (int) ((long) count * (i + 1) / parents);
+				Inner<K> inner = new Inner<>();
+				for (int j = start; j < end; j++) {
+					inner.children[j - start] = level[j];
+					if (j > start) {
+						inner.keys[j - start - 1] = this.keyOf(lowKeys[j]);
+					}
+				}
+				inner.count = end - start;
+				upper[i] = inner;
+				upperLowKeys[i] = lowKeys[start];
+			}
+			level = upper;
+			lowKeys = upperLowKeys;
+			count = parents;
+		}
+		root = level[0];
+		size = n;
+	}
+
+	// Pass a K object as a parameter
+	// Returns the value corresponding to the given key.
+	// throw NoSuchKeyException if the given key is not in the data structure
+	// throw IllegalArgumentException if the key is null
+	@Override
+	public V get(K key) {
+		Leaf<K, V> leaf = this.findLeaf(key);
+		int i = leaf.indexOf(key);
+		if (i < 0) {
+			throw new NoSuchKeyException();
+		}
+		return leaf.values[i];
+	}
+
+	// Pass a K and a V as parameters
+	// Returns the value corresponding to the given key, or the default value
+	// if the key is not in the data structure
+	// throw IllegalArgumentException if the key is null
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		Leaf<K, V> leaf = this.findLeaf(key);
+		int i = leaf.indexOf(key);
+		return i < 0 ? defaultValue : leaf.values[i];
+	}
+
+	// Pass a K and a V as parameters and put K-V pairs into the data structure
+	// If the K already exists in data structure, replace its value with V
+	// throw IllegalArgumentException if the key is null
+	@Override
+	public void put(K key, V value) {
+		checkKey(key);
+		boolean added = this.insert(root, key, value);
+		if (splitNode != null) {
+			// The root was split, so the tree grows a level
+			Inner<K> newRoot = new Inner<>();
+			newRoot.children[0] = root;
+			newRoot.children[1] = splitNode;
+			newRoot.keys[0] = splitKey;
+			newRoot.count = 2;
+			root = newRoot;
+			splitNode = null;
+			splitKey = null;
+		}
+		if (added) {
+			size++;
+		}
+	}
+
+	// Pass a K object as parameter
+	// Remove the K-V pair corresponding to the given key from the data structure.
+	// Throw NoSuchKeyException if the given K is not in data structure
+	// throw IllegalArgumentException if the key is null
+	@Override
+	public V remove(K key) {
+		checkKey(key);
+		found = false;
+		V item = this.delete(root, key);
+		if (!found) {
+			throw new NoSuchKeyException();
+		}
+		size--;
+		if (root instanceof Inner && root.count == 1) {
+			// The root has only one child left, so the tree shrinks a level
+			root = ((Inner<K>) root).children[0];
+		}
+		return item;
+	}
+
+	// Pass an object K as parameter. Return True if data structure contains the K.
+	// False otherwise.
+	// throw IllegalArgumentException if the key is null
+	@Override
+	public boolean containsKey(K key) {
+		return this.findLeaf(key).indexOf(key) >= 0;
+	}
+
+	// return the size of data structure
+	@Override
+	public int size() {
+		return size;
+	}
+
+	// Returns the smallest key in the data structure
+	// throw EmptyContainerException if the data structure is empty
+	@Override
+	public K firstKey() {
+		if (size == 0) {
+			throw new EmptyContainerException();
+		}
+		return head.keys[0];
+	}
+
+	// Returns the largest key in the data structure
+	// throw EmptyContainerException if the data structure is empty
+	@Override
+	public K lastKey() {
+		if (size == 0) {
+			throw new EmptyContainerException();
+		}
+		return tail.keys[tail.count - 1];
+	}
+
+	// Returns the largest key that is less than or equal to the given key, or
+	// null if there is none. If every key in the leaf the search ends at is
+	// larger, the answer is the last key of the leaf before it.
+	// throw IllegalArgumentException if the key is null
+	@Override
+	public K floorKey(K key) {
+		Leaf<K, V> leaf = this.findLeaf(key);
+		int i = leaf.upperBound(key) - 1;
+		if (i >= 0) {
+			return leaf.keys[i];
+		}
+		return leaf.prev == null ? null : leaf.prev.keys[leaf.prev.count - 1];
+	}
+
+	// Returns the smallest key that is greater than or equal to the given key, or
+	// null if there is none. If every key in the leaf the search ends at is
+	// smaller, the answer is the first key of the leaf after it.
+	// throw IllegalArgumentException if the key is null
+	@Override
+	public K ceilingKey(K key) {
+		Leaf<K, V> leaf = this.findLeaf(key);
+		int i = leaf.lowerBound(key);
+		if (i < leaf.count) {
+			return leaf.keys[i];
+		}
+		return leaf.next == null ? null : leaf.next.keys[0];
+	}
+
+	// Returns an iterator over the pairs with keys from 'from' (inclusive) up to
+	// 'to' (exclusive), in ascending order
+	// throw IllegalArgumentException if either key is null, or from is greater
+	// than to
+	@Override
+	public Iterator<KVPair<K, V>> range(K from, K to) {
+		checkKey(from);
+		checkKey(to);
+		if (from.compareTo(to) > 0) {
+			throw new IllegalArgumentException();
+		}
+		Leaf<K, V> leaf = this.findLeaf(from);
+		return new BTreeIterator(leaf, leaf.lowerBound(from), to);
+	}
+
+	// Returns a list of all key-value pairs within this data structure, in
+	// ascending order of their keys
+	@Override
+	public Iterator<KVPair<K, V>> iterator() {
+		return new BTreeIterator(head, 0, null);
+	}
+
+	// Returns a cursor over all key-value pairs within this data structure, in
+	// ascending order of their keys, which creates nothing per pair
+	@Override
+	public IDictionaryCursor<K, V> cursor() {
+		return new BTreeCursor();
+	}
+
+	// Returns the leaf the given key is in, or would be put in
+	// throw IllegalArgumentException if the key is null
+	@SuppressWarnings("unchecked")
+	private Leaf<K, V> findLeaf(K key) {
+		checkKey(key);
+		Node<K> node = root;
+		while (node instanceof Inner) {
+			Inner<K> inner = (Inner<K>) node;
+			node = inner.children[inner.childIndex(key)];
+		}
+		return (Leaf<K, V>) node;
+	}
+
+	// Puts the pair into the subtree under the given node, returning true if the
+	// key is new. If the node had to be split, leaves the separator and the new
+	// right node in splitKey and splitNode for the parent to take in.
+	@SuppressWarnings("unchecked")
+	private boolean insert(Node<K> node, K key, V value) {
+		if (node instanceof Leaf) {
+			Leaf<K, V> leaf = (Leaf<K, V>) node;
+			int i = leaf.lowerBound(key);
+			if (i < leaf.count && leaf.keys[i].compareTo(key) == 0) {
+				leaf.values[i] = value;
+				return false;
+			}
+			if (leaf.count < MAX_KEYS) {
+				leaf.insertAt(i, key, value);
+			} else {
+				this.splitLeaf(leaf, i, key, value);
+			}
+			return true;
+		}
+
+		Inner<K> inner = (Inner<K>) node;
+		int c = inner.childIndex(key);
+		boolean added = this.insert(inner.children[c], key, value);
+		if (splitNode != null) {
+			K childKey = splitKey;
+			Node<K> childNode = splitNode;
+			splitKey = null;
+			splitNode = null;
+			if (inner.count < MAX_KEYS) {
+				inner.insertAt(c, childKey, childNode);
+			} else {
+				this.splitInner(inner, c, childKey, childNode);
+			}
+		}
+		return added;
+	}
+
+	// Splits a full leaf in two while putting the pair in at position i, and
+	// links the new right half in after it
+	private void splitLeaf(Leaf<K, V> leaf, int i, K key, V value) {
+		Leaf<K, V> right = new Leaf<>();
+		int leftCount = (MAX_KEYS + 1) / 2;
+		if (i < leftCount) {
+			// The new pair goes in the left half, so one more pair moves right
+			int moved = MAX_KEYS - (leftCount - 1);
+			System.arraycopy(leaf.keys, leftCount - 1, right.keys, 0, moved);
+			System.arraycopy(leaf.values, leftCount - 1, right.values, 0, moved);
+			right.count = moved;
+			leaf.clearFrom(leftCount - 1);
+			leaf.insertAt(i, key, value);
+		} else {
+			int moved = MAX_KEYS - leftCount;
+			System.arraycopy(leaf.keys, leftCount, right.keys, 0, moved);
+			System.arraycopy(leaf.values, leftCount, right.values, 0, moved);
+			right.count = moved;
+			leaf.clearFrom(leftCount);
+			right.insertAt(i - leftCount, key, value);
+		}
+
+		right.next = leaf.next;
+		right.prev = leaf;
+		if (leaf.next == null) {
+			tail = right;
+		} else {
+			leaf.next.prev = right;
+		}
+		leaf.next = right;
+		splitKey = right.keys[0];
+		splitNode = right;
+	}
+
+	// Splits a full inner node in two while putting the separator and child in
+	// after child c. The middle separator moves up to the parent instead of
+	// staying in either half.
+	private void splitInner(Inner<K> inner, int c, K key, Node<K> child) {
+		// Lays out every separator and child in order first, to keep this simple
+		Object[] keys = new Object[MAX_KEYS];
+		Node<K>[] children = newNodeArray(MAX_KEYS + 1);
+		System.arraycopy(inner.keys, 0, keys, 0, c);
+		keys[c] = key;
+		System.arraycopy(inner.keys, c, keys, c + 1, MAX_KEYS - 1 - c);
+		System.arraycopy(inner.children, 0, children, 0, c + 1);
+		children[c + 1] = child;
+		System.arraycopy(inner.children, c + 1, children, c + 2, MAX_KEYS - 1 - c);
+
+		int leftCount = (MAX_KEYS + 2) / 2;
+		int rightCount = MAX_KEYS + 1 - leftCount;
+		Inner<K> right = new Inner<>();
+		inner.clearFrom(0);
+		System.arraycopy(keys, 0, inner.keys, 0, leftCount - 1);
+		System.arraycopy(children, 0, inner.children, 0, leftCount);
+		inner.count = leftCount;
+		System.arraycopy(keys, leftCount, right.keys, 0, rightCount - 1);
+		System.arraycopy(children, leftCount, right.children, 0, rightCount);
+		right.count = rightCount;
+		splitKey = this.keyOf(keys[leftCount - 1]);
+		splitNode = right;
+	}
+
+	// Removes the key from the subtree under the given node, returning its value
+	// and setting found if it was there. Fixes up any child that drops below
+	// half full on the way back up.
+	@SuppressWarnings("unchecked")
+	private V delete(Node<K> node, K key) {
+		if (node instanceof Leaf) {
+			Leaf<K, V> leaf = (Leaf<K, V>) node;
+			int i = leaf.indexOf(key);
+			if (i < 0) {
+				return null;
+			}
+			found = true;
+			return leaf.removeAt(i);
+		}
+
+		Inner<K> inner = (Inner<K>) node;
+		int c = inner.childIndex(key);
+		V item = this.delete(inner.children[c], key);
+		if (found && inner.children[c].count < MIN_KEYS) {
+			this.rebalance(inner, c);
+		}
+		return item;
+	}
+
+	// Brings child c of the parent back to half full, by borrowing an entry from
+	// a neighbor that has one to spare, or by merging it with a neighbor
+	@SuppressWarnings("unchecked")
+	private void rebalance(Inner<K> parent, int c) {
+		Node<K> child = parent.children[c];
+		Node<K> left = c > 0 ? parent.children[c - 1] : null;
+		Node<K> right = c + 1 < parent.count ? parent.children[c + 1] : null;
+		if (child instanceof Leaf) {
+			Leaf<K, V> leaf = (Leaf<K, V>) child;
+			if (left != null && left.count > MIN_KEYS) {
+				Leaf<K, V> from = (Leaf<K, V>) left;
+				int last = from.count - 1;
+				leaf.insertAt(0, from.keys[last], from.values[last]);
+				from.removeAt(last);
+				parent.keys[c - 1] = leaf.keys[0];
+			} else if (right != null && right.count > MIN_KEYS) {
+				Leaf<K, V> from = (Leaf<K, V>) right;
+				leaf.insertAt(leaf.count, from.keys[0], from.values[0]);
+				from.removeAt(0);
+				parent.keys[c] = from.keys[0];
+			} else if (left != null) {
+				this.mergeLeaves(parent, c - 1);
+			} else {
+				this.mergeLeaves(parent, c);
+			}
+		} else {
+			Inner<K> inner = (Inner<K>) child;
+			if (left != null && left.count > MIN_KEYS) {
+				// The separator comes down in front, and the neighbor's last one goes up
+				Inner<K> from = (Inner<K>) left;
+				inner.insertFirst(parent.keys[c - 1], from.children[from.count - 1]);
+				parent.keys[c - 1] = from.keys[from.count - 2];
+				from.removeAt(from.count - 2);
+			} else if (right != null && right.count > MIN_KEYS) {
+				Inner<K> from = (Inner<K>) right;
+				inner.insertAt(inner.count - 1, parent.keys[c], from.children[0]);
+				parent.keys[c] = from.keys[0];
+				from.removeFirst();
+			} else if (left != null) {
+				this.mergeInner(parent, c - 1);
+			} else {
+				this.mergeInner(parent, c);
+			}
+		}
+	}
+
+	// Moves every pair of child i + 1 of the parent into child i, and unlinks it
+	@SuppressWarnings("unchecked")
+	private void mergeLeaves(Inner<K> parent, int i) {
+		Leaf<K, V> left = (Leaf<K, V>) parent.children[i];
+		Leaf<K, V> right = (Leaf<K, V>) parent.children[i + 1];
+		System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+		System.arraycopy(right.values, 0, left.values, left.count, right.count);
+		left.count += right.count;
+		left.next = right.next;
+		if (right.next == null) {
+			tail = left;
+		} else {
+			right.next.prev = left;
+		}
+		parent.removeAt(i);
+	}
+
+	// Moves the separator between children i and i + 1 of the parent, and every
+	// separator and child of child i + 1, into child i
+	private void mergeInner(Inner<K> parent, int i) {
+		Inner<K> left = (Inner<K>) parent.children[i];
+		Inner<K> right = (Inner<K>) parent.children[i + 1];
+		left.keys[left.count - 1] = parent.keys[i];
+		System.arraycopy(right.keys, 0, left.keys, left.count, right.count - 1);
+		System.arraycopy(right.children, 0, left.children, left.count, right.count);
+		left.count += right.count;
+		parent.removeAt(i);
+	}
+
+	// throw IllegalArgumentException if the key is null
+	private static void checkKey(Object key) {
+		if (key == null) {
+			throw new IllegalArgumentException();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private K keyOf(Object key) {
+		return (K) key;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K> Node<K>[] newNodeArray(int length) {
+		return (Node<K>[]) new Node[length];
+	}
+
+	// A node of the tree. count is the number of pairs in a leaf, or the number
+	// of children of an inner node.
+	private abstract static class Node<K> {
+		protected K[] keys;
+		protected int count;
+	}
+
+	// A node holding key-value pairs, in sorted order
+	private static class Leaf<K extends Comparable<K>, V> extends Node<K> {
+		private V[] values;
+		private Leaf<K, V> prev;
+		private Leaf<K, V> next;
+
+		@SuppressWarnings("unchecked")
+		public Leaf() {
+			this.keys = (K[]) new Comparable[MAX_KEYS];
+			this.values = (V[]) new Object[MAX_KEYS];
+			this.count = 0;
+		}
+
+		// Returns the position of the first key that is at least the given key
+		public int lowerBound(K key) {
+			int low = 0;
+			int high = count;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (keys[mid].compareTo(key) < 0) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		// Returns the position of the first key that is greater than the given key
+		public int upperBound(K key) {
+			int low = 0;
+			int high = count;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (keys[mid].compareTo(key) <= 0) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		// Returns the position of the given key, or -1 if it is not here
+		public int indexOf(K key) {
+			int i = this.lowerBound(key);
+			return i < count && keys[i].compareTo(key) == 0 ? i : -1;
+		}
+
+		// Puts the pair in at position i, moving later pairs along. The leaf must
+		// not be full.
+		public void insertAt(int i, K key, V value) {
+			System.arraycopy(keys, i, keys, i + 1, count - i);
+			System.arraycopy(values, i, values, i + 1, count - i);
+			keys[i] = key;
+			values[i] = value;
+			count++;
+		}
+
+		// Takes out the pair at position i, returning its value
+		public V removeAt(int i) {
+			V item = values[i];
+			System.arraycopy(keys, i + 1, keys, i, count - i - 1);
+			System.arraycopy(values, i + 1, values, i, count - i - 1);
+			count--;
+			keys[count] = null;
+			values[count] = null;
+			return item;
+		}
+
+		// Drops every pair from position i on
+		public void clearFrom(int i) {
+			for (int j = i; j < count; j++) {
+				keys[j] = null;
+				values[j] = null;
+			}
+			count = i;
+		}
+	}
+
+	// A node holding children, and a separator key between each two of them.
+	// Every key under children[i] is at least keys[i - 1] and less than keys[i].
+	private static class Inner<K extends Comparable<K>> extends Node<K> {
+		private Node<K>[] children;
+
+		@SuppressWarnings("unchecked")
+		public Inner() {
+			this.keys = (K[]) new Comparable[MAX_KEYS - 1];
+			this.children = newNodeArray(MAX_KEYS);
+			this.count = 0;
+		}
+
+		// Returns the position of the child the given key belongs under
+		public int childIndex(K key) {
+			int low = 0;
+			int high = count - 1;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (keys[mid].compareTo(key) <= 0) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		// Puts the separator and child in after child c. The node must not be full.
+		public void insertAt(int c, K key, Node<K> child) {
+			System.arraycopy(keys, c, keys, c + 1, count - 1 - c);
+			System.arraycopy(children, c + 1, children, c + 2, count - 1 - c);
+			keys[c] = key;
+			children[c + 1] = child;
+			count++;
+		}
+
+		// Puts the child in front of the others, with the separator after it
+		public void insertFirst(K key, Node<K> child) {
+			System.arraycopy(keys, 0, keys, 1, count - 1);
+			System.arraycopy(children, 0, children, 1, count);
+			keys[0] = key;
+			children[0] = child;
+			count++;
+		}
+
+		// Takes out separator i and the child after it
+		public void removeAt(int i) {
+			System.arraycopy(keys, i + 1, keys, i, count - 2 - i);
+			System.arraycopy(children, i + 2, children, i + 1, count - 2 - i);
+			count--;
+			keys[count - 1] = null;
+			children[count] = null;
+		}
+
+		// Takes out the first child and the separator after it
+		public void removeFirst() {
+			System.arraycopy(keys, 1, keys, 0, count - 2);
+			System.arraycopy(children, 1, children, 0, count - 1);
+			count--;
+			keys[count - 1] = null;
+			children[count] = null;
+		}
+
+		// Drops every separator from position i on, and every child after it
+		public void clearFrom(int i) {
+			for (int j = i; j < count - 1; j++) {
+				keys[j] = null;
+				children[j + 1] = null;
+			}
+			count = Math.min(count, i + 1);
+		}
+	}
+
+	//Cursor over the items in a BTreeDictionary object, walking along the leaves
+	private class BTreeCursor implements IDictionaryCursor<K, V> {
+		private Leaf<K, V> leaf = head; //Leaf the cursor is in, or null once it is done
+		private int index = -1; //Position of the pair the cursor is on
+
+		// Moves to the next pair, returning false if there is none
+		@Override
+		public boolean advance() {
+			if (leaf == null) {
+				return false;
+			}
+			index++;
+			while (index >= leaf.count) {
+				leaf = leaf.next;
+				index = 0;
+				if (leaf == null) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public K key() {
+			this.checkOnPair();
+			return leaf.keys[index];
+		}
+
+		@Override
+		public V value() {
+			this.checkOnPair();
+			return leaf.values[index];
+		}
+
+		@Override
+		public void setValue(V value) {
+			this.checkOnPair();
+			leaf.values[index] = value;
+		}
+
+		// throw IllegalStateException if the cursor is not on an item
+		private void checkOnPair() {
+			if (leaf == null || index < 0) {
+				throw new IllegalStateException();
+			}
+		}
+	}
+
+	//Class used to iterate through the items in a BTreeDictionary object, from a
+	//given position up to an optional end key
+	private class BTreeIterator implements Iterator<KVPair<K, V>> {
+		private Leaf<K, V> leaf; //Leaf of the next item, or null if there is none
+		private int index; //Position of the next item in its leaf
+		private K end; //Key the iteration stops before, or null to go to the end
+
+		public BTreeIterator(Leaf<K, V> leaf, int index, K end) {
+			this.leaf = leaf;
+			this.index = index;
+			this.end = end;
+			this.skipEmpty();
+		}
+
+		// Returns true if there is another item in the data structure that can
+		// be returned by the next() function
+		// Returns false otherwise
+		@Override
+		public boolean hasNext() {
+			return leaf != null;
+		}
+
+		// Return the next item in the iteration
+		// throw NoSuchElementException if a next item does not exist.
+		@Override
+		public KVPair<K, V> next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			KVPair<K, V> pair = new KVPair<>(leaf.keys[index], leaf.values[index]);
+			index++;
+			this.skipEmpty();
+			return pair;
+		}
+
+		// Moves on to the next leaf while past the end of this one, and stops
+		// for good once the end key is reached
+		private void skipEmpty() {
+			while (leaf != null && index >= leaf.count) {
+				leaf = leaf.next;
+				index = 0;
+			}
+			if (leaf != null && end != null && leaf.keys[index].compareTo(end) >= 0) {
+				leaf = null;
+			}
+		}
+	}
+}
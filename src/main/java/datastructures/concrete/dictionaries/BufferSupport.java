@@ -0,0 +1,129 @@
+package datastructures.concrete.dictionaries;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+// Helpers shared by the dictionaries that keep their entries in direct or
+// memory-mapped ByteBuffers (OffHeapDictionary and MappedFileDictionary).
+// Those buffers all keep the default (big-endian) byte order, which the
+// helpers below rely on.
+final class BufferSupport {
+	// Used to free direct and mapped buffers right away instead of waiting for
+	// the garbage collector: sun.misc.Unsafe.invokeCleaner() from Java 9 on, or
+	// on Java 8, the buffer's own sun.misc.Cleaner. If neither can be reached,
+	// buffers are freed once they are garbage collected.
+	private static final Object UNSAFE;
+	private static final Method INVOKE_CLEANER;
+	private static final Method CLEANER; // sun.nio.ch.DirectBuffer.cleaner(), on Java 8
+	private static final Method CLEAN; // sun.misc.Cleaner.clean(), on Java 8
+
+	static {
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		Method cleaner = null;
+		Method clean = null;
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field field = unsafeClass.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			unsafe = field.get(null);
+			invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+		} catch (ReflectiveOperationException | RuntimeException ex) {
+			unsafe = null;
+			invokeCleaner = null;
+		}
+		if (invokeCleaner == null) {
+			try {
+				cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+				clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+			} catch (ReflectiveOperationException | RuntimeException ex) {
+				cleaner = null;
+				clean = null;
+			}
+		}
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+		CLEANER = cleaner;
+		CLEAN = clean;
+	}
+
+	private BufferSupport() {
+	}
+
+	// Frees the memory of the given direct or memory-mapped buffer right away, if
+	// the JVM allows it. The buffer, and every view of it, must never be used again.
+	static void free(ByteBuffer buffer) {
+		if (buffer == null || !buffer.isDirect()) {
+			return;
+		}
+		try {
+			if (INVOKE_CLEANER != null) {
+				INVOKE_CLEANER.invoke(UNSAFE, buffer);
+			} else if (CLEANER != null) {
+				Object cleaner = CLEANER.invoke(buffer);
+				if (cleaner != null) {
+					CLEAN.invoke(cleaner);
+				}
+			}
+		} catch (ReflectiveOperationException | RuntimeException ex) {
+			// Views and duplicates can't be freed; their memory goes with the
+			// original buffer once it is garbage collected
+		}
+	}
+
+	// Returns a view of the given bytes of the buffer, running from position 0 to
+	// its limit. Does the same as ByteBuffer.slice(int, int), which Java 8 lacks.
+	static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer view = buffer.duplicate();
+		view.limit(offset + length);
+		view.position(offset);
+		return view.slice();
+	}
+
+	// Returns a murmur3-style hash of the given bytes of the given buffer.
+	// Unlike hashCode(), the result is the same in every JVM run, so it can
+	// be stored on disk.
+	static int hash(ByteBuffer buffer, int offset, int length) {
+		int h = length;
+		int i = 0;
+		for (; i + 4 <= length; i += 4) {
+			h = mix(h, buffer.getInt(offset + i));
+		}
+		int tail = 0;
+		for (; i < length; i++) {
+			tail = (tail << 8) | (buffer.get(offset + i) & 0xff);
+		}
+		h = mix(h, tail);
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		return h ^ (h >>> 16);
+	}
+
+	private static int mix(int h, int k) {
+		k *= 0xcc9e2d51;
+		k = Integer.rotateLeft(k, 15);
+		k *= 0x1b873593;
+		h ^= k;
+		h = Integer.rotateLeft(h, 13);
+		return h * 5 + 0xe6546b64;
+	}
+
+	// Returns true if the given ranges of the two buffers hold the same bytes
+	static boolean bytesEqual(ByteBuffer a, int offsetA, ByteBuffer b, int offsetB, int length) {
+		int i = 0;
+		for (; i + 8 <= length; i += 8) {
+			if (a.getLong(offsetA + i) != b.getLong(offsetB + i)) {
+				return false;
+			}
+		}
+		for (; i < length; i++) {
+			if (a.get(offsetA + i) != b.get(offsetB + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
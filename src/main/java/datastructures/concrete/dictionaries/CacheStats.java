@@ -0,0 +1,61 @@
+package datastructures.concrete.dictionaries;
+
+// The number of hits, misses and evictions a cache has seen, as of when the
+// cache's stats() method was called. Lookups that find their key are hits and
+// lookups that don't are misses; containsKey(), put() and iterating do not count.
+public final class CacheStats {
+	private final long hitCount;
+	private final long missCount;
+	private final long evictionCount;
+
+	public CacheStats(long hitCount, long missCount, long evictionCount) {
+		if (hitCount < 0 || missCount < 0 || evictionCount < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+	}
+
+	public long hitCount() {
+		return hitCount;
+	}
+
+	public long missCount() {
+		return missCount;
+	}
+
+	public long evictionCount() {
+		return evictionCount;
+	}
+
+	// Returns the number of lookups, hits and misses together
+	public long requestCount() {
+		return hitCount + missCount;
+	}
+
+	// Returns the fraction of lookups that were hits, or 1.0 if there were none
+	public double hitRate() {
+		long requests = this.requestCount();
+		return requests == 0 ? 1.0 : (double) hitCount / requests;
+	}
+
+	// Returns the fraction of lookups that were misses, or 0.0 if there were none
+	public double missRate() {
+		long requests = this.requestCount();
+		return requests == 0 ? 0.0 : (double) missCount / requests;
+	}
+
+	// Returns the counts accumulated since the given earlier stats of the same
+	// cache, for measuring one stretch of a trace
+	public CacheStats minus(CacheStats earlier) {
+		return new CacheStats(Math.max(0, hitCount - earlier.hitCount), Math.max(0, missCount - earlier.missCount),
+				Math.max(0, evictionCount - earlier.evictionCount));
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStats{hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount
+				+ ", hitRate=" + this.hitRate() + "}";
+	}
+}
@@ -1,20 +1,150 @@
 package datastructures.concrete.dictionaries;
 
+import datastructures.concrete.HashStrategies;
 import datastructures.concrete.KVPair;
 import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IDictionaryCursor;
+import datastructures.interfaces.IHashStrategy;
+import datastructures.interfaces.IList;
 import misc.exceptions.NoSuchKeyException;
+import java.util.BitSet;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
 
 // Represents a data structure that contains a bunch of key-value
 // mappings. Each key must be unique.
+//
+// The table grows incrementally: when it gets too full, a chain array twice
+// the size is set up next to the old one, and every put and remove moves a
+// few of the old chains over. Until every old chain has been moved, lookups
+// check the key's chain in the old array first and then the new array.
+//
+// A chain that grows past TREEIFY_THRESHOLD items is turned into a balanced
+// tree (see TreeChain), so keys with colliding hash codes cost O(log n) per
+// operation instead of O(n). It turns back into an ArrayDictionary once it
+// shrinks to UNTREEIFY_THRESHOLD items.
+//
+// Keys are hashed and compared by an IHashStrategy. The chain arrays always
+// have a power of two length, so a chain is picked by masking the low bits of
+// the strategy's hash rather than with a modulo.
+//
+// Large dictionaries can be built in one go with build(), which sizes the
+// chain array up front and fills the chains in parallel on the common
+// ForkJoinPool instead of putting the pairs one at a time.
+//
+// The chain array grows once the average chain is longer than the load factor,
+// and shrinks again once it is shorter than a quarter of it, but never below the
+// capacity asked for up front or with ensureCapacity(). The gap between the two
+// limits keeps a dictionary whose size hovers around either one from resizing
+// back and forth. Shrinking moves chains incrementally just like growing does.
+//
+// snapshot() returns a read-only view of the dictionary as it is, in O(1): the
+// view just keeps the current chain arrays. The first change afterwards copies
+// the arrays of chain references (not the chains), and marks every chain as
+// shared. A shared chain is copied the first time it is about to change, so
+// the chains the view sees are never changed again, and a writer only pays for
+// copying the chains it actually touches. The dictionary itself must still be
+// changed by one thread at a time, but any number of threads can read from
+// snapshots while it is, without locking.
 public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
 	private IDictionary<K, V>[] chains;
+	private IDictionary<K, V>[] oldChains; // Chains still being moved out during a resize, or null
+	private int migrateIndex; // Next index in oldChains that needs to be moved
 	private int size;
-	private static final int MIN_SIZE = 16;
+	private IHashStrategy<? super K> strategy;
+	private double loadFactor; // Average chain length that triggers a resize
+	private int minLength; // Chain array length the table never shrinks below on its own
+	private boolean shared; // True if a snapshot holds the current chain arrays themselves
+	private BitSet sharedChains; // Indexes of chains that may still be shared with a snapshot, or null
+	private BitSet sharedOldChains; // Same as above, for oldChains
+	private static final int MIN_SIZE = 16; // Must be a power of two
+	private static final int MAX_SIZE = 1 << 30; // Largest chain array
+	private static final double DEFAULT_LOAD_FACTOR = 10;
+	private static final int SHRINK_DIVISOR = 4; // Shrink once the load is this many times below the limit
+	private static final int MIGRATION_STEP = 4; // Old chains moved per put or remove
+	// Chains average at most 10 items before a resize by default, so a
+	// well-spread hash code practically never produces a chain this long
+	private static final int TREEIFY_THRESHOLD = 32;
+	private static final int UNTREEIFY_THRESHOLD = 16;
+	// Bulk work on fewer items than this is done on the calling thread
+	private static final int PARALLEL_THRESHOLD = 1 << 13;
 
 	public ChainedHashDictionary() {
+		this(HashStrategies.standard());
+	}
+
+	// Creates a dictionary that hashes and compares keys using the given strategy
+	public ChainedHashDictionary(IHashStrategy<? super K> strategy) {
+		this(0, DEFAULT_LOAD_FACTOR, strategy);
+	}
+
+	// Creates a dictionary that can hold the given number of items without resizing
+	public ChainedHashDictionary(int expectedSize) {
+		this(expectedSize, DEFAULT_LOAD_FACTOR);
+	}
+
+	// Creates a dictionary that can hold the given number of items without
+	// resizing, and resizes once the average chain is longer than the load factor
+	public ChainedHashDictionary(int expectedSize, double loadFactor) {
+		this(expectedSize, loadFactor, HashStrategies.standard());
+	}
+
+	// Same as above, hashing and comparing keys using the given strategy
+	// throw IllegalArgumentException if the expected size is negative, the load
+	// factor is not positive, or the strategy is null
+	public ChainedHashDictionary(int expectedSize, double loadFactor, IHashStrategy<? super K> strategy) {
+		if (expectedSize < 0 || !(loadFactor > 0) || strategy == null) {
+			throw new IllegalArgumentException();
+		}
+		this.strategy = strategy;
+		this.loadFactor = loadFactor;
 		size = 0;
-		chains = makeArrayOfChains(MIN_SIZE);
+		minLength = lengthFor(expectedSize);
+		chains = makeArrayOfChains(minLength);
+	}
+
+	// Returns a dictionary holding the given pairs, as if they had been put in
+	// order, so later pairs replace earlier ones with the same key.
+	// expectedSize is the number of distinct keys expected and is used to size the
+	// chain array up front; if it turns out too small, the dictionary is rehashed
+	// once, in parallel, at the end.
+	public static <K, V> ChainedHashDictionary<K, V> build(KVPair<K, V>[] pairs, int expectedSize) {
+		return build(pairs, expectedSize, HashStrategies.standard());
+	}
+
+	// Same as above, hashing and comparing keys using the given strategy
+	public static <K, V> ChainedHashDictionary<K, V> build(KVPair<K, V>[] pairs, int expectedSize,
+			IHashStrategy<? super K> strategy) {
+		ChainedHashDictionary<K, V> dict = new ChainedHashDictionary<>(strategy);
+		dict.buildFrom(pairs, expectedSize);
+		return dict;
+	}
+
+	// Same as above, taking the pairs from a list
+	public static <K, V> ChainedHashDictionary<K, V> build(IList<KVPair<K, V>> pairs, int expectedSize) {
+		return build(pairs, expectedSize, HashStrategies.standard());
+	}
+
+	// Same as above, taking the pairs from a list and hashing and comparing keys
+	// using the given strategy
+	@SuppressWarnings("unchecked")
+	public static <K, V> ChainedHashDictionary<K, V> build(IList<KVPair<K, V>> pairs, int expectedSize,
+			IHashStrategy<? super K> strategy) {
+		// Copied out first, since get(i) may have to walk the whole list
+		KVPair<K, V>[] array = (KVPair<K, V>[]) new KVPair[pairs.size()];
+		int i = 0;
+		for (KVPair<K, V> pair : pairs) {
+			array[i] = pair;
+			i++;
+		}
+		return build(array, expectedSize, strategy);
 	}
 
 	// This method will return a new, empty array of the given size that can contain
@@ -30,11 +160,23 @@ public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
 	// throw NoSuchKeyException if the given key is not in the data structure
 	@Override
 	public V get(K key) {
-		int i = getHashCodeForKey(key);
-		if (this.containsKey(key)) {
-			return chains[i].get(key);
+		IDictionary<K, V> chain = findChain(key);
+		if (chain == null) {
+			throw new NoSuchKeyException();
+		}
+		return chain.get(key); // Throws NoSuchKeyException itself if the key is missing
+	}
+
+	// Pass a K and a V as parameters
+	// Returns the value corresponding to the given key, or the default value
+	// if the key is not in the data structure
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		IDictionary<K, V> chain = findChain(key);
+		if (chain == null) {
+			return defaultValue;
 		}
-		throw new NoSuchKeyException();
+		return chain.getOrDefault(key, defaultValue);
 	}
 
 	// Pass a K and a V as parameters and put K-V pairs into the data structure
@@ -43,15 +185,12 @@ public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
 	// will be expanded.
 	@Override
 	public void put(K key, V value) {
-		int i = getHashCodeForKey(key);
-		if (chains[i] == null) {
-			chains[i] = new ArrayDictionary<K, V>();
-		}
-		if (!chains[i].containsKey(key)) {
-			size++;
-		}
-		chains[i].put(key, value);
-		resizeIfNeeded();
+		IDictionary<K, V>[] table = tableForWrite(key);
+		int i = getHashCodeForKey(key, table.length);
+		IDictionary<K, V> chain = chainAt(table, i);
+		int sizeBefore = chain.size();
+		chain.put(key, value);
+		chainChanged(table, i, sizeBefore);
 	}
 
 	// Pass a K object as parameter
@@ -59,24 +198,86 @@ public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
 	// Throw NoSuchKeyException if the given K is not in data structure
 	@Override
 	public V remove(K key) {
-		int i = getHashCodeForKey(key);
-		if (this.containsKey(key)) {
-			V item = chains[i].remove(key);
-			size--;
-			return item;
+		IDictionary<K, V>[] table = tableForWrite(key);
+		int i = getHashCodeForKey(key, table.length);
+		if (table[i] == null) {
+			throw new NoSuchKeyException();
 		}
-		throw new NoSuchKeyException();
+		IDictionary<K, V> chain = chainAt(table, i);
+		int sizeBefore = chain.size();
+		V item = chain.remove(key); // Throws NoSuchKeyException itself if the key is missing
+		chainChanged(table, i, sizeBefore);
+		return item;
+	}
+
+	// The methods below each find the key's chain once and hand the whole
+	// operation to that chain, so the key is only searched for once.
+	// See IDictionary for what each of them does.
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		IDictionary<K, V>[] table = tableForWrite(key);
+		int i = getHashCodeForKey(key, table.length);
+		IDictionary<K, V> chain = chainAt(table, i);
+		int sizeBefore = chain.size();
+		V result = chain.putIfAbsent(key, value);
+		chainChanged(table, i, sizeBefore);
+		return result;
+	}
+
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		IDictionary<K, V>[] table = tableForWrite(key);
+		int i = getHashCodeForKey(key, table.length);
+		IDictionary<K, V> chain = chainAt(table, i);
+		int sizeBefore = chain.size();
+		V result = chain.computeIfAbsent(key, mappingFunction);
+		chainChanged(table, i, sizeBefore);
+		return result;
+	}
+
+	@Override
+	public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		IDictionary<K, V>[] table = tableForWrite(key);
+		int i = getHashCodeForKey(key, table.length);
+		if (table[i] == null) {
+			return null;
+		}
+		IDictionary<K, V> chain = chainAt(table, i);
+		int sizeBefore = chain.size();
+		V result = chain.computeIfPresent(key, remappingFunction);
+		chainChanged(table, i, sizeBefore);
+		return result;
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		IDictionary<K, V>[] table = tableForWrite(key);
+		int i = getHashCodeForKey(key, table.length);
+		IDictionary<K, V> chain = chainAt(table, i);
+		int sizeBefore = chain.size();
+		V result = chain.compute(key, remappingFunction);
+		chainChanged(table, i, sizeBefore);
+		return result;
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		IDictionary<K, V>[] table = tableForWrite(key);
+		int i = getHashCodeForKey(key, table.length);
+		IDictionary<K, V> chain = chainAt(table, i);
+		int sizeBefore = chain.size();
+		V result = chain.merge(key, value, remappingFunction);
+		chainChanged(table, i, sizeBefore);
+		return result;
 	}
 
 	// Pass an object K as parameter. Return True if data structure contains the K.
 	// False otherwise.
 	@Override
 	public boolean containsKey(K key) {
-		int i = getHashCodeForKey(key);
-		if (chains[i] != null && chains[i].containsKey(key)) {
-			return true;
-		}
-		return false;
+		IDictionary<K, V> chain = findChain(key);
+		return chain != null && chain.containsKey(key);
 	}
 
 	// return the size of data structure
@@ -89,7 +290,137 @@ public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
 	@Override
 	public Iterator<KVPair<K, V>> iterator() {
 		// Note: you do not need to change this method
-		return new ChainedIterator<>(this.chains);
+		return new ChainedIterator<>(this.chains, this.oldChains);
+	}
+
+	// Returns a spliterator over all key-value pairs within this data structure.
+	// It splits by ranges of chain indexes, so parallel streams never have to
+	// copy the pairs out first.
+	@Override
+	public Spliterator<KVPair<K, V>> spliterator() {
+		int total = chains.length + (oldChains == null ? 0 : oldChains.length);
+		return new ChainedSpliterator<>(this.chains, this.oldChains, 0, total, size, true);
+	}
+
+	// Returns a cursor over all key-value pairs within this data structure,
+	// which creates nothing per pair
+	@Override
+	public IDictionaryCursor<K, V> cursor() {
+		return new ChainedCursor<>(this.chains, this.oldChains, this);
+	}
+
+	// Returns a read-only view of the pairs in this dictionary right now, in O(1).
+	// Later changes to this dictionary don't show up in the view, and the view can
+	// be read from other threads while this dictionary is being changed.
+	public IDictionary<K, V> snapshot() {
+		shared = true;
+		return new SnapshotView<>(chains, oldChains, size, strategy);
+	}
+
+	// Pass a K object as a parameter. Returns the chain the given key belongs in,
+	// or null if that chain has not been created yet.
+	// Lookups deliberately do not move any chains, so that reading from the
+	// dictionary while iterating over it stays safe.
+	private IDictionary<K, V> findChain(K key) {
+		IDictionary<K, V>[] table = tableFor(key);
+		return table[getHashCodeForKey(key, table.length)];
+	}
+
+	// Pass a K object as a parameter. Returns the chain array the given key belongs in.
+	// While a resize is in progress, a key stays in its old chain until that
+	// chain is moved, so the old array is checked first.
+	private IDictionary<K, V>[] tableFor(K key) {
+		if (oldChains != null && oldChains[getHashCodeForKey(key, oldChains.length)] != null) {
+			return oldChains;
+		}
+		return chains;
+	}
+
+	// Same as above, for a key about to be changed: copies the chain arrays
+	// first if a snapshot holds them
+	private IDictionary<K, V>[] tableForWrite(K key) {
+		ownArrays();
+		return tableFor(key);
+	}
+
+	// Makes sure no snapshot holds the current chain arrays, copying them if one
+	// does. Every chain in the copies is then marked as shared.
+	private void ownArrays() {
+		if (!shared) {
+			return;
+		}
+		chains = chains.clone();
+		sharedChains = allSet(chains.length);
+		if (oldChains != null) {
+			oldChains = oldChains.clone();
+			sharedOldChains = allSet(oldChains.length);
+		}
+		shared = false;
+	}
+
+	// Returns a set holding every index below the given length
+	private static BitSet allSet(int length) {
+		BitSet bits = new BitSet(length);
+		bits.set(0, length);
+		return bits;
+	}
+
+	// Returns the chain at the given index of the given chain array, creating
+	// an empty one first if there is none, or copying it first if it may be
+	// shared with a snapshot. The chain can then be changed.
+	private IDictionary<K, V> chainAt(IDictionary<K, V>[] table, int i) {
+		BitSet sharedBits = table == chains ? sharedChains : (table == oldChains ? sharedOldChains : null);
+		if (sharedBits != null && sharedBits.get(i)) {
+			sharedBits.clear(i);
+			if (table[i] != null) {
+				table[i] = copyChain(table[i]);
+			}
+		}
+		if (table[i] == null) {
+			table[i] = new ArrayDictionary<K, V>(strategy);
+		}
+		return table[i];
+	}
+
+	// Returns a copy of the given chain, holding the same items in the same order
+	private IDictionary<K, V> copyChain(IDictionary<K, V> chain) {
+		if (chain instanceof TreeChain) {
+			return new TreeChain<K, V>(strategy, chain);
+		}
+		return new ArrayDictionary<K, V>((ArrayDictionary<K, V>) chain);
+	}
+
+	// Call after changing the chain at the given index of the given chain array,
+	// passing in the size the chain had before the change. Updates the size of
+	// the dictionary, then resizes or moves old chains as needed.
+	private void chainChanged(IDictionary<K, V>[] table, int i, int sizeBefore) {
+		size += table[i].size() - sizeBefore;
+		reshapeChain(table, i);
+		resizeIfNeeded();
+		migrateSomeChains();
+	}
+
+	// Turns the chain at the given index of the given chain array into a tree if
+	// it has grown too long, or back into an ArrayDictionary if it has shrunk enough
+	private void reshapeChain(IDictionary<K, V>[] table, int i) {
+		IDictionary<K, V> chain = table[i];
+		if (chain instanceof TreeChain) {
+			if (chain.size() <= UNTREEIFY_THRESHOLD) {
+				table[i] = untreeify(chain);
+			}
+		} else if (chain.size() > TREEIFY_THRESHOLD) {
+			table[i] = new TreeChain<K, V>(strategy, chain);
+		}
+	}
+
+	// Returns an ArrayDictionary holding every item in the given tree chain
+	private IDictionary<K, V> untreeify(IDictionary<K, V> tree) {
+		IDictionary<K, V> chain = new ArrayDictionary<K, V>(strategy);
+		IDictionaryCursor<K, V> cursor = tree.cursor();
+		while (cursor.advance()) {
+			chain.put(cursor.key(), cursor.value());
+		}
+		return chain;
 	}
 
 	// Pass an K object as a parameter. Return a hash code of the K.
@@ -97,46 +428,534 @@ public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
 		return getHashCodeForKey(key, chains.length);
 	}
 
-	// Pass an K and an integer as parameters.
-	// Return a specific hash code based on K and the integer. Return 0 if K is null
-	private int getHashCodeForKey(K key, int mod) {
-		if (key != null) {
-			return Math.abs(key.hashCode() % mod);
+	// Pass an K and a power of two as parameters.
+	// Return the index of the chain K belongs in, in a chain array of that length
+	private int getHashCodeForKey(K key, int length) {
+		return strategy.hash(key) & (length - 1);
+	}
+
+	// Makes sure the dictionary can hold the given number of items without
+	// resizing, rehashing once (in parallel if it is large) if it can't yet.
+	// The table will not shrink back below this capacity on its own.
+	public void ensureCapacity(int expectedSize) {
+		int length = lengthFor(expectedSize);
+		minLength = Math.max(minLength, length);
+		if (length > chains.length) {
+			rehashInParallel(length);
+		}
+	}
+
+	// Shrinks the chain array to the smallest length that holds the current
+	// items, rehashing once (in parallel if it is large). Also lets the table
+	// shrink on its own down to that length from then on.
+	public void trimToSize() {
+		int length = lengthFor(size);
+		minLength = length;
+		if (length < chains.length || oldChains != null) {
+			rehashInParallel(Math.min(length, chains.length));
 		}
-		return 0;
 	}
 
 	// check the size of HashDictionary. If there are too much data inside the
-	// HashDictionary, create a larger dictionary and move data in old dictionary
-	// to new dictionary in order to preserve lookup efficiency
+	// HashDictionary, start moving the data into a chain array twice the size,
+	// and if there is too little, into one half the size.
+	// The data is not moved here: migrateSomeChains() moves a few chains at a
+	// time so that no single put or remove pays for the whole resize.
 	private void resizeIfNeeded() {
-		if (size > 10 * chains.length) { //
-			// Need to make the dictionary larger (if we can)
-			IDictionary<K, V>[] newChains = makeArrayOfChains(chains.length * 2);
-			for (KVPair<K, V> item : this) {
-				int index = getHashCodeForKey(item.getKey(), newChains.length);
-				if (newChains[index] == null) {
-					newChains[index] = new ArrayDictionary<K, V>();
+		int length = chains.length;
+		if (size > loadFactor * length && length < MAX_SIZE) {
+			length *= 2;
+		} else if (length > minLength && size < loadFactor * length / SHRINK_DIVISOR) {
+			length /= 2;
+		} else {
+			return; // Don't need to do anything if we don't resize
+		}
+		// Only possible if the previous resize is still running; finish it first
+		while (oldChains != null) {
+			migrateSomeChains();
+		}
+		oldChains = chains;
+		sharedOldChains = sharedChains;
+		chains = makeArrayOfChains(length);
+		sharedChains = null;
+		migrateIndex = 0;
+	}
+
+	// Returns the smallest chain array length that holds the given number of
+	// items without resizing
+	private int lengthFor(long items) {
+		int length = MIN_SIZE;
+		while (length < MAX_SIZE && loadFactor * length < items) {
+			length *= 2;
+		}
+		return length;
+	}
+
+	// Fills this empty dictionary with the given pairs, as if they had been put in
+	// order. The pairs are split into blocks, and each block sorts its positions by
+	// partition (a set of chain indexes). Then each partition puts its pairs into
+	// its own chains, visiting the blocks in order so later pairs still win.
+	// Every step runs in parallel, and no two tasks ever touch the same chain.
+	private void buildFrom(KVPair<K, V>[] pairs, int expectedSize) {
+		minLength = lengthFor(expectedSize);
+		chains = makeArrayOfChains(minLength);
+		int length = chains.length;
+		int parts = Math.min(partitionsFor(pairs.length), length);
+		int[][][] positions = new int[parts][][]; // Block, then partition, then position
+
+		forEachPart(parts, block -> {
+			int from = (int) ((long) pairs.length * block / parts);
+			int to = (int) ((long) pairs.length * (block + 1) / parts);
+			int[] counts = new int[parts];
+			for (int j = from; j < to; j++) {
+				counts[getHashCodeForKey(pairs[j].getKey(), length) & (parts - 1)]++;
+			}
+			int[][] byPart = new int[parts][];
+			for (int part = 0; part < parts; part++) {
+				byPart[part] = new int[counts[part]];
+				counts[part] = 0;
+			}
+			for (int j = from; j < to; j++) {
+				int part = getHashCodeForKey(pairs[j].getKey(), length) & (parts - 1);
+				byPart[part][counts[part]] = j;
+				counts[part]++;
+			}
+			positions[block] = byPart;
+		});
+
+		int[] added = new int[parts];
+		forEachPart(parts, part -> {
+			for (int block = 0; block < parts; block++) {
+				for (int j : positions[block][part]) {
+					int i = getHashCodeForKey(pairs[j].getKey(), length);
+					IDictionary<K, V> chain = chainAt(chains, i);
+					int sizeBefore = chain.size();
+					chain.put(pairs[j].getKey(), pairs[j].getValue());
+					added[part] += chain.size() - sizeBefore;
+					reshapeChain(chains, i);
+				}
+			}
+		});
+
+		for (int count : added) {
+			size += count;
+		}
+		if (size > loadFactor * chains.length) {
+			rehashInParallel(lengthFor(size));
+		}
+	}
+
+	// Moves every item into fresh chains in a new chain array of the given length,
+	// finishing any incremental resize along the way. Since every chain array
+	// length is a power of two, a key's chain index modulo the smallest of the
+	// lengths is the same in every array. Each task takes some of those
+	// remainders and owns every old and new chain that has them.
+	private void rehashInParallel(int length) {
+		IDictionary<K, V>[] current = chains;
+		IDictionary<K, V>[] old = oldChains;
+		IDictionary<K, V>[] fresh = makeArrayOfChains(length);
+		int smallest = Math.min(length, current.length);
+		if (old != null) {
+			smallest = Math.min(smallest, old.length);
+		}
+		int stride = smallest;
+		int parts = Math.min(partitionsFor(size), stride);
+		forEachPart(parts, part -> {
+			for (int r = part; r < stride; r += parts) {
+				copyChains(current, r, stride, fresh);
+				copyChains(old, r, stride, fresh);
+			}
+		});
+		chains = fresh;
+		oldChains = null;
+		migrateIndex = 0;
+		// Only the old chains were read, so none of the new ones are shared
+		shared = false;
+		sharedChains = null;
+		sharedOldChains = null;
+	}
+
+	// Copies the items of every chain in the given array whose index is r modulo
+	// the given stride into new chains in the destination array
+	private void copyChains(IDictionary<K, V>[] from, int r, int stride, IDictionary<K, V>[] to) {
+		if (from == null) {
+			return;
+		}
+		for (int j = r; j < from.length; j += stride) {
+			if (from[j] == null) {
+				continue;
+			}
+			IDictionaryCursor<K, V> cursor = from[j].cursor();
+			while (cursor.advance()) {
+				int i = getHashCodeForKey(cursor.key(), to.length);
+				chainAt(to, i).put(cursor.key(), cursor.value());
+				reshapeChain(to, i);
+			}
+		}
+	}
+
+	// Returns how many parallel tasks to split work on the given number of items
+	// into: a power of two, or 1 if the work is too small to be worth splitting
+	private static int partitionsFor(int items) {
+		if (items < PARALLEL_THRESHOLD) {
+			return 1;
+		}
+		return Integer.highestOneBit(ForkJoinPool.getCommonPoolParallelism() * 4);
+	}
+
+	// Calls the given body with every number from 0 to count - 1, in parallel on
+	// the common ForkJoinPool, and waits for all of the calls to finish
+	private static void forEachPart(int count, IntConsumer body) {
+		if (count == 1) {
+			body.accept(0);
+		} else {
+			ForkJoinPool.commonPool().invoke(new PartTask(0, count, body));
+		}
+	}
+
+	// Task that calls its body with every number in a range, splitting the range
+	// in half until each task has one number left
+	private static class PartTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int from;
+		private final int to;
+		private final IntConsumer body;
+
+		public PartTask(int from, int to, IntConsumer body) {
+			this.from = from;
+			this.to = to;
+			this.body = body;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				body.accept(from);
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new PartTask(from, mid, body), new PartTask(mid, to, body));
+			}
+		}
+	}
+
+	// If a resize is in progress, move up to MIGRATION_STEP chains from the old
+	// chain array into the new one. Once every old chain has been moved, the old
+	// array is dropped.
+	private void migrateSomeChains() {
+		if (oldChains == null) {
+			return;
+		}
+		for (int moved = 0; moved < MIGRATION_STEP && migrateIndex < oldChains.length; moved++) {
+			moveChain(migrateIndex);
+			migrateIndex++;
+		}
+		if (migrateIndex == oldChains.length) {
+			oldChains = null;
+			sharedOldChains = null;
+		}
+	}
+
+	// Moves every item in the old chain at the given index into the new chain array
+	private void moveChain(int index) {
+		IDictionary<K, V> chain = oldChains[index];
+		if (chain == null) {
+			return;
+		}
+		IDictionaryCursor<K, V> cursor = chain.cursor();
+		while (cursor.advance()) {
+			int i = getHashCodeForKey(cursor.key());
+			chainAt(chains, i).put(cursor.key(), cursor.value());
+			reshapeChain(chains, i);
+		}
+		oldChains[index] = null;
+	}
+
+	// Read-only view of a ChainedHashDictionary returned by snapshot(). It keeps
+	// the chain arrays the dictionary had at the time; the dictionary copies them,
+	// and any chain in them, before changing them. The fields are final, so a
+	// view handed to another thread sees every chain as it was when the view was
+	// made.
+	private static final class SnapshotView<K, V> implements IDictionary<K, V> {
+		private final IDictionary<K, V>[] chains;
+		private final IDictionary<K, V>[] oldChains;
+		private final int size;
+		private final IHashStrategy<? super K> strategy;
+
+		public SnapshotView(IDictionary<K, V>[] chains, IDictionary<K, V>[] oldChains, int size,
+				IHashStrategy<? super K> strategy) {
+			this.chains = chains;
+			this.oldChains = oldChains;
+			this.size = size;
+			this.strategy = strategy;
+		}
+
+		@Override
+		public V get(K key) {
+			IDictionary<K, V> chain = this.findChain(key);
+			if (chain == null) {
+				throw new NoSuchKeyException();
+			}
+			return chain.get(key);
+		}
+
+		@Override
+		public V getOrDefault(K key, V defaultValue) {
+			IDictionary<K, V> chain = this.findChain(key);
+			return chain == null ? defaultValue : chain.getOrDefault(key, defaultValue);
+		}
+
+		// Always throws, since snapshots can't change
+		// throw UnsupportedOperationException
+		@Override
+		public void put(K key, V value) {
+			throw new UnsupportedOperationException("snapshots are read-only");
+		}
+
+		// Always throws, since snapshots can't change
+		// throw UnsupportedOperationException
+		@Override
+		public V remove(K key) {
+			throw new UnsupportedOperationException("snapshots are read-only");
+		}
+
+		@Override
+		public boolean containsKey(K key) {
+			IDictionary<K, V> chain = this.findChain(key);
+			return chain != null && chain.containsKey(key);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public Iterator<KVPair<K, V>> iterator() {
+			return new ChainedIterator<>(chains, oldChains);
+		}
+
+		@Override
+		public Spliterator<KVPair<K, V>> spliterator() {
+			int total = chains.length + (oldChains == null ? 0 : oldChains.length);
+			return new ChainedSpliterator<>(chains, oldChains, 0, total, size, true);
+		}
+
+		// Returns a cursor whose setValue() throws UnsupportedOperationException
+		@Override
+		public IDictionaryCursor<K, V> cursor() {
+			return new ChainedCursor<>(chains, oldChains, null);
+		}
+
+		// Returns the chain the given key belongs in, or null if there is none,
+		// checking the old chains first just like the dictionary does
+		private IDictionary<K, V> findChain(K key) {
+			int hash = strategy.hash(key);
+			if (oldChains != null) {
+				IDictionary<K, V> chain = oldChains[hash & (oldChains.length - 1)];
+				if (chain != null) {
+					return chain;
 				}
-				newChains[index].put(item.getKey(), item.getValue());
 			}
-			chains = newChains;
+			return chains[hash & (chains.length - 1)];
+		}
+	}
+
+	//Cursor over the items in a ChainedHashDictionary object. Like the
+	//ChainedIterator, it visits the old chains of a running resize last.
+	private static class ChainedCursor<K, V> implements IDictionaryCursor<K, V> {
+		private IDictionary<K, V>[] chains; //List of chains in the ChainedHashDictionary
+		private IDictionary<K, V>[] oldChains; //Chains not yet moved by a resize, or null
+		private ChainedHashDictionary<K, V> owner; //Dictionary that setValue() changes, or null if read-only
+		private int nextChain; //Next chain to visit, counting the old chains after the new ones
+		private int chainPosition; //Number of items of the current chain visited so far
+		private ArrayDictionary.ArrayCursor<K, V> arrayCursor; //Reused for every ArrayDictionary chain
+		private IDictionaryCursor<K, V> chainCursor; //Cursor over the current chain, or null
+
+		public ChainedCursor(IDictionary<K, V>[] chains, IDictionary<K, V>[] oldChains,
+				ChainedHashDictionary<K, V> owner) {
+			this.chains = chains;
+			this.oldChains = oldChains;
+			this.owner = owner;
+			this.nextChain = 0;
+			this.chainPosition = 0;
+			this.arrayCursor = new ArrayDictionary.ArrayCursor<>();
+			this.chainCursor = null;
+		}
+
+		// Moves to the next item, returning false if there is none
+		@Override
+		public boolean advance() {
+			while (true) {
+				if (chainCursor != null && chainCursor.advance()) {
+					chainPosition++;
+					return true;
+				}
+				chainPosition = 0;
+				chainCursor = nextChainCursor();
+				if (chainCursor == null) {
+					return false;
+				}
+			}
+		}
+
+		@Override
+		public K key() {
+			return this.current().key();
+		}
+
+		@Override
+		public V value() {
+			return this.current().value();
+		}
+
+		// Sets the value of the current item. If the chain it is in may be shared
+		// with a snapshot, the chain is copied first and the cursor moves over to
+		// the copy.
+		// throw UnsupportedOperationException if this cursor is over a snapshot
+		@Override
+		public void setValue(V value) {
+			IDictionaryCursor<K, V> current = this.current();
+			if (owner == null) {
+				throw new UnsupportedOperationException("snapshots are read-only");
+			}
+			if (owner.shared) {
+				// A snapshot was taken during the walk; its copies have the same layout
+				owner.ownArrays();
+				chains = owner.chains;
+				oldChains = owner.oldChains;
+			}
+			int index = nextChain - 1;
+			IDictionary<K, V>[] table = index < chains.length ? chains : oldChains;
+			int i = index < chains.length ? index : index - chains.length;
+			IDictionary<K, V> chain = table[i];
+			IDictionary<K, V> own = owner.chainAt(table, i);
+			if (own != chain) {
+				current = this.cursorOver(own);
+				for (int j = 0; j < chainPosition; j++) {
+					current.advance();
+				}
+				chainCursor = current;
+			}
+			current.setValue(value);
+		}
+
+		// Returns the cursor of the chain the cursor is on
+		// throw IllegalStateException if the cursor is not on an item
+		private IDictionaryCursor<K, V> current() {
+			if (chainCursor == null) {
+				throw new IllegalStateException();
+			}
+			return chainCursor;
+		}
+
+		// Returns a cursor over the next non-empty chain, or null if there are no
+		// chains left
+		private IDictionaryCursor<K, V> nextChainCursor() {
+			int total = chains.length + (oldChains == null ? 0 : oldChains.length);
+			while (nextChain < total) {
+				IDictionary<K, V> chain = nextChain < chains.length
+						? chains[nextChain] : oldChains[nextChain - chains.length];
+				nextChain++;
+				if (chain != null && chain.size() > 0) {
+					return this.cursorOver(chain);
+				}
+			}
+			return null;
+		}
+
+		// Returns a cursor before the first item of the given chain
+		private IDictionaryCursor<K, V> cursorOver(IDictionary<K, V> chain) {
+			if (chain instanceof ArrayDictionary) {
+				arrayCursor.reset((ArrayDictionary<K, V>) chain);
+				return arrayCursor;
+			}
+			return chain.cursor();
+		}
+	}
+
+	//Spliterator over the items in a range of chains of a ChainedHashDictionary
+	//object, counting the old chains after the new ones
+	private static class ChainedSpliterator<K, V> implements Spliterator<KVPair<K, V>> {
+		private IDictionary<K, V>[] chains; //List of chains in the ChainedHashDictionary
+		private IDictionary<K, V>[] oldChains; //Chains not yet moved by a resize, or null
+		private int nextChain; //Next chain to visit
+		private int fence; //One past the last chain to visit
+		private long estimate; //Estimated number of items left
+		private boolean exact; //True until split, while the estimate is the exact size
+		private Iterator<KVPair<K, V>> curChainIterator; //Iterator over the current chain, or null
+
+		public ChainedSpliterator(IDictionary<K, V>[] chains, IDictionary<K, V>[] oldChains,
+				int nextChain, int fence, long estimate, boolean exact) {
+			this.chains = chains;
+			this.oldChains = oldChains;
+			this.nextChain = nextChain;
+			this.fence = fence;
+			this.estimate = estimate;
+			this.exact = exact;
+			this.curChainIterator = null;
+		}
+
+		// Visits the next item, returning false if there is none
+		@Override
+		public boolean tryAdvance(Consumer<? super KVPair<K, V>> action) {
+			if (action == null) {
+				throw new NullPointerException();
+			}
+			while (curChainIterator == null || !curChainIterator.hasNext()) {
+				if (nextChain >= fence) {
+					return false;
+				}
+				IDictionary<K, V> chain = nextChain < chains.length
+						? chains[nextChain] : oldChains[nextChain - chains.length];
+				nextChain++;
+				curChainIterator = chain == null ? null : chain.iterator();
+			}
+			action.accept(curChainIterator.next());
+			return true;
+		}
+
+		// Hands the second half of the remaining chains to a new spliterator
+		@Override
+		public Spliterator<KVPair<K, V>> trySplit() {
+			int mid = (nextChain + fence) >>> 1;
+			if (mid <= nextChain) {
+				return null;
+			}
+			estimate >>>= 1;
+			exact = false;
+			Spliterator<KVPair<K, V>> suffix =
+					new ChainedSpliterator<>(chains, oldChains, mid, fence, estimate, false);
+			fence = mid;
+			return suffix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return estimate;
+		}
+
+		@Override
+		public int characteristics() {
+			return (exact ? Spliterator.SIZED : 0) | Spliterator.DISTINCT | Spliterator.NONNULL;
 		}
-		// Don't need to do anything if we didn't resize
 	}
 
 	//Class used to iterate through the items in a ChainedHashDictionary object
+	// If a resize is in progress, the chains that have not been moved yet are
+	// visited after the new chain array.
 	private static class ChainedIterator<K, V> implements Iterator<KVPair<K, V>> {
 		private IDictionary<K, V>[] chains; //List of chains in the ChainedHashDictionary
-		private int curChain; //Tracks the current chain in the chain array
+		private IDictionary<K, V>[] oldChains; //Chains not yet moved by a resize, or null
+		private int curChain; //Tracks the current chain, counting the old chains after the new ones
 		private Iterator<KVPair<K, V>> curChainIterator; //Stores the iterator to the current chain
 
 		//Setup the ChainedIterator
-		public ChainedIterator(IDictionary<K, V>[] chains) {
+		public ChainedIterator(IDictionary<K, V>[] chains, IDictionary<K, V>[] oldChains) {
 			this.chains = chains;
+			this.oldChains = oldChains;
 			this.curChain = getNextChainIndex(0);
 			if (this.curChain != -1) {
-				curChainIterator = chains[curChain].iterator();
+				curChainIterator = chainAt(curChain).iterator();
 			}
 		}
 
@@ -151,7 +970,7 @@ public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
 			} else if (curChain != -1 && (curChain = getNextChainIndex(curChain + 1)) != -1) { 
 				//If all the chains have not been iterated over and there is 
 				// another chain (with elements) after the last chain we searched to iterate over
-				this.curChainIterator = chains[curChain].iterator();
+				this.curChainIterator = chainAt(curChain).iterator();
 				return true;
 			}
 			return false;
@@ -173,12 +992,23 @@ public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
 		// that has item(s) to iterate over.
 		// Returns -1 otherwise.
 		private int getNextChainIndex(int start) {
-			for (int i = start; i < chains.length; i++) {
-				if (chains[i] != null && chains[i].size() > 0) {
+			int total = chains.length + (oldChains == null ? 0 : oldChains.length);
+			for (int i = start; i < total; i++) {
+				IDictionary<K, V> chain = chainAt(i);
+				if (chain != null && chain.size() > 0) {
 					return i;
 				}
 			}
 			return -1;
 		}
+
+		// Returns the chain at the given index, where indexes past the end of the
+		// new chain array refer to the old chains
+		private IDictionary<K, V> chainAt(int index) {
+			if (index < chains.length) {
+				return chains[index];
+			}
+			return oldChains[index - chains.length];
+		}
 	}
 }
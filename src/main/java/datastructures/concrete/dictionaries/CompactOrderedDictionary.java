@@ -0,0 +1,386 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.HashStrategies;
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IDictionaryCursor;
+import datastructures.interfaces.IHashStrategy;
+import misc.exceptions.NoSuchKeyException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Represents a data structure that contains a bunch of key-value
+// mappings. Each key must be unique.
+//
+// Iterates in insertion order: a key that is put again keeps its place, and a
+// key that is removed and put again moves to the end.
+//
+// Entries are appended to dense, parallel key, value and hash arrays, in the
+// order they were put. A separate open-addressing index maps each key's hash to
+// the position of its entry, using linear probing. The index only holds
+// positions, so its slots are as narrow as the entry arrays allow: bytes while
+// there are at most 128 entries, shorts up to 32768, and ints past that. A key's
+// home slot comes from the top bits of its hash times the golden ratio, so keys
+// with consecutive hashes are spread out instead of forming one long probe run.
+// Iterating just scans the entry arrays, and a lookup usually touches one
+// index slot and one entry.
+//
+// Removing an entry leaves a hole in the entry arrays, and backward-shift
+// deletion takes it out of the index, so the index never needs tombstones.
+// Once holes outnumber the live entries, the entries are compacted into new
+// arrays, so holes never take up more than about half of the entry arrays.
+public class CompactOrderedDictionary<K, V> implements IDictionary<K, V> {
+	private Object[] keys; // Key of each entry, or REMOVED
+	private V[] values;
+	private int[] hashes; // Hash of each entry's key
+	private int used; // Number of entries used so far, including holes
+	private int size;
+	private byte[] index8; // Exactly one of the three index arrays is non-null. Each slot
+	private short[] index16; // holds one more than the position of an entry, or EMPTY
+	private int[] index32;
+	private int indexMask;
+	private int indexShift; // 32 minus the number of bits in an index slot number
+	private IHashStrategy<? super K> strategy;
+	private static final Object REMOVED = new Object(); // Key of a removed entry
+	private static final int EMPTY = 0;
+	private static final int MIN_CAPACITY = 8; // Must be a power of two
+	private static final int MAX_CAPACITY = 1 << 29;
+
+	public CompactOrderedDictionary() {
+		this(0, HashStrategies.standard());
+	}
+
+	// Creates a dictionary that hashes and compares keys using the given strategy
+	public CompactOrderedDictionary(IHashStrategy<? super K> strategy) {
+		this(0, strategy);
+	}
+
+	// Creates a dictionary that can hold the given number of items without resizing
+	public CompactOrderedDictionary(int expectedSize) {
+		this(expectedSize, HashStrategies.standard());
+	}
+
+	// Same as above, hashing and comparing keys using the given strategy
+	// throw IllegalArgumentException if the expected size is negative or the
+	// strategy is null
+	public CompactOrderedDictionary(int expectedSize, IHashStrategy<? super K> strategy) {
+		if (expectedSize < 0 || strategy == null) {
+			throw new IllegalArgumentException();
+		}
+		this.strategy = strategy;
+		this.size = 0;
+		this.used = 0;
+		allocate(capacityFor(expectedSize));
+	}
+
+	// Sets up new, empty entry arrays with the given capacity, which must be a
+	// power of two, and an index twice that length with slots just wide enough
+	@SuppressWarnings("unchecked")
+	private void allocate(int capacity) {
+		keys = new Object[capacity];
+		values = (V[]) new Object[capacity];
+		hashes = new int[capacity];
+		int indexLength = capacity * 2;
+		indexMask = indexLength - 1;
+		indexShift = Integer.numberOfLeadingZeros(indexLength) + 1;
+		index8 = null;
+		index16 = null;
+		index32 = null;
+		if (capacity <= 0xff) {
+			index8 = new byte[indexLength];
+		} else if (capacity <= 0xffff) {
+			index16 = new short[indexLength];
+		} else {
+			index32 = new int[indexLength];
+		}
+	}
+
+	// Pass a K object as a parameter
+	// Returns the value corresponding to the given key.
+	// throw NoSuchKeyException if the given key is not in the data structure
+	@Override
+	public V get(K key) {
+		int slot = this.findSlot(key, strategy.hash(key));
+		if (slot < 0) {
+			throw new NoSuchKeyException();
+		}
+		return values[this.slotEntry(slot)];
+	}
+
+	// Pass a K and a V as parameters
+	// Returns the value corresponding to the given key, or the default value
+	// if the key is not in the data structure. Only probes the index once.
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		int slot = this.findSlot(key, strategy.hash(key));
+		return slot < 0 ? defaultValue : values[this.slotEntry(slot)];
+	}
+
+	// Pass a K and a V as parameters and put K-V pairs into the data structure
+	// If the K already exists in data structure, replace its value with V, keeping
+	// its place in the order. Otherwise the pair is added at the end.
+	// If the entry arrays are full, they are compacted, growing if needed.
+	@Override
+	public void put(K key, V value) {
+		int hash = strategy.hash(key);
+		int slot = this.findSlot(key, hash);
+		if (slot >= 0) {
+			values[this.slotEntry(slot)] = value;
+			return;
+		}
+		if (used == keys.length) {
+			// Compacts in place if at least a third are holes, and grows otherwise
+			resize(capacityFor(size + (size >> 1) + 1));
+			slot = this.findSlot(key, hash);
+		}
+		keys[used] = key;
+		values[used] = value;
+		hashes[used] = hash;
+		this.setSlot(-1 - slot, used + 1);
+		used++;
+		size++;
+	}
+
+	// Pass a K object as parameter
+	// Remove the K-V pair corresponding to the given key from the data structure.
+	// Throw NoSuchKeyException if the given K is not in data structure
+	@Override
+	public V remove(K key) {
+		int slot = this.findSlot(key, strategy.hash(key));
+		if (slot < 0) {
+			throw new NoSuchKeyException();
+		}
+		int entry = this.slotEntry(slot);
+		V item = values[entry];
+		keys[entry] = REMOVED;
+		values[entry] = null;
+		size--;
+		this.deleteSlot(slot);
+
+		// Holes at the end can simply be used again
+		while (used > 0 && keys[used - 1] == REMOVED) {
+			used--;
+			keys[used] = null;
+		}
+		if (used - size > Math.max(size, MIN_CAPACITY)) {
+			resize(capacityFor(2 * size));
+		}
+		return item;
+	}
+
+	// Pass an object K as parameter. Return True if data structure contains the K.
+	// False otherwise.
+	@Override
+	public boolean containsKey(K key) {
+		return this.findSlot(key, strategy.hash(key)) >= 0;
+	}
+
+	// return the size of data structure
+	@Override
+	public int size() {
+		return size;
+	}
+
+	// Returns a list of all key-value pairs within this data structure, in the
+	// order they were added
+	@Override
+	public Iterator<KVPair<K, V>> iterator() {
+		return new CompactIterator();
+	}
+
+	// Returns a cursor over all key-value pairs within this data structure, in
+	// the order they were added, which creates nothing per pair
+	@Override
+	public IDictionaryCursor<K, V> cursor() {
+		return new CompactCursor();
+	}
+
+	// Returns the index slot pointing to the entry with the given key. If there is
+	// none, returns -1 - s instead, where s is the empty slot the key would go in.
+	private int findSlot(K key, int hash) {
+		int slot = this.homeSlot(hash);
+		while (true) {
+			int stored = this.slotAt(slot);
+			if (stored == EMPTY) {
+				return -1 - slot;
+			}
+			int entry = stored - 1;
+			if (hashes[entry] == hash && strategy.equals(this.keyAt(entry), key)) {
+				return slot;
+			}
+			slot = (slot + 1) & indexMask;
+		}
+	}
+
+	// Empties the given index slot, then moves later slots of the same probe run
+	// back into the gap wherever their home slot allows it, so that every entry
+	// can still be reached without passing an empty slot
+	private void deleteSlot(int slot) {
+		int gap = slot;
+		int next = (gap + 1) & indexMask;
+		while (true) {
+			int stored = this.slotAt(next);
+			if (stored == EMPTY) {
+				break;
+			}
+			int home = this.homeSlot(hashes[stored - 1]);
+			// The entry may move back if the gap lies between its home slot and
+			// where it is now
+			if (((next - home) & indexMask) >= ((next - gap) & indexMask)) {
+				this.setSlot(gap, stored);
+				gap = next;
+			}
+			next = (next + 1) & indexMask;
+		}
+		this.setSlot(gap, EMPTY);
+	}
+
+	// Moves the live entries, in order, into new arrays of the given capacity and
+	// rebuilds the index
+	private void resize(int capacity) {
+		Object[] oldKeys = keys;
+		V[] oldValues = values;
+		int[] oldHashes = hashes;
+		int oldUsed = used;
+		allocate(capacity);
+		used = 0;
+		for (int i = 0; i < oldUsed; i++) {
+			if (oldKeys[i] == REMOVED) {
+				continue;
+			}
+			keys[used] = oldKeys[i];
+			values[used] = oldValues[i];
+			hashes[used] = oldHashes[i];
+			int slot = this.homeSlot(oldHashes[i]);
+			while (this.slotAt(slot) != EMPTY) {
+				slot = (slot + 1) & indexMask;
+			}
+			this.setSlot(slot, used + 1);
+			used++;
+		}
+	}
+
+	// Returns the index slot an entry with the given hash is looked for first
+	private int homeSlot(int hash) {
+		return (hash * 0x9e3779b9) >>> indexShift;
+	}
+
+	// Returns the smallest power of two capacity that holds the given number of entries
+	private static int capacityFor(int entries) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < entries && capacity < MAX_CAPACITY) {
+			capacity *= 2;
+		}
+		return capacity;
+	}
+
+	// Returns what the given index slot holds
+	private int slotAt(int slot) {
+		if (index8 != null) {
+			return index8[slot] & 0xff;
+		} else if (index16 != null) {
+			return index16[slot] & 0xffff;
+		}
+		return index32[slot];
+	}
+
+	// Stores the given value in the given index slot
+	private void setSlot(int slot, int stored) {
+		if (index8 != null) {
+			index8[slot] = (byte) stored;
+		} else if (index16 != null) {
+			index16[slot] = (short) stored;
+		} else {
+			index32[slot] = stored;
+		}
+	}
+
+	// Returns the position of the entry the given (non-empty) index slot points to
+	private int slotEntry(int slot) {
+		return this.slotAt(slot) - 1;
+	}
+
+	@SuppressWarnings("unchecked")
+	private K keyAt(int entry) {
+		return (K) keys[entry];
+	}
+
+	//Cursor over the items in a CompactOrderedDictionary object
+	private class CompactCursor implements IDictionaryCursor<K, V> {
+		private int entry = -1; //Entry the cursor is on, or used once it is done
+
+		// Moves to the next live entry, returning false if there is none
+		@Override
+		public boolean advance() {
+			if (entry < used) {
+				entry++;
+			}
+			while (entry < used && keys[entry] == REMOVED) {
+				entry++;
+			}
+			return entry < used;
+		}
+
+		@Override
+		public K key() {
+			return keyAt(this.checkedEntry());
+		}
+
+		@Override
+		public V value() {
+			return values[this.checkedEntry()];
+		}
+
+		@Override
+		public void setValue(V value) {
+			values[this.checkedEntry()] = value;
+		}
+
+		// Returns the entry the cursor is on
+		// throw IllegalStateException if the cursor is not on an item
+		private int checkedEntry() {
+			if (entry < 0 || entry >= used) {
+				throw new IllegalStateException();
+			}
+			return entry;
+		}
+	}
+
+	//Class used to iterate through the items in a CompactOrderedDictionary object
+	private class CompactIterator implements Iterator<KVPair<K, V>> {
+		private int nextEntry; //Position of the next live entry, or used if there is none
+
+		public CompactIterator() {
+			this.nextEntry = findLive(0);
+		}
+
+		// Returns true if there is another item in the data structure that can
+		// be returned by the next() function
+		// Returns false otherwise
+		@Override
+		public boolean hasNext() {
+			return nextEntry < used;
+		}
+
+		// Return the next item in the iteration
+		// throw NoSuchElementException if a next item does not exist.
+		@Override
+		public KVPair<K, V> next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			KVPair<K, V> pair = new KVPair<>(keyAt(nextEntry), values[nextEntry]);
+			nextEntry = findLive(nextEntry + 1);
+			return pair;
+		}
+
+		// Returns the first live entry at or after the given position
+		private int findLive(int start) {
+			int i = start;
+			while (i < used && keys[i] == REMOVED) {
+				i++;
+			}
+			return i;
+		}
+	}
+}
@@ -0,0 +1,498 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.DoubleLinkedList;
+import datastructures.concrete.HashStrategies;
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IHashStrategy;
+import datastructures.interfaces.IList;
+import misc.exceptions.NoSuchKeyException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// Represents a data structure that contains a bunch of key-value
+// mappings. Each key must be unique.
+//
+// This dictionary is safe to share between threads and never locks. Like
+// ChainedHashDictionary, it is an array of chains, but every chain is an
+// immutable linked list: a put or remove builds a new version of the chain
+// and installs it with a single compare-and-set, retrying if another thread
+// changed that chain first. Reads never lock and never retry.
+//
+// When the table gets too full, a table twice the size is created and chains
+// are moved over in small batches. Each moved chain is replaced with a
+// forwarding node pointing at the new table. Any writer that runs into a
+// forwarding node helps move the remaining batches before it carries on,
+// while readers simply follow the forwarding node.
+//
+// Iterators are weakly consistent: they never throw because of concurrent
+// changes, but may or may not reflect changes made after they were created.
+public class ConcurrentHashDictionary<K, V> implements IDictionary<K, V> {
+	private volatile Table<K, V> table;
+	private final LongAdder count;
+	private final IHashStrategy<? super K> strategy;
+	private static final int MIN_SIZE = 16; // Must be a power of two
+	private static final int TRANSFER_STRIDE = 16; // Chains claimed at a time when moving to a new table
+	private static final Object ABSENT = new Object(); // Stands for "no value" in update()
+
+	public ConcurrentHashDictionary() {
+		this(HashStrategies.standard());
+	}
+
+	// Creates a dictionary that hashes and compares keys using the given strategy
+	public ConcurrentHashDictionary(IHashStrategy<? super K> strategy) {
+		if (strategy == null) {
+			throw new IllegalArgumentException();
+		}
+		this.strategy = strategy;
+		this.table = new Table<>(MIN_SIZE);
+		this.count = new LongAdder();
+	}
+
+	// Pass a K object as a parameter
+	// Returns the value corresponding to the given key.
+	// throw NoSuchKeyException if the given key is not in the data structure
+	@Override
+	public V get(K key) {
+		Node<K, V> node = findNode(key);
+		if (node != null) {
+			return node.value;
+		}
+		throw new NoSuchKeyException();
+	}
+
+	// Pass a K and a V as parameters
+	// Returns the value corresponding to the given key, or the default value if
+	// the key is not in the data structure. Checks and reads the key atomically.
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		Node<K, V> node = findNode(key);
+		if (node != null) {
+			return node.value;
+		}
+		return defaultValue;
+	}
+
+	// Pass a K and a V as parameters and put K-V pairs into the data structure
+	// If the K already exists in data structure, replace its value with V
+	@Override
+	public void put(K key, V value) {
+		int hash = strategy.hash(key);
+		Table<K, V> t = table;
+		while (true) {
+			int i = hash & (t.length() - 1);
+			Node<K, V> head = t.bins.get(i);
+			if (head instanceof Forward) {
+				t = helpTransfer(t, (Forward<K, V>) head);
+				continue;
+			}
+			Node<K, V> found = findInChain(head, hash, key);
+			Node<K, V> newHead;
+			if (found == null) {
+				newHead = new Node<>(hash, key, value, head);
+			} else {
+				newHead = copyChainReplacing(head, found, new Node<>(hash, found.key, value, found.next));
+			}
+			if (t.bins.compareAndSet(i, head, newHead)) {
+				if (found == null) {
+					count.increment();
+					resizeIfNeeded(t);
+				}
+				return;
+			}
+			// Another thread changed this chain first; start over
+		}
+	}
+
+	// Pass a K object as parameter
+	// Remove the K-V pair corresponding to the given key from the data structure.
+	// Throw NoSuchKeyException if the given K is not in data structure
+	@Override
+	public V remove(K key) {
+		int hash = strategy.hash(key);
+		Table<K, V> t = table;
+		while (true) {
+			int i = hash & (t.length() - 1);
+			Node<K, V> head = t.bins.get(i);
+			if (head instanceof Forward) {
+				t = helpTransfer(t, (Forward<K, V>) head);
+				continue;
+			}
+			Node<K, V> found = findInChain(head, hash, key);
+			if (found == null) {
+				throw new NoSuchKeyException();
+			}
+			if (t.bins.compareAndSet(i, head, copyChainReplacing(head, found, found.next))) {
+				count.decrement();
+				return found.value;
+			}
+			// Another thread changed this chain first; start over
+		}
+	}
+
+	// The methods below each change the key's chain with a single compare-and-set,
+	// so each of them happens atomically. The functions passed in may be called
+	// more than once if other threads change the same chain at the same time.
+	// See IDictionary for what each of them does.
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V putIfAbsent(K key, V value) {
+		Object[] previous = new Object[1];
+		update(key, (k, old) -> {
+			previous[0] = old;
+			return old == ABSENT ? value : old;
+		});
+		return previous[0] == ABSENT ? null : (V) previous[0];
+	}
+
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		return valueOrNull(update(key, (k, old) -> {
+			if (old != ABSENT) {
+				return old;
+			}
+			return orAbsent(mappingFunction.apply(k));
+		}));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		return valueOrNull(update(key, (k, old) -> {
+			if (old == ABSENT) {
+				return ABSENT;
+			}
+			return orAbsent(remappingFunction.apply(k, (V) old));
+		}));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		return valueOrNull(update(key, (k, old) ->
+				orAbsent(remappingFunction.apply(k, old == ABSENT ? null : (V) old))));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		return valueOrNull(update(key, (k, old) -> {
+			if (old == ABSENT) {
+				return value;
+			}
+			return orAbsent(remappingFunction.apply((V) old, value));
+		}));
+	}
+
+	// Pass an object K as parameter. Return True if data structure contains the K.
+	// False otherwise.
+	@Override
+	public boolean containsKey(K key) {
+		return findNode(key) != null;
+	}
+
+	// Return the size of data structure. While other threads are writing, the
+	// result may be slightly out of date.
+	@Override
+	public int size() {
+		long sum = count.sum();
+		return sum < 0 ? 0 : (int) Math.min(sum, Integer.MAX_VALUE);
+	}
+
+	// Returns a list of all key-value pairs within this data structure
+	@Override
+	public Iterator<KVPair<K, V>> iterator() {
+		return new ConcurrentIterator<>(table);
+	}
+
+	// Returns a spliterator over all key-value pairs within this data structure.
+	// Other threads may change the size while it runs, so it is not SIZED.
+	@Override
+	public Spliterator<KVPair<K, V>> spliterator() {
+		return Spliterators.spliterator(this.iterator(), this.size(),
+				Spliterator.CONCURRENT | Spliterator.DISTINCT | Spliterator.NONNULL);
+	}
+
+	// Atomically changes the value stored for the given key. The remapper is
+	// passed the key and its current value (or ABSENT if the key is missing), and
+	// returns the new value (or ABSENT to leave the key out). Returns what the
+	// remapper returned on the attempt that took effect.
+	@SuppressWarnings("unchecked")
+	private Object update(K key, BiFunction<K, Object, Object> remapper) {
+		int hash = strategy.hash(key);
+		Table<K, V> t = table;
+		while (true) {
+			int i = hash & (t.length() - 1);
+			Node<K, V> head = t.bins.get(i);
+			if (head instanceof Forward) {
+				t = helpTransfer(t, (Forward<K, V>) head);
+				continue;
+			}
+			Node<K, V> found = findInChain(head, hash, key);
+			Object oldValue = found == null ? ABSENT : found.value;
+			Object newValue = remapper.apply(key, oldValue);
+			if (newValue == oldValue) {
+				return newValue; // Nothing to change
+			}
+			Node<K, V> newHead;
+			if (newValue == ABSENT) {
+				newHead = copyChainReplacing(head, found, found.next);
+			} else if (found == null) {
+				newHead = new Node<>(hash, key, (V) newValue, head);
+			} else {
+				newHead = copyChainReplacing(head, found, new Node<>(hash, found.key, (V) newValue, found.next));
+			}
+			if (t.bins.compareAndSet(i, head, newHead)) {
+				if (found == null) {
+					count.increment();
+					resizeIfNeeded(t);
+				} else if (newValue == ABSENT) {
+					count.decrement();
+				}
+				return newValue;
+			}
+			// Another thread changed this chain first; start over
+		}
+	}
+
+	// Turns a value returned by a user function into what update() expects
+	private static Object orAbsent(Object value) {
+		return value == null ? ABSENT : value;
+	}
+
+	// Turns a value returned by update() back into what the compute methods return
+	@SuppressWarnings("unchecked")
+	private V valueOrNull(Object value) {
+		return value == ABSENT ? null : (V) value;
+	}
+
+	// Returns the node holding the given key, following forwarding nodes into
+	// newer tables as needed, or null if there is no such key
+	private Node<K, V> findNode(K key) {
+		int hash = strategy.hash(key);
+		Table<K, V> t = table;
+		while (true) {
+			Node<K, V> head = t.bins.get(hash & (t.length() - 1));
+			if (head instanceof Forward) {
+				t = ((Forward<K, V>) head).nextTable;
+			} else {
+				return findInChain(head, hash, key);
+			}
+		}
+	}
+
+	// Returns the node holding the given key in the chain starting at the given
+	// node, or null if there is no such node
+	private Node<K, V> findInChain(Node<K, V> node, int hash, K key) {
+		while (node != null) {
+			if (node.hash == hash && strategy.equals(node.key, key)) {
+				return node;
+			}
+			node = node.next;
+		}
+		return null;
+	}
+
+	// Returns a copy of the chain starting at head, with the target node swapped
+	// out for the given replacement (which may be the rest of the chain, to
+	// remove the target). Nodes after the target are shared, not copied; the
+	// nodes before it are copied in reverse order, since order doesn't matter.
+	private static <K, V> Node<K, V> copyChainReplacing(Node<K, V> head, Node<K, V> target, Node<K, V> replacement) {
+		Node<K, V> result = replacement;
+		for (Node<K, V> node = head; node != target; node = node.next) {
+			result = new Node<>(node.hash, node.key, node.value, result);
+		}
+		return result;
+	}
+
+	// Starts moving to a table twice the size of the given one if it has become
+	// too full. Only the current table may start a resize: a table that is
+	// still being filled by a resize has to be installed first.
+	private void resizeIfNeeded(Table<K, V> t) {
+		int length = t.length();
+		if (t == table && t.nextTable.get() == null && count.sum() > length - (length >>> 2)) {
+			Table<K, V> next = new Table<>(length * 2);
+			if (t.nextTable.compareAndSet(null, next)) {
+				transfer(t, next);
+			}
+		}
+	}
+
+	// Called by a writer that ran into a forwarding node. Helps move chains out
+	// of the given table and returns the table the writer should retry in.
+	private Table<K, V> helpTransfer(Table<K, V> t, Forward<K, V> forward) {
+		transfer(t, forward.nextTable);
+		return forward.nextTable;
+	}
+
+	// Moves chains from the old table to the new one, TRANSFER_STRIDE at a time,
+	// until there are no unclaimed chains left. Any number of threads may run
+	// this at once; each batch of chains is claimed by exactly one of them. The
+	// thread that finishes the last batch installs the new table.
+	private void transfer(Table<K, V> old, Table<K, V> next) {
+		Forward<K, V> forward = new Forward<>(next);
+		while (true) {
+			int hi = old.transferIndex.get();
+			if (hi <= 0) {
+				return;
+			}
+			int lo = Math.max(0, hi - TRANSFER_STRIDE);
+			if (!old.transferIndex.compareAndSet(hi, lo)) {
+				continue;
+			}
+			for (int i = hi - 1; i >= lo; i--) {
+				moveChain(old, next, i, forward);
+			}
+			if (old.chainsMoved.addAndGet(hi - lo) == old.length()) {
+				// Happens exactly once per resize, and the next resize can't
+				// start until this table is installed
+				table = next;
+			}
+		}
+	}
+
+	// Splits the chain at the given index of the old table into the two chains
+	// it maps to in the new table, then replaces it with a forwarding node. If a
+	// writer changes the chain in the meantime, the split is redone.
+	private void moveChain(Table<K, V> old, Table<K, V> next, int i, Forward<K, V> forward) {
+		int length = old.length();
+		while (true) {
+			Node<K, V> head = old.bins.get(i);
+			Node<K, V> low = null;
+			Node<K, V> high = null;
+			for (Node<K, V> node = head; node != null; node = node.next) {
+				if ((node.hash & length) == 0) {
+					low = new Node<>(node.hash, node.key, node.value, low);
+				} else {
+					high = new Node<>(node.hash, node.key, node.value, high);
+				}
+			}
+			// Nobody else can reach these two chains until the forwarding node is in place
+			next.bins.set(i, low);
+			next.bins.set(i + length, high);
+			if (old.bins.compareAndSet(i, head, forward)) {
+				return;
+			}
+		}
+	}
+
+	// An array of chains, along with the state needed to move out of it
+	private static class Table<K, V> {
+		public final AtomicReferenceArray<Node<K, V>> bins;
+		public final AtomicReference<Table<K, V>> nextTable; // Table being moved to, or null
+		public final AtomicInteger transferIndex; // Chains below this index have not been claimed for moving
+		public final AtomicInteger chainsMoved; // Number of chains already moved
+
+		public Table(int length) {
+			this.bins = new AtomicReferenceArray<>(length);
+			this.nextTable = new AtomicReference<>(null);
+			this.transferIndex = new AtomicInteger(length);
+			this.chainsMoved = new AtomicInteger(0);
+		}
+
+		public int length() {
+			return bins.length();
+		}
+	}
+
+	// An immutable link in a chain
+	private static class Node<K, V> {
+		public final int hash;
+		public final K key;
+		public final V value;
+		public final Node<K, V> next;
+
+		public Node(int hash, K key, V value, Node<K, V> next) {
+			this.hash = hash;
+			this.key = key;
+			this.value = value;
+			this.next = next;
+		}
+	}
+
+	// Placed in a table in place of a chain that has been moved to the next table
+	private static class Forward<K, V> extends Node<K, V> {
+		public final Table<K, V> nextTable;
+
+		public Forward(Table<K, V> nextTable) {
+			super(0, null, null, null);
+			this.nextTable = nextTable;
+		}
+	}
+
+	//Class used to iterate through the items in a ConcurrentHashDictionary object
+	private static class ConcurrentIterator<K, V> implements Iterator<KVPair<K, V>> {
+		private Table<K, V> baseTable; //Table the iteration started in
+		private int baseIndex; //Next chain to visit in the base table
+		private IList<Table<K, V>> pendingTables; //Chains of newer tables still to visit, with...
+		private IList<Integer> pendingIndexes; //...their index in that table
+		private Node<K, V> nextNode; //Next node to return, or null if there is none
+
+		public ConcurrentIterator(Table<K, V> baseTable) {
+			this.baseTable = baseTable;
+			this.baseIndex = 0;
+			this.pendingTables = new DoubleLinkedList<>();
+			this.pendingIndexes = new DoubleLinkedList<>();
+			this.nextNode = findNextChain();
+		}
+
+		// Returns true if there is another item in the data structure that can
+		// be returned by the next() function
+		// Returns false otherwise
+		@Override
+		public boolean hasNext() {
+			return nextNode != null;
+		}
+
+		// Return the next item in the iteration
+		// throw NoSuchElementException if a next item does not exist.
+		@Override
+		public KVPair<K, V> next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Node<K, V> node = nextNode;
+			nextNode = node.next != null ? node.next : findNextChain();
+			return new KVPair<>(node.key, node.value);
+		}
+
+		// Returns the first node of the next non-empty chain, or null if there
+		// are no chains left. A forwarding node is replaced by the two chains of
+		// the newer table that the forwarded chain was split into.
+		private Node<K, V> findNextChain() {
+			while (true) {
+				Table<K, V> t;
+				int i;
+				if (!pendingTables.isEmpty()) {
+					t = pendingTables.remove();
+					i = pendingIndexes.remove();
+				} else if (baseIndex < baseTable.length()) {
+					t = baseTable;
+					i = baseIndex;
+					baseIndex++;
+				} else {
+					return null;
+				}
+				Node<K, V> head = t.bins.get(i);
+				if (head instanceof Forward) {
+					Table<K, V> next = ((Forward<K, V>) head).nextTable;
+					pendingTables.add(next);
+					pendingIndexes.add(i + t.length());
+					pendingTables.add(next);
+					pendingIndexes.add(i);
+				} else if (head != null) {
+					return head;
+				}
+			}
+		}
+	}
+}
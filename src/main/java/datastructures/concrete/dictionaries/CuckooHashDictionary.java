@@ -0,0 +1,464 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.HashStrategies;
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IDictionaryCursor;
+import datastructures.interfaces.IHashStrategy;
+import misc.exceptions.NoSuchKeyException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Represents a data structure that contains a bunch of key-value
+// mappings. Each key must be unique.
+//
+// A bucketized cuckoo hash table. The slots are grouped into buckets of four,
+// and every key may only live in one of two buckets, picked by mixing its hash
+// with two different seeds. A lookup therefore reads at most two buckets (eight
+// slots) and a stash, which is almost always empty, no matter how the other
+// keys are spread.
+//
+// A key whose buckets are both full kicks a random entry out of one of them
+// and takes its slot; the kicked-out entry then moves to its other bucket,
+// possibly kicking out another, and so on. If that goes on for MAX_KICKS moves,
+// the keys are probably stuck in a cycle, and the entry being carried goes into
+// the stash instead. Once the stash holds more than STASH_SIZE entries, the
+// table is rebuilt with new seeds, and doubled in size if that doesn't help.
+//
+// Keys whose hashes are entirely equal always pick the same two buckets, so
+// no rebuild can separate more than eight of them. Once the table is at most
+// half full and rebuilding still leaves the stash too big, the stash is
+// allowed to grow instead, and lookups of those keys scan it. The worst-case
+// bound only holds while at most eight keys share a hash.
+public class CuckooHashDictionary<K, V> implements IDictionary<K, V> {
+	private Object[] keys; // Key in each slot, with null stored as NULL_KEY, or null if the slot is free
+	private V[] values;
+	private int[] hashes; // Hash of the key in each slot
+	private int bucketMask; // Number of buckets minus one
+	private int seed1;
+	private int seed2;
+	private Object[] stashKeys; // Entries that did not fit into their buckets; the first
+	private V[] stashValues; // stashSize of them are in use
+	private int[] stashHashes;
+	private int stashSize;
+	private int stashLimit; // Stash size that triggers a rebuild
+	private int size;
+	private int random; // State of the xorshift generator used for seeds and victims
+	private IHashStrategy<? super K> strategy;
+	private static final Object NULL_KEY = new Object(); // Stored in place of null keys
+	private static final int SLOTS = 4; // Slots per bucket; must be a power of two
+	private static final int MIN_BUCKETS = 4; // Must be a power of two
+	private static final int MAX_BUCKETS = 1 << 28;
+	private static final int MAX_KICKS = 256; // Moves tried before an insert gives up on the table
+	private static final int STASH_SIZE = 4;
+	private static final int MAX_REBUILDS = 3; // Seeds tried at one size before the table grows
+
+	public CuckooHashDictionary() {
+		this(0, HashStrategies.standard());
+	}
+
+	// Creates a dictionary that hashes and compares keys using the given strategy
+	public CuckooHashDictionary(IHashStrategy<? super K> strategy) {
+		this(0, strategy);
+	}
+
+	// Creates a dictionary that can hold the given number of items without resizing
+	public CuckooHashDictionary(int expectedSize) {
+		this(expectedSize, HashStrategies.standard());
+	}
+
+	// Same as above, hashing and comparing keys using the given strategy
+	// throw IllegalArgumentException if the expected size is negative or the
+	// strategy is null
+	public CuckooHashDictionary(int expectedSize, IHashStrategy<? super K> strategy) {
+		if (expectedSize < 0 || strategy == null) {
+			throw new IllegalArgumentException();
+		}
+		this.strategy = strategy;
+		this.size = 0;
+		this.random = 0x2545f491;
+		this.stashLimit = STASH_SIZE;
+		int buckets = MIN_BUCKETS;
+		while (maxLoad(buckets) < expectedSize && buckets < MAX_BUCKETS) {
+			buckets *= 2;
+		}
+		allocate(buckets);
+	}
+
+	// Sets up new, empty slot arrays with the given number of buckets, which must
+	// be a power of two, an empty stash, and new seeds
+	@SuppressWarnings("unchecked")
+	private void allocate(int buckets) {
+		keys = new Object[buckets * SLOTS];
+		values = (V[]) new Object[buckets * SLOTS];
+		hashes = new int[buckets * SLOTS];
+		bucketMask = buckets - 1;
+		stashKeys = new Object[STASH_SIZE];
+		stashValues = (V[]) new Object[STASH_SIZE];
+		stashHashes = new int[STASH_SIZE];
+		stashSize = 0;
+		seed1 = this.nextRandom();
+		seed2 = this.nextRandom();
+	}
+
+	// Pass a K object as a parameter
+	// Returns the value corresponding to the given key.
+	// throw NoSuchKeyException if the given key is not in the data structure
+	@Override
+	public V get(K key) {
+		int position = this.find(key, strategy.hash(key));
+		if (position < 0) {
+			throw new NoSuchKeyException();
+		}
+		return this.valueAt(position);
+	}
+
+	// Pass a K and a V as parameters
+	// Returns the value corresponding to the given key, or the default value
+	// if the key is not in the data structure
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		int position = this.find(key, strategy.hash(key));
+		return position < 0 ? defaultValue : this.valueAt(position);
+	}
+
+	// Pass a K and a V as parameters and put K-V pairs into the data structure
+	// If the K already exists in data structure, replace its value with V
+	// If the table is too full, or the stash too big, the table is rebuilt first.
+	@Override
+	public void put(K key, V value) {
+		int hash = strategy.hash(key);
+		int position = this.find(key, hash);
+		if (position >= 0) {
+			this.setValueAt(position, value);
+			return;
+		}
+		if (size + 1 > maxLoad(bucketMask + 1) && bucketMask + 1 < MAX_BUCKETS) {
+			this.rebuild((bucketMask + 1) * 2);
+		}
+		size++;
+		this.place(hash, key == null ? NULL_KEY : key, value);
+		if (stashSize > stashLimit) {
+			this.rebuild(bucketMask + 1);
+		}
+	}
+
+	// Pass a K object as parameter
+	// Remove the K-V pair corresponding to the given key from the data structure.
+	// Throw NoSuchKeyException if the given K is not in data structure
+	@Override
+	public V remove(K key) {
+		int position = this.find(key, strategy.hash(key));
+		if (position < 0) {
+			throw new NoSuchKeyException();
+		}
+		V item = this.valueAt(position);
+		if (position < keys.length) {
+			keys[position] = null;
+			values[position] = null;
+		} else {
+			// Fill the gap with the last stashed entry
+			int i = position - keys.length;
+			stashSize--;
+			stashKeys[i] = stashKeys[stashSize];
+			stashValues[i] = stashValues[stashSize];
+			stashHashes[i] = stashHashes[stashSize];
+			stashKeys[stashSize] = null;
+			stashValues[stashSize] = null;
+		}
+		size--;
+		return item;
+	}
+
+	// Pass an object K as parameter. Return True if data structure contains the K.
+	// False otherwise.
+	@Override
+	public boolean containsKey(K key) {
+		return this.find(key, strategy.hash(key)) >= 0;
+	}
+
+	// return the size of data structure
+	@Override
+	public int size() {
+		return size;
+	}
+
+	// Returns a list of all key-value pairs within this data structure
+	@Override
+	public Iterator<KVPair<K, V>> iterator() {
+		return new CuckooIterator();
+	}
+
+	// Returns a cursor over all key-value pairs within this data structure,
+	// which creates nothing per pair
+	@Override
+	public IDictionaryCursor<K, V> cursor() {
+		return new CuckooCursor();
+	}
+
+	// Returns the position of the given key, or -1 if it is not here. Positions
+	// past the end of the slot arrays refer to the stash.
+	private int find(K key, int hash) {
+		int slot = this.bucket(hash, seed1) * SLOTS;
+		for (int i = slot; i < slot + SLOTS; i++) {
+			if (hashes[i] == hash && keys[i] != null && strategy.equals(this.keyAt(i), key)) {
+				return i;
+			}
+		}
+		slot = this.bucket(hash, seed2) * SLOTS;
+		for (int i = slot; i < slot + SLOTS; i++) {
+			if (hashes[i] == hash && keys[i] != null && strategy.equals(this.keyAt(i), key)) {
+				return i;
+			}
+		}
+		for (int i = 0; i < stashSize; i++) {
+			if (stashHashes[i] == hash && strategy.equals(this.unmask(stashKeys[i]), key)) {
+				return keys.length + i;
+			}
+		}
+		return -1;
+	}
+
+	// Puts the given entry, whose key must not be here yet and whose null key
+	// must already be replaced by NULL_KEY, into a free slot of one of its
+	// buckets, kicking other entries over to their other buckets if both are
+	// full. Whatever entry is left over after MAX_KICKS moves goes into the stash.
+	private void place(int hash, Object key, V value) {
+		for (int kicks = 0; kicks < MAX_KICKS; kicks++) {
+			int bucket1 = this.bucket(hash, seed1);
+			int bucket2 = this.bucket(hash, seed2);
+			int slot = this.freeSlot(bucket1);
+			if (slot < 0) {
+				slot = this.freeSlot(bucket2);
+			}
+			if (slot >= 0) {
+				keys[slot] = key;
+				values[slot] = value;
+				hashes[slot] = hash;
+				return;
+			}
+			// Take a random slot of either bucket, and carry on with its entry
+			int choice = this.nextRandom();
+			int victim = ((choice & 1) == 0 ? bucket1 : bucket2) * SLOTS + ((choice >>> 1) & (SLOTS - 1));
+			Object victimKey = keys[victim];
+			V victimValue = values[victim];
+			int victimHash = hashes[victim];
+			keys[victim] = key;
+			values[victim] = value;
+			hashes[victim] = hash;
+			key = victimKey;
+			value = victimValue;
+			hash = victimHash;
+		}
+		this.stash(hash, key, value);
+	}
+
+	// Adds the given entry to the stash, growing it if needed
+	private void stash(int hash, Object key, V value) {
+		if (stashSize == stashKeys.length) {
+			stashKeys = Arrays.copyOf(stashKeys, stashSize * 2);
+			stashValues = Arrays.copyOf(stashValues, stashSize * 2);
+			stashHashes = Arrays.copyOf(stashHashes, stashSize * 2);
+		}
+		stashKeys[stashSize] = key;
+		stashValues[stashSize] = value;
+		stashHashes[stashSize] = hash;
+		stashSize++;
+	}
+
+	// Puts every entry into new slot arrays with the given number of buckets and
+	// new seeds, trying again with other seeds while too many entries end up in
+	// the stash, and doubling the number of buckets after MAX_REBUILDS tries.
+	// Stops early, keeping a bigger stash, once the table is at most half full,
+	// since more room won't separate keys with equal hashes.
+	@SuppressWarnings("unchecked")
+	private void rebuild(int buckets) {
+		Object[] allKeys = new Object[size];
+		V[] allValues = (V[]) new Object[size];
+		int[] allHashes = new int[size];
+		int count = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != null) {
+				allKeys[count] = keys[i];
+				allValues[count] = values[i];
+				allHashes[count] = hashes[i];
+				count++;
+			}
+		}
+		for (int i = 0; i < stashSize; i++) {
+			allKeys[count] = stashKeys[i];
+			allValues[count] = stashValues[i];
+			allHashes[count] = stashHashes[i];
+			count++;
+		}
+
+		int tries = 0;
+		while (true) {
+			allocate(buckets);
+			for (int i = 0; i < count; i++) {
+				this.place(allHashes[i], allKeys[i], allValues[i]);
+			}
+			if (stashSize <= STASH_SIZE) {
+				break;
+			}
+			tries++;
+			if (tries == MAX_REBUILDS) {
+				if (size <= buckets * SLOTS / 2 || buckets >= MAX_BUCKETS) {
+					break;
+				}
+				buckets *= 2;
+				tries = 0;
+			}
+		}
+		// Let a stash that can't be made smaller double before trying again
+		stashLimit = Math.max(STASH_SIZE, stashSize * 2);
+	}
+
+	// Returns the first free slot of the given bucket, or -1 if it is full
+	private int freeSlot(int bucket) {
+		int slot = bucket * SLOTS;
+		for (int i = slot; i < slot + SLOTS; i++) {
+			if (keys[i] == null) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	// Returns the bucket picked by mixing the given hash with the given seed
+	private int bucket(int hash, int seed) {
+		int h = hash ^ seed;
+		// The murmur3 32-bit finalizer
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h & bucketMask;
+	}
+
+	// Returns the next number from a xorshift generator
+	private int nextRandom() {
+		int x = random;
+		x ^= x << 13;
+		x ^= x >>> 17;
+		x ^= x << 5;
+		random = x;
+		return x;
+	}
+
+	// Returns the number of items a table with the given number of buckets may
+	// hold before it has to grow (7/8 of the slots)
+	private static int maxLoad(int buckets) {
+		int slots = buckets * SLOTS;
+		return slots - (slots >>> 3);
+	}
+
+	// Returns the key at the given position of the slot arrays or the stash
+	private K keyAt(int position) {
+		if (position < keys.length) {
+			return this.unmask(keys[position]);
+		}
+		return this.unmask(stashKeys[position - keys.length]);
+	}
+
+	private V valueAt(int position) {
+		if (position < keys.length) {
+			return values[position];
+		}
+		return stashValues[position - keys.length];
+	}
+
+	private void setValueAt(int position, V value) {
+		if (position < keys.length) {
+			values[position] = value;
+		} else {
+			stashValues[position - keys.length] = value;
+		}
+	}
+
+	// Returns the given stored key, turning NULL_KEY back into null
+	@SuppressWarnings("unchecked")
+	private K unmask(Object key) {
+		return key == NULL_KEY ? null : (K) key;
+	}
+
+	// Returns the first position at or after the given one that holds an entry,
+	// or keys.length + stashSize if there is none
+	private int findOccupied(int start) {
+		int i = start;
+		while (i < keys.length && keys[i] == null) {
+			i++;
+		}
+		return i;
+	}
+
+	//Cursor over the items in a CuckooHashDictionary object
+	private class CuckooCursor implements IDictionaryCursor<K, V> {
+		private int position = -1; //Position the cursor is on, or past the stash once it is done
+
+		// Moves to the next entry, returning false if there is none
+		@Override
+		public boolean advance() {
+			int end = keys.length + stashSize;
+			if (position < end) {
+				position = findOccupied(position + 1);
+			}
+			return position < end;
+		}
+
+		@Override
+		public K key() {
+			return keyAt(this.checkedPosition());
+		}
+
+		@Override
+		public V value() {
+			return valueAt(this.checkedPosition());
+		}
+
+		@Override
+		public void setValue(V value) {
+			setValueAt(this.checkedPosition(), value);
+		}
+
+		// Returns the position the cursor is on
+		// throw IllegalStateException if the cursor is not on an item
+		private int checkedPosition() {
+			if (position < 0 || position >= keys.length + stashSize) {
+				throw new IllegalStateException();
+			}
+			return position;
+		}
+	}
+
+	//Class used to iterate through the items in a CuckooHashDictionary object
+	private class CuckooIterator implements Iterator<KVPair<K, V>> {
+		private int next; //Position of the next entry, or past the stash if there is none
+
+		public CuckooIterator() {
+			this.next = findOccupied(0);
+		}
+
+		// Returns true if there is another item in the data structure that can
+		// be returned by the next() function
+		// Returns false otherwise
+		@Override
+		public boolean hasNext() {
+			return next < keys.length + stashSize;
+		}
+
+		// Return the next item in the iteration
+		// throw NoSuchElementException if a next item does not exist.
+		@Override
+		public KVPair<K, V> next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			KVPair<K, V> pair = new KVPair<>(keyAt(next), valueAt(next));
+			next = findOccupied(next + 1);
+			return pair;
+		}
+	}
+}
@@ -0,0 +1,728 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.ICodec;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IDictionaryCursor;
+import datastructures.snapshot.SnapshotReader;
+import datastructures.snapshot.SnapshotWriter;
+import misc.exceptions.NoSuchKeyException;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+// Represents a data structure that contains a bunch of key-value
+// mappings. Each key must be unique.
+//
+// This dictionary keeps its contents in a ChainedHashDictionary and makes every
+// change durable: once put(), remove() or any other changing method returns,
+// the change survives a crash. Each change is appended to a write-ahead log in
+// the dictionary's directory before it is applied, and the next open() replays
+// the log on top of the last snapshot. Writers on different threads share
+// fsyncs (see WriteAheadLog), so a burst of concurrent writes costs about one
+// fsync per burst rather than one per write.
+//
+// Once the log grows past the compaction threshold, the dictionary starts a
+// new log file and folds the old ones into a new snapshot on a background
+// thread. The background thread builds the snapshot from the previous snapshot
+// and the old logs rather than from the live table, so writers never wait for
+// it. Snapshot n holds the effect of every log numbered below n:
+//
+//     snapshot-<n>.snap    written with SnapshotWriter
+//     log-<n>.wal          records of [int body length][int CRC32 of body][body],
+//                          where the body is a PUT or REMOVE byte followed by the
+//                          key and, for PUT, the value, each as [int length][bytes]
+//                          or a length of -1 for null
+//
+// The dictionary is safe to share between threads; every operation runs under
+// one lock, except for waiting on the disk. Iterators walk over a copy of the
+// pairs taken when they are created.
+//
+// If the log can't be written or forced, the change that failed may or may not
+// be durable, and every later change throws IllegalStateException. A background
+// compaction that fails leaves the logs in place, so nothing is lost; the
+// failure is reported by the next compact() or by close().
+public class DurableDictionary<K, V> implements IDictionary<K, V>, AutoCloseable {
+	private final Object lock;
+	private Path directory;
+	private ICodec<K> keyCodec;
+	private ICodec<V> valueCodec;
+	private ChainedHashDictionary<K, V> map; // Guarded by lock
+	private WriteAheadLog log;
+	private long logGeneration; // Number of the log file being appended to, guarded by lock
+	private long snapshotGeneration; // Number of the newest snapshot; only changed by the compactor
+	private long compactionThreshold; // Log file size, in bytes, that triggers a compaction
+	private ExecutorService compactor;
+	private Future<?> compaction; // Last compaction started, or null; guarded by lock
+	private IOException compactionFailure; // Why a compaction failed, until reported; guarded by lock
+	private ByteBuffer record; // Buffer records are encoded into, guarded by lock
+	private CRC32 crc; // Guarded by lock
+	private volatile Throwable failure; // Why the log stopped working, or null
+	private volatile boolean closed;
+
+	private static final byte PUT = 1;
+	private static final byte REMOVE = 2;
+	private static final int RECORD_HEADER_BYTES = 8; // int body length, then int checksum
+	private static final int NULL_LENGTH = -1; // Length recorded for a null key or value
+	private static final long DEFAULT_COMPACTION_THRESHOLD = 64L << 20;
+	private static final String SNAPSHOT_PREFIX = "snapshot-";
+	private static final String SNAPSHOT_SUFFIX = ".snap";
+	private static final String LOG_PREFIX = "log-";
+	private static final String LOG_SUFFIX = ".wal";
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	private DurableDictionary(Path directory, ICodec<K> keyCodec, ICodec<V> valueCodec, long compactionThreshold) {
+		this.lock = new Object();
+		this.directory = directory;
+		this.keyCodec = keyCodec;
+		this.valueCodec = valueCodec;
+		this.compactionThreshold = compactionThreshold;
+		this.record = ByteBuffer.allocate(256);
+		this.crc = new CRC32();
+		this.compaction = null;
+		this.compactionFailure = null;
+		this.failure = null;
+		this.closed = false;
+	}
+
+	// Opens the dictionary stored in the given directory, creating the directory
+	// and an empty dictionary if it does not exist
+	// throw IOException if the directory can't be read, or holds a snapshot or
+	// log that is damaged anywhere other than at the very end of the newest log
+	public static <K, V> DurableDictionary<K, V> open(Path directory, ICodec<K> keyCodec, ICodec<V> valueCodec)
+			throws IOException {
+		return open(directory, keyCodec, valueCodec, DEFAULT_COMPACTION_THRESHOLD);
+	}
+
+	// Same as above; the log is compacted into a snapshot each time it grows past
+	// the given number of bytes
+	public static <K, V> DurableDictionary<K, V> open(Path directory, ICodec<K> keyCodec, ICodec<V> valueCodec,
+			long compactionThreshold) throws IOException {
+		if (directory == null || keyCodec == null || valueCodec == null || compactionThreshold <= 0) {
+			throw new IllegalArgumentException();
+		}
+		Files.createDirectories(directory);
+		DurableDictionary<K, V> dict = new DurableDictionary<>(directory, keyCodec, valueCodec, compactionThreshold);
+		dict.recover();
+		dict.compactor = Executors.newSingleThreadExecutor(task -> {
+			Thread thread = new Thread(task, "DurableDictionary compactor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		return dict;
+	}
+
+	// Loads the newest snapshot, replays the logs written since, and starts a
+	// new log. A crash can leave a partly written record at the end of the
+	// newest log; that record was never acknowledged, so it is cut off.
+	private void recover() throws IOException {
+		long newestSnapshot = -1;
+		long newestLog = -1;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				if (name.endsWith(TEMP_SUFFIX)) {
+					// Left over from a compaction that did not finish
+					Files.delete(file);
+				} else if (generationOf(name, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) >= 0) {
+					newestSnapshot = Math.max(newestSnapshot, generationOf(name, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX));
+				} else if (generationOf(name, LOG_PREFIX, LOG_SUFFIX) >= 0) {
+					newestLog = Math.max(newestLog, generationOf(name, LOG_PREFIX, LOG_SUFFIX));
+				}
+			}
+		}
+		snapshotGeneration = Math.max(newestSnapshot, 0);
+		map = this.loadSnapshot(snapshotGeneration);
+		for (long generation = snapshotGeneration; generation <= newestLog; generation++) {
+			Path file = this.logFile(generation);
+			if (Files.exists(file)) {
+				replay(file, map, generation == newestLog);
+			}
+		}
+		this.deleteBefore(snapshotGeneration);
+		logGeneration = Math.max(snapshotGeneration, newestLog + 1);
+		log = new WriteAheadLog(this.createLog(logGeneration));
+	}
+
+	// Pass a K object as a parameter
+	// Returns the value corresponding to the given key.
+	// throw NoSuchKeyException if the given key is not in the data structure
+	@Override
+	public V get(K key) {
+		synchronized (lock) {
+			this.checkOpen();
+			return map.get(key);
+		}
+	}
+
+	// Pass a K and a V as parameters
+	// Returns the value corresponding to the given key, or the default value if
+	// the key is not in the data structure
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		synchronized (lock) {
+			this.checkOpen();
+			return map.getOrDefault(key, defaultValue);
+		}
+	}
+
+	// Pass a K and a V as parameters and put K-V pairs into the data structure
+	// If the K already exists in data structure, replace its value with V
+	// Returns once the change is on the disk.
+	@Override
+	public void put(K key, V value) {
+		long position;
+		synchronized (lock) {
+			this.checkWritable();
+			position = this.append(this.encode(PUT, key, value));
+			map.put(key, value);
+			this.compactIfNeeded();
+		}
+		this.awaitDurable(position);
+	}
+
+	// Pass a K object as parameter
+	// Remove the K-V pair corresponding to the given key from the data structure.
+	// Returns once the change is on the disk.
+	// Throw NoSuchKeyException if the given K is not in data structure
+	@Override
+	public V remove(K key) {
+		long position;
+		V item;
+		synchronized (lock) {
+			this.checkWritable();
+			if (!map.containsKey(key)) {
+				throw new NoSuchKeyException();
+			}
+			position = this.append(this.encode(REMOVE, key, null));
+			item = map.remove(key);
+			this.compactIfNeeded();
+		}
+		this.awaitDurable(position);
+		return item;
+	}
+
+	// The methods below run atomically under the lock, and log the key's new
+	// state only if they changed it. See IDictionary for what each of them does.
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		return this.change(key, () -> map.putIfAbsent(key, value));
+	}
+
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		return this.change(key, () -> map.computeIfAbsent(key, mappingFunction));
+	}
+
+	@Override
+	public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		return this.change(key, () -> map.computeIfPresent(key, remappingFunction));
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		return this.change(key, () -> map.compute(key, remappingFunction));
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		return this.change(key, () -> map.merge(key, value, remappingFunction));
+	}
+
+	// Pass an object K as parameter. Return True if data structure contains the K.
+	// False otherwise.
+	@Override
+	public boolean containsKey(K key) {
+		synchronized (lock) {
+			this.checkOpen();
+			return map.containsKey(key);
+		}
+	}
+
+	// return the size of data structure
+	@Override
+	public int size() {
+		synchronized (lock) {
+			this.checkOpen();
+			return map.size();
+		}
+	}
+
+	// Returns a list of all key-value pairs within this data structure, as they
+	// were when this method was called
+	@Override
+	public Iterator<KVPair<K, V>> iterator() {
+		KVPair<K, V>[] pairs;
+		synchronized (lock) {
+			this.checkOpen();
+			pairs = makeArrayOfPairs(map.size());
+			IDictionaryCursor<K, V> cursor = map.cursor();
+			for (int i = 0; cursor.advance(); i++) {
+				pairs[i] = new KVPair<>(cursor.key(), cursor.value());
+			}
+		}
+		return Arrays.asList(pairs).iterator();
+	}
+
+	// Returns the number of times the log has been forced to the disk, which is
+	// usually far fewer than the number of changes when many threads write at once
+	public long syncCount() {
+		return log.syncCount();
+	}
+
+	// Folds the log into a new snapshot, returning once the snapshot is on the
+	// disk. Waits for a compaction that is already running first.
+	// throw IOException if the snapshot can't be written, or if a compaction
+	// started in the background failed since the last time one was reported
+	public void compact() throws IOException {
+		Future<?> running;
+		synchronized (lock) {
+			this.checkWritable();
+			running = compaction;
+		}
+		if (running != null) {
+			awaitCompaction(running);
+		}
+		Future<?> started;
+		synchronized (lock) {
+			this.checkWritable();
+			this.throwCompactionFailure();
+			this.startCompaction();
+			started = compaction;
+		}
+		awaitCompaction(started);
+		synchronized (lock) {
+			this.throwCompactionFailure();
+		}
+	}
+
+	// Waits for any running compaction, then forces and closes the log.
+	// Does nothing if the dictionary is already closed.
+	// throw UncheckedIOException if the log can't be forced or closed, or if a
+	// compaction failed and was not reported by compact()
+	@Override
+	public void close() {
+		synchronized (lock) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+		}
+		compactor.shutdown();
+		try {
+			while (!compactor.awaitTermination(1, TimeUnit.MINUTES)) {
+				// Keep waiting; the snapshot being written may be large
+			}
+			log.close();
+			synchronized (lock) {
+				this.throwCompactionFailure();
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new UncheckedIOException(new InterruptedIOException());
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	// Runs the given change to the given key under the lock, then logs the key's
+	// new state if the change did anything and waits for it to reach the disk.
+	// If the new state can't be logged, the change is undone, so the table
+	// never holds anything the log doesn't.
+	private <R> R change(K key, Supplier<R> operation) {
+		long position;
+		R result;
+		synchronized (lock) {
+			this.checkWritable();
+			boolean hadKey = map.containsKey(key);
+			V before = hadKey ? map.get(key) : null;
+			result = operation.get();
+			boolean hasKey = map.containsKey(key);
+			V after = hasKey ? map.get(key) : null;
+			if (hadKey == hasKey && before == after) {
+				return result;
+			}
+			try {
+				position = this.append(hasKey ? this.encode(PUT, key, after) : this.encode(REMOVE, key, null));
+			} catch (RuntimeException ex) {
+				if (hadKey) {
+					map.put(key, before);
+				} else {
+					map.remove(key);
+				}
+				throw ex;
+			}
+			this.compactIfNeeded();
+		}
+		this.awaitDurable(position);
+		return result;
+	}
+
+	// Encodes a record for the given change into the record buffer
+	// throw IllegalStateException if a codec wrote a different number of bytes
+	// than it said it would
+	private ByteBuffer encode(byte op, K key, V value) {
+		int keyLength = lengthOf(keyCodec, key);
+		int valueLength = op == PUT ? lengthOf(valueCodec, value) : 0;
+		int bodyLength = 1 + itemBytes(keyLength) + (op == PUT ? itemBytes(valueLength) : 0);
+		if (record.capacity() < RECORD_HEADER_BYTES + bodyLength) {
+			record = ByteBuffer.allocate(Math.max(record.capacity() * 2, RECORD_HEADER_BYTES + bodyLength));
+		}
+		record.clear();
+		record.position(RECORD_HEADER_BYTES);
+		record.put(op);
+		putItem(record, keyCodec, key, keyLength);
+		if (op == PUT) {
+			putItem(record, valueCodec, value, valueLength);
+		}
+		crc.reset();
+		crc.update(record.array(), RECORD_HEADER_BYTES, bodyLength);
+		record.putInt(0, bodyLength);
+		record.putInt(4, (int) crc.getValue());
+		record.flip();
+		return record;
+	}
+
+	// Appends the given record to the log and returns the position just past it
+	private long append(ByteBuffer buffer) {
+		try {
+			return log.append(buffer);
+		} catch (IOException ex) {
+			failure = ex;
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	// Returns once everything in the log up to the given position is on the disk
+	private void awaitDurable(long position) {
+		try {
+			log.sync(position);
+		} catch (IOException ex) {
+			failure = ex;
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	// Starts a compaction if the log is big enough and none is running.
+	// Must be called with the lock held.
+	private void compactIfNeeded() {
+		if (log.fileSize() >= compactionThreshold && (compaction == null || compaction.isDone())) {
+			this.startCompaction();
+		}
+	}
+
+	// Moves on to a new log file and folds every older log into a new snapshot
+	// on the compactor thread. Must be called with the lock held.
+	//
+	// The current log is forced before the next one is created: open() only
+	// cuts off a damaged record at the end of the newest log, so an older log
+	// must never end in one.
+	private void startCompaction() {
+		long sealed = logGeneration;
+		try {
+			log.force();
+			FileChannel next = this.createLog(sealed + 1);
+			log.rotate(next);
+		} catch (IOException ex) {
+			failure = ex;
+			throw new UncheckedIOException(ex);
+		}
+		logGeneration = sealed + 1;
+		compaction = compactor.submit(() -> {
+			try {
+				this.writeSnapshot(sealed + 1);
+			} catch (IOException | RuntimeException ex) {
+				synchronized (lock) {
+					if (compactionFailure == null) {
+						compactionFailure = ex instanceof IOException
+								? (IOException) ex : new IOException("compaction failed", ex);
+					}
+				}
+			}
+			return null;
+		});
+	}
+
+	// Throws the failure of a compaction that has not been reported yet, and
+	// forgets it. Must be called with the lock held.
+	// throw IOException if a compaction failed since the last call
+	private void throwCompactionFailure() throws IOException {
+		IOException ex = compactionFailure;
+		if (ex != null) {
+			compactionFailure = null;
+			throw ex;
+		}
+	}
+
+	// Writes snapshot number generation from the newest snapshot and the logs
+	// since, then deletes those. Only runs on the compactor thread (or while
+	// opening), so it is the only code that changes snapshotGeneration.
+	private void writeSnapshot(long generation) throws IOException {
+		ChainedHashDictionary<K, V> folded = this.loadSnapshot(snapshotGeneration);
+		for (long i = snapshotGeneration; i < generation; i++) {
+			Path file = this.logFile(i);
+			if (Files.exists(file)) {
+				replay(file, folded, false);
+			}
+		}
+		Path temp = directory.resolve(SNAPSHOT_PREFIX + generation + SNAPSHOT_SUFFIX + TEMP_SUFFIX);
+		boolean moved = false;
+		try {
+			FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+			try (SnapshotWriter writer = new SnapshotWriter(channel)) {
+				writer.writeDictionary(folded, keyCodec, valueCodec);
+				channel.force(true);
+			}
+			Files.move(temp, this.snapshotFile(generation), StandardCopyOption.ATOMIC_MOVE);
+			moved = true;
+		} finally {
+			if (!moved) {
+				try {
+					Files.deleteIfExists(temp);
+				} catch (IOException ex) {
+					// open() deletes it instead
+				}
+			}
+		}
+		this.forceDirectory();
+		snapshotGeneration = generation;
+		this.deleteBefore(generation);
+	}
+
+	// Returns the dictionary held by the given snapshot, or an empty one if the
+	// snapshot does not exist
+	private ChainedHashDictionary<K, V> loadSnapshot(long generation) throws IOException {
+		Path file = this.snapshotFile(generation);
+		if (!Files.exists(file)) {
+			return new ChainedHashDictionary<>();
+		}
+		try (SnapshotReader reader = new SnapshotReader(FileChannel.open(file, StandardOpenOption.READ))) {
+			return reader.readDictionary(keyCodec, valueCodec);
+		}
+	}
+
+	// Applies every record in the given log file to the given dictionary. If
+	// tornTailAllowed is true, a damaged record ends the log and is cut off;
+	// otherwise it is an error.
+	// throw IOException if the file can't be read or is damaged
+	private void replay(Path file, ChainedHashDictionary<K, V> target, boolean tornTailAllowed) throws IOException {
+		CRC32 check = new CRC32();
+		long valid = 0; // Length of the records read so far
+		boolean torn = false;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+			byte[] body = new byte[256];
+			while (true) {
+				int bodyLength;
+				try {
+					bodyLength = in.readInt();
+				} catch (EOFException ex) {
+					break;
+				}
+				try {
+					int checksum = in.readInt();
+					if (bodyLength <= 0) {
+						throw new IOException("bad record length");
+					}
+					if (body.length < bodyLength) {
+						body = new byte[Math.max(body.length * 2, bodyLength)];
+					}
+					in.readFully(body, 0, bodyLength);
+					check.reset();
+					check.update(body, 0, bodyLength);
+					if ((int) check.getValue() != checksum) {
+						throw new IOException("checksum mismatch");
+					}
+				} catch (IOException ex) {
+					if (!tornTailAllowed) {
+						throw new IOException("damaged log " + file + ": " + ex.getMessage(), ex);
+					}
+					torn = true;
+					break;
+				}
+				this.apply(ByteBuffer.wrap(body, 0, bodyLength), target);
+				valid += RECORD_HEADER_BYTES + bodyLength;
+			}
+		}
+		if (torn) {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				channel.truncate(valid);
+				channel.force(true);
+			}
+		}
+	}
+
+	// Applies the change in the given record body to the given dictionary
+	private void apply(ByteBuffer body, ChainedHashDictionary<K, V> target) throws IOException {
+		byte op = body.get();
+		K key = readItem(body, keyCodec);
+		if (op == PUT) {
+			target.put(key, readItem(body, valueCodec));
+		} else if (op == REMOVE) {
+			if (target.containsKey(key)) {
+				target.remove(key);
+			}
+		} else {
+			throw new IOException("unknown log record type " + op);
+		}
+	}
+
+	// Deletes every snapshot and log numbered below the given generation
+	private void deleteBefore(long generation) throws IOException {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				long found = Math.max(generationOf(name, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX),
+						generationOf(name, LOG_PREFIX, LOG_SUFFIX));
+				if (found >= 0 && found < generation) {
+					Files.delete(file);
+				}
+			}
+		}
+	}
+
+	// Creates the given log file and forces the directory so that the new file
+	// can't be lost
+	private FileChannel createLog(long generation) throws IOException {
+		FileChannel channel = FileChannel.open(this.logFile(generation), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE);
+		this.forceDirectory();
+		return channel;
+	}
+
+	// Forces the directory itself, so that files created or renamed in it are on
+	// the disk. Some platforms can't open a directory; there, this does nothing.
+	private void forceDirectory() {
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException ex) {
+			// This platform can't force a directory
+		}
+	}
+
+	private Path snapshotFile(long generation) {
+		return directory.resolve(SNAPSHOT_PREFIX + generation + SNAPSHOT_SUFFIX);
+	}
+
+	private Path logFile(long generation) {
+		return directory.resolve(LOG_PREFIX + generation + LOG_SUFFIX);
+	}
+
+	// Returns the number in a file name made of the given prefix, a number and
+	// the given suffix, or -1 if the name is not like that
+	private static long generationOf(String name, String prefix, String suffix) {
+		if (!name.startsWith(prefix) || !name.endsWith(suffix)
+				|| name.length() == prefix.length() + suffix.length()) {
+			return -1;
+		}
+		String digits = name.substring(prefix.length(), name.length() - suffix.length());
+		for (int i = 0; i < digits.length(); i++) {
+			if (digits.charAt(i) < '0' || digits.charAt(i) > '9') {
+				return -1;
+			}
+		}
+		try {
+			return Long.parseLong(digits);
+		} catch (NumberFormatException ex) {
+			return -1;
+		}
+	}
+
+	// Waits for the given compaction to finish. A compaction records its own
+	// failure (see startCompaction()), so this only waits.
+	// throw IOException if the thread is interrupted
+	private static void awaitCompaction(Future<?> running) throws IOException {
+		try {
+			running.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException ex) {
+			throw new IOException("compaction failed", ex.getCause());
+		}
+	}
+
+	// throw IllegalStateException if the dictionary has been closed
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("dictionary is closed");
+		}
+	}
+
+	// throw IllegalStateException if the dictionary has been closed or its log
+	// stopped working
+	private void checkWritable() {
+		this.checkOpen();
+		if (failure != null) {
+			throw new IllegalStateException("log can't be written", failure);
+		}
+	}
+
+	// Returns the encoded length of the given item, or NULL_LENGTH for null
+	private static <T> int lengthOf(ICodec<T> codec, T item) {
+		return item == null ? NULL_LENGTH : codec.sizeOf(item);
+	}
+
+	// Returns the number of bytes taken by an item of the given length
+	private static int itemBytes(int length) {
+		return Integer.BYTES + Math.max(length, 0);
+	}
+
+	// Writes the given item and its length into the buffer
+	// throw IllegalStateException if the codec wrote a different number of bytes
+	private static <T> void putItem(ByteBuffer buffer, ICodec<T> codec, T item, int length) {
+		buffer.putInt(length);
+		if (item == null) {
+			return;
+		}
+		int start = buffer.position();
+		codec.encode(item, buffer);
+		if (buffer.position() - start != length) {
+			throw new IllegalStateException("codec wrote " + (buffer.position() - start) + " bytes instead of " + length);
+		}
+	}
+
+	// Reads an item written by putItem() from the buffer
+	// throw IOException if the item runs past the end of the buffer
+	private static <T> T readItem(ByteBuffer buffer, ICodec<T> codec) throws IOException {
+		int length = buffer.getInt();
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		if (length < 0 || length > buffer.remaining()) {
+			throw new IOException("bad item length " + length);
+		}
+		ByteBuffer item = buffer.duplicate();
+		item.limit(buffer.position() + length);
+		buffer.position(buffer.position() + length);
+		return codec.decode(item);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V> KVPair<K, V>[] makeArrayOfPairs(int size) {
+		return (KVPair<K, V>[]) new KVPair[size];
+	}
+}
@@ -0,0 +1,468 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IDictionaryCursor;
+import datastructures.interfaces.IEvictionListener;
+import misc.exceptions.NoSuchKeyException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+// Represents a data structure that contains a bunch of key-value
+// mappings. Each key must be unique.
+//
+// Every entry in this dictionary expires once its time to live has passed,
+// either the dictionary's default or one given when the entry is put. An
+// expired entry is never returned: lookups check the entry's deadline, and
+// drop the entry on the spot if it has passed.
+//
+// Expired entries that nobody looks up are reclaimed by a TimerWheel, which
+// hands over just the entries whose deadlines have passed, so reclaiming costs
+// O(1) per expired entry instead of a sweep over the whole table. The wheel is
+// advanced by every change, by cleanUp(), and (unless turned off) about once a
+// second by a background thread. The wheel works in ticks of about a second,
+// so size() and the eviction listener may lag up to a second behind.
+//
+// Every dictionary shares one background thread. Its task for a dictionary
+// only holds the dictionary weakly, so a dictionary that is never closed can
+// still be garbage collected, and the task cancels itself once it has been.
+//
+// Entries are kept in a ChainedHashDictionary that maps each key to its node in
+// the wheel. Time is read from a ticker, in nanoseconds, which tests can replace.
+//
+// The dictionary is safe to share between threads; every operation runs under
+// one lock. Iterators and cursors walk over a copy of the live pairs taken when
+// they are created.
+public class ExpiringDictionary<K, V> implements IDictionary<K, V>, AutoCloseable {
+	private final Object lock;
+	private ChainedHashDictionary<K, TimerWheel.Node<K, V>> map; // Guarded by lock
+	private TimerWheel<K, V> wheel; // Guarded by lock
+	private long defaultTtl; // In nanoseconds
+	private LongSupplier ticker;
+	private IEvictionListener<K, V> listener; // Told about expired entries; may be null
+	private ScheduledFuture<?> cleanup; // Background cleanup task, or null if there is none
+
+	// Runs the background cleanup of every dictionary, on one daemon thread
+	private static final ScheduledThreadPoolExecutor CLEANER = newCleaner();
+
+	// Creates a dictionary whose entries expire after the given time by default,
+	// cleaned up in the background
+	// throw IllegalArgumentException if the time is not positive
+	public ExpiringDictionary(long defaultTtl, TimeUnit unit) {
+		this(defaultTtl, unit, System::nanoTime, null, true);
+	}
+
+	// Creates a dictionary whose entries expire after the given time by default.
+	// The ticker gives the current time in nanoseconds. The listener, if any, is
+	// told about each entry that expires, while the lock is held. If
+	// backgroundCleanup is false, expired entries are only reclaimed while the
+	// dictionary is being changed or by cleanUp().
+	// throw IllegalArgumentException if the time is not positive, or the unit or
+	// ticker is null
+	public ExpiringDictionary(long defaultTtl, TimeUnit unit, LongSupplier ticker, IEvictionListener<K, V> listener,
+			boolean backgroundCleanup) {
+		if (defaultTtl <= 0 || unit == null || ticker == null) {
+			throw new IllegalArgumentException();
+		}
+		this.lock = new Object();
+		this.defaultTtl = unit.toNanos(defaultTtl);
+		this.ticker = ticker;
+		this.listener = listener;
+		this.map = new ChainedHashDictionary<>();
+		this.wheel = new TimerWheel<>(ticker.getAsLong());
+		if (backgroundCleanup) {
+			CleanUpTask task = new CleanUpTask(this);
+			this.cleanup = CLEANER.scheduleWithFixedDelay(task, 1, 1, TimeUnit.SECONDS);
+			task.future = cleanup;
+		}
+	}
+
+	private static ScheduledThreadPoolExecutor newCleaner() {
+		ScheduledThreadPoolExecutor cleaner = new ScheduledThreadPoolExecutor(1, task -> {
+			Thread thread = new Thread(task, "ExpiringDictionary cleaner");
+			thread.setDaemon(true);
+			return thread;
+		});
+		cleaner.setRemoveOnCancelPolicy(true);
+		return cleaner;
+	}
+
+	// Pass a K object as a parameter
+	// Returns the value corresponding to the given key.
+	// throw NoSuchKeyException if the given key is not in the data structure
+	// or has expired
+	@Override
+	public V get(K key) {
+		synchronized (lock) {
+			TimerWheel.Node<K, V> node = this.liveNode(key);
+			if (node == null) {
+				throw new NoSuchKeyException();
+			}
+			return node.value;
+		}
+	}
+
+	// Pass a K and a V as parameters
+	// Returns the value corresponding to the given key, or the default value if
+	// the key is not in the data structure or has expired
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		synchronized (lock) {
+			TimerWheel.Node<K, V> node = this.liveNode(key);
+			return node == null ? defaultValue : node.value;
+		}
+	}
+
+	// Pass a K and a V as parameters and put K-V pairs into the data structure
+	// If the K already exists in data structure, replace its value with V
+	// The entry expires after the default time to live.
+	@Override
+	public void put(K key, V value) {
+		this.put(key, value, defaultTtl, TimeUnit.NANOSECONDS);
+	}
+
+	// Same as above, but the entry expires after the given time instead
+	// throw IllegalArgumentException if the time is not positive or the unit is null
+	public void put(K key, V value, long ttl, TimeUnit unit) {
+		if (ttl <= 0 || unit == null) {
+			throw new IllegalArgumentException();
+		}
+		long nanos = unit.toNanos(ttl);
+		synchronized (lock) {
+			this.store(key, value, nanos);
+		}
+	}
+
+	// Pass a K object as parameter
+	// Remove the K-V pair corresponding to the given key from the data structure.
+	// The listener is not told.
+	// Throw NoSuchKeyException if the given K is not in data structure or has expired
+	@Override
+	public V remove(K key) {
+		synchronized (lock) {
+			wheel.advance(ticker.getAsLong(), this::expire);
+			TimerWheel.Node<K, V> node = this.liveNode(key);
+			if (node == null) {
+				throw new NoSuchKeyException();
+			}
+			this.drop(node);
+			return node.value;
+		}
+	}
+
+	// The methods below look the key up once, under the lock, so the entry
+	// can't expire halfway through. A new entry gets the default time to live;
+	// an entry whose value is only replaced keeps its deadline. See IDictionary
+	// for what each of them does.
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		synchronized (lock) {
+			TimerWheel.Node<K, V> node = this.liveNode(key);
+			if (node != null) {
+				return node.value;
+			}
+			this.store(key, value, defaultTtl);
+			return null;
+		}
+	}
+
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		synchronized (lock) {
+			TimerWheel.Node<K, V> node = this.liveNode(key);
+			if (node != null) {
+				return node.value;
+			}
+			V value = mappingFunction.apply(key);
+			if (value != null) {
+				this.store(key, value, defaultTtl);
+			}
+			return value;
+		}
+	}
+
+	@Override
+	public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		synchronized (lock) {
+			TimerWheel.Node<K, V> node = this.liveNode(key);
+			if (node == null) {
+				return null;
+			}
+			V value = remappingFunction.apply(key, node.value);
+			this.replace(node, value);
+			return value;
+		}
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		synchronized (lock) {
+			TimerWheel.Node<K, V> node = this.liveNode(key);
+			V value = remappingFunction.apply(key, node == null ? null : node.value);
+			if (node != null) {
+				this.replace(node, value);
+			} else if (value != null) {
+				this.store(key, value, defaultTtl);
+			}
+			return value;
+		}
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		synchronized (lock) {
+			TimerWheel.Node<K, V> node = this.liveNode(key);
+			if (node == null) {
+				this.store(key, value, defaultTtl);
+				return value;
+			}
+			V newValue = remappingFunction.apply(node.value, value);
+			this.replace(node, newValue);
+			return newValue;
+		}
+	}
+
+	// Pass an object K as parameter. Return True if data structure contains the K
+	// and it has not expired. False otherwise.
+	@Override
+	public boolean containsKey(K key) {
+		synchronized (lock) {
+			return this.liveNode(key) != null;
+		}
+	}
+
+	// Return the size of data structure, after reclaiming expired entries. May
+	// still count entries that expired less than a second ago.
+	@Override
+	public int size() {
+		synchronized (lock) {
+			wheel.advance(ticker.getAsLong(), this::expire);
+			return map.size();
+		}
+	}
+
+	// Returns a list of all key-value pairs within this data structure that
+	// had not expired when this method was called
+	@Override
+	public Iterator<KVPair<K, V>> iterator() {
+		KVPair<K, V>[] pairs;
+		int count = 0;
+		synchronized (lock) {
+			long now = ticker.getAsLong();
+			wheel.advance(now, this::expire);
+			pairs = makeArrayOfPairs(map.size());
+			IDictionaryCursor<K, TimerWheel.Node<K, V>> cursor = map.cursor();
+			while (cursor.advance()) {
+				TimerWheel.Node<K, V> node = cursor.value();
+				if (node.deadline - now > 0) {
+					pairs[count] = new KVPair<>(node.key, node.value);
+					count++;
+				}
+			}
+		}
+		return Arrays.asList(pairs).subList(0, count).iterator();
+	}
+
+	// Returns a cursor over the pairs that had not expired when this method was
+	// called. setValue() replaces an entry's value without changing when it
+	// expires, and does nothing to an entry that has expired or been removed
+	// since the cursor was created.
+	@Override
+	public IDictionaryCursor<K, V> cursor() {
+		TimerWheel.Node<K, V>[] nodes;
+		int count = 0;
+		synchronized (lock) {
+			long now = ticker.getAsLong();
+			wheel.advance(now, this::expire);
+			nodes = makeArrayOfNodes(map.size());
+			IDictionaryCursor<K, TimerWheel.Node<K, V>> cursor = map.cursor();
+			while (cursor.advance()) {
+				TimerWheel.Node<K, V> node = cursor.value();
+				if (node.deadline - now > 0) {
+					nodes[count] = node;
+					count++;
+				}
+			}
+		}
+		return new ExpiringCursor(nodes, count);
+	}
+
+	// Reclaims every entry the timing wheel finds expired. Called about once a
+	// second by the background thread, if this dictionary uses it. The listener
+	// then runs on that thread, which every dictionary shares, so it should be quick.
+	public void cleanUp() {
+		synchronized (lock) {
+			wheel.advance(ticker.getAsLong(), this::expire);
+		}
+	}
+
+	// Stops the background cleanup, if there is one. The dictionary can still be
+	// used afterwards; expired entries are then reclaimed as if background
+	// cleanup had been turned off.
+	@Override
+	public void close() {
+		if (cleanup != null) {
+			cleanup.cancel(false);
+		}
+	}
+
+	// Stores the given value for the given key, expiring the given number of
+	// nanoseconds from now. Must be called with the lock held.
+	private void store(K key, V value, long nanos) {
+		long now = ticker.getAsLong();
+		wheel.advance(now, this::expire);
+		long deadline = now + nanos; // Deadlines are compared by subtraction, so this may wrap around
+		TimerWheel.Node<K, V> node = map.getOrDefault(key, null);
+		if (node != null) {
+			node.value = value;
+			node.deadline = deadline;
+			wheel.reschedule(node);
+		} else {
+			node = new TimerWheel.Node<>(key, value, deadline);
+			map.put(key, node);
+			wheel.schedule(node);
+		}
+	}
+
+	// Gives the given live node the given value, keeping its deadline, or
+	// drops it if the value is null. Must be called with the lock held.
+	private void replace(TimerWheel.Node<K, V> node, V value) {
+		if (value == null) {
+			this.drop(node);
+		} else {
+			node.value = value;
+		}
+	}
+
+	// Removes the given live node without telling the listener.
+	// Must be called with the lock held.
+	private void drop(TimerWheel.Node<K, V> node) {
+		wheel.deschedule(node);
+		map.remove(node.key);
+	}
+
+	// Returns the node for the given key, or null if there is none or it has
+	// expired, in which case it is dropped right away
+	// Must be called with the lock held.
+	private TimerWheel.Node<K, V> liveNode(K key) {
+		TimerWheel.Node<K, V> node = map.getOrDefault(key, null);
+		if (node == null) {
+			return null;
+		}
+		if (node.deadline - ticker.getAsLong() <= 0) {
+			wheel.deschedule(node);
+			this.expire(node);
+			return null;
+		}
+		return node;
+	}
+
+	// Drops the given expired node, which is in no bucket any more
+	private void expire(TimerWheel.Node<K, V> node) {
+		map.remove(node.key);
+		if (listener != null) {
+			listener.onEviction(node.key, node.value);
+		}
+	}
+
+	// Cursor over a copy of the live nodes, taken when it was created
+	private class ExpiringCursor implements IDictionaryCursor<K, V> {
+		private TimerWheel.Node<K, V>[] nodes;
+		private V[] values; // Value of each node when the cursor was created, or set through it
+		private int count;
+		private int index; // Index of the node the cursor is on
+
+		public ExpiringCursor(TimerWheel.Node<K, V>[] nodes, int count) {
+			this.nodes = nodes;
+			this.values = makeArrayOfValues(count);
+			for (int i = 0; i < count; i++) {
+				values[i] = nodes[i].value;
+			}
+			this.count = count;
+			this.index = -1;
+		}
+
+		@Override
+		public boolean advance() {
+			if (index < count) {
+				index++;
+			}
+			return index < count;
+		}
+
+		@Override
+		public K key() {
+			this.checkOnPair();
+			return nodes[index].key;
+		}
+
+		@Override
+		public V value() {
+			this.checkOnPair();
+			return values[index];
+		}
+
+		@Override
+		public void setValue(V value) {
+			this.checkOnPair();
+			values[index] = value;
+			synchronized (lock) {
+				TimerWheel.Node<K, V> node = nodes[index];
+				if (liveNode(node.key) == node) {
+					node.value = value;
+				}
+			}
+		}
+
+		// throw IllegalStateException if the cursor is not on a pair
+		private void checkOnPair() {
+			if (index < 0 || index >= count) {
+				throw new IllegalStateException();
+			}
+		}
+	}
+
+	// Background task that cleans up one dictionary, holding it only weakly
+	private static class CleanUpTask implements Runnable {
+		private final WeakReference<ExpiringDictionary<?, ?>> dict;
+		private volatile ScheduledFuture<?> future; // This task's schedule, set once it is scheduled
+
+		public CleanUpTask(ExpiringDictionary<?, ?> dict) {
+			this.dict = new WeakReference<>(dict);
+		}
+
+		@Override
+		public void run() {
+			ExpiringDictionary<?, ?> target = dict.get();
+			if (target != null) {
+				target.cleanUp();
+			} else if (future != null) {
+				// The dictionary has been garbage collected without being closed
+				future.cancel(false);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V> KVPair<K, V>[] makeArrayOfPairs(int size) {
+		return (KVPair<K, V>[]) new KVPair[size];
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V> TimerWheel.Node<K, V>[] makeArrayOfNodes(int size) {
+		return (TimerWheel.Node<K, V>[]) new TimerWheel.Node[size];
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <V> V[] makeArrayOfValues(int size) {
+		return (V[]) new Object[size];
+	}
+}
@@ -0,0 +1,90 @@
+package datastructures.concrete.dictionaries;
+
+// A count-min sketch that estimates how often each key has been seen recently,
+// for WTinyLfuCache to decide which entries are worth keeping.
+//
+// Counters are 4 bits wide, sixteen to a long, and each key has one counter in
+// each of four rows. All four of a key's counters sit in the same quarter of
+// their longs, picked by the key's hash, and the longs themselves are picked by
+// four independent hashes. A key's frequency is the smallest of its counters,
+// which can only be too high (when every one of them is shared with another
+// key), never too low.
+//
+// So that old popularity fades, once the sketch has counted ten times as many
+// increments as the cache can hold entries, every counter is halved.
+class FrequencySketch {
+	private long[] table;
+	private int tableMask;
+	private int sampleSize; // Number of increments between two halvings
+	private int additions; // Increments counted since the last halving
+
+	private static final long[] SEEDS = { // Odd constants used to derive the four hashes
+		0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+	};
+	private static final long RESET_MASK = 0x7777777777777777L; // Clears the bit each counter loses when halved
+	private static final int MAX_COUNT = 15;
+
+	// Creates a sketch sized for a cache of the given number of entries
+	public FrequencySketch(int maxEntries) {
+		long length = Long.highestOneBit(Math.max(maxEntries, 16) - 1L) << 1;
+		this.table = new long[(int) Math.min(length, 1 << 26)];
+		this.tableMask = table.length - 1;
+		this.sampleSize = (int) Math.min(10L * Math.max(maxEntries, 16), Integer.MAX_VALUE);
+		this.additions = 0;
+	}
+
+	// Returns the estimated number of times the key with the given hash was
+	// recently seen, from 0 to 15
+	public int frequency(int hash) {
+		int start = (hash & 3) << 2;
+		int frequency = MAX_COUNT;
+		for (int i = 0; i < 4; i++) {
+			int index = indexOf(hash, i);
+			int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xf);
+			frequency = Math.min(frequency, count);
+		}
+		return frequency;
+	}
+
+	// Records one more sighting of the key with the given hash
+	public void increment(int hash) {
+		int start = (hash & 3) << 2;
+		boolean added = false;
+		for (int i = 0; i < 4; i++) {
+			added |= incrementAt(indexOf(hash, i), start + i);
+		}
+		if (added) {
+			additions++;
+			if (additions == sampleSize) {
+				this.halve();
+			}
+		}
+	}
+
+	// Adds one to the given counter in the given long unless it is already at
+	// its maximum, returning true if it changed
+	private boolean incrementAt(int index, int counter) {
+		int offset = counter << 2;
+		long mask = 0xfL << offset;
+		if ((table[index] & mask) != mask) {
+			table[index] += 1L << offset;
+			return true;
+		}
+		return false;
+	}
+
+	// Halves every counter, and the number of increments counted
+	private void halve() {
+		for (int i = 0; i < table.length; i++) {
+			table[i] = (table[i] >>> 1) & RESET_MASK;
+		}
+		additions /= 2;
+	}
+
+	// Returns the long that holds the key's counter in the given row
+	private int indexOf(int hash, int row) {
+		long h = (hash + SEEDS[row]) * SEEDS[row];
+		h += h >>> 32;
+		return (int) h & tableMask;
+	}
+}
@@ -0,0 +1,258 @@
+package datastructures.concrete.dictionaries;
+
+import misc.exceptions.NoSuchKeyException;
+
+// Represents a data structure that contains a bunch of long keys mapped to
+// long values. Each key must be unique. It behaves like an
+// IDictionary<Long, Long>, but keeps keys and values in flat arrays, so
+// put(), get() and remove() never create any objects.
+//
+// Entries are stored with open addressing and linear probing. A key of 0 marks
+// a free slot, so an entry whose key really is 0 is kept in its own field
+// instead, and every long can be used as a key. Removal uses backward-shift
+// deletion, so the table never needs tombstones.
+public class LongLongDictionary {
+	private long[] keys; // Key of each slot, or 0 if the slot is free
+	private long[] values;
+	private boolean hasZeroKey; // True if the key 0 is in the dictionary
+	private long zeroValue; // Value for the key 0, if there is one
+	private int size;
+
+	public LongLongDictionary() {
+		this(0);
+	}
+
+	// Creates a dictionary that can hold the given number of items without resizing
+	// throw IllegalArgumentException if the expected size is negative
+	public LongLongDictionary(int expectedSize) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException();
+		}
+		size = 0;
+		allocate(PrimitiveHashing.capacityFor(expectedSize));
+	}
+
+	// Sets up new, empty key and value arrays with the given capacity.
+	// The capacity must be a power of two.
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new long[capacity];
+	}
+
+	// Pass a long key as a parameter
+	// Returns the value corresponding to the given key.
+	// throw NoSuchKeyException if the given key is not in the data structure
+	public long get(long key) {
+		if (key == 0) {
+			if (hasZeroKey) {
+				return zeroValue;
+			}
+			throw new NoSuchKeyException();
+		}
+		int slot = indexOf(key);
+		if (slot == -1) {
+			throw new NoSuchKeyException();
+		}
+		return values[slot];
+	}
+
+	// Pass a long key and a long value as parameters
+	// Returns the value corresponding to the given key, or the default value
+	// if the key is not in the data structure
+	public long getOrDefault(long key, long defaultValue) {
+		if (key == 0) {
+			return hasZeroKey ? zeroValue : defaultValue;
+		}
+		int slot = indexOf(key);
+		return slot == -1 ? defaultValue : values[slot];
+	}
+
+	// Pass a long key and a long value as parameters and put the pair
+	// into the data structure
+	// If the key already exists in data structure, replace its value
+	// if the table is too full to fit new data, its capacity will be doubled.
+	public void put(long key, long value) {
+		if (key == 0) {
+			if (!hasZeroKey) {
+				hasZeroKey = true;
+				size++;
+			}
+			zeroValue = value;
+			return;
+		}
+		int mask = keys.length - 1;
+		int slot = PrimitiveHashing.hash(key) & mask;
+		while (keys[slot] != 0) {
+			if (keys[slot] == key) {
+				values[slot] = value;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		size++;
+		if (size - (hasZeroKey ? 1 : 0) > PrimitiveHashing.maxLoad(keys.length)) {
+			resize(keys.length * 2);
+		}
+	}
+
+	// Pass a long key as parameter
+	// Remove the pair with the given key from the data structure and return its value.
+	// Throw NoSuchKeyException if the given key is not in data structure
+	public long remove(long key) {
+		if (key == 0) {
+			if (!hasZeroKey) {
+				throw new NoSuchKeyException();
+			}
+			long item = zeroValue;
+			hasZeroKey = false;
+			zeroValue = 0;
+			size--;
+			return item;
+		}
+		int slot = indexOf(key);
+		if (slot == -1) {
+			throw new NoSuchKeyException();
+		}
+		long item = values[slot];
+		deleteSlot(slot);
+		size--;
+		return item;
+	}
+
+	// Pass a long key as parameter. Return True if data structure contains the key.
+	// False otherwise.
+	public boolean containsKey(long key) {
+		if (key == 0) {
+			return hasZeroKey;
+		}
+		return indexOf(key) != -1;
+	}
+
+	// return the size of data structure
+	public int size() {
+		return size;
+	}
+
+	// Returns true if the data structure has no items and false otherwise
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	// Returns a cursor over all pairs within this data structure, which creates
+	// nothing per pair. The cursor starts before the first pair.
+	public Cursor cursor() {
+		return new Cursor(this);
+	}
+
+	// Returns the slot holding the given non-zero key, or -1 if there is no such key
+	private int indexOf(long key) {
+		int mask = keys.length - 1;
+		int slot = PrimitiveHashing.hash(key) & mask;
+		while (keys[slot] != 0) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	// Empties the given slot, then pulls back every following entry that can move
+	// closer to its home slot, so that no probe run is left with a hole in it
+	private void deleteSlot(int gap) {
+		int mask = keys.length - 1;
+		int next = (gap + 1) & mask;
+		while (keys[next] != 0) {
+			int home = PrimitiveHashing.hash(keys[next]) & mask;
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				values[gap] = values[next];
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[gap] = 0;
+		values[gap] = 0;
+	}
+
+	// Moves every entry into new arrays of the given capacity
+	private void resize(int capacity) {
+		long[] oldKeys = keys;
+		long[] oldValues = values;
+		allocate(capacity);
+		int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				int slot = PrimitiveHashing.hash(oldKeys[i]) & mask;
+				while (keys[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	// Cursor over the pairs in a LongLongDictionary object. It visits the key 0 first,
+	// then every occupied slot. If the dictionary is changed while a cursor is in
+	// use, other than through setValue(), the cursor's behavior is undefined.
+	public static class Cursor {
+		private final LongLongDictionary dict;
+		private int slot; // -1 for the key 0, then slots; -2 before the first pair
+
+		private Cursor(LongLongDictionary dict) {
+			this.dict = dict;
+			this.slot = -2;
+		}
+
+		// Moves the cursor onto the next pair. Returns true if there was one, and
+		// false if the cursor has moved past the last pair.
+		public boolean advance() {
+			long[] keys = dict.keys;
+			if (slot >= keys.length) {
+				return false;
+			}
+			slot++;
+			if (slot == -1 && !dict.hasZeroKey) {
+				slot++;
+			}
+			while (slot >= 0 && slot < keys.length && keys[slot] == 0) {
+				slot++;
+			}
+			return slot < keys.length;
+		}
+
+		// Returns the key of the pair the cursor is on
+		// throw IllegalStateException if the cursor is not on a pair
+		public long key() {
+			return checkedSlot() == -1 ? 0 : dict.keys[slot];
+		}
+
+		// Returns the value of the pair the cursor is on
+		// throw IllegalStateException if the cursor is not on a pair
+		public long value() {
+			return checkedSlot() == -1 ? dict.zeroValue : dict.values[slot];
+		}
+
+		// Replaces the value of the pair the cursor is on
+		// throw IllegalStateException if the cursor is not on a pair
+		public void setValue(long value) {
+			if (checkedSlot() == -1) {
+				dict.zeroValue = value;
+			} else {
+				dict.values[slot] = value;
+			}
+		}
+
+		// Returns the slot the cursor is on
+		// throw IllegalStateException if the cursor is not on a pair
+		private int checkedSlot() {
+			if (slot == -2 || slot >= dict.keys.length) {
+				throw new IllegalStateException();
+			}
+			return slot;
+		}
+	}
+}
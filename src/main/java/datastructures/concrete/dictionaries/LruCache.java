@@ -0,0 +1,223 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IEvictionListener;
+import misc.exceptions.NoSuchKeyException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntBiFunction;
+
+// Represents a data structure that contains a bunch of key-value
+// mappings. Each key must be unique.
+//
+// This dictionary is a bounded cache that evicts the least recently used
+// entries once it holds too much. It is bounded either by its number of
+// entries, or by the total weight of its entries as measured by a weigher.
+//
+// Each key maps (in a ChainedHashDictionary) to a node that is also linked
+// into a RecencyList, most recently used first. get() moves the entry's node
+// to the front, put() adds or moves it there, and eviction takes nodes off the
+// back, so each of them is O(1). containsKey() does not count as a use.
+//
+// An entry heavier than the whole bound is evicted as soon as it is put, on
+// its own; the rest of the cache is left alone.
+public class LruCache<K, V> implements IDictionary<K, V> {
+	private ChainedHashDictionary<K, RecencyList.Node<K, V>> map;
+	private RecencyList<K, V> recency;
+	private long maxWeight;
+	private ToIntBiFunction<? super K, ? super V> weigher;
+	private IEvictionListener<K, V> listener; // May be null
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	// Creates a cache that holds at most the given number of entries
+	// throw IllegalArgumentException if the number is not positive
+	public LruCache(int maxEntries) {
+		this(maxEntries, null);
+	}
+
+	// Same as above, telling the given listener about every eviction
+	public LruCache(int maxEntries, IEvictionListener<K, V> listener) {
+		this(maxEntries, (key, value) -> 1, listener);
+	}
+
+	// Creates a cache whose entries weigh at most the given total, as measured
+	// by the given weigher, telling the given listener (if any) about every
+	// eviction. An entry's weight is measured when it is put.
+	// throw IllegalArgumentException if the maximum weight is not positive or
+	// the weigher is null
+	public LruCache(long maxWeight, ToIntBiFunction<? super K, ? super V> weigher, IEvictionListener<K, V> listener) {
+		if (maxWeight <= 0 || weigher == null) {
+			throw new IllegalArgumentException();
+		}
+		this.map = new ChainedHashDictionary<>();
+		this.recency = new RecencyList<>();
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+		this.listener = listener;
+	}
+
+	// Pass a K object as a parameter
+	// Returns the value corresponding to the given key, and marks the entry as
+	// the most recently used.
+	// throw NoSuchKeyException if the given key is not in the data structure
+	@Override
+	public V get(K key) {
+		RecencyList.Node<K, V> node = map.getOrDefault(key, null);
+		if (node == null) {
+			misses++;
+			throw new NoSuchKeyException();
+		}
+		hits++;
+		recency.moveToFront(node);
+		return node.value;
+	}
+
+	// Pass a K and a V as parameters
+	// Returns the value corresponding to the given key, or the default value if
+	// the key is not in the data structure. Marks an entry that is found as the
+	// most recently used.
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		RecencyList.Node<K, V> node = map.getOrDefault(key, null);
+		if (node == null) {
+			misses++;
+			return defaultValue;
+		}
+		hits++;
+		recency.moveToFront(node);
+		return node.value;
+	}
+
+	// Pass a K and a V as parameters and put K-V pairs into the data structure
+	// If the K already exists in data structure, replace its value with V
+	// The entry becomes the most recently used, and the least recently used
+	// entries are evicted until the cache is within its bound. An entry heavier
+	// than the bound replaces the key's old value, if any, and is then evicted
+	// right away.
+	// throw IllegalArgumentException if the weigher returns a negative weight
+	@Override
+	public void put(K key, V value) {
+		int weight = weigher.applyAsInt(key, value);
+		if (weight < 0) {
+			throw new IllegalArgumentException("negative weight " + weight);
+		}
+		RecencyList.Node<K, V> node = map.getOrDefault(key, null);
+		if (weight > maxWeight) {
+			if (node != null) {
+				recency.remove(node);
+				map.remove(key);
+			}
+			this.evicted(key, value);
+			return;
+		}
+		if (node != null) {
+			recency.remove(node);
+			node.value = value;
+			node.weight = weight;
+		} else {
+			node = new RecencyList.Node<>(key, value, weight);
+			map.put(key, node);
+		}
+		recency.addFirst(node);
+		this.evictIfNeeded();
+	}
+
+	// Pass a K object as parameter
+	// Remove the K-V pair corresponding to the given key from the data structure.
+	// The eviction listener is not told.
+	// Throw NoSuchKeyException if the given K is not in data structure
+	@Override
+	public V remove(K key) {
+		RecencyList.Node<K, V> node = map.remove(key);
+		recency.remove(node);
+		return node.value;
+	}
+
+	// Pass an object K as parameter. Return True if data structure contains the K.
+	// False otherwise. Does not count as a use of the entry.
+	@Override
+	public boolean containsKey(K key) {
+		return map.containsKey(key);
+	}
+
+	// return the size of data structure
+	@Override
+	public int size() {
+		return recency.size();
+	}
+
+	// Returns the total weight of the entries in the cache; without a weigher,
+	// this is the number of entries
+	public long weight() {
+		return recency.weight();
+	}
+
+	// Returns the most the entries in the cache may weigh together
+	public long maxWeight() {
+		return maxWeight;
+	}
+
+	// Returns the hits, misses and evictions the cache has seen so far
+	public CacheStats stats() {
+		return new CacheStats(hits, misses, evictions);
+	}
+
+	// Returns a list of all key-value pairs within this data structure, from
+	// the most to the least recently used. Iterating does not count as a use.
+	@Override
+	public Iterator<KVPair<K, V>> iterator() {
+		return new LruIterator<>(recency);
+	}
+
+	// Evicts the least recently used entries until the cache is within its bound
+	private void evictIfNeeded() {
+		while (recency.weight() > maxWeight) {
+			RecencyList.Node<K, V> victim = recency.last();
+			recency.remove(victim);
+			map.remove(victim.key);
+			this.evicted(victim.key, victim.value);
+		}
+	}
+
+	// Counts an eviction of the given pair and tells the listener about it
+	private void evicted(K key, V value) {
+		evictions++;
+		if (listener != null) {
+			listener.onEviction(key, value);
+		}
+	}
+
+	//Class used to iterate through the items in a LruCache object
+	private static class LruIterator<K, V> implements Iterator<KVPair<K, V>> {
+		private RecencyList<K, V> recency;
+		private RecencyList.Node<K, V> next; //Next node to return, or null
+
+		public LruIterator(RecencyList<K, V> recency) {
+			this.recency = recency;
+			this.next = recency.first();
+		}
+
+		// Returns true if there is another item in the data structure that can
+		// be returned by the next() function
+		// Returns false otherwise
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		// Return the next item in the iteration
+		// throw NoSuchElementException if a next item does not exist.
+		@Override
+		public KVPair<K, V> next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			KVPair<K, V> pair = new KVPair<>(next.key, next.value);
+			next = recency.next(next);
+			return pair;
+		}
+	}
+}
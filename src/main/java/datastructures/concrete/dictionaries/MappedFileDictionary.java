@@ -0,0 +1,669 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.ICodec;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.NoSuchKeyException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Represents a data structure that contains a bunch of key-value
+// mappings. Each key must be unique.
+//
+// The whole dictionary lives in a memory-mapped file, so it survives restarts:
+// opening an existing file only reads its header, and the operating system
+// pages the rest in as it is used. Keys and values are turned into bytes by
+// ICodecs, and keys are hashed and compared by their encoded bytes.
+//
+// The file starts with a header, followed by records appended one after
+// another: entries, records of removed keys, and slot tables. A slot table
+// holds the hash and file offset of each live entry (linear probing,
+// backward-shift deletion). The file is mapped in chunks, and grows by mapping
+// one more chunk past its end; no record other than a slot table ever crosses
+// into the next chunk. When the slot table fills up, a table twice the size is
+// written after the last record and the data continues after that. Replaced
+// and removed entries, and old slot tables, are not reclaimed.
+//
+// Changes reach the disk whenever the operating system writes the pages back,
+// and are only guaranteed to once force() or close() returns. The header marks
+// the file as changed until then. Only the slot table is ever changed in
+// place; every record before the end of the data as of the last force() stays
+// as it was. So opening a file that is still marked (say, after a crash)
+// replays those records into a new slot table, which gets back exactly what
+// the last force() saved, and drops everything after it.
+//
+// Only one dictionary may have a file open at a time.
+public class MappedFileDictionary<K, V> implements IDictionary<K, V>, AutoCloseable {
+	private FileChannel channel;
+	private MappedByteBuffer[] chunks; // Mapped chunks of the file, in order
+	private int chunkCount;
+	private ICodec<K> keyCodec;
+	private ICodec<V> valueCodec;
+	private ByteBuffer scratch; // Heap buffer the key being looked up is encoded into
+	private int capacity; // Number of slots, a power of two
+	private long indexOffset; // File offset of the slot table
+	private long dataEnd; // File offset just past the last entry
+	private int size;
+	private boolean dirty; // True if the header marks the file as changed since the last force()
+	private boolean closed;
+
+	// Header layout
+	private static final int MAGIC = 0x4d464431; // "MFD1"
+	private static final int VERSION = 2;
+	private static final int MAGIC_AT = 0;
+	private static final int VERSION_AT = 4;
+	private static final int STATE_AT = 8; // CLEAN or DIRTY
+	private static final int CHUNK_SHIFT_AT = 12;
+	private static final int CAPACITY_AT = 16;
+	private static final int SIZE_AT = 20;
+	private static final int INDEX_OFFSET_AT = 24;
+	private static final int DATA_END_AT = 32;
+	private static final int HEADER_BYTES = 64;
+	private static final int CLEAN = 0;
+	private static final int DIRTY = 1;
+
+	private static final int CHUNK_SHIFT = 24; // The file is mapped 16 MB at a time
+	private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+	private static final int SLOT_BYTES = 16; // int hash, int unused, long offset (0 if the slot is free)
+	private static final int ENTRY_HEADER_BYTES = 8; // int key length, then int value length
+	private static final int NULL_LENGTH = -1; // Length recorded for a null key or value
+	private static final int REMOVED_LENGTH = -2; // Value length of a record of a removed key
+	private static final int TABLE_MARK = -3; // Key length of the record in front of a slot table
+	private static final int SKIP_MARK = -4; // Key length written where the rest of a chunk is unused
+
+	private MappedFileDictionary(FileChannel channel, ICodec<K> keyCodec, ICodec<V> valueCodec) {
+		this.channel = channel;
+		this.chunks = new MappedByteBuffer[4];
+		this.chunkCount = 0;
+		this.keyCodec = keyCodec;
+		this.valueCodec = valueCodec;
+		this.scratch = ByteBuffer.allocate(64);
+	}
+
+	// Opens the dictionary stored in the given file, creating an empty one if
+	// the file does not exist or is empty. If the file was not closed cleanly,
+	// the dictionary is brought back to how it was at the last force().
+	// throw IOException if the file can't be opened or is not a dictionary file
+	public static <K, V> MappedFileDictionary<K, V> open(Path path, ICodec<K> keyCodec, ICodec<V> valueCodec)
+			throws IOException {
+		return open(path, keyCodec, valueCodec, 0);
+	}
+
+	// Same as above; a newly created dictionary can hold the given number of
+	// items before its slot table has to grow
+	public static <K, V> MappedFileDictionary<K, V> open(Path path, ICodec<K> keyCodec, ICodec<V> valueCodec,
+			int expectedSize) throws IOException {
+		if (path == null || keyCodec == null || valueCodec == null || expectedSize < 0) {
+			throw new IllegalArgumentException();
+		}
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		MappedFileDictionary<K, V> dict = new MappedFileDictionary<>(channel, keyCodec, valueCodec);
+		try {
+			if (channel.size() == 0) {
+				dict.create(expectedSize);
+			} else {
+				dict.load();
+			}
+		} catch (IOException | RuntimeException ex) {
+			dict.unmapAll();
+			channel.close();
+			throw ex;
+		}
+		return dict;
+	}
+
+	// Sets up an empty dictionary in the empty file
+	private void create(int expectedSize) throws IOException {
+		capacity = PrimitiveHashing.capacityFor(expectedSize);
+		dataEnd = HEADER_BYTES;
+		size = 0;
+		mapUpTo(dataEnd);
+		ByteBuffer header = chunks[0];
+		header.putInt(MAGIC_AT, MAGIC);
+		header.putInt(VERSION_AT, VERSION);
+		header.putInt(CHUNK_SHIFT_AT, CHUNK_SHIFT);
+		newTable();
+		writeHeader(DIRTY);
+		dirty = true;
+		force();
+	}
+
+	// Reads the header of an existing file and maps the rest of it, recovering
+	// the state of the last force() if the file is marked as changed
+	private void load() throws IOException {
+		if (channel.size() < HEADER_BYTES || channel.size() % CHUNK_SIZE != 0) {
+			throw new IOException("not a dictionary file");
+		}
+		mapUpTo(channel.size());
+		ByteBuffer header = chunks[0];
+		if (header.getInt(MAGIC_AT) != MAGIC || header.getInt(CHUNK_SHIFT_AT) != CHUNK_SHIFT) {
+			throw new IOException("not a dictionary file");
+		}
+		if (header.getInt(VERSION_AT) != VERSION) {
+			throw new IOException("unsupported dictionary file version " + header.getInt(VERSION_AT));
+		}
+		capacity = header.getInt(CAPACITY_AT);
+		size = header.getInt(SIZE_AT);
+		indexOffset = header.getLong(INDEX_OFFSET_AT);
+		dataEnd = header.getLong(DATA_END_AT);
+		dirty = false;
+		if (header.getInt(STATE_AT) != CLEAN) {
+			dirty = true;
+			recover();
+			force();
+		}
+	}
+
+	// Rebuilds the slot table from the records before dataEnd, which are the ones
+	// the last force() saved. The slot table in use since then may have been
+	// partly written back, so it is ignored, and records past dataEnd are dropped.
+	// The new table is written after the replayed records.
+	// throw IOException if the records don't make sense
+	private void recover() throws IOException {
+		long end = dataEnd;
+		size = 0;
+		newTable();
+		long at = HEADER_BYTES;
+		while (at < end) {
+			if (within(at) + ENTRY_HEADER_BYTES > CHUNK_SIZE) {
+				at = nextChunk(at);
+				continue;
+			}
+			ByteBuffer chunk = chunkAt(at);
+			int keyLength = chunk.getInt(within(at));
+			int valueLength = chunk.getInt(within(at) + 4);
+			if (keyLength == SKIP_MARK) {
+				at = nextChunk(at);
+			} else if (keyLength == TABLE_MARK) {
+				at = alignToSlot(at + ENTRY_HEADER_BYTES) + (long) valueLength * SLOT_BYTES;
+			} else if (keyLength < NULL_LENGTH || valueLength < REMOVED_LENGTH
+					|| within(at) + (long) ENTRY_HEADER_BYTES + Math.max(keyLength, 0)
+							+ Math.max(valueLength, 0) > CHUNK_SIZE) {
+				throw new IOException("dictionary file is damaged");
+			} else {
+				if (keyLength > 0) {
+					ensureScratch(keyLength);
+					scratch.put(BufferSupport.slice(chunk, within(at) + ENTRY_HEADER_BYTES, keyLength));
+				}
+				int hash = scratchHash(keyLength);
+				int slot = findSlot(keyLength, hash);
+				if (valueLength == REMOVED_LENGTH) {
+					if (slot >= 0) {
+						deleteSlot(slot);
+						size--;
+					}
+				} else if (slot >= 0) {
+					setSlot(slot, hash, at);
+				} else {
+					setSlot(-1 - slot, hash, at);
+					size++;
+					if (size > PrimitiveHashing.maxLoad(capacity)) {
+						growIndex();
+					}
+				}
+				at += ENTRY_HEADER_BYTES + Math.max(keyLength, 0) + Math.max(valueLength, 0);
+			}
+		}
+	}
+
+	// Pass a K object as a parameter
+	// Returns the value corresponding to the given key.
+	// throw NoSuchKeyException if the given key is not in the data structure
+	@Override
+	public V get(K key) {
+		int slot = slotOf(key);
+		if (slot < 0) {
+			throw new NoSuchKeyException();
+		}
+		return readValue(offsetAt(slot));
+	}
+
+	// Pass a K and a V as parameters
+	// Returns the value corresponding to the given key, or the default value
+	// if the key is not in the data structure
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		int slot = slotOf(key);
+		return slot < 0 ? defaultValue : readValue(offsetAt(slot));
+	}
+
+	// Pass a K and a V as parameters and put K-V pairs into the data structure
+	// If the K already exists in data structure, replace its value with V
+	// throw UncheckedIOException if the file can't grow
+	@Override
+	public void put(K key, V value) {
+		checkOpen();
+		int keyLength = encodeKey(key);
+		int hash = scratchHash(keyLength);
+		int slot = findSlot(keyLength, hash);
+		markDirty();
+		long offset = append(keyLength, value);
+		if (slot >= 0) {
+			setSlot(slot, hash, offset);
+		} else {
+			setSlot(-1 - slot, hash, offset);
+			size++;
+			if (size > PrimitiveHashing.maxLoad(capacity)) {
+				growIndex();
+			}
+		}
+	}
+
+	// Pass a K object as parameter
+	// Remove the K-V pair corresponding to the given key from the data structure.
+	// A record of the removal is appended, so that recovery leaves the key out.
+	// Throw NoSuchKeyException if the given K is not in data structure
+	// throw UncheckedIOException if the file can't grow
+	@Override
+	public V remove(K key) {
+		checkOpen();
+		int keyLength = encodeKey(key);
+		int slot = findSlot(keyLength, scratchHash(keyLength));
+		if (slot < 0) {
+			throw new NoSuchKeyException();
+		}
+		V item = readValue(offsetAt(slot));
+		markDirty();
+		appendRemoval(keyLength);
+		deleteSlot(slot);
+		size--;
+		return item;
+	}
+
+	// Pass an object K as parameter. Return True if data structure contains the K.
+	// False otherwise.
+	@Override
+	public boolean containsKey(K key) {
+		return slotOf(key) >= 0;
+	}
+
+	// return the size of data structure
+	@Override
+	public int size() {
+		return size;
+	}
+
+	// Returns a list of all key-value pairs within this data structure
+	@Override
+	public Iterator<KVPair<K, V>> iterator() {
+		checkOpen();
+		return new MappedIterator();
+	}
+
+	// Writes every change made so far to the disk and marks the file as clean,
+	// returning once the disk has it
+	// throw UncheckedIOException if the file can't be written
+	public void force() {
+		checkOpen();
+		if (!dirty) {
+			return;
+		}
+		for (int i = 0; i < chunkCount; i++) {
+			chunks[i].force();
+		}
+		writeHeader(CLEAN);
+		chunks[0].force();
+		dirty = false;
+	}
+
+	// Forces every change to the disk, then unmaps and closes the file.
+	// Does nothing if the dictionary is already closed.
+	// throw UncheckedIOException if the file can't be written or closed
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		force();
+		closed = true;
+		unmapAll();
+		try {
+			channel.close();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	// throw IllegalStateException if the dictionary has been closed
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("dictionary is closed");
+		}
+	}
+
+	// Marks the file as changed, making sure the mark is on the disk before any
+	// of the changes can be
+	private void markDirty() {
+		if (!dirty) {
+			writeHeader(DIRTY);
+			chunks[0].force();
+			dirty = true;
+		}
+	}
+
+	// Writes the current sizes and offsets and the given state into the header
+	private void writeHeader(int state) {
+		ByteBuffer header = chunks[0];
+		header.putInt(CAPACITY_AT, capacity);
+		header.putInt(SIZE_AT, size);
+		header.putLong(INDEX_OFFSET_AT, indexOffset);
+		header.putLong(DATA_END_AT, dataEnd);
+		header.putInt(STATE_AT, state);
+	}
+
+	// Maps more chunks, growing the file if needed, until the given file offset
+	// is covered
+	private void mapUpTo(long end) {
+		try {
+			while ((long) chunkCount * CHUNK_SIZE < end) {
+				if (chunkCount == chunks.length) {
+					chunks = Arrays.copyOf(chunks, chunkCount * 2);
+				}
+				chunks[chunkCount] = channel.map(FileChannel.MapMode.READ_WRITE,
+						(long) chunkCount * CHUNK_SIZE, CHUNK_SIZE);
+				chunkCount++;
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private void unmapAll() {
+		for (int i = 0; i < chunkCount; i++) {
+			BufferSupport.free(chunks[i]);
+			chunks[i] = null;
+		}
+		chunkCount = 0;
+	}
+
+	// Encodes the given key into the scratch buffer and returns the slot holding
+	// it, or a negative number if there is none (see findSlot())
+	private int slotOf(K key) {
+		checkOpen();
+		int keyLength = encodeKey(key);
+		return findSlot(keyLength, scratchHash(keyLength));
+	}
+
+	// Encodes the given key at the start of the scratch buffer, growing it if
+	// needed. Returns the number of bytes written, or NULL_LENGTH for a null key.
+	private int encodeKey(K key) {
+		if (key == null) {
+			return NULL_LENGTH;
+		}
+		int length = keyCodec.sizeOf(key);
+		ensureScratch(length);
+		keyCodec.encode(key, scratch);
+		checkEncoded(scratch.position(), length);
+		return length;
+	}
+
+	// Clears the scratch buffer, growing it first if it can't hold the given
+	// number of bytes
+	private void ensureScratch(int length) {
+		if (scratch.capacity() < length) {
+			scratch = ByteBuffer.allocate(Math.max(length, scratch.capacity() * 2));
+		}
+		scratch.clear();
+	}
+
+	// Returns the hash of the key encoded in the scratch buffer
+	private int scratchHash(int keyLength) {
+		return keyLength == NULL_LENGTH ? 0 : BufferSupport.hash(scratch, 0, keyLength);
+	}
+
+	// Returns the slot of the entry whose key is encoded in the scratch buffer, or
+	// -1 minus the free slot the key would go in if there is no such entry
+	private int findSlot(int keyLength, int hash) {
+		int mask = capacity - 1;
+		int slot = hash & mask;
+		while (true) {
+			long offset = offsetAt(slot);
+			if (offset == 0) {
+				return -1 - slot;
+			}
+			if (hashAt(slot) == hash && keyMatches(offset, keyLength)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	// Returns true if the entry at the given file offset has the key encoded in
+	// the scratch buffer
+	private boolean keyMatches(long offset, int keyLength) {
+		ByteBuffer chunk = chunkAt(offset);
+		int at = within(offset);
+		if (chunk.getInt(at) != keyLength) {
+			return false;
+		}
+		return keyLength == NULL_LENGTH
+				|| BufferSupport.bytesEqual(chunk, at + ENTRY_HEADER_BYTES, scratch, 0, keyLength);
+	}
+
+	// Appends an entry made of the key encoded in the scratch buffer and the
+	// given value after the last entry, and returns its file offset
+	private long append(int keyLength, V value) {
+		int valueLength = value == null ? NULL_LENGTH : valueCodec.sizeOf(value);
+		long bytes = (long) ENTRY_HEADER_BYTES + Math.max(keyLength, 0) + Math.max(valueLength, 0);
+		if (bytes > CHUNK_SIZE) {
+			throw new IllegalArgumentException("entry is larger than " + CHUNK_SIZE + " bytes");
+		}
+		long offset = reserve(bytes);
+		ByteBuffer chunk = chunkAt(offset).duplicate();
+		chunk.position(within(offset));
+		chunk.putInt(keyLength);
+		chunk.putInt(valueLength);
+		if (keyLength > 0) {
+			chunk.put(scratch.array(), 0, keyLength);
+		}
+		if (value != null) {
+			valueCodec.encode(value, chunk);
+		}
+		checkEncoded(chunk.position() - within(offset), (int) bytes);
+		dataEnd = offset + bytes;
+		return offset;
+	}
+
+	// Appends a record saying that the key encoded in the scratch buffer was removed
+	private void appendRemoval(int keyLength) {
+		long bytes = (long) ENTRY_HEADER_BYTES + Math.max(keyLength, 0);
+		long offset = reserve(bytes);
+		ByteBuffer chunk = chunkAt(offset).duplicate();
+		chunk.position(within(offset));
+		chunk.putInt(keyLength);
+		chunk.putInt(REMOVED_LENGTH);
+		if (keyLength > 0) {
+			chunk.put(scratch.array(), 0, keyLength);
+		}
+		dataEnd = offset + bytes;
+	}
+
+	// Returns the file offset a record of the given size goes at, mapping more of
+	// the file if needed. That is the end of the data, unless the record would
+	// cross into the next chunk; then it goes at the start of that chunk, and the
+	// rest of this one is marked as unused if there is room for the mark.
+	private long reserve(long bytes) {
+		long offset = dataEnd;
+		if (within(offset) + bytes > CHUNK_SIZE) {
+			if (within(offset) + ENTRY_HEADER_BYTES <= CHUNK_SIZE) {
+				chunkAt(offset).putInt(within(offset), SKIP_MARK);
+			}
+			offset = nextChunk(offset);
+		}
+		mapUpTo(offset + bytes);
+		return offset;
+	}
+
+	// Writes an empty slot table of the current capacity after the last record,
+	// and makes it the one in use. It follows a record whose key length is
+	// TABLE_MARK and whose value length is the table's capacity.
+	private void newTable() {
+		long mark = reserve(ENTRY_HEADER_BYTES);
+		ByteBuffer chunk = chunkAt(mark);
+		chunk.putInt(within(mark), TABLE_MARK);
+		chunk.putInt(within(mark) + 4, capacity);
+		indexOffset = alignToSlot(mark + ENTRY_HEADER_BYTES);
+		dataEnd = indexOffset + (long) capacity * SLOT_BYTES;
+		mapUpTo(dataEnd);
+		// The space may hold leftovers of changes that were never forced
+		for (int slot = 0; slot < capacity; slot++) {
+			setSlot(slot, 0, 0);
+		}
+	}
+
+	// Writes a slot table twice the size after the last record and moves every
+	// entry's hash and offset into it. The entries themselves stay where they are.
+	private void growIndex() {
+		long oldIndexOffset = indexOffset;
+		int oldCapacity = capacity;
+		capacity *= 2;
+		newTable();
+		int mask = capacity - 1;
+		for (int i = 0; i < oldCapacity; i++) {
+			long slotAt = oldIndexOffset + (long) i * SLOT_BYTES;
+			long offset = chunkAt(slotAt).getLong(within(slotAt) + 8);
+			if (offset != 0) {
+				int hash = chunkAt(slotAt).getInt(within(slotAt));
+				int slot = hash & mask;
+				while (offsetAt(slot) != 0) {
+					slot = (slot + 1) & mask;
+				}
+				setSlot(slot, hash, offset);
+			}
+		}
+	}
+
+	// Empties the given slot, then pulls back every following entry that can move
+	// closer to its home slot, so that no probe run is left with a hole in it
+	private void deleteSlot(int gap) {
+		int mask = capacity - 1;
+		int next = (gap + 1) & mask;
+		while (offsetAt(next) != 0) {
+			int hash = hashAt(next);
+			int home = hash & mask;
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				setSlot(gap, hash, offsetAt(next));
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		setSlot(gap, 0, 0);
+	}
+
+	// Returns the key of the entry at the given file offset
+	private K readKey(long offset) {
+		ByteBuffer chunk = chunkAt(offset);
+		int at = within(offset);
+		int keyLength = chunk.getInt(at);
+		if (keyLength == NULL_LENGTH) {
+			return null;
+		}
+		return keyCodec.decode(BufferSupport.slice(chunk, at + ENTRY_HEADER_BYTES, keyLength));
+	}
+
+	// Returns the value of the entry at the given file offset
+	private V readValue(long offset) {
+		ByteBuffer chunk = chunkAt(offset);
+		int at = within(offset);
+		int keyLength = chunk.getInt(at);
+		int valueLength = chunk.getInt(at + 4);
+		if (valueLength == NULL_LENGTH) {
+			return null;
+		}
+		return valueCodec.decode(BufferSupport.slice(chunk, at + ENTRY_HEADER_BYTES + Math.max(keyLength, 0),
+				valueLength));
+	}
+
+	private long offsetAt(int slot) {
+		long slotAt = indexOffset + (long) slot * SLOT_BYTES;
+		return chunkAt(slotAt).getLong(within(slotAt) + 8);
+	}
+
+	private int hashAt(int slot) {
+		long slotAt = indexOffset + (long) slot * SLOT_BYTES;
+		return chunkAt(slotAt).getInt(within(slotAt));
+	}
+
+	private void setSlot(int slot, int hash, long offset) {
+		long slotAt = indexOffset + (long) slot * SLOT_BYTES;
+		ByteBuffer chunk = chunkAt(slotAt);
+		chunk.putInt(within(slotAt), hash);
+		chunk.putLong(within(slotAt) + 8, offset);
+	}
+
+	// Returns the chunk holding the given file offset
+	private ByteBuffer chunkAt(long offset) {
+		return chunks[(int) (offset >>> CHUNK_SHIFT)];
+	}
+
+	// Returns the file offset of the start of the chunk after the one holding the
+	// given file offset
+	private static long nextChunk(long offset) {
+		return ((offset >>> CHUNK_SHIFT) + 1) << CHUNK_SHIFT;
+	}
+
+	// Rounds the given file offset up to a multiple of the slot size
+	private static long alignToSlot(long offset) {
+		return (offset + SLOT_BYTES - 1) / SLOT_BYTES * SLOT_BYTES;
+	}
+
+	// Returns where the given file offset is within its chunk
+	private static int within(long offset) {
+		return (int) (offset & (CHUNK_SIZE - 1));
+	}
+
+	// throw IllegalStateException if a codec wrote a different number of bytes
+	// than it said it would
+	private static void checkEncoded(int written, int expected) {
+		if (written != expected) {
+			throw new IllegalStateException("codec wrote " + written + " bytes instead of " + expected);
+		}
+	}
+
+	//Class used to iterate through the items in a MappedFileDictionary object
+	private class MappedIterator implements Iterator<KVPair<K, V>> {
+		private int nextSlot; //Next occupied slot, or capacity if there is none
+
+		public MappedIterator() {
+			this.nextSlot = findOccupied(0);
+		}
+
+		// Returns true if there is another item in the data structure that can
+		// be returned by the next() function
+		// Returns false otherwise
+		@Override
+		public boolean hasNext() {
+			return !closed && nextSlot < capacity;
+		}
+
+		// Return the next item in the iteration
+		// throw NoSuchElementException if a next item does not exist.
+		@Override
+		public KVPair<K, V> next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			long offset = offsetAt(nextSlot);
+			nextSlot = findOccupied(nextSlot + 1);
+			return new KVPair<>(readKey(offset), readValue(offset));
+		}
+
+		// Returns the first occupied slot at or after the given start slot
+		private int findOccupied(int start) {
+			int slot = start;
+			while (slot < capacity && offsetAt(slot) == 0) {
+				slot++;
+			}
+			return slot;
+		}
+	}
+}
@@ -0,0 +1,475 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.ICodec;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.NoSuchKeyException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Represents a data structure that contains a bunch of key-value
+// mappings. Each key must be unique.
+//
+// Keys and values are kept outside of the Java heap, in direct ByteBuffers, so
+// no matter how many entries the dictionary holds, the garbage collector only
+// ever sees a handful of buffers. Keys and values are turned into bytes by the
+// ICodecs given to the constructor, and decoded again whenever they are read, so
+// get() returns an equal copy of the value that was put rather than the same object.
+// Keys are hashed and compared by their encoded bytes.
+//
+// Entries are appended one after another to a list of data pages. An index of
+// slots, also off the heap, holds the hash and address of every entry, using
+// linear probing and backward-shift deletion. Removing or replacing an entry
+// leaves its old bytes behind; once those make up most of the data pages, the
+// live entries are copied into fresh pages and the old ones are freed.
+//
+// The memory is given back by close(), or else once the dictionary has been
+// garbage collected. Using a closed dictionary throws IllegalStateException.
+public class OffHeapDictionary<K, V> implements IDictionary<K, V>, AutoCloseable {
+	private ICodec<K> keyCodec;
+	private ICodec<V> valueCodec;
+	private ByteBuffer[] index; // Pages of slots, each holding the hash and address of an entry
+	private int capacity; // Number of slots, a power of two
+	private ByteBuffer[] pages; // Data pages; entries are appended to the last one
+	private int pageCount;
+	private ByteBuffer scratch; // Heap buffer the key being looked up is encoded into
+	private int size;
+	private long liveBytes; // Bytes of the entries the index points to
+	private long deadBytes; // Bytes of removed or replaced entries
+	private boolean closed;
+
+	private static final int SLOT_BYTES = 12; // int hash, then long address (0 if the slot is free)
+	private static final int INDEX_PAGE_SHIFT = 16; // Each index page holds 2^16 slots
+	private static final int PAGE_SIZE = 1 << 20; // Bytes per data page, unless an entry needs more
+	private static final int HEADER_BYTES = 8; // int key length, then int value length
+	private static final int NULL_LENGTH = -1; // Length recorded for a null key or value
+
+	public OffHeapDictionary(ICodec<K> keyCodec, ICodec<V> valueCodec) {
+		this(keyCodec, valueCodec, 0);
+	}
+
+	// Creates a dictionary that can hold the given number of items without
+	// growing its index
+	// throw IllegalArgumentException if a codec is null or the expected size is negative
+	public OffHeapDictionary(ICodec<K> keyCodec, ICodec<V> valueCodec, int expectedSize) {
+		if (keyCodec == null || valueCodec == null || expectedSize < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.keyCodec = keyCodec;
+		this.valueCodec = valueCodec;
+		this.capacity = PrimitiveHashing.capacityFor(expectedSize);
+		this.index = allocateIndex(capacity);
+		this.pages = new ByteBuffer[4];
+		this.pageCount = 0;
+		this.scratch = ByteBuffer.allocate(64);
+		this.size = 0;
+	}
+
+	// Pass a K object as a parameter
+	// Returns the value corresponding to the given key.
+	// throw NoSuchKeyException if the given key is not in the data structure
+	@Override
+	public V get(K key) {
+		int slot = slotOf(key);
+		if (slot < 0) {
+			throw new NoSuchKeyException();
+		}
+		return readValue(addressAt(slot));
+	}
+
+	// Pass a K and a V as parameters
+	// Returns the value corresponding to the given key, or the default value
+	// if the key is not in the data structure
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		int slot = slotOf(key);
+		return slot < 0 ? defaultValue : readValue(addressAt(slot));
+	}
+
+	// Pass a K and a V as parameters and put K-V pairs into the data structure
+	// If the K already exists in data structure, replace its value with V
+	@Override
+	public void put(K key, V value) {
+		checkOpen();
+		int keyLength = encodeKey(key);
+		int hash = scratchHash(keyLength);
+		int slot = findSlot(keyLength, hash);
+		long address = append(keyLength, value);
+		if (slot >= 0) {
+			discard(addressAt(slot));
+			setSlot(index, slot, hash, address);
+		} else {
+			setSlot(index, -1 - slot, hash, address);
+			size++;
+			if (size > PrimitiveHashing.maxLoad(capacity)) {
+				growIndex();
+			}
+		}
+		compactIfNeeded();
+	}
+
+	// Pass a K object as parameter
+	// Remove the K-V pair corresponding to the given key from the data structure.
+	// Throw NoSuchKeyException if the given K is not in data structure
+	@Override
+	public V remove(K key) {
+		int slot = slotOf(key);
+		if (slot < 0) {
+			throw new NoSuchKeyException();
+		}
+		long address = addressAt(slot);
+		V item = readValue(address);
+		discard(address);
+		deleteSlot(slot);
+		size--;
+		compactIfNeeded();
+		return item;
+	}
+
+	// Pass an object K as parameter. Return True if data structure contains the K.
+	// False otherwise.
+	@Override
+	public boolean containsKey(K key) {
+		return slotOf(key) >= 0;
+	}
+
+	// return the size of data structure
+	@Override
+	public int size() {
+		return size;
+	}
+
+	// Returns a list of all key-value pairs within this data structure
+	@Override
+	public Iterator<KVPair<K, V>> iterator() {
+		checkOpen();
+		return new OffHeapIterator();
+	}
+
+	// Frees all of the memory held by this dictionary. Does nothing if it is
+	// already closed.
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		for (ByteBuffer page : index) {
+			BufferSupport.free(page);
+		}
+		for (int i = 0; i < pageCount; i++) {
+			BufferSupport.free(pages[i]);
+		}
+		index = null;
+		pages = null;
+		pageCount = 0;
+		size = 0;
+	}
+
+	// throw IllegalStateException if the dictionary has been closed
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("dictionary is closed");
+		}
+	}
+
+	// Encodes the given key into the scratch buffer and returns the slot holding
+	// it, or a negative number if there is none (see findSlot())
+	private int slotOf(K key) {
+		checkOpen();
+		int keyLength = encodeKey(key);
+		return findSlot(keyLength, scratchHash(keyLength));
+	}
+
+	// Encodes the given key at the start of the scratch buffer, growing it if
+	// needed. Returns the number of bytes written, or NULL_LENGTH for a null key.
+	private int encodeKey(K key) {
+		if (key == null) {
+			return NULL_LENGTH;
+		}
+		int length = keyCodec.sizeOf(key);
+		if (scratch.capacity() < length) {
+			scratch = ByteBuffer.allocate(Math.max(length, scratch.capacity() * 2));
+		}
+		scratch.clear();
+		keyCodec.encode(key, scratch);
+		checkEncoded(scratch.position(), length);
+		return length;
+	}
+
+	// Returns the hash of the key encoded in the scratch buffer
+	private int scratchHash(int keyLength) {
+		return keyLength == NULL_LENGTH ? 0 : BufferSupport.hash(scratch, 0, keyLength);
+	}
+
+	// Returns the slot of the entry whose key is encoded in the scratch buffer, or
+	// -1 minus the free slot the key would go in if there is no such entry
+	private int findSlot(int keyLength, int hash) {
+		int mask = capacity - 1;
+		int slot = hash & mask;
+		while (true) {
+			long address = addressAt(slot);
+			if (address == 0) {
+				return -1 - slot;
+			}
+			if (hashAt(slot) == hash && keyMatches(address, keyLength)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	// Returns true if the entry at the given address has the key encoded in the
+	// scratch buffer
+	private boolean keyMatches(long address, int keyLength) {
+		ByteBuffer page = pageOf(address);
+		int offset = offsetOf(address);
+		if (page.getInt(offset) != keyLength) {
+			return false;
+		}
+		return keyLength == NULL_LENGTH
+				|| BufferSupport.bytesEqual(page, offset + HEADER_BYTES, scratch, 0, keyLength);
+	}
+
+	// Appends an entry made of the key encoded in the scratch buffer and the
+	// given value to the data pages, and returns its address
+	private long append(int keyLength, V value) {
+		int valueLength = value == null ? NULL_LENGTH : valueCodec.sizeOf(value);
+		int bytes = entryBytes(keyLength, valueLength);
+		ByteBuffer page = pageWithRoom(bytes);
+		int offset = page.position();
+		page.putInt(keyLength);
+		page.putInt(valueLength);
+		if (keyLength > 0) {
+			page.put(scratch.array(), 0, keyLength);
+		}
+		if (value != null) {
+			valueCodec.encode(value, page);
+		}
+		checkEncoded(page.position() - offset, bytes);
+		liveBytes += bytes;
+		return addressOf(pageCount, offset);
+	}
+
+	// Returns the last data page if it has room for the given number of bytes,
+	// and otherwise adds a new page that does
+	private ByteBuffer pageWithRoom(int bytes) {
+		if (pageCount > 0 && pages[pageCount - 1].remaining() >= bytes) {
+			return pages[pageCount - 1];
+		}
+		if (pageCount == pages.length) {
+			pages = Arrays.copyOf(pages, pageCount * 2);
+		}
+		pages[pageCount] = ByteBuffer.allocateDirect(Math.max(PAGE_SIZE, bytes));
+		pageCount++;
+		return pages[pageCount - 1];
+	}
+
+	// Marks the entry at the given address as garbage
+	private void discard(long address) {
+		int bytes = entryBytes(pageOf(address), offsetOf(address));
+		liveBytes -= bytes;
+		deadBytes += bytes;
+	}
+
+	// Copies the live entries into fresh data pages and frees the old ones, once
+	// more than half of the data is garbage
+	private void compactIfNeeded() {
+		if (deadBytes <= PAGE_SIZE || deadBytes <= liveBytes) {
+			return;
+		}
+		ByteBuffer[] oldPages = pages;
+		int oldCount = pageCount;
+		pages = new ByteBuffer[4];
+		pageCount = 0;
+		for (int slot = 0; slot < capacity; slot++) {
+			long address = addressAt(slot);
+			if (address != 0) {
+				ByteBuffer from = oldPages[(int) (address >>> 32) - 1];
+				int offset = offsetOf(address);
+				int bytes = entryBytes(from, offset);
+				ByteBuffer to = pageWithRoom(bytes);
+				int newOffset = to.position();
+				to.put(BufferSupport.slice(from, offset, bytes));
+				setSlot(index, slot, hashAt(slot), addressOf(pageCount, newOffset));
+			}
+		}
+		deadBytes = 0;
+		for (int i = 0; i < oldCount; i++) {
+			BufferSupport.free(oldPages[i]);
+		}
+	}
+
+	// Doubles the number of slots, moving every entry's hash and address over.
+	// The entries themselves stay where they are.
+	private void growIndex() {
+		ByteBuffer[] oldIndex = index;
+		int oldCapacity = capacity;
+		capacity *= 2;
+		index = allocateIndex(capacity);
+		int mask = capacity - 1;
+		for (int i = 0; i < oldCapacity; i++) {
+			long address = addressAt(oldIndex, i);
+			if (address != 0) {
+				int hash = hashAt(oldIndex, i);
+				int slot = hash & mask;
+				while (addressAt(slot) != 0) {
+					slot = (slot + 1) & mask;
+				}
+				setSlot(index, slot, hash, address);
+			}
+		}
+		for (ByteBuffer page : oldIndex) {
+			BufferSupport.free(page);
+		}
+	}
+
+	// Empties the given slot, then pulls back every following entry that can move
+	// closer to its home slot, so that no probe run is left with a hole in it
+	private void deleteSlot(int gap) {
+		int mask = capacity - 1;
+		int next = (gap + 1) & mask;
+		while (addressAt(next) != 0) {
+			int hash = hashAt(next);
+			int home = hash & mask;
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				setSlot(index, gap, hash, addressAt(next));
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		setSlot(index, gap, 0, 0);
+	}
+
+	// Returns the key of the entry at the given address
+	private K readKey(long address) {
+		ByteBuffer page = pageOf(address);
+		int offset = offsetOf(address);
+		int keyLength = page.getInt(offset);
+		if (keyLength == NULL_LENGTH) {
+			return null;
+		}
+		return keyCodec.decode(BufferSupport.slice(page, offset + HEADER_BYTES, keyLength));
+	}
+
+	// Returns the value of the entry at the given address
+	private V readValue(long address) {
+		ByteBuffer page = pageOf(address);
+		int offset = offsetOf(address);
+		int keyLength = page.getInt(offset);
+		int valueLength = page.getInt(offset + 4);
+		if (valueLength == NULL_LENGTH) {
+			return null;
+		}
+		return valueCodec.decode(BufferSupport.slice(page, offset + HEADER_BYTES + Math.max(keyLength, 0),
+				valueLength));
+	}
+
+	// Returns a new, zeroed index with the given number of slots
+	private static ByteBuffer[] allocateIndex(int capacity) {
+		int slotsPerPage = Math.min(capacity, 1 << INDEX_PAGE_SHIFT);
+		ByteBuffer[] index = new ByteBuffer[capacity / slotsPerPage];
+		for (int i = 0; i < index.length; i++) {
+			index[i] = ByteBuffer.allocateDirect(slotsPerPage * SLOT_BYTES);
+		}
+		return index;
+	}
+
+	private long addressAt(int slot) {
+		return addressAt(index, slot);
+	}
+
+	private int hashAt(int slot) {
+		return hashAt(index, slot);
+	}
+
+	private static long addressAt(ByteBuffer[] index, int slot) {
+		return index[slot >>> INDEX_PAGE_SHIFT].getLong(slotOffset(slot) + 4);
+	}
+
+	private static int hashAt(ByteBuffer[] index, int slot) {
+		return index[slot >>> INDEX_PAGE_SHIFT].getInt(slotOffset(slot));
+	}
+
+	private static void setSlot(ByteBuffer[] index, int slot, int hash, long address) {
+		ByteBuffer page = index[slot >>> INDEX_PAGE_SHIFT];
+		page.putInt(slotOffset(slot), hash);
+		page.putLong(slotOffset(slot) + 4, address);
+	}
+
+	// Returns the byte offset of the given slot within its index page
+	private static int slotOffset(int slot) {
+		return (slot & ((1 << INDEX_PAGE_SHIFT) - 1)) * SLOT_BYTES;
+	}
+
+	// Addresses hold the data page number plus one in the high half, so that
+	// no entry has the address 0, and the offset within the page in the low half
+	private static long addressOf(int pageNumber, int offset) {
+		return ((long) pageNumber << 32) | offset;
+	}
+
+	private ByteBuffer pageOf(long address) {
+		return pages[(int) (address >>> 32) - 1];
+	}
+
+	private static int offsetOf(long address) {
+		return (int) address;
+	}
+
+	// Returns the size of the entry at the given offset of the given page
+	private static int entryBytes(ByteBuffer page, int offset) {
+		return entryBytes(page.getInt(offset), page.getInt(offset + 4));
+	}
+
+	private static int entryBytes(int keyLength, int valueLength) {
+		return HEADER_BYTES + Math.max(keyLength, 0) + Math.max(valueLength, 0);
+	}
+
+	// throw IllegalStateException if a codec wrote a different number of bytes
+	// than it said it would
+	private static void checkEncoded(int written, int expected) {
+		if (written != expected) {
+			throw new IllegalStateException("codec wrote " + written + " bytes instead of " + expected);
+		}
+	}
+
+	//Class used to iterate through the items in an OffHeapDictionary object
+	private class OffHeapIterator implements Iterator<KVPair<K, V>> {
+		private int nextSlot; //Next occupied slot, or capacity if there is none
+
+		public OffHeapIterator() {
+			this.nextSlot = findOccupied(0);
+		}
+
+		// Returns true if there is another item in the data structure that can
+		// be returned by the next() function
+		// Returns false otherwise
+		@Override
+		public boolean hasNext() {
+			return !closed && nextSlot < capacity;
+		}
+
+		// Return the next item in the iteration
+		// throw NoSuchElementException if a next item does not exist.
+		@Override
+		public KVPair<K, V> next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			long address = addressAt(nextSlot);
+			nextSlot = findOccupied(nextSlot + 1);
+			return new KVPair<>(readKey(address), readValue(address));
+		}
+
+		// Returns the first occupied slot at or after the given start slot
+		private int findOccupied(int start) {
+			int slot = start;
+			while (slot < capacity && addressAt(slot) == 0) {
+				slot++;
+			}
+			return slot;
+		}
+	}
+}
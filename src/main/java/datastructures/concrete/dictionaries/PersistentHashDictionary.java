@@ -0,0 +1,653 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.HashStrategies;
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IHashStrategy;
+import misc.exceptions.NoSuchKeyException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Represents a data structure that contains a bunch of key-value
+// mappings. Each key must be unique.
+//
+// This dictionary is immutable: put() and remove() throw, and with() and
+// without() return a new version instead, leaving this one as it was. The new
+// version shares everything but the changed path with the old one, so making
+// it costs O(log32 n) time and memory, and any number of versions can be handed
+// out and read from any number of threads without copying or locking.
+//
+// It is a hash array mapped trie in the CHAMP layout. Each node covers 5 bits
+// of the hash and has up to 32 slots, each either empty, holding one entry, or
+// pointing to a child node for the keys that share those bits. Two bitmaps say
+// which slots hold entries and which hold children, and a single array holds
+// the entries (from the front, key then value) and the children (from the
+// back), with no room wasted on empty slots. A child never holds just one
+// entry; that entry is kept in the parent instead, so every version with the
+// same pairs has the same shape. Keys whose hashes are entirely equal end up
+// in a collision node at the bottom.
+//
+// A Builder makes many changes in a row cheaply, by changing in place the
+// nodes it created itself since its last build() instead of copying them.
+public class PersistentHashDictionary<K, V> implements IDictionary<K, V> {
+	private final Node<K, V> root;
+	private final int size;
+	private final IHashStrategy<? super K> strategy;
+
+	private static final int BITS = 5; // Hash bits used by each level of the trie
+	private static final int MASK = (1 << BITS) - 1;
+	private static final int HASH_BITS = 32;
+	private static final Object NOT_FOUND = new Object(); // Returned by find() for a missing key
+	private static final PersistentHashDictionary<Object, Object> EMPTY =
+		new PersistentHashDictionary<>(new BitmapNode<>(null, 0, 0, new Object[0]), 0, HashStrategies.standard());
+
+	private PersistentHashDictionary(Node<K, V> root, int size, IHashStrategy<? super K> strategy) {
+		this.root = root;
+		this.size = size;
+		this.strategy = strategy;
+	}
+
+	// Returns an empty dictionary
+	@SuppressWarnings("unchecked")
+	public static <K, V> PersistentHashDictionary<K, V> empty() {
+		return (PersistentHashDictionary<K, V>) EMPTY;
+	}
+
+	// Returns an empty dictionary that hashes and compares keys using the given strategy
+	// throw IllegalArgumentException if the strategy is null
+	public static <K, V> PersistentHashDictionary<K, V> empty(IHashStrategy<? super K> strategy) {
+		if (strategy == null) {
+			throw new IllegalArgumentException();
+		}
+		return new PersistentHashDictionary<>(new BitmapNode<>(null, 0, 0, new Object[0]), 0, strategy);
+	}
+
+	// Returns a builder that starts out empty
+	public static <K, V> Builder<K, V> builder() {
+		return PersistentHashDictionary.<K, V>empty().toBuilder();
+	}
+
+	// Returns a builder that starts out with the pairs of this dictionary
+	public Builder<K, V> toBuilder() {
+		return new Builder<>(root, size, strategy);
+	}
+
+	// Pass a K object as a parameter
+	// Returns the value corresponding to the given key.
+	// throw NoSuchKeyException if the given key is not in the data structure
+	@Override
+	public V get(K key) {
+		Object found = root.find(key, strategy.hash(key), 0, strategy);
+		if (found == NOT_FOUND) {
+			throw new NoSuchKeyException();
+		}
+		return castValue(found);
+	}
+
+	// Pass a K and a V as parameters
+	// Returns the value corresponding to the given key, or the default value
+	// if the key is not in the data structure. Only walks the trie once.
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		Object found = root.find(key, strategy.hash(key), 0, strategy);
+		return found == NOT_FOUND ? defaultValue : castValue(found);
+	}
+
+	// Always throws, since this dictionary can't change; use with() instead
+	// throw UnsupportedOperationException
+	@Override
+	public void put(K key, V value) {
+		throw new UnsupportedOperationException("immutable dictionary; use with()");
+	}
+
+	// Always throws, since this dictionary can't change; use without() instead
+	// throw UnsupportedOperationException
+	@Override
+	public V remove(K key) {
+		throw new UnsupportedOperationException("immutable dictionary; use without()");
+	}
+
+	// Returns a dictionary with the same pairs as this one, except that the
+	// given key maps to the given value. Returns this dictionary if it already
+	// maps the key to that very value.
+	public PersistentHashDictionary<K, V> with(K key, V value) {
+		Change change = new Change();
+		Node<K, V> newRoot = root.with(null, key, value, strategy.hash(key), 0, strategy, change);
+		if (newRoot == root) {
+			return this;
+		}
+		return new PersistentHashDictionary<>(newRoot, change.added ? size + 1 : size, strategy);
+	}
+
+	// Returns a dictionary with the same pairs as this one, except for the given
+	// key. Returns this dictionary if it does not contain the key.
+	public PersistentHashDictionary<K, V> without(K key) {
+		Change change = new Change();
+		Node<K, V> newRoot = root.without(null, key, strategy.hash(key), 0, strategy, change);
+		if (!change.removed) {
+			return this;
+		}
+		return new PersistentHashDictionary<>(newRoot, size - 1, strategy);
+	}
+
+	// Pass an object K as parameter. Return True if data structure contains the K.
+	// False otherwise.
+	@Override
+	public boolean containsKey(K key) {
+		return root.find(key, strategy.hash(key), 0, strategy) != NOT_FOUND;
+	}
+
+	// return the size of data structure
+	@Override
+	public int size() {
+		return size;
+	}
+
+	// Returns a list of all key-value pairs within this data structure
+	@Override
+	public Iterator<KVPair<K, V>> iterator() {
+		return new TrieIterator<>(root);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <V> V castValue(Object value) {
+		return (V) value;
+	}
+
+	// Builds a PersistentHashDictionary by changing it in place. Nodes the
+	// builder creates are tagged with its current edit token and are changed in
+	// place by later calls; all other nodes are copied on write as usual. build()
+	// takes a new token, so nodes handed out in a built dictionary are never
+	// touched again. A builder must not be shared between threads.
+	public static class Builder<K, V> {
+		private Node<K, V> root;
+		private int size;
+		private IHashStrategy<? super K> strategy;
+		private Object edit; // Token marking the nodes this builder may change in place
+
+		private Builder(Node<K, V> root, int size, IHashStrategy<? super K> strategy) {
+			this.root = root;
+			this.size = size;
+			this.strategy = strategy;
+			this.edit = new Object();
+		}
+
+		// Maps the given key to the given value, replacing any old value
+		public Builder<K, V> put(K key, V value) {
+			Change change = new Change();
+			root = root.with(edit, key, value, strategy.hash(key), 0, strategy, change);
+			if (change.added) {
+				size++;
+			}
+			return this;
+		}
+
+		// Removes the given key, if it is there
+		public Builder<K, V> remove(K key) {
+			Change change = new Change();
+			root = root.without(edit, key, strategy.hash(key), 0, strategy, change);
+			if (change.removed) {
+				size--;
+			}
+			return this;
+		}
+
+		// Returns the number of pairs put so far
+		public int size() {
+			return size;
+		}
+
+		// Returns a dictionary holding the pairs put so far, in O(1). The builder
+		// can keep going afterwards without affecting it.
+		public PersistentHashDictionary<K, V> build() {
+			edit = new Object();
+			return new PersistentHashDictionary<>(root, size, strategy);
+		}
+	}
+
+	// What a with() or without() call did
+	private static class Change {
+		public boolean added; // True if with() added a new key
+		public boolean removed; // True if without() removed a key
+	}
+
+	// A node of the trie. edit is the token of the builder allowed to change
+	// the node in place, or null.
+	private abstract static class Node<K, V> {
+		public final Object edit;
+
+		public Node(Object edit) {
+			this.edit = edit;
+		}
+
+		// Returns the value of the given key, or NOT_FOUND
+		public abstract Object find(K key, int hash, int shift, IHashStrategy<? super K> strategy);
+
+		// Returns this node with the given key mapped to the given value. Returns
+		// this node itself if nothing changed or it was changed in place.
+		public abstract Node<K, V> with(Object edit, K key, V value, int hash, int shift,
+				IHashStrategy<? super K> strategy, Change change);
+
+		// Returns this node without the given key, or this node itself if the key
+		// is not here or it was changed in place
+		public abstract Node<K, V> without(Object edit, K key, int hash, int shift,
+				IHashStrategy<? super K> strategy, Change change);
+
+		// Returns the number of entries held directly by this node
+		public abstract int dataCount();
+
+		// Returns the number of children of this node
+		public abstract int nodeCount();
+
+		public abstract K keyAt(int index);
+
+		public abstract V valueAt(int index);
+
+		public abstract Node<K, V> nodeAt(int index);
+
+		// Returns true if this node must be merged into its parent: it holds a
+		// single entry and no children
+		public boolean isSingleEntry() {
+			return this.dataCount() == 1 && this.nodeCount() == 0;
+		}
+	}
+
+	// A regular node: entries and children picked by 5 bits of the hash
+	private static final class BitmapNode<K, V> extends Node<K, V> {
+		private int dataMap; // Slots that hold an entry
+		private int nodeMap; // Slots that hold a child
+		private Object[] content; // Key and value of each entry, then the children in reverse order
+
+		public BitmapNode(Object edit, int dataMap, int nodeMap, Object[] content) {
+			super(edit);
+			this.dataMap = dataMap;
+			this.nodeMap = nodeMap;
+			this.content = content;
+		}
+
+		@Override
+		public Object find(K key, int hash, int shift, IHashStrategy<? super K> strategy) {
+			int bit = bitFor(hash, shift);
+			if ((dataMap & bit) != 0) {
+				int index = dataIndex(bit);
+				return strategy.equals(this.keyAt(index), key) ? content[2 * index + 1] : NOT_FOUND;
+			}
+			if ((nodeMap & bit) != 0) {
+				return this.nodeAt(nodeIndex(bit)).find(key, hash, shift + BITS, strategy);
+			}
+			return NOT_FOUND;
+		}
+
+		@Override
+		public Node<K, V> with(Object edit, K key, V value, int hash, int shift,
+				IHashStrategy<? super K> strategy, Change change) {
+			int bit = bitFor(hash, shift);
+			if ((dataMap & bit) != 0) {
+				int index = dataIndex(bit);
+				K oldKey = this.keyAt(index);
+				if (strategy.equals(oldKey, key)) {
+					if (content[2 * index + 1] == value) {
+						return this;
+					}
+					return this.withContent(edit, 2 * index + 1, value);
+				}
+				// Two keys share these bits, so push both down into a new child
+				Node<K, V> child = merge(edit, oldKey, this.valueAt(index), strategy.hash(oldKey),
+						key, value, hash, shift + BITS);
+				change.added = true;
+				return this.dataToNode(edit, bit, child);
+			}
+			if ((nodeMap & bit) != 0) {
+				int index = nodeIndex(bit);
+				Node<K, V> child = this.nodeAt(index);
+				Node<K, V> newChild = child.with(edit, key, value, hash, shift + BITS, strategy, change);
+				if (newChild == child) {
+					return this;
+				}
+				return this.withContent(edit, content.length - 1 - index, newChild);
+			}
+			change.added = true;
+			return this.insertData(edit, bit, key, value);
+		}
+
+		@Override
+		public Node<K, V> without(Object edit, K key, int hash, int shift,
+				IHashStrategy<? super K> strategy, Change change) {
+			int bit = bitFor(hash, shift);
+			if ((dataMap & bit) != 0) {
+				int index = dataIndex(bit);
+				if (!strategy.equals(this.keyAt(index), key)) {
+					return this;
+				}
+				change.removed = true;
+				return this.removeData(edit, bit);
+			}
+			if ((nodeMap & bit) != 0) {
+				int index = nodeIndex(bit);
+				Node<K, V> child = this.nodeAt(index);
+				Node<K, V> newChild = child.without(edit, key, hash, shift + BITS, strategy, change);
+				if (!change.removed) {
+					return this;
+				}
+				if (newChild.isSingleEntry()) {
+					// Keep the last entry of the child here instead
+					return this.nodeToData(edit, bit, newChild.keyAt(0), newChild.valueAt(0));
+				}
+				if (newChild == child) {
+					return this;
+				}
+				return this.withContent(edit, content.length - 1 - index, newChild);
+			}
+			return this;
+		}
+
+		@Override
+		public int dataCount() {
+			return Integer.bitCount(dataMap);
+		}
+
+		@Override
+		public int nodeCount() {
+			return Integer.bitCount(nodeMap);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public K keyAt(int index) {
+			return (K) content[2 * index];
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V valueAt(int index) {
+			return (V) content[2 * index + 1];
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Node<K, V> nodeAt(int index) {
+			return (Node<K, V>) content[content.length - 1 - index];
+		}
+
+		private int dataIndex(int bit) {
+			return Integer.bitCount(dataMap & (bit - 1));
+		}
+
+		private int nodeIndex(int bit) {
+			return Integer.bitCount(nodeMap & (bit - 1));
+		}
+
+		// Returns this node with one slot of its content replaced, in place if
+		// the node belongs to the given edit
+		private Node<K, V> withContent(Object edit, int position, Object item) {
+			if (edit != null && this.edit == edit) {
+				content[position] = item;
+				return this;
+			}
+			Object[] copy = content.clone();
+			copy[position] = item;
+			return new BitmapNode<>(edit, dataMap, nodeMap, copy);
+		}
+
+		// Returns this node with a new entry in the given (empty) slot
+		private Node<K, V> insertData(Object edit, int bit, K key, V value) {
+			int at = 2 * this.dataIndex(bit);
+			Object[] copy = new Object[content.length + 2];
+			System.arraycopy(content, 0, copy, 0, at);
+			copy[at] = key;
+			copy[at + 1] = value;
+			System.arraycopy(content, at, copy, at + 2, content.length - at);
+			return this.replace(edit, dataMap | bit, nodeMap, copy);
+		}
+
+		// Returns this node without the entry in the given slot
+		private Node<K, V> removeData(Object edit, int bit) {
+			int at = 2 * this.dataIndex(bit);
+			Object[] copy = new Object[content.length - 2];
+			System.arraycopy(content, 0, copy, 0, at);
+			System.arraycopy(content, at + 2, copy, at, content.length - at - 2);
+			return this.replace(edit, dataMap ^ bit, nodeMap, copy);
+		}
+
+		// Returns this node with the entry in the given slot replaced by a child
+		private Node<K, V> dataToNode(Object edit, int bit, Node<K, V> child) {
+			int dataAt = 2 * this.dataIndex(bit);
+			int nodeAt = content.length - 2 - this.nodeIndex(bit); // Position in the shorter array
+			Object[] copy = new Object[content.length - 1];
+			System.arraycopy(content, 0, copy, 0, dataAt);
+			System.arraycopy(content, dataAt + 2, copy, dataAt, nodeAt - dataAt);
+			copy[nodeAt] = child;
+			System.arraycopy(content, nodeAt + 2, copy, nodeAt + 1, content.length - nodeAt - 2);
+			return this.replace(edit, dataMap ^ bit, nodeMap | bit, copy);
+		}
+
+		// Returns this node with the child in the given slot replaced by an entry
+		private Node<K, V> nodeToData(Object edit, int bit, K key, V value) {
+			int nodeAt = content.length - 1 - this.nodeIndex(bit);
+			int dataAt = 2 * this.dataIndex(bit);
+			Object[] copy = new Object[content.length + 1];
+			System.arraycopy(content, 0, copy, 0, dataAt);
+			copy[dataAt] = key;
+			copy[dataAt + 1] = value;
+			System.arraycopy(content, dataAt, copy, dataAt + 2, nodeAt - dataAt);
+			System.arraycopy(content, nodeAt + 1, copy, nodeAt + 2, content.length - nodeAt - 1);
+			return this.replace(edit, dataMap | bit, nodeMap ^ bit, copy);
+		}
+
+		// Returns a node with the given bitmaps and content, reusing this node if
+		// it belongs to the given edit
+		private Node<K, V> replace(Object edit, int newDataMap, int newNodeMap, Object[] newContent) {
+			if (edit != null && this.edit == edit) {
+				dataMap = newDataMap;
+				nodeMap = newNodeMap;
+				content = newContent;
+				return this;
+			}
+			return new BitmapNode<>(edit, newDataMap, newNodeMap, newContent);
+		}
+	}
+
+	// A node at the bottom of the trie for keys whose hashes are all the same
+	private static final class CollisionNode<K, V> extends Node<K, V> {
+		private final int hash;
+		private Object[] content; // Key and value of each entry
+
+		public CollisionNode(Object edit, int hash, Object[] content) {
+			super(edit);
+			this.hash = hash;
+			this.content = content;
+		}
+
+		@Override
+		public Object find(K key, int hash, int shift, IHashStrategy<? super K> strategy) {
+			if (hash != this.hash) {
+				return NOT_FOUND;
+			}
+			int index = this.indexOf(key, strategy);
+			return index < 0 ? NOT_FOUND : content[2 * index + 1];
+		}
+
+		@Override
+		public Node<K, V> with(Object edit, K key, V value, int hash, int shift,
+				IHashStrategy<? super K> strategy, Change change) {
+			if (hash != this.hash) {
+				// Only part of the hash matched on the way here, so split this node
+				change.added = true;
+				return this.split(edit, key, value, hash, shift);
+			}
+			int index = this.indexOf(key, strategy);
+			Object[] copy;
+			if (index >= 0) {
+				if (content[2 * index + 1] == value) {
+					return this;
+				}
+				copy = content.clone();
+				copy[2 * index + 1] = value;
+			} else {
+				copy = new Object[content.length + 2];
+				System.arraycopy(content, 0, copy, 0, content.length);
+				copy[content.length] = key;
+				copy[content.length + 1] = value;
+				change.added = true;
+			}
+			return this.replace(edit, copy);
+		}
+
+		@Override
+		public Node<K, V> without(Object edit, K key, int hash, int shift,
+				IHashStrategy<? super K> strategy, Change change) {
+			int index = hash == this.hash ? this.indexOf(key, strategy) : -1;
+			if (index < 0) {
+				return this;
+			}
+			change.removed = true;
+			Object[] copy = new Object[content.length - 2];
+			System.arraycopy(content, 0, copy, 0, 2 * index);
+			System.arraycopy(content, 2 * index + 2, copy, 2 * index, content.length - 2 * index - 2);
+			return this.replace(edit, copy);
+		}
+
+		@Override
+		public int dataCount() {
+			return content.length / 2;
+		}
+
+		@Override
+		public int nodeCount() {
+			return 0;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public K keyAt(int index) {
+			return (K) content[2 * index];
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V valueAt(int index) {
+			return (V) content[2 * index + 1];
+		}
+
+		@Override
+		public Node<K, V> nodeAt(int index) {
+			throw new IndexOutOfBoundsException();
+		}
+
+		// Returns a node at the given depth holding both this node and the given
+		// entry, whose hash differs from this node's
+		private Node<K, V> split(Object edit, K key, V value, int hash, int shift) {
+			int bit = bitFor(this.hash, shift);
+			int otherBit = bitFor(hash, shift);
+			if (bit == otherBit) {
+				return new BitmapNode<>(edit, 0, bit, new Object[] {this.split(edit, key, value, hash, shift + BITS)});
+			}
+			return new BitmapNode<>(edit, otherBit, bit, new Object[] {key, value, this});
+		}
+
+		// Returns the index of the given key's entry, or -1 if it is not here
+		private int indexOf(K key, IHashStrategy<? super K> strategy) {
+			for (int i = 0; i < content.length; i += 2) {
+				if (strategy.equals(this.keyAt(i / 2), key)) {
+					return i / 2;
+				}
+			}
+			return -1;
+		}
+
+		// Returns a node with the given content, reusing this node if it belongs
+		// to the given edit
+		private Node<K, V> replace(Object edit, Object[] newContent) {
+			if (edit != null && this.edit == edit) {
+				content = newContent;
+				return this;
+			}
+			return new CollisionNode<>(edit, hash, newContent);
+		}
+	}
+
+	// Returns a node holding the two given entries, whose keys differ, at the
+	// given depth of the trie
+	private static <K, V> Node<K, V> merge(Object edit, K key1, V value1, int hash1, K key2, V value2, int hash2,
+			int shift) {
+		if (shift >= HASH_BITS || hash1 == hash2) {
+			return new CollisionNode<>(edit, hash1, new Object[] {key1, value1, key2, value2});
+		}
+		int bit1 = bitFor(hash1, shift);
+		int bit2 = bitFor(hash2, shift);
+		if (bit1 == bit2) {
+			Node<K, V> child = merge(edit, key1, value1, hash1, key2, value2, hash2, shift + BITS);
+			return new BitmapNode<>(edit, 0, bit1, new Object[] {child});
+		}
+		Object[] content = Integer.compareUnsigned(bit1, bit2) < 0
+			? new Object[] {key1, value1, key2, value2}
+			: new Object[] {key2, value2, key1, value1};
+		return new BitmapNode<>(edit, bit1 | bit2, 0, content);
+	}
+
+	// Returns the bit of the slot the given hash falls in at the given depth
+	private static int bitFor(int hash, int shift) {
+		return 1 << ((hash >>> shift) & MASK);
+	}
+
+	//Class used to iterate through the items in a PersistentHashDictionary object
+	private static class TrieIterator<K, V> implements Iterator<KVPair<K, V>> {
+		private Node<K, V>[] stack; //Path from the root to the node being walked
+		private int[] nextChild; //Index of the next child to visit of each node on the path
+		private int depth; //Index of the node being walked in the stack, or -1 once done
+		private int nextEntry; //Index of the next entry of the node being walked
+
+		@SuppressWarnings("unchecked")
+		public TrieIterator(Node<K, V> root) {
+			int maxDepth = HASH_BITS / BITS + 2; // Every level, plus a collision node
+			this.stack = (Node<K, V>[]) new Node[maxDepth];
+			this.nextChild = new int[maxDepth];
+			this.stack[0] = root;
+			this.depth = 0;
+			this.nextEntry = 0;
+			this.findEntry();
+		}
+
+		// Returns true if there is another item in the data structure that can
+		// be returned by the next() function
+		// Returns false otherwise
+		@Override
+		public boolean hasNext() {
+			return depth >= 0;
+		}
+
+		// Return the next item in the iteration
+		// throw NoSuchElementException if a next item does not exist.
+		@Override
+		public KVPair<K, V> next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Node<K, V> node = stack[depth];
+			KVPair<K, V> pair = new KVPair<>(node.keyAt(nextEntry), node.valueAt(nextEntry));
+			nextEntry++;
+			this.findEntry();
+			return pair;
+		}
+
+		// Moves to the next node with an entry left to return, visiting each
+		// node's entries before its children, or sets depth to -1 if there is none
+		private void findEntry() {
+			while (depth >= 0 && nextEntry >= stack[depth].dataCount()) {
+				Node<K, V> node = stack[depth];
+				if (nextChild[depth] < node.nodeCount()) {
+					Node<K, V> child = node.nodeAt(nextChild[depth]);
+					nextChild[depth]++;
+					depth++;
+					stack[depth] = child;
+					nextChild[depth] = 0;
+					nextEntry = 0;
+				} else {
+					stack[depth] = null;
+					depth--;
+					nextEntry = Integer.MAX_VALUE; // The parent's entries were all returned before its children
+				}
+			}
+		}
+	}
+}
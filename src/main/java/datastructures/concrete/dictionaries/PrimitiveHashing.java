@@ -0,0 +1,41 @@
+package datastructures.concrete.dictionaries;
+
+// Hashing and sizing helpers shared by the dictionaries with primitive keys
+// (IntIntDictionary, IntObjDictionary, LongLongDictionary and LongObjDictionary).
+// Their tables always have a power of two length.
+final class PrimitiveHashing {
+	private static final int MIN_CAPACITY = 16;
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private PrimitiveHashing() {
+	}
+
+	// Returns a well-mixed hash of the given key. Keys that are IDs often only
+	// differ in their high bits, or count up in steps, so the bits are spread out
+	// before the low ones are used to pick a slot.
+	static int hash(int key) {
+		int h = key * 0x9e3779b9;
+		return h ^ (h >>> 16);
+	}
+
+	// Same as above, for long keys
+	static int hash(long key) {
+		return hash((int) (key ^ (key >>> 32)));
+	}
+
+	// Returns the maximum number of entries a table of the given capacity may
+	// hold before it has to grow (3/4 of the slots)
+	static int maxLoad(int capacity) {
+		return capacity - (capacity >>> 2);
+	}
+
+	// Returns the smallest table capacity that holds the given number of
+	// entries without growing
+	static int capacityFor(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < MAX_CAPACITY && maxLoad(capacity) < expectedSize) {
+			capacity *= 2;
+		}
+		return capacity;
+	}
+}
@@ -0,0 +1,101 @@
+package datastructures.concrete.dictionaries;
+
+// An intrusive doubly linked list of cache entries, ordered from the most to the
+// least recently used. Unlike DoubleLinkedList, the caller holds on to the nodes
+// themselves, so a node can be unlinked or moved to the front in O(1) without
+// searching for it first.
+//
+// The list also keeps the total weight of its nodes. A node must be in at most
+// one list at a time, and its weight must not change while it is in one.
+class RecencyList<K, V> {
+	private final Node<K, V> head; // Sentinel; head.next is the most recent node and head.prev the least
+	private int size;
+	private long weight;
+
+	public RecencyList() {
+		this.head = new Node<>(null, null, 0);
+		head.next = head;
+		head.prev = head;
+		this.size = 0;
+		this.weight = 0;
+	}
+
+	// Returns the number of nodes in the list
+	public int size() {
+		return size;
+	}
+
+	// Returns the total weight of the nodes in the list
+	public long weight() {
+		return weight;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	// Returns the most recently used node, or null if the list is empty
+	public Node<K, V> first() {
+		return head.next == head ? null : head.next;
+	}
+
+	// Returns the least recently used node, or null if the list is empty
+	public Node<K, V> last() {
+		return head.prev == head ? null : head.prev;
+	}
+
+	// Returns the node after the given one, from more to less recently used, or
+	// null if the given node is the last one
+	public Node<K, V> next(Node<K, V> node) {
+		return node.next == head ? null : node.next;
+	}
+
+	// Adds the given node, which must not be in any list, as the most recent one
+	public void addFirst(Node<K, V> node) {
+		node.prev = head;
+		node.next = head.next;
+		head.next.prev = node;
+		head.next = node;
+		size++;
+		weight += node.weight;
+	}
+
+	// Unlinks the given node, which must be in this list
+	public void remove(Node<K, V> node) {
+		node.prev.next = node.next;
+		node.next.prev = node.prev;
+		node.prev = null;
+		node.next = null;
+		size--;
+		weight -= node.weight;
+	}
+
+	// Moves the given node, which must be in this list, to the front
+	public void moveToFront(Node<K, V> node) {
+		if (head.next == node) {
+			return;
+		}
+		node.prev.next = node.next;
+		node.next.prev = node.prev;
+		node.prev = head;
+		node.next = head.next;
+		head.next.prev = node;
+		head.next = node;
+	}
+
+	// A cache entry, linked into at most one RecencyList
+	static class Node<K, V> {
+		public final K key;
+		public V value;
+		public int weight;
+		public int queue; // Which of its cache's lists the node is in, for caches with several
+		public Node<K, V> prev;
+		public Node<K, V> next;
+
+		public Node(K key, V value, int weight) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+}
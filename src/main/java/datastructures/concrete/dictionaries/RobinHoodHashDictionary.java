@@ -0,0 +1,309 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IDictionaryCursor;
+import misc.exceptions.NoSuchKeyException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Represents a data structure that contains a bunch of key-value
+// mappings. Each key must be unique.
+//
+// Entries are stored directly in flat, parallel arrays using open addressing.
+// Collisions are resolved with linear probing and Robin Hood displacement: an
+// entry being inserted takes the slot of any entry that is closer to its home
+// slot than the new entry is, which keeps probe sequences short and lets a
+// failed lookup stop early. Removal uses backward-shift deletion, so the table
+// never needs tombstones.
+public class RobinHoodHashDictionary<K, V> implements IDictionary<K, V> {
+	private K[] keys;
+	private V[] values;
+	private int[] hashes; // Stored hash of each slot, or EMPTY if the slot is free
+	private int size;
+	private static final int MIN_SIZE = 16;
+	private static final int EMPTY = 0;
+
+	public RobinHoodHashDictionary() {
+		size = 0;
+		allocate(MIN_SIZE);
+	}
+
+	// Sets up new, empty key, value and hash arrays with the given capacity.
+	// The capacity must be a power of two.
+	@SuppressWarnings("unchecked")
+	private void allocate(int capacity) {
+		keys = (K[]) new Object[capacity];
+		values = (V[]) new Object[capacity];
+		hashes = new int[capacity];
+	}
+
+	// Pass a K object as a parameter
+	// Returns the value corresponding to the given key.
+	// throw NoSuchKeyException if the given key is not in the data structure
+	@Override
+	public V get(K key) {
+		int slot = indexOf(key);
+		if (slot != -1) {
+			return values[slot];
+		}
+		throw new NoSuchKeyException();
+	}
+
+	// Pass a K and a V as parameters
+	// Returns the value corresponding to the given key, or the default value
+	// if the key is not in the data structure. Only probes the table once.
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		int slot = indexOf(key);
+		if (slot != -1) {
+			return values[slot];
+		}
+		return defaultValue;
+	}
+
+	// Pass a K and a V as parameters and put K-V pairs into the data structure
+	// If the K already exists in data structure, replace its value with V
+	// if the table is too full to fit new data, its capacity will be doubled.
+	@Override
+	public void put(K key, V value) {
+		if (size + 1 > maxLoad(hashes.length)) {
+			resize(hashes.length * 2);
+		}
+		if (insert(hashOf(key), key, value)) {
+			size++;
+		}
+	}
+
+	// Pass a K object as parameter
+	// Remove the K-V pair corresponding to the given key from the data structure.
+	// Throw NoSuchKeyException if the given K is not in data structure
+	@Override
+	public V remove(K key) {
+		int slot = indexOf(key);
+		if (slot == -1) {
+			throw new NoSuchKeyException();
+		}
+		V item = values[slot];
+		int mask = hashes.length - 1;
+		// Backward-shift deletion: pull every following entry that is not in its
+		// home slot back by one, until we hit an empty slot or an entry that is
+		// already home.
+		int next = (slot + 1) & mask;
+		while (hashes[next] != EMPTY && probeDistance(hashes[next], next, mask) > 0) {
+			hashes[slot] = hashes[next];
+			keys[slot] = keys[next];
+			values[slot] = values[next];
+			slot = next;
+			next = (next + 1) & mask;
+		}
+		hashes[slot] = EMPTY;
+		keys[slot] = null;
+		values[slot] = null;
+		size--;
+		return item;
+	}
+
+	// Pass an object K as parameter. Return True if data structure contains the K.
+	// False otherwise.
+	@Override
+	public boolean containsKey(K key) {
+		return indexOf(key) != -1;
+	}
+
+	// return the size of data structure
+	@Override
+	public int size() {
+		return size;
+	}
+
+	// Returns a list of all key-value pairs within this data structure
+	@Override
+	public Iterator<KVPair<K, V>> iterator() {
+		return new RobinHoodIterator();
+	}
+
+	// Returns a cursor over all key-value pairs within this data structure,
+	// which creates nothing per pair
+	@Override
+	public IDictionaryCursor<K, V> cursor() {
+		return new RobinHoodCursor();
+	}
+
+	// Returns the slot holding the given key, or -1 if there is no such key.
+	// Because of the Robin Hood invariant the search can stop as soon as it
+	// reaches an entry that is closer to its home slot than we are to ours.
+	private int indexOf(K key) {
+		int hash = hashOf(key);
+		int mask = hashes.length - 1;
+		int slot = hash & mask;
+		for (int dist = 0; hashes[slot] != EMPTY; dist++) {
+			int cur = hashes[slot];
+			if (probeDistance(cur, slot, mask) < dist) {
+				return -1;
+			}
+			if (cur == hash && keysEqual(keys[slot], key)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	// Places the given entry into the table, displacing richer entries along
+	// the way. Returns true if a new key was added and false if an existing
+	// key had its value replaced. Assumes there is at least one free slot.
+	private boolean insert(int hash, K key, V value) {
+		int mask = hashes.length - 1;
+		int slot = hash & mask;
+		int dist = 0;
+		boolean displaced = false; // Once we swap, we are carrying an entry known to be unique
+		while (true) {
+			int cur = hashes[slot];
+			if (cur == EMPTY) {
+				hashes[slot] = hash;
+				keys[slot] = key;
+				values[slot] = value;
+				return true;
+			}
+			if (!displaced && cur == hash && keysEqual(keys[slot], key)) {
+				values[slot] = value;
+				return false;
+			}
+			int curDist = probeDistance(cur, slot, mask);
+			if (curDist < dist) {
+				// Take from the rich: the resident is closer to home than we are,
+				// so it gives up its slot and continues probing instead.
+				K tempKey = keys[slot];
+				V tempValue = values[slot];
+				hashes[slot] = hash;
+				keys[slot] = key;
+				values[slot] = value;
+				hash = cur;
+				key = tempKey;
+				value = tempValue;
+				dist = curDist;
+				displaced = true;
+			}
+			slot = (slot + 1) & mask;
+			dist++;
+		}
+	}
+
+	// Moves every entry into new arrays of the given capacity
+	private void resize(int capacity) {
+		int[] oldHashes = hashes;
+		K[] oldKeys = keys;
+		V[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldHashes.length; i++) {
+			if (oldHashes[i] != EMPTY) {
+				insert(oldHashes[i], oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	// Returns how far the entry with the given hash sitting in the given slot
+	// is from the slot it would ideally occupy
+	private static int probeDistance(int hash, int slot, int mask) {
+		return (slot - (hash & mask)) & mask;
+	}
+
+	// Returns the maximum number of entries a table of the given capacity may
+	// hold before it has to grow (7/8 of the slots)
+	private static int maxLoad(int capacity) {
+		return capacity - (capacity >>> 3);
+	}
+
+	// Pass a K object as a parameter. Return a hash code for K that is never EMPTY.
+	// The high bits are folded into the low ones since only the low bits are
+	// used to pick a slot. Null keys are allowed.
+	private static int hashOf(Object key) {
+		int h = key == null ? 0 : key.hashCode();
+		return (h ^ (h >>> 16)) | 0x80000000;
+	}
+
+	// Returns true if the two keys are equal, allowing for null keys
+	private static boolean keysEqual(Object a, Object b) {
+		return a == b || (a != null && a.equals(b));
+	}
+
+	//Cursor over the items in a RobinHoodHashDictionary object
+	private class RobinHoodCursor implements IDictionaryCursor<K, V> {
+		private int slot = -1; //Slot the cursor is on, or hashes.length once it is done
+
+		// Moves to the next occupied slot, returning false if there is none
+		@Override
+		public boolean advance() {
+			if (slot < hashes.length) {
+				slot++;
+			}
+			while (slot < hashes.length && hashes[slot] == EMPTY) {
+				slot++;
+			}
+			return slot < hashes.length;
+		}
+
+		@Override
+		public K key() {
+			return keys[this.checkedSlot()];
+		}
+
+		@Override
+		public V value() {
+			return values[this.checkedSlot()];
+		}
+
+		@Override
+		public void setValue(V value) {
+			values[this.checkedSlot()] = value;
+		}
+
+		// Returns the slot the cursor is on
+		// throw IllegalStateException if the cursor is not on an item
+		private int checkedSlot() {
+			if (slot < 0 || slot >= hashes.length) {
+				throw new IllegalStateException();
+			}
+			return slot;
+		}
+	}
+
+	//Class used to iterate through the items in a RobinHoodHashDictionary object
+	private class RobinHoodIterator implements Iterator<KVPair<K, V>> {
+		private int nextSlot; //Index of the next occupied slot, or hashes.length if there is none
+
+		public RobinHoodIterator() {
+			this.nextSlot = findOccupied(0);
+		}
+
+		// Returns true if there is another item in the data structure that can
+		// be returned by the next() function
+		// Returns false otherwise
+		@Override
+		public boolean hasNext() {
+			return nextSlot < hashes.length;
+		}
+
+		// Return the next item in the iteration
+		// throw NoSuchElementException if a next item does not exist.
+		@Override
+		public KVPair<K, V> next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			KVPair<K, V> pair = new KVPair<>(keys[nextSlot], values[nextSlot]);
+			nextSlot = findOccupied(nextSlot + 1);
+			return pair;
+		}
+
+		// Returns the first occupied slot at or after the given start index
+		private int findOccupied(int start) {
+			int i = start;
+			while (i < hashes.length && hashes[i] == EMPTY) {
+				i++;
+			}
+			return i;
+		}
+	}
+}
@@ -0,0 +1,278 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.HashStrategies;
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IHashStrategy;
+import misc.exceptions.NoSuchKeyException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// Represents a data structure that contains a bunch of key-value
+// mappings. Each key must be unique.
+//
+// This dictionary is safe to share between threads. Keys are split across a
+// fixed number of stripes, and each stripe is its own ChainedHashDictionary
+// guarded by its own lock, so operations on keys in different stripes never
+// wait for each other. Each stripe grows (incrementally) on its own when it
+// gets too full, and keeps its own count so that size() never has to lock.
+//
+// Iterators are weakly consistent: each stripe is copied under its lock when
+// the iterator reaches it, so an iterator never throws because of concurrent
+// changes, but may or may not reflect changes made after it was created.
+public class StripedHashDictionary<K, V> implements IDictionary<K, V> {
+	private Stripe<K, V>[] stripes;
+	private IHashStrategy<? super K> strategy;
+	private int stripeMask; // Number of stripes minus one
+	private static final int DEFAULT_STRIPES = 16;
+	private static final int MAX_STRIPES = 1 << 16;
+
+	public StripedHashDictionary() {
+		this(DEFAULT_STRIPES);
+	}
+
+	// Creates a dictionary with at least the given number of stripes.
+	// More stripes let more threads write at once.
+	public StripedHashDictionary(int stripeCount) {
+		this(stripeCount, HashStrategies.standard());
+	}
+
+	// Creates a dictionary with at least the given number of stripes that hashes
+	// and compares keys using the given strategy
+	public StripedHashDictionary(int stripeCount, IHashStrategy<? super K> strategy) {
+		if (stripeCount <= 0 || stripeCount > MAX_STRIPES || strategy == null) {
+			throw new IllegalArgumentException();
+		}
+		int count = Integer.highestOneBit(stripeCount);
+		if (count < stripeCount) {
+			count *= 2;
+		}
+		this.strategy = strategy;
+		this.stripeMask = count - 1;
+		this.stripes = makeArrayOfStripes(count);
+		for (int i = 0; i < count; i++) {
+			stripes[i] = new Stripe<>(strategy);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Stripe<K, V>[] makeArrayOfStripes(int count) {
+		return (Stripe<K, V>[]) new Stripe[count];
+	}
+
+	// Pass a K object as a parameter
+	// Returns the value corresponding to the given key.
+	// throw NoSuchKeyException if the given key is not in the data structure
+	@Override
+	public V get(K key) {
+		Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			if (stripe.chains.containsKey(key)) {
+				return stripe.chains.get(key);
+			}
+		}
+		throw new NoSuchKeyException();
+	}
+
+	// Pass a K and a V as parameters
+	// Returns the value corresponding to the given key, or the default value if
+	// the key is not in the data structure. Unlike calling containsKey() and then
+	// get(), this checks and reads the key atomically.
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			return stripe.chains.getOrDefault(key, defaultValue);
+		}
+	}
+
+	// Pass a K and a V as parameters and put K-V pairs into the data structure
+	// If the K already exists in data structure, replace its value with V
+	@Override
+	public void put(K key, V value) {
+		Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			stripe.chains.put(key, value);
+			stripe.count = stripe.chains.size();
+		}
+	}
+
+	// Pass a K object as parameter
+	// Remove the K-V pair corresponding to the given key from the data structure.
+	// Throw NoSuchKeyException if the given K is not in data structure
+	@Override
+	public V remove(K key) {
+		Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			V item = stripe.chains.remove(key);
+			stripe.count = stripe.chains.size();
+			return item;
+		}
+	}
+
+	// The methods below run entirely under the key's stripe lock, so each of
+	// them happens atomically. See IDictionary for what each of them does.
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			V result = stripe.chains.putIfAbsent(key, value);
+			stripe.count = stripe.chains.size();
+			return result;
+		}
+	}
+
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			V result = stripe.chains.computeIfAbsent(key, mappingFunction);
+			stripe.count = stripe.chains.size();
+			return result;
+		}
+	}
+
+	@Override
+	public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			V result = stripe.chains.computeIfPresent(key, remappingFunction);
+			stripe.count = stripe.chains.size();
+			return result;
+		}
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			V result = stripe.chains.compute(key, remappingFunction);
+			stripe.count = stripe.chains.size();
+			return result;
+		}
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			V result = stripe.chains.merge(key, value, remappingFunction);
+			stripe.count = stripe.chains.size();
+			return result;
+		}
+	}
+
+	// Pass an object K as parameter. Return True if data structure contains the K.
+	// False otherwise.
+	@Override
+	public boolean containsKey(K key) {
+		Stripe<K, V> stripe = stripeFor(key);
+		synchronized (stripe) {
+			return stripe.chains.containsKey(key);
+		}
+	}
+
+	// Return the size of data structure, by adding up the count of every stripe.
+	// While other threads are writing, the result may be slightly out of date.
+	@Override
+	public int size() {
+		int total = 0;
+		for (Stripe<K, V> stripe : stripes) {
+			total += stripe.count;
+		}
+		return total;
+	}
+
+	// Returns a list of all key-value pairs within this data structure
+	@Override
+	public Iterator<KVPair<K, V>> iterator() {
+		return new StripedIterator<>(stripes);
+	}
+
+	// Returns a spliterator over all key-value pairs within this data structure.
+	// Other threads may change the size while it runs, so it is not SIZED.
+	@Override
+	public Spliterator<KVPair<K, V>> spliterator() {
+		return Spliterators.spliterator(this.iterator(), this.size(),
+				Spliterator.CONCURRENT | Spliterator.DISTINCT | Spliterator.NONNULL);
+	}
+
+	// Pass a K object as a parameter. Returns the stripe the given key belongs in.
+	// The stripe is picked from the high bits of a Fibonacci-hashed key, since the
+	// stripe's own chains are picked from the low bits.
+	private Stripe<K, V> stripeFor(K key) {
+		return stripes[((strategy.hash(key) * 0x9e3779b9) >>> 16) & stripeMask];
+	}
+
+	// One independently locked part of the dictionary. The stripe object itself
+	// is used as the lock.
+	private static class Stripe<K, V> {
+		public final ChainedHashDictionary<K, V> chains;
+		public volatile int count; // Size of chains, readable without the lock
+
+		public Stripe(IHashStrategy<? super K> strategy) {
+			this.chains = new ChainedHashDictionary<>(strategy);
+			this.count = 0;
+		}
+
+		// Copies every pair in this stripe into a new array while holding the lock
+		@SuppressWarnings("unchecked")
+		public synchronized KVPair<K, V>[] copyPairs() {
+			KVPair<K, V>[] pairs = (KVPair<K, V>[]) new KVPair[chains.size()];
+			int i = 0;
+			for (KVPair<K, V> pair : chains) {
+				pairs[i] = pair;
+				i++;
+			}
+			return pairs;
+		}
+	}
+
+	//Class used to iterate through the items in a StripedHashDictionary object
+	private static class StripedIterator<K, V> implements Iterator<KVPair<K, V>> {
+		private Stripe<K, V>[] stripes;
+		private int nextStripe; //Index of the next stripe to copy
+		private KVPair<K, V>[] curPairs; //Copy of the current stripe's pairs
+		private int curIndex; //Index of the next pair to return in curPairs
+
+		public StripedIterator(Stripe<K, V>[] stripes) {
+			this.stripes = stripes;
+			this.nextStripe = 0;
+			this.curPairs = null;
+			this.curIndex = 0;
+		}
+
+		// Returns true if there is another item in the data structure that can
+		// be returned by the next() function
+		// Returns false otherwise
+		@Override
+		public boolean hasNext() {
+			while (curPairs == null || curIndex >= curPairs.length) {
+				if (nextStripe >= stripes.length) {
+					return false;
+				}
+				curPairs = stripes[nextStripe].copyPairs();
+				curIndex = 0;
+				nextStripe++;
+			}
+			return true;
+		}
+
+		// Return the next item in the iteration
+		// throw NoSuchElementException if a next item does not exist.
+		@Override
+		public KVPair<K, V> next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			KVPair<K, V> pair = curPairs[curIndex];
+			curIndex++;
+			return pair;
+		}
+	}
+}
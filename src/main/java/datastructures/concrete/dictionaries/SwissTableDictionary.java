@@ -0,0 +1,374 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.HashStrategies;
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IDictionaryCursor;
+import datastructures.interfaces.IHashStrategy;
+import misc.exceptions.NoSuchKeyException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Represents a data structure that contains a bunch of key-value
+// mappings. Each key must be unique.
+//
+// An open-addressing table in the style of SwissTable. Next to the key and value
+// arrays, every slot has a control byte: EMPTY, DELETED, or, for a full slot,
+// the low 7 bits of its key's hash (h2). The rest of the hash (h1) picks the
+// group of 8 slots a key's probe sequence starts at; groups after that are
+// visited in triangular steps, which reaches every group of the table.
+//
+// The control bytes of a group are packed into one long, so a whole group is
+// checked with a few bit operations on that long (SWAR, or SIMD within a
+// register): one finds the slots whose h2 matches, another finds the empty
+// ones. Keys are only compared for matching slots, about 1 in 128 of the full
+// ones by chance, so a lookup for a missing key is usually settled by the
+// control bytes alone once it reaches a group with an empty slot.
+//
+// Removing a key leaves a DELETED tombstone, unless its group still has an
+// EMPTY slot: then no probe sequence ever went past the group, and the slot can
+// simply be emptied. Tombstones count against the load, so once the table runs
+// out of empty slots it is rehashed, in place if tombstones made up much of the
+// load and into twice the room otherwise.
+public class SwissTableDictionary<K, V> implements IDictionary<K, V> {
+	private long[] ctrl; // Control bytes, one long per group, slot 0 of a group in the lowest byte
+	private Object[] keys;
+	private V[] values;
+	private int groupMask; // Number of groups minus one
+	private int size;
+	private int growthLeft; // Empty slots that can still be filled before the table is rehashed
+	private IHashStrategy<? super K> strategy;
+	private static final int GROUP = 8; // Slots per group, one per byte of a long
+	private static final long EMPTY = 0x80;
+	private static final long DELETED = 0xfe;
+	private static final long LSBS = 0x0101010101010101L; // Lowest bit of every byte
+	private static final long MSBS = 0x8080808080808080L; // Highest bit of every byte
+	private static final int MIN_GROUPS = 2; // Must be a power of two
+	private static final int MAX_GROUPS = 1 << 26;
+
+	public SwissTableDictionary() {
+		this(0, HashStrategies.standard());
+	}
+
+	// Creates a dictionary that hashes and compares keys using the given strategy
+	public SwissTableDictionary(IHashStrategy<? super K> strategy) {
+		this(0, strategy);
+	}
+
+	// Creates a dictionary that can hold the given number of items without resizing
+	public SwissTableDictionary(int expectedSize) {
+		this(expectedSize, HashStrategies.standard());
+	}
+
+	// Same as above, hashing and comparing keys using the given strategy
+	// throw IllegalArgumentException if the expected size is negative or the
+	// strategy is null
+	public SwissTableDictionary(int expectedSize, IHashStrategy<? super K> strategy) {
+		if (expectedSize < 0 || strategy == null) {
+			throw new IllegalArgumentException();
+		}
+		this.strategy = strategy;
+		this.size = 0;
+		int groups = MIN_GROUPS;
+		while (maxLoad(groups) < expectedSize && groups < MAX_GROUPS) {
+			groups *= 2;
+		}
+		allocate(groups);
+	}
+
+	// Sets up new arrays with the given number of groups, which must be a power
+	// of two, with every slot empty
+	@SuppressWarnings("unchecked")
+	private void allocate(int groups) {
+		ctrl = new long[groups];
+		Arrays.fill(ctrl, MSBS); // EMPTY in every byte
+		keys = new Object[groups * GROUP];
+		values = (V[]) new Object[groups * GROUP];
+		groupMask = groups - 1;
+		growthLeft = maxLoad(groups);
+	}
+
+	// Pass a K object as a parameter
+	// Returns the value corresponding to the given key.
+	// throw NoSuchKeyException if the given key is not in the data structure
+	@Override
+	public V get(K key) {
+		int slot = this.find(key, hashOf(key));
+		if (slot < 0) {
+			throw new NoSuchKeyException();
+		}
+		return values[slot];
+	}
+
+	// Pass a K and a V as parameters
+	// Returns the value corresponding to the given key, or the default value
+	// if the key is not in the data structure. Only probes the table once.
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		int slot = this.find(key, hashOf(key));
+		return slot < 0 ? defaultValue : values[slot];
+	}
+
+	// Pass a K and a V as parameters and put K-V pairs into the data structure
+	// If the K already exists in data structure, replace its value with V
+	// If the table has no empty slot left to fill, it is rehashed first.
+	@Override
+	public void put(K key, V value) {
+		int hash = hashOf(key);
+		int slot = this.find(key, hash);
+		if (slot >= 0) {
+			values[slot] = value;
+			return;
+		}
+		slot = this.findFree(hash);
+		if (growthLeft == 0 && this.ctrlAt(slot) == EMPTY) {
+			this.rehash();
+			slot = this.findFree(hash);
+		}
+		if (this.ctrlAt(slot) == EMPTY) {
+			growthLeft--;
+		}
+		this.setCtrl(slot, hash & 0x7f);
+		keys[slot] = key;
+		values[slot] = value;
+		size++;
+	}
+
+	// Pass a K object as parameter
+	// Remove the K-V pair corresponding to the given key from the data structure.
+	// Throw NoSuchKeyException if the given K is not in data structure
+	@Override
+	public V remove(K key) {
+		int slot = this.find(key, hashOf(key));
+		if (slot < 0) {
+			throw new NoSuchKeyException();
+		}
+		V item = values[slot];
+		keys[slot] = null;
+		values[slot] = null;
+		size--;
+		if (matchEmpty(ctrl[slot / GROUP]) != 0) {
+			this.setCtrl(slot, EMPTY);
+			growthLeft++;
+		} else {
+			this.setCtrl(slot, DELETED);
+		}
+		return item;
+	}
+
+	// Pass an object K as parameter. Return True if data structure contains the K.
+	// False otherwise.
+	@Override
+	public boolean containsKey(K key) {
+		return this.find(key, hashOf(key)) >= 0;
+	}
+
+	// return the size of data structure
+	@Override
+	public int size() {
+		return size;
+	}
+
+	// Returns a list of all key-value pairs within this data structure
+	@Override
+	public Iterator<KVPair<K, V>> iterator() {
+		return new SwissIterator();
+	}
+
+	// Returns a cursor over all key-value pairs within this data structure,
+	// which creates nothing per pair
+	@Override
+	public IDictionaryCursor<K, V> cursor() {
+		return new SwissCursor();
+	}
+
+	// Returns the slot holding the given key, or -1 if there is no such key.
+	// Stops at the first group with an empty slot, since an insert would have
+	// used that slot rather than go on to the next group.
+	private int find(K key, int hash) {
+		long pattern = LSBS * (hash & 0x7f);
+		int group = (hash >>> 7) & groupMask;
+		for (int step = 1; true; step++) {
+			long word = ctrl[group];
+			for (long matches = matchByte(word, pattern); matches != 0; matches &= matches - 1) {
+				int slot = group * GROUP + (Long.numberOfTrailingZeros(matches) >>> 3);
+				if (strategy.equals(this.keyAt(slot), key)) {
+					return slot;
+				}
+			}
+			if (matchEmpty(word) != 0) {
+				return -1;
+			}
+			group = (group + step) & groupMask;
+		}
+	}
+
+	// Returns the first empty or deleted slot in the probe sequence of the given
+	// hash. There is always one, since the load is kept below the capacity.
+	private int findFree(int hash) {
+		int group = (hash >>> 7) & groupMask;
+		for (int step = 1; true; step++) {
+			long free = ctrl[group] & MSBS; // Empty and deleted bytes both have the high bit set
+			if (free != 0) {
+				return group * GROUP + (Long.numberOfTrailingZeros(free) >>> 3);
+			}
+			group = (group + step) & groupMask;
+		}
+	}
+
+	// Moves every entry into fresh arrays, clearing out the tombstones. The table
+	// keeps its size if that frees up at least half of the load limit, and
+	// doubles otherwise.
+	private void rehash() {
+		int groups = groupMask + 1;
+		if (size >= maxLoad(groups) / 2 && groups < MAX_GROUPS) {
+			groups *= 2;
+		}
+		long[] oldCtrl = ctrl;
+		Object[] oldKeys = keys;
+		V[] oldValues = values;
+		allocate(groups);
+		for (int group = 0; group < oldCtrl.length; group++) {
+			for (long full = ~oldCtrl[group] & MSBS; full != 0; full &= full - 1) {
+				int slot = group * GROUP + (Long.numberOfTrailingZeros(full) >>> 3);
+				@SuppressWarnings("unchecked")
+				K key = (K) oldKeys[slot];
+				int hash = hashOf(key);
+				int to = this.findFree(hash);
+				this.setCtrl(to, hash & 0x7f);
+				keys[to] = key;
+				values[to] = oldValues[slot];
+				growthLeft--;
+			}
+		}
+	}
+
+	// Returns a word with the high bit set in every byte of the given control word
+	// that equals the byte repeated in the pattern. Bytes above a real match may
+	// also be flagged by a borrow; those are always full slots and are weeded out
+	// by comparing keys.
+	private static long matchByte(long word, long pattern) {
+		long x = word ^ pattern;
+		return (x - LSBS) & ~x & MSBS;
+	}
+
+	// Returns a word with the high bit set in every EMPTY byte of the given control
+	// word. EMPTY is the only control byte with the high bit set and bit 1 clear.
+	private static long matchEmpty(long word) {
+		return word & ~(word << 6) & MSBS;
+	}
+
+	// Returns the control byte of the given slot
+	private long ctrlAt(int slot) {
+		return (ctrl[slot / GROUP] >>> ((slot % GROUP) * 8)) & 0xff;
+	}
+
+	// Sets the control byte of the given slot
+	private void setCtrl(int slot, long value) {
+		int shift = (slot % GROUP) * 8;
+		int group = slot / GROUP;
+		ctrl[group] = (ctrl[group] & ~(0xffL << shift)) | (value << shift);
+	}
+
+	// Returns true if the given slot holds an entry
+	private boolean isFull(int slot) {
+		return (this.ctrlAt(slot) & EMPTY) == 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	private K keyAt(int slot) {
+		return (K) keys[slot];
+	}
+
+	// Returns the strategy's hash of the given key, mixed so that both the low 7
+	// bits (h2) and the bits above them (h1) depend on all of it
+	private int hashOf(K key) {
+		int h = strategy.hash(key) * 0x9e3779b9;
+		return h ^ (h >>> 16);
+	}
+
+	// Returns the number of slots a table with the given number of groups may fill,
+	// counting tombstones, before it has to be rehashed (7/8 of the slots)
+	private static int maxLoad(int groups) {
+		int slots = groups * GROUP;
+		return slots - (slots >>> 3);
+	}
+
+	// Returns the first full slot at or after the given one, or keys.length if
+	// there is none
+	private int findFull(int start) {
+		int i = start;
+		while (i < keys.length && !this.isFull(i)) {
+			i++;
+		}
+		return i;
+	}
+
+	//Cursor over the items in a SwissTableDictionary object
+	private class SwissCursor implements IDictionaryCursor<K, V> {
+		private int slot = -1; //Slot the cursor is on, or keys.length once it is done
+
+		// Moves to the next full slot, returning false if there is none
+		@Override
+		public boolean advance() {
+			if (slot < keys.length) {
+				slot = findFull(slot + 1);
+			}
+			return slot < keys.length;
+		}
+
+		@Override
+		public K key() {
+			return keyAt(this.checkedSlot());
+		}
+
+		@Override
+		public V value() {
+			return values[this.checkedSlot()];
+		}
+
+		@Override
+		public void setValue(V value) {
+			values[this.checkedSlot()] = value;
+		}
+
+		// Returns the slot the cursor is on
+		// throw IllegalStateException if the cursor is not on an item
+		private int checkedSlot() {
+			if (slot < 0 || slot >= keys.length) {
+				throw new IllegalStateException();
+			}
+			return slot;
+		}
+	}
+
+	//Class used to iterate through the items in a SwissTableDictionary object
+	private class SwissIterator implements Iterator<KVPair<K, V>> {
+		private int nextSlot; //Index of the next full slot, or keys.length if there is none
+
+		public SwissIterator() {
+			this.nextSlot = findFull(0);
+		}
+
+		// Returns true if there is another item in the data structure that can
+		// be returned by the next() function
+		// Returns false otherwise
+		@Override
+		public boolean hasNext() {
+			return nextSlot < keys.length;
+		}
+
+		// Return the next item in the iteration
+		// throw NoSuchElementException if a next item does not exist.
+		@Override
+		public KVPair<K, V> next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			KVPair<K, V> pair = new KVPair<>(keyAt(nextSlot), values[nextSlot]);
+			nextSlot = findFull(nextSlot + 1);
+			return pair;
+		}
+	}
+}
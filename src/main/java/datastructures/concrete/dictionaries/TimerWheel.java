@@ -0,0 +1,163 @@
+package datastructures.concrete.dictionaries;
+
+import java.util.function.Consumer;
+
+// A hierarchical timing wheel that finds the entries of an ExpiringDictionary
+// whose deadlines have passed, without looking at the entries that have not.
+//
+// Time is cut into ticks, and each wheel is a ring of buckets, one per tick of
+// its own size. The first wheel has 64 buckets of about a second each, the
+// next 64 of about a minute, then 32 of about an hour, 4 of about a day, and a
+// final bucket for everything further off. An entry is linked into the bucket
+// of the finest wheel that can reach its deadline. When advance() moves the
+// time past a bucket's tick, every entry in that bucket has either expired or
+// is moved down into a finer wheel, so each entry is touched at most once per
+// wheel before it expires: O(1) amortized, no matter how many entries there are.
+//
+// Buckets are circular doubly linked lists with a sentinel, so an entry that is
+// removed or given a new deadline is unlinked in O(1).
+//
+// Deadlines are only as precise as a tick of the first wheel, so an entry may
+// be reported up to about a second after it expires.
+class TimerWheel<K, V> {
+	private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+	private static final long[] SPANS = { // Length of a tick of each wheel, rounded up to powers of two
+		1L << 30, // 1.07 seconds
+		1L << 36, // 1.14 minutes
+		1L << 42, // 1.22 hours
+		1L << 46, // 0.81 days
+		1L << 48, // 3.26 days
+		1L << 48  // Everything further off waits in the last wheel
+	};
+	private static final int[] SHIFTS = {30, 36, 42, 46, 48};
+
+	private Node<K, V>[][] wheels; // Sentinel of each bucket of each wheel
+	private long origin; // Time the wheel was created at; ticks are counted from here, so they
+	                     // keep counting up even if the clock wraps around
+	private long nanos; // Time the wheels have been advanced to, counted from the origin
+
+	@SuppressWarnings("unchecked")
+	public TimerWheel(long now) {
+		this.origin = now;
+		this.nanos = 0;
+		this.wheels = (Node<K, V>[][]) new Node[BUCKETS.length][];
+		for (int i = 0; i < BUCKETS.length; i++) {
+			wheels[i] = (Node<K, V>[]) new Node[BUCKETS[i]];
+			for (int j = 0; j < BUCKETS[i]; j++) {
+				Node<K, V> sentinel = new Node<>(null, null, 0);
+				sentinel.prev = sentinel;
+				sentinel.next = sentinel;
+				wheels[i][j] = sentinel;
+			}
+		}
+	}
+
+	// Links the given node, which must not be scheduled, into the bucket for its
+	// deadline
+	public void schedule(Node<K, V> node) {
+		Node<K, V> sentinel = this.bucketFor(node.deadline);
+		node.prev = sentinel.prev;
+		node.next = sentinel;
+		sentinel.prev.next = node;
+		sentinel.prev = node;
+	}
+
+	// Moves the given node, which must be scheduled, to the bucket for its
+	// (changed) deadline
+	public void reschedule(Node<K, V> node) {
+		this.deschedule(node);
+		this.schedule(node);
+	}
+
+	// Unlinks the given node from its bucket, if it is in one
+	public void deschedule(Node<K, V> node) {
+		if (node.next != null) {
+			node.prev.next = node.next;
+			node.next.prev = node.prev;
+			node.prev = null;
+			node.next = null;
+		}
+	}
+
+	// Moves the time forward to the given time, handing every node whose deadline
+	// has passed to the given action after unlinking it. Only the buckets of the
+	// ticks the time moved through are looked at.
+	public void advance(long now, Consumer<Node<K, V>> expired) {
+		long previous = nanos;
+		long current = now - origin;
+		if (current - previous <= 0) {
+			return;
+		}
+		nanos = current;
+		for (int i = 0; i < BUCKETS.length; i++) {
+			long previousTicks = previous >>> SHIFTS[i];
+			long currentTicks = current >>> SHIFTS[i];
+			if (currentTicks - previousTicks <= 0) {
+				// Coarser wheels can't have ticked either
+				break;
+			}
+			this.expire(i, previousTicks, currentTicks - previousTicks, expired);
+		}
+	}
+
+	// Empties the buckets of the given wheel that the time has passed through,
+	// expiring their nodes or moving them to finer wheels
+	private void expire(int index, long previousTicks, long delta, Consumer<Node<K, V>> expired) {
+		Node<K, V>[] wheel = wheels[index];
+		int mask = wheel.length - 1;
+		int start;
+		int end;
+		if (delta >= wheel.length) {
+			start = 0;
+			end = wheel.length;
+		} else {
+			start = (int) (previousTicks & mask);
+			end = start + (int) delta + 1;
+		}
+		for (int i = start; i < end; i++) {
+			Node<K, V> sentinel = wheel[i & mask];
+			Node<K, V> node = sentinel.next;
+			sentinel.next = sentinel;
+			sentinel.prev = sentinel;
+			while (node != sentinel) {
+				Node<K, V> next = node.next;
+				node.prev = null;
+				node.next = null;
+				if (node.deadline - origin - nanos <= 0) {
+					expired.accept(node);
+				} else {
+					this.schedule(node);
+				}
+				node = next;
+			}
+		}
+	}
+
+	// Returns the sentinel of the bucket a node with the given deadline belongs in
+	private Node<K, V> bucketFor(long deadline) {
+		long duration = Math.max(deadline - origin - nanos, 0);
+		long time = nanos + duration;
+		for (int i = 0; i < BUCKETS.length - 1; i++) {
+			if (duration < SPANS[i + 1]) {
+				long ticks = time >>> SHIFTS[i];
+				return wheels[i][(int) (ticks & (BUCKETS[i] - 1))];
+			}
+		}
+		return wheels[BUCKETS.length - 1][0];
+	}
+
+	// An entry of an ExpiringDictionary, linked into at most one bucket
+	static class Node<K, V> {
+		public final K key;
+		public V value;
+		public long deadline; // Time at which the entry expires
+		public Node<K, V> prev;
+		public Node<K, V> next;
+
+		public Node(K key, V value, long deadline) {
+			this.key = key;
+			this.value = value;
+			this.deadline = deadline;
+		}
+	}
+}
@@ -0,0 +1,416 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.DoubleLinkedList;
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IDictionaryCursor;
+import datastructures.interfaces.IHashStrategy;
+import datastructures.interfaces.IList;
+import misc.exceptions.NoSuchKeyException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// A chain for ChainedHashDictionary that keeps its items in a balanced (AVL)
+// binary search tree instead of an array. ChainedHashDictionary switches a chain
+// over to this class once it gets too long, so that a bad hashCode() or a
+// deliberate flood of colliding keys costs O(log n) per operation instead of O(n).
+//
+// Items are ordered by hash code, then by class, then with compareTo() when the
+// keys are Comparable, and finally by identity hash code. Keys that are not
+// Comparable and share a hash code can not be told apart by the ordering, so
+// lookups for those have to search both subtrees. compareTo() is only used when
+// the hash strategy compares keys with equals(), since otherwise the two could
+// disagree.
+class TreeChain<K, V> implements IDictionary<K, V> {
+	private Node<K, V> root;
+	private int size;
+	private IHashStrategy<? super K> strategy;
+	private boolean useCompareTo; // True if Comparable keys may be ordered with compareTo()
+
+	public TreeChain(IHashStrategy<? super K> strategy) {
+		this.root = null;
+		this.size = 0;
+		this.strategy = strategy;
+		this.useCompareTo = strategy.usesObjectEquality();
+	}
+
+	// Creates a tree holding every item in the given chain
+	public TreeChain(IHashStrategy<? super K> strategy, IDictionary<K, V> chain) {
+		this(strategy);
+		IDictionaryCursor<K, V> cursor = chain.cursor();
+		while (cursor.advance()) {
+			this.put(cursor.key(), cursor.value());
+		}
+	}
+
+	// Pass a K object as a parameter
+	// Returns the value corresponding to the given key.
+	// throw NoSuchKeyException if the given key is not in the data structure
+	@Override
+	public V get(K key) {
+		Node<K, V> node = find(root, hashOf(key), key);
+		if (node != null) {
+			return node.value;
+		}
+		throw new NoSuchKeyException();
+	}
+
+	// Pass a K and a V as parameters and put K-V pairs into the data structure
+	// If the K already exists in data structure, replace its value with V
+	@Override
+	public void put(K key, V value) {
+		int hash = hashOf(key);
+		Node<K, V> node = find(root, hash, key);
+		if (node != null) {
+			node.value = value;
+		} else {
+			root = insert(root, new Node<>(hash, key, value));
+			size++;
+		}
+	}
+
+	// Pass a K object as parameter
+	// Remove the K-V pair corresponding to the given key from the data structure.
+	// Throw NoSuchKeyException if the given K is not in data structure
+	@Override
+	public V remove(K key) {
+		Node<K, V> node = find(root, hashOf(key), key);
+		if (node == null) {
+			throw new NoSuchKeyException();
+		}
+		root = delete(root, node);
+		size--;
+		return node.value;
+	}
+
+	// Pass an object K as parameter. Return True if data structure contains the K.
+	// False otherwise.
+	@Override
+	public boolean containsKey(K key) {
+		return find(root, hashOf(key), key) != null;
+	}
+
+	// return the size of data structure
+	@Override
+	public int size() {
+		return size;
+	}
+
+	// Returns a list of all key-value pairs within this data structure, in tree order
+	@Override
+	public Iterator<KVPair<K, V>> iterator() {
+		return new TreeIterator<>(root);
+	}
+
+	// Returns a cursor over all key-value pairs within this data structure, in
+	// tree order, which creates nothing per pair
+	@Override
+	public IDictionaryCursor<K, V> cursor() {
+		return new TreeCursor<>(root);
+	}
+
+	// Returns the node holding the given key in the given subtree, or null if
+	// there is no such node
+	private Node<K, V> find(Node<K, V> node, int hash, K key) {
+		while (node != null) {
+			int c = Integer.compare(hash, node.hash);
+			if (c == 0) {
+				c = compareClasses(key, node.key);
+			}
+			if (c == 0) {
+				if (keysEqual(key, node.key)) {
+					return node;
+				}
+				c = useCompareTo ? compareComparables(key, node.key) : 0;
+				if (c == 0) {
+					// The ordering can't tell which side the key is on, so try both
+					Node<K, V> found = find(node.right, hash, key);
+					if (found != null) {
+						return found;
+					}
+					node = node.left;
+					continue;
+				}
+			}
+			node = c < 0 ? node.left : node.right;
+		}
+		return null;
+	}
+
+	// Adds the given node to the given subtree and returns the rebalanced subtree
+	private Node<K, V> insert(Node<K, V> node, Node<K, V> added) {
+		if (node == null) {
+			return added;
+		}
+		if (order(added, node) < 0) {
+			node.left = insert(node.left, added);
+		} else {
+			node.right = insert(node.right, added);
+		}
+		return rebalance(node);
+	}
+
+	// Removes the given node from the given subtree and returns the rebalanced
+	// subtree
+	private Node<K, V> delete(Node<K, V> node, Node<K, V> target) {
+		if (node == null) {
+			return null;
+		}
+		if (node == target) {
+			if (node.left == null) {
+				return node.right;
+			} else if (node.right == null) {
+				return node.left;
+			}
+			// Replace the node with the smallest node of its right subtree
+			Node<K, V> successor = node.right;
+			while (successor.left != null) {
+				successor = successor.left;
+			}
+			successor.right = deleteMin(node.right);
+			successor.left = node.left;
+			return rebalance(successor);
+		}
+		int c = order(target, node);
+		if (c < 0) {
+			node.left = delete(node.left, target);
+		} else if (c > 0) {
+			node.right = delete(node.right, target);
+		} else {
+			// Ties can end up on either side
+			if (contains(node.left, target)) {
+				node.left = delete(node.left, target);
+			} else {
+				node.right = delete(node.right, target);
+			}
+		}
+		return rebalance(node);
+	}
+
+	// Removes the smallest node from the given subtree and returns the
+	// rebalanced subtree
+	private Node<K, V> deleteMin(Node<K, V> node) {
+		if (node.left == null) {
+			return node.right;
+		}
+		node.left = deleteMin(node.left);
+		return rebalance(node);
+	}
+
+	// Returns true if the target node is somewhere in the given subtree
+	private boolean contains(Node<K, V> node, Node<K, V> target) {
+		return node != null && (node == target || contains(node.left, target) || contains(node.right, target));
+	}
+
+	// Updates the height of the given node and performs any rotations needed to
+	// keep the AVL balance property. Returns the new root of the subtree.
+	private Node<K, V> rebalance(Node<K, V> node) {
+		updateHeight(node);
+		int balance = height(node.left) - height(node.right);
+		if (balance > 1) {
+			if (height(node.left.left) < height(node.left.right)) {
+				node.left = rotateLeft(node.left);
+			}
+			return rotateRight(node);
+		} else if (balance < -1) {
+			if (height(node.right.right) < height(node.right.left)) {
+				node.right = rotateRight(node.right);
+			}
+			return rotateLeft(node);
+		}
+		return node;
+	}
+
+	private Node<K, V> rotateLeft(Node<K, V> node) {
+		Node<K, V> pivot = node.right;
+		node.right = pivot.left;
+		pivot.left = node;
+		updateHeight(node);
+		updateHeight(pivot);
+		return pivot;
+	}
+
+	private Node<K, V> rotateRight(Node<K, V> node) {
+		Node<K, V> pivot = node.left;
+		node.left = pivot.right;
+		pivot.right = node;
+		updateHeight(node);
+		updateHeight(pivot);
+		return pivot;
+	}
+
+	private static int height(Node<?, ?> node) {
+		return node == null ? 0 : node.height;
+	}
+
+	private static void updateHeight(Node<?, ?> node) {
+		node.height = 1 + Math.max(height(node.left), height(node.right));
+	}
+
+	// Returns the total order used to place nodes in the tree. Only returns 0
+	// if the nodes can not be told apart at all.
+	private int order(Node<?, ?> a, Node<?, ?> b) {
+		int c = Integer.compare(a.hash, b.hash);
+		if (c == 0) {
+			c = compareClasses(a.key, b.key);
+		}
+		if (c == 0 && useCompareTo) {
+			c = compareComparables(a.key, b.key);
+		}
+		if (c == 0) {
+			c = Integer.compare(System.identityHashCode(a.key), System.identityHashCode(b.key));
+		}
+		return c;
+	}
+
+	// Orders keys by the name of their class, with null keys first
+	private static int compareClasses(Object a, Object b) {
+		Class<?> classA = a == null ? null : a.getClass();
+		Class<?> classB = b == null ? null : b.getClass();
+		if (classA == classB) {
+			return 0;
+		} else if (classA == null) {
+			return -1;
+		} else if (classB == null) {
+			return 1;
+		}
+		return classA.getName().compareTo(classB.getName());
+	}
+
+	// Compares two keys of the same class using compareTo() if they are
+	// Comparable. Returns 0 otherwise.
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static int compareComparables(Object a, Object b) {
+		if (a instanceof Comparable) {
+			return ((Comparable) a).compareTo(b);
+		}
+		return 0;
+	}
+
+	// Pass a K object as a parameter. Return the hash code used to order K. Null keys are allowed.
+	private int hashOf(K key) {
+		return strategy.hash(key);
+	}
+
+	// Returns true if the two keys are equal according to the hash strategy
+	private boolean keysEqual(K a, K b) {
+		return strategy.equals(a, b);
+	}
+
+	private static class Node<K, V> {
+		public final int hash;
+		public final K key;
+		public V value;
+		public Node<K, V> left;
+		public Node<K, V> right;
+		public int height;
+
+		public Node(int hash, K key, V value) {
+			this.hash = hash;
+			this.key = key;
+			this.value = value;
+			this.height = 1;
+		}
+	}
+
+	//Cursor over the items in a TreeChain object, in order
+	private static class TreeCursor<K, V> implements IDictionaryCursor<K, V> {
+		private Node<K, V>[] stack; //Nodes whose left subtrees are done but which are not yet visited
+		private int depth; //Number of nodes on the stack
+		private Node<K, V> current; //Node the cursor is on, or null
+
+		// The stack never holds more nodes than the height of the tree, so it
+		// can be allocated once up front
+		@SuppressWarnings("unchecked")
+		public TreeCursor(Node<K, V> root) {
+			this.stack = (Node<K, V>[]) new Node[height(root)];
+			this.depth = 0;
+			this.current = null;
+			pushLeftPath(root);
+		}
+
+		// Moves to the next item, returning false if there is none
+		@Override
+		public boolean advance() {
+			if (depth == 0) {
+				current = null;
+				return false;
+			}
+			depth--;
+			current = stack[depth];
+			pushLeftPath(current.right);
+			return true;
+		}
+
+		@Override
+		public K key() {
+			return this.node().key;
+		}
+
+		@Override
+		public V value() {
+			return this.node().value;
+		}
+
+		@Override
+		public void setValue(V value) {
+			this.node().value = value;
+		}
+
+		// Returns the node the cursor is on
+		// throw IllegalStateException if the cursor is not on a node
+		private Node<K, V> node() {
+			if (current == null) {
+				throw new IllegalStateException();
+			}
+			return current;
+		}
+
+		// Pushes the given node and all of its left descendants onto the stack
+		private void pushLeftPath(Node<K, V> node) {
+			while (node != null) {
+				stack[depth] = node;
+				depth++;
+				node = node.left;
+			}
+		}
+	}
+
+	//Class used to iterate through the items in a TreeChain object, in order
+	private static class TreeIterator<K, V> implements Iterator<KVPair<K, V>> {
+		private IList<Node<K, V>> stack; //Nodes whose left subtrees are done but which are not yet returned
+
+		public TreeIterator(Node<K, V> root) {
+			this.stack = new DoubleLinkedList<>();
+			pushLeftPath(root);
+		}
+
+		// Returns true if there is another item in the data structure that can
+		// be returned by the next() function
+		// Returns false otherwise
+		@Override
+		public boolean hasNext() {
+			return !stack.isEmpty();
+		}
+
+		// Return the next item in the iteration
+		// throw NoSuchElementException if a next item does not exist.
+		@Override
+		public KVPair<K, V> next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Node<K, V> node = stack.remove();
+			pushLeftPath(node.right);
+			return new KVPair<>(node.key, node.value);
+		}
+
+		// Pushes the given node and all of its left descendants onto the stack
+		private void pushLeftPath(Node<K, V> node) {
+			while (node != null) {
+				stack.add(node);
+				node = node.left;
+			}
+		}
+	}
+}
@@ -0,0 +1,276 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IEvictionListener;
+import misc.exceptions.NoSuchKeyException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Represents a data structure that contains a bunch of key-value
+// mappings. Each key must be unique.
+//
+// This dictionary is a bounded cache using the W-TinyLFU policy, which keeps
+// popular entries through scans that would flush a plain LruCache. Entries
+// live in one of three RecencyLists:
+//
+//     window      new entries start here (1% of the cache), in LRU order
+//     probation   entries admitted from the window that have not been used since
+//     protected   entries used again while on probation (80% of the rest)
+//
+// An entry pushed out of the window only gets into the main region (probation
+// and protected) if a FrequencySketch says it has been used more often lately
+// than the entry it would push out of probation; otherwise it is evicted. A
+// scan touches each of its keys once, so its entries lose to anything used
+// twice and pass through the window without disturbing the main region.
+//
+// Entries used while on probation move to protected; when protected overflows,
+// its least recently used entry goes back to the front of probation. Every
+// lookup and put counts towards the sketch, hit or miss, and the sketch halves
+// its counts periodically so popularity fades over time.
+public class WTinyLfuCache<K, V> implements IDictionary<K, V> {
+	private ChainedHashDictionary<K, RecencyList.Node<K, V>> map;
+	private RecencyList<K, V> window;
+	private RecencyList<K, V> probation;
+	private RecencyList<K, V> protectedList;
+	private FrequencySketch sketch;
+	private int maxEntries;
+	private int maxWindow;
+	private int maxProtected;
+	private IEvictionListener<K, V> listener; // May be null
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	private static final int WINDOW = 0;
+	private static final int PROBATION = 1;
+	private static final int PROTECTED = 2;
+
+	// Creates a cache that holds at most the given number of entries
+	// throw IllegalArgumentException if the number is not positive
+	public WTinyLfuCache(int maxEntries) {
+		this(maxEntries, null);
+	}
+
+	// Same as above, telling the given listener about every eviction
+	public WTinyLfuCache(int maxEntries, IEvictionListener<K, V> listener) {
+		if (maxEntries <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.map = new ChainedHashDictionary<>();
+		this.window = new RecencyList<>();
+		this.probation = new RecencyList<>();
+		this.protectedList = new RecencyList<>();
+		this.sketch = new FrequencySketch(maxEntries);
+		this.maxEntries = maxEntries;
+		this.maxWindow = Math.max(1, maxEntries / 100);
+		this.maxProtected = (int) ((maxEntries - maxWindow) * 0.8);
+		this.listener = listener;
+	}
+
+	// Pass a K object as a parameter
+	// Returns the value corresponding to the given key, and marks it as used.
+	// throw NoSuchKeyException if the given key is not in the data structure
+	@Override
+	public V get(K key) {
+		RecencyList.Node<K, V> node = this.lookup(key);
+		if (node == null) {
+			throw new NoSuchKeyException();
+		}
+		return node.value;
+	}
+
+	// Pass a K and a V as parameters
+	// Returns the value corresponding to the given key, or the default value if
+	// the key is not in the data structure. Marks an entry that is found as used.
+	@Override
+	public V getOrDefault(K key, V defaultValue) {
+		RecencyList.Node<K, V> node = this.lookup(key);
+		return node == null ? defaultValue : node.value;
+	}
+
+	// Pass a K and a V as parameters and put K-V pairs into the data structure
+	// If the K already exists in data structure, replace its value with V
+	// and mark it as used; otherwise the entry starts out in the window, and an
+	// entry may be evicted to make room.
+	@Override
+	public void put(K key, V value) {
+		sketch.increment(hashOf(key));
+		RecencyList.Node<K, V> node = map.getOrDefault(key, null);
+		if (node != null) {
+			node.value = value;
+			this.touch(node);
+			return;
+		}
+		node = new RecencyList.Node<>(key, value, 1);
+		node.queue = WINDOW;
+		map.put(key, node);
+		window.addFirst(node);
+		this.evictIfNeeded();
+	}
+
+	// Pass a K object as parameter
+	// Remove the K-V pair corresponding to the given key from the data structure.
+	// The eviction listener is not told.
+	// Throw NoSuchKeyException if the given K is not in data structure
+	@Override
+	public V remove(K key) {
+		RecencyList.Node<K, V> node = map.remove(key);
+		this.listFor(node).remove(node);
+		return node.value;
+	}
+
+	// Pass an object K as parameter. Return True if data structure contains the K.
+	// False otherwise. Does not count as a use of the entry.
+	@Override
+	public boolean containsKey(K key) {
+		return map.containsKey(key);
+	}
+
+	// return the size of data structure
+	@Override
+	public int size() {
+		return window.size() + probation.size() + protectedList.size();
+	}
+
+	// Returns the hits, misses and evictions the cache has seen so far
+	public CacheStats stats() {
+		return new CacheStats(hits, misses, evictions);
+	}
+
+	// Returns a list of all key-value pairs within this data structure: the
+	// protected entries, then those on probation, then the window, each from
+	// the most to the least recently used. Iterating does not count as a use.
+	@Override
+	public Iterator<KVPair<K, V>> iterator() {
+		return new TinyLfuIterator();
+	}
+
+	// Returns the node for the given key, or null if there is none, counting
+	// the lookup in the sketch and the stats and marking a found entry as used
+	private RecencyList.Node<K, V> lookup(K key) {
+		sketch.increment(hashOf(key));
+		RecencyList.Node<K, V> node = map.getOrDefault(key, null);
+		if (node == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		this.touch(node);
+		return node;
+	}
+
+	// Marks the given node as just used, promoting it out of probation
+	private void touch(RecencyList.Node<K, V> node) {
+		if (node.queue == PROBATION) {
+			probation.remove(node);
+			node.queue = PROTECTED;
+			protectedList.addFirst(node);
+			if (protectedList.size() > maxProtected) {
+				RecencyList.Node<K, V> demoted = protectedList.last();
+				protectedList.remove(demoted);
+				demoted.queue = PROBATION;
+				probation.addFirst(demoted);
+			}
+		} else {
+			this.listFor(node).moveToFront(node);
+		}
+	}
+
+	// Moves entries that overflow the window into the main region, evicting
+	// whichever of each one and probation's least recently used entry has been
+	// used less often lately, until the cache is within its bound
+	private void evictIfNeeded() {
+		while (window.size() > maxWindow) {
+			RecencyList.Node<K, V> candidate = window.last();
+			window.remove(candidate);
+			if (this.size() < maxEntries) {
+				// The main region still has room, so there is nothing to decide
+				candidate.queue = PROBATION;
+				probation.addFirst(candidate);
+				continue;
+			}
+			RecencyList.Node<K, V> victim = probation.last();
+			if (victim == null) {
+				victim = protectedList.last();
+			}
+			if (victim != null && sketch.frequency(hashOf(candidate.key)) > sketch.frequency(hashOf(victim.key))) {
+				this.listFor(victim).remove(victim);
+				candidate.queue = PROBATION;
+				probation.addFirst(candidate);
+				this.evict(victim);
+			} else {
+				this.evict(candidate);
+			}
+		}
+	}
+
+	// Drops the given node, which is in no list any more, from the cache
+	private void evict(RecencyList.Node<K, V> node) {
+		map.remove(node.key);
+		evictions++;
+		if (listener != null) {
+			listener.onEviction(node.key, node.value);
+		}
+	}
+
+	// Returns the list the given node is in
+	private RecencyList<K, V> listFor(RecencyList.Node<K, V> node) {
+		if (node.queue == WINDOW) {
+			return window;
+		} else if (node.queue == PROBATION) {
+			return probation;
+		}
+		return protectedList;
+	}
+
+	// Returns the hash code the sketch counts the given key under. The high
+	// bits are folded into the low ones, since the sketch picks counters with
+	// the low bits. Null keys are allowed.
+	private static int hashOf(Object key) {
+		int h = key == null ? 0 : key.hashCode();
+		h *= 0x9e3779b9;
+		return h ^ (h >>> 16);
+	}
+
+	//Class used to iterate through the items in a WTinyLfuCache object
+	private class TinyLfuIterator implements Iterator<KVPair<K, V>> {
+		private int queue; //List being walked
+		private RecencyList.Node<K, V> next; //Next node to return, or null if there are no more
+
+		public TinyLfuIterator() {
+			this.queue = PROTECTED;
+			this.next = protectedList.first();
+			this.skipEmptyLists();
+		}
+
+		// Returns true if there is another item in the data structure that can
+		// be returned by the next() function
+		// Returns false otherwise
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		// Return the next item in the iteration
+		// throw NoSuchElementException if a next item does not exist.
+		@Override
+		public KVPair<K, V> next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			KVPair<K, V> pair = new KVPair<>(next.key, next.value);
+			next = listFor(next).next(next);
+			this.skipEmptyLists();
+			return pair;
+		}
+
+		// Moves on to the next list while the current one has nothing left
+		private void skipEmptyLists() {
+			while (next == null && queue != WINDOW) {
+				queue = queue == PROTECTED ? PROBATION : WINDOW;
+				next = queue == PROBATION ? probation.first() : window.first();
+			}
+		}
+	}
+}
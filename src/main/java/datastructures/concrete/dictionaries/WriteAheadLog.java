@@ -0,0 +1,135 @@
+package datastructures.concrete.dictionaries;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+// An append-only log of records for DurableDictionary, with group commit.
+//
+// Appending a record only hands it to the operating system, and returns the
+// position just past it. A writer then calls sync() with that position to wait
+// until the record is on the disk. Instead of every writer forcing the file
+// itself, the first one to arrive becomes the leader and forces everything
+// appended so far, while the writers behind it wait. When the leader is done,
+// every waiter whose record was covered returns, and the next one that still
+// needs a sync becomes the next leader. So while a sync is running, any number
+// of writers pile up behind it and share the next one, and the cost of a sync
+// is spread across everything appended while the previous one ran.
+//
+// Positions count bytes across every file the log has been rotated through,
+// so they only grow.
+class WriteAheadLog implements AutoCloseable {
+	private FileChannel channel; // File records are appended to
+	private long written; // Position just past the last appended record
+	private long synced; // Position up to which everything is known to be on the disk
+	private long fileStart; // Position at which the current file starts
+	private boolean syncing; // True while a leader is forcing the file
+	private long syncCount; // Number of times the file has been forced
+
+	public WriteAheadLog(FileChannel channel) throws IOException {
+		this.channel = channel;
+		this.fileStart = 0;
+		this.written = channel.size();
+		this.synced = written;
+		this.syncing = false;
+		channel.position(written);
+	}
+
+	// Appends the given record and returns the position just past it
+	// throw IOException if the record can't be written
+	public synchronized long append(ByteBuffer record) throws IOException {
+		while (record.hasRemaining()) {
+			written += channel.write(record);
+		}
+		return written;
+	}
+
+	// Returns the number of bytes in the current file
+	public synchronized long fileSize() {
+		return written - fileStart;
+	}
+
+	// Returns the number of times the log has been forced to the disk
+	public synchronized long syncCount() {
+		return syncCount;
+	}
+
+	// Returns once everything up to the given position is on the disk, forcing
+	// the file if no other thread is already about to
+	// throw IOException if the file can't be forced, or the thread is interrupted
+	public void sync(long position) throws IOException {
+		FileChannel target;
+		long upTo;
+		synchronized (this) {
+			while (synced < position && syncing) {
+				try {
+					this.wait();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				}
+			}
+			if (synced >= position) {
+				return;
+			}
+			// Become the leader and sync everything appended so far, not just
+			// our own record
+			syncing = true;
+			target = channel;
+			upTo = written;
+		}
+		boolean done = false;
+		try {
+			target.force(false);
+			done = true;
+		} finally {
+			synchronized (this) {
+				syncing = false;
+				if (done) {
+					synced = Math.max(synced, upTo);
+					syncCount++;
+				}
+				this.notifyAll();
+			}
+		}
+	}
+
+	// Returns once everything appended so far is on the disk, waiting for a
+	// running sync first
+	// throw IOException if the file can't be forced, or the thread is interrupted
+	public synchronized void force() throws IOException {
+		while (syncing) {
+			try {
+				this.wait();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+		}
+		if (synced < written) {
+			channel.force(false);
+			syncCount++;
+			synced = written;
+		}
+	}
+
+	// Forces the current file, closes it and continues the log in the given
+	// (empty) file
+	// throw IOException if the current file can't be forced or closed
+	public synchronized void rotate(FileChannel next) throws IOException {
+		this.force();
+		channel.close();
+		channel = next;
+		fileStart = written;
+	}
+
+	// Forces and closes the current file. Does nothing if the log is already closed.
+	@Override
+	public synchronized void close() throws IOException {
+		if (channel == null) {
+			return;
+		}
+		this.rotate(null);
+	}
+}
@@ -0,0 +1,30 @@
+package datastructures.interfaces;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Turns values into bytes and back, for data structures that store their
+ * contents outside of the Java heap.
+ *
+ * Implementations must be canonical: equal values must always encode to the
+ * same bytes, since keys are compared and hashed by their encoded bytes.
+ * Codecs are never given null; data structures record null values themselves.
+ */
+public interface ICodec<T> {
+    /**
+     * Returns the number of bytes encode() writes for the given value.
+     */
+    public int sizeOf(T value);
+
+    /**
+     * Writes exactly sizeOf(value) bytes for the given value at the buffer's
+     * position, advancing the position past them.
+     */
+    public void encode(T value, ByteBuffer buffer);
+
+    /**
+     * Reads a value back from all of the buffer's remaining bytes, which are
+     * exactly the bytes encode() wrote for it.
+     */
+    public T decode(ByteBuffer buffer);
+}
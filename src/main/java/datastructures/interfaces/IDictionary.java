@@ -4,6 +4,13 @@ import datastructures.concrete.KVPair;
 import misc.exceptions.NoSuchKeyException;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents a data structure that contains a bunch of key-value mappings. Each key must be unique.
@@ -46,6 +53,93 @@ public interface IDictionary<K, V> extends Iterable<KVPair<K, V>> {
      */
     public V remove(K key);
 
+    /**
+     * If the dictionary does not contain the given key, adds the key-value pair and returns null.
+     * Otherwise, leaves the dictionary unchanged and returns the value already stored for the key.
+     *
+     * Note: Unlike java.util.Map, a key stored with a null value still counts as present
+     *       here and in the other compute methods below. The interface provides default
+     *       implementations for all of them, but implementations may override them to
+     *       find the key only once. The functions passed to these methods must not
+     *       modify the dictionary themselves.
+     */
+    public default V putIfAbsent(K key, V value) {
+        if (this.containsKey(key)) {
+            return this.get(key);
+        }
+        this.put(key, value);
+        return null;
+    }
+
+    /**
+     * If the dictionary does not contain the given key, calls the mapping function on the key
+     * and stores the result, unless it is null. Returns the value stored for the key afterwards,
+     * or null if there is none.
+     */
+    public default V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        if (this.containsKey(key)) {
+            return this.get(key);
+        }
+        V value = mappingFunction.apply(key);
+        if (value != null) {
+            this.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * If the dictionary contains the given key, calls the remapping function on the key and
+     * its current value. Stores the result, or removes the key if the result is null.
+     * Returns the new value, or null if the key is not (or no longer) in the dictionary.
+     */
+    public default V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (!this.containsKey(key)) {
+            return null;
+        }
+        V value = remappingFunction.apply(key, this.get(key));
+        if (value == null) {
+            this.remove(key);
+        } else {
+            this.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Calls the remapping function on the key and its current value (or null if the key is
+     * not in the dictionary). Stores the result, or removes the key if the result is null.
+     * Returns the new value.
+     */
+    public default V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        boolean present = this.containsKey(key);
+        V value = remappingFunction.apply(key, present ? this.get(key) : null);
+        if (value != null) {
+            this.put(key, value);
+        } else if (present) {
+            this.remove(key);
+        }
+        return value;
+    }
+
+    /**
+     * If the dictionary does not contain the given key, stores the given value for it. Otherwise,
+     * calls the remapping function on the current value and the given value, and stores the
+     * result, or removes the key if the result is null. Returns the new value.
+     */
+    public default V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (!this.containsKey(key)) {
+            this.put(key, value);
+            return value;
+        }
+        V newValue = remappingFunction.apply(this.get(key), value);
+        if (newValue == null) {
+            this.remove(key);
+        } else {
+            this.put(key, newValue);
+        }
+        return newValue;
+    }
+
     /**
      * Returns 'true' if the dictionary contains the given key and 'false' otherwise.
      */
@@ -67,4 +161,87 @@ public interface IDictionary<K, V> extends Iterable<KVPair<K, V>> {
      * Returns a list of all key-value pairs contained within this dict.
      */
     public Iterator<KVPair<K, V>> iterator();
+
+    /**
+     * Returns a spliterator over all key-value pairs contained within this dict.
+     *
+     * Note: The interface provides a default implementation that splits by copying
+     *       batches of pairs out of iterator(). Implementations should override it
+     *       to split their own storage directly where they can.
+     */
+    @Override
+    public default Spliterator<KVPair<K, V>> spliterator() {
+        return Spliterators.spliterator(this.iterator(), this.size(),
+                Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    /**
+     * Returns a sequential stream over all key-value pairs contained within this dict.
+     */
+    public default Stream<KVPair<K, V>> stream() {
+        return StreamSupport.stream(this.spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream over all key-value pairs contained within this dict.
+     */
+    public default Stream<KVPair<K, V>> parallelStream() {
+        return StreamSupport.stream(this.spliterator(), true);
+    }
+
+    /**
+     * Returns a cursor over all key-value pairs contained within this dict.
+     *
+     * Note: The interface provides a default implementation built on iterator() and put(),
+     *       which creates a KVPair for every pair. Implementations should override it
+     *       with a cursor that creates nothing per pair.
+     */
+    public default IDictionaryCursor<K, V> cursor() {
+        Iterator<KVPair<K, V>> iter = this.iterator();
+        return new IDictionaryCursor<K, V>() {
+            private KVPair<K, V> current = null;
+
+            @Override
+            public boolean advance() {
+                current = iter.hasNext() ? iter.next() : null;
+                return current != null;
+            }
+
+            @Override
+            public K key() {
+                return this.pair().getKey();
+            }
+
+            @Override
+            public V value() {
+                return this.pair().getValue();
+            }
+
+            @Override
+            public void setValue(V value) {
+                current = new KVPair<>(this.pair().getKey(), value);
+                IDictionary.this.put(current.getKey(), value);
+            }
+
+            private KVPair<K, V> pair() {
+                if (current == null) {
+                    throw new IllegalStateException();
+                }
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Calls the given action on the key and value of every pair in this dict.
+     *
+     * Unlike looping over iterator(), this does not create a KVPair for every pair
+     * (as long as cursor() doesn't).
+     */
+    public default void forEach(BiConsumer<? super K, ? super V> action) {
+        IDictionaryCursor<K, V> cursor = this.cursor();
+        while (cursor.advance()) {
+            action.accept(cursor.key(), cursor.value());
+        }
+    }
 }
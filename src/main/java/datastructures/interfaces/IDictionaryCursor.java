@@ -0,0 +1,45 @@
+package datastructures.interfaces;
+
+/**
+ * Walks over the key-value pairs of a dictionary one at a time, without creating
+ * a new object for every pair.
+ *
+ * A cursor starts out positioned *before* the first pair; call advance() to move
+ * it onto each pair in turn. For example:
+ *
+ *     IDictionaryCursor<K, V> cursor = dict.cursor();
+ *     while (cursor.advance()) {
+ *         use(cursor.key(), cursor.value());
+ *     }
+ *
+ * If the dictionary is changed while a cursor is in use, other than through the
+ * cursor's own setValue(), the cursor's behavior is undefined.
+ */
+public interface IDictionaryCursor<K, V> {
+    /**
+     * Moves the cursor onto the next pair. Returns 'true' if there was one, and
+     * 'false' if the cursor has moved past the last pair.
+     */
+    public boolean advance();
+
+    /**
+     * Returns the key of the pair the cursor is on.
+     *
+     * @throws IllegalStateException if the cursor is not on a pair.
+     */
+    public K key();
+
+    /**
+     * Returns the value of the pair the cursor is on.
+     *
+     * @throws IllegalStateException if the cursor is not on a pair.
+     */
+    public V value();
+
+    /**
+     * Replaces the value of the pair the cursor is on.
+     *
+     * @throws IllegalStateException if the cursor is not on a pair.
+     */
+    public void setValue(V value);
+}
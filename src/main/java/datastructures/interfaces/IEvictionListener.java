@@ -0,0 +1,14 @@
+package datastructures.interfaces;
+
+/**
+ * Is told about every entry a cache evicts to stay within its bound.
+ *
+ * Entries the user removes or replaces are not reported. The listener is called
+ * after the entry has left the cache, on the thread that caused the eviction.
+ */
+public interface IEvictionListener<K, V> {
+    /**
+     * Called once for each evicted entry, with its key and value.
+     */
+    public void onEviction(K key, V value);
+}
@@ -0,0 +1,32 @@
+package datastructures.interfaces;
+
+/**
+ * Decides how a hashed data structure hashes and compares its keys.
+ *
+ * Implementations must be consistent: if equals(a, b) returns 'true', then
+ * hash(a) and hash(b) must return the same value. Both methods must accept null.
+ */
+public interface IHashStrategy<T> {
+    /**
+     * Returns the hash code for the given item.
+     *
+     * Hashed data structures pick buckets from the *low* bits of this value, so
+     * implementations should make sure the low bits are well mixed.
+     */
+    public int hash(T item);
+
+    /**
+     * Returns 'true' if the two items should be treated as the same key and 'false' otherwise.
+     */
+    public boolean equals(T a, T b);
+
+    /**
+     * Returns 'true' if equals(a, b) always agrees with a.equals(b), and 'false' otherwise.
+     *
+     * Data structures may only order Comparable keys with compareTo() when this
+     * returns 'true', since otherwise compareTo() may disagree with equals(a, b).
+     */
+    public default boolean usesObjectEquality() {
+        return false;
+    }
+}
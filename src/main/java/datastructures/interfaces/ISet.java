@@ -2,6 +2,10 @@ package datastructures.interfaces;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents a data structure that contains a unique collection of items.
@@ -42,4 +46,30 @@ public interface ISet<T> extends Iterable<T> {
      * Returns all items contained within this set.
      */
     public Iterator<T> iterator();
+
+    /**
+     * Returns a spliterator over all items contained within this set.
+     *
+     * Note: The interface provides a default implementation that splits by copying
+     *       batches of items out of iterator(). Implementations should override it
+     *       to split their own storage directly where they can.
+     */
+    @Override
+    public default Spliterator<T> spliterator() {
+        return Spliterators.spliterator(this.iterator(), this.size(), Spliterator.DISTINCT);
+    }
+
+    /**
+     * Returns a sequential stream over all items contained within this set.
+     */
+    public default Stream<T> stream() {
+        return StreamSupport.stream(this.spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream over all items contained within this set.
+     */
+    public default Stream<T> parallelStream() {
+        return StreamSupport.stream(this.spliterator(), true);
+    }
 }
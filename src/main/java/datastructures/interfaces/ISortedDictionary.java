@@ -0,0 +1,51 @@
+package datastructures.interfaces;
+
+import datastructures.concrete.KVPair;
+import misc.exceptions.EmptyContainerException;
+
+import java.util.Iterator;
+
+/**
+ * Represents a dictionary that keeps its keys in ascending order, as given by their
+ * compareTo() method. Each key must be unique.
+ *
+ * iterator() and cursor() visit the pairs in ascending order of their keys.
+ *
+ * Keys may not be null, since null can't be compared. Every method that takes a key
+ * throws IllegalArgumentException if it is given null.
+ */
+public interface ISortedDictionary<K extends Comparable<K>, V> extends IDictionary<K, V> {
+    /**
+     * Returns the smallest key in the dictionary.
+     *
+     * @throws EmptyContainerException if the dictionary is empty.
+     */
+    public K firstKey();
+
+    /**
+     * Returns the largest key in the dictionary.
+     *
+     * @throws EmptyContainerException if the dictionary is empty.
+     */
+    public K lastKey();
+
+    /**
+     * Returns the largest key in the dictionary that is less than or equal to the
+     * given key, or null if there is none.
+     */
+    public K floorKey(K key);
+
+    /**
+     * Returns the smallest key in the dictionary that is greater than or equal to the
+     * given key, or null if there is none.
+     */
+    public K ceilingKey(K key);
+
+    /**
+     * Returns an iterator over the pairs whose keys are at least 'from' and less than
+     * 'to', in ascending order of their keys.
+     *
+     * @throws IllegalArgumentException if 'from' is greater than 'to'.
+     */
+    public Iterator<KVPair<K, V>> range(K from, K to);
+}
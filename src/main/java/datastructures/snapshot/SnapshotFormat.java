@@ -0,0 +1,59 @@
+package datastructures.snapshot;
+
+/**
+ * Describes the binary snapshot format shared by SnapshotWriter and SnapshotReader.
+ *
+ * A snapshot stream holds one or more sections, each holding one data structure:
+ *
+ *     int   MAGIC
+ *     short VERSION
+ *     byte  kind (DICTIONARY, LIST or SET)
+ *     byte  flags (CHECKSUM if every block ends in a checksum)
+ *     int   number of items
+ *     blocks, each:
+ *         int   length of the payload in bytes
+ *         int   number of items in the payload
+ *         bytes payload
+ *         int   CRC32 of the payload (only with CHECKSUM)
+ *     an empty block (length 0, no items, no checksum) ending the section
+ *
+ * Each item in a payload is an int length followed by that many bytes written
+ * by an ICodec, or just a length of -1 for null. A dictionary item is its key
+ * followed by its value. All numbers are big-endian.
+ */
+final class SnapshotFormat {
+    static final int MAGIC = 0x44534e50; // "DSNP"
+    static final short VERSION = 1;
+
+    static final byte DICTIONARY = 1;
+    static final byte LIST = 2;
+    static final byte SET = 3;
+
+    static final byte CHECKSUM = 1;
+
+    static final int SECTION_HEADER_BYTES = 12;
+    static final int BLOCK_HEADER_BYTES = 8;
+    static final int CHECKSUM_BYTES = 4;
+    static final int BLOCK_SIZE = 1 << 16; // Payload bytes a writer collects before writing a block
+    static final int NULL_LENGTH = -1;
+
+    private SnapshotFormat() {
+        // This class only holds constants
+    }
+
+    /**
+     * Returns the name of the given kind, for error messages.
+     */
+    static String kindName(byte kind) {
+        switch (kind) {
+            case DICTIONARY:
+                return "dictionary";
+            case LIST:
+                return "list";
+            case SET:
+                return "set";
+            default:
+                return "unknown kind " + kind;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package datastructures.snapshot;
+
+import datastructures.concrete.ChainedHashSet;
+import datastructures.concrete.DoubleLinkedList;
+import datastructures.concrete.dictionaries.ChainedHashDictionary;
+import datastructures.interfaces.ICodec;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.zip.CRC32;
+
+import static datastructures.snapshot.SnapshotFormat.BLOCK_HEADER_BYTES;
+import static datastructures.snapshot.SnapshotFormat.BLOCK_SIZE;
+import static datastructures.snapshot.SnapshotFormat.CHECKSUM;
+import static datastructures.snapshot.SnapshotFormat.CHECKSUM_BYTES;
+import static datastructures.snapshot.SnapshotFormat.DICTIONARY;
+import static datastructures.snapshot.SnapshotFormat.LIST;
+import static datastructures.snapshot.SnapshotFormat.MAGIC;
+import static datastructures.snapshot.SnapshotFormat.NULL_LENGTH;
+import static datastructures.snapshot.SnapshotFormat.SECTION_HEADER_BYTES;
+import static datastructures.snapshot.SnapshotFormat.SET;
+import static datastructures.snapshot.SnapshotFormat.VERSION;
+import static datastructures.snapshot.SnapshotFormat.kindName;
+
+/**
+ * Reads data structures written by SnapshotWriter back from a channel.
+ *
+ * Sections must be read in the order they were written, with codecs that match
+ * the ones used to write them. Every read makes a single pass over the section,
+ * and dictionaries and sets are created presized for the number of items the
+ * section holds, so they never resize while they are filled.
+ *
+ * Every method throws IOException if the channel can not be read, ends early,
+ * or does not hold the expected kind of section, and if a block does not match
+ * its checksum.
+ */
+public class SnapshotReader implements Closeable {
+    private final ReadableByteChannel channel;
+    private final CRC32 crc;
+    private final ByteBuffer header;
+    private ByteBuffer block;   // Payload of the current block, positioned at the next item
+    private int blockItems;     // Number of items left in the current block
+    private boolean checksum;   // True if the blocks of the current section are checksummed
+
+    /**
+     * @throws IllegalArgumentException  if the channel is null
+     */
+    public SnapshotReader(ReadableByteChannel channel) {
+        if (channel == null) {
+            throw new IllegalArgumentException("channel must not be null");
+        }
+        this.channel = channel;
+        this.crc = new CRC32();
+        this.header = ByteBuffer.allocate(SECTION_HEADER_BYTES);
+        this.block = ByteBuffer.allocate(BLOCK_SIZE);
+        this.blockItems = 0;
+    }
+
+    /**
+     * Reads the next section, which must hold a dictionary.
+     *
+     * @throws IllegalArgumentException  if either codec is null
+     */
+    public <K, V> ChainedHashDictionary<K, V> readDictionary(ICodec<K> keyCodec, ICodec<V> valueCodec)
+            throws IOException {
+        checkCodec(keyCodec);
+        checkCodec(valueCodec);
+        int count = this.readSectionHeader(DICTIONARY);
+        ChainedHashDictionary<K, V> dictionary = new ChainedHashDictionary<>(count);
+        for (int i = 0; i < count; i++) {
+            this.nextEntry();
+            K key = this.readItem(keyCodec);
+            dictionary.put(key, this.readItem(valueCodec));
+        }
+        this.finishSection();
+        return dictionary;
+    }
+
+    /**
+     * Reads the next section, which must hold a list.
+     *
+     * @throws IllegalArgumentException  if the codec is null
+     */
+    public <T> DoubleLinkedList<T> readList(ICodec<T> codec) throws IOException {
+        checkCodec(codec);
+        int count = this.readSectionHeader(LIST);
+        DoubleLinkedList<T> list = new DoubleLinkedList<>();
+        for (int i = 0; i < count; i++) {
+            this.nextEntry();
+            list.add(this.readItem(codec));
+        }
+        this.finishSection();
+        return list;
+    }
+
+    /**
+     * Reads the next section, which must hold a set.
+     *
+     * @throws IllegalArgumentException  if the codec is null
+     */
+    public <T> ChainedHashSet<T> readSet(ICodec<T> codec) throws IOException {
+        checkCodec(codec);
+        int count = this.readSectionHeader(SET);
+        ChainedHashSet<T> set = new ChainedHashSet<>(count);
+        for (int i = 0; i < count; i++) {
+            this.nextEntry();
+            set.add(this.readItem(codec));
+        }
+        this.finishSection();
+        return set;
+    }
+
+    /**
+     * Closes the underlying channel.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads and checks a section header, returning the number of items in the
+     * section.
+     */
+    private int readSectionHeader(byte expectedKind) throws IOException {
+        header.clear();
+        this.readFully(header);
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("not a snapshot");
+        }
+        short version = header.getShort();
+        if (version != VERSION) {
+            throw new IOException("unsupported snapshot version " + version);
+        }
+        byte kind = header.get();
+        if (kind != expectedKind) {
+            throw new IOException("expected a " + kindName(expectedKind) + " but found a " + kindName(kind));
+        }
+        byte flags = header.get();
+        if ((flags & ~CHECKSUM) != 0) {
+            throw new IOException("unknown snapshot flags " + flags);
+        }
+        checksum = (flags & CHECKSUM) != 0;
+        int count = header.getInt();
+        if (count < 0) {
+            throw new IOException("corrupt snapshot: negative item count");
+        }
+        block.clear().limit(0);
+        blockItems = 0;
+        return count;
+    }
+
+    /**
+     * Moves on to the next entry, reading in the next block if the current one
+     * is used up.
+     */
+    private void nextEntry() throws IOException {
+        if (blockItems == 0) {
+            if (block.hasRemaining()) {
+                throw new IOException("corrupt snapshot: block holds more bytes than items");
+            }
+            if (!this.readBlock()) {
+                throw new IOException("snapshot section ended early");
+            }
+        }
+        blockItems--;
+    }
+
+    /**
+     * Reads the next block of the section into memory and checks it. Returns
+     * false if the section has no more blocks.
+     */
+    private boolean readBlock() throws IOException {
+        header.clear().limit(BLOCK_HEADER_BYTES);
+        this.readFully(header);
+        header.flip();
+        int length = header.getInt();
+        int items = header.getInt();
+        if (length == 0 && items == 0) {
+            return false;
+        }
+        if (length <= 0 || items <= 0) {
+            throw new IOException("corrupt snapshot: bad block header");
+        }
+        if (block.capacity() < length) {
+            block = ByteBuffer.allocate(length);
+        }
+        block.clear().limit(length);
+        this.readFully(block);
+        block.flip();
+        if (checksum) {
+            header.clear().limit(CHECKSUM_BYTES);
+            this.readFully(header);
+            header.flip();
+            crc.reset();
+            crc.update(block.array(), block.arrayOffset(), length);
+            if (header.getInt() != (int) crc.getValue()) {
+                throw new IOException("corrupt snapshot: checksum mismatch");
+            }
+        }
+        blockItems = items;
+        return true;
+    }
+
+    /**
+     * Checks that every item in the section was read and consumes the empty
+     * block that ends it.
+     */
+    private void finishSection() throws IOException {
+        if (blockItems != 0 || block.hasRemaining()) {
+            throw new IOException("corrupt snapshot: section holds more items than its header says");
+        }
+        if (this.readBlock()) {
+            throw new IOException("corrupt snapshot: section holds more items than its header says");
+        }
+        if (block.capacity() > BLOCK_SIZE) {
+            // Don't hold on to a block that was only grown for one huge item
+            block = ByteBuffer.allocate(BLOCK_SIZE);
+        }
+    }
+
+    private <T> T readItem(ICodec<T> codec) throws IOException {
+        if (block.remaining() < Integer.BYTES) {
+            throw new IOException("corrupt snapshot: block ends inside an item");
+        }
+        int length = block.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0 || length > block.remaining()) {
+            throw new IOException("corrupt snapshot: bad item length " + length);
+        }
+        int start = block.position();
+        ByteBuffer item = block.duplicate();
+        item.limit(start + length);
+        block.position(start + length);
+        return codec.decode(item);
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("snapshot ended early");
+            }
+        }
+    }
+
+    private static void checkCodec(ICodec<?> codec) {
+        if (codec == null) {
+            throw new IllegalArgumentException("codec must not be null");
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package datastructures.snapshot;
+
+import datastructures.interfaces.ICodec;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IDictionaryCursor;
+import datastructures.interfaces.IList;
+import datastructures.interfaces.ISet;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+
+import static datastructures.snapshot.SnapshotFormat.BLOCK_HEADER_BYTES;
+import static datastructures.snapshot.SnapshotFormat.BLOCK_SIZE;
+import static datastructures.snapshot.SnapshotFormat.CHECKSUM;
+import static datastructures.snapshot.SnapshotFormat.CHECKSUM_BYTES;
+import static datastructures.snapshot.SnapshotFormat.DICTIONARY;
+import static datastructures.snapshot.SnapshotFormat.LIST;
+import static datastructures.snapshot.SnapshotFormat.MAGIC;
+import static datastructures.snapshot.SnapshotFormat.NULL_LENGTH;
+import static datastructures.snapshot.SnapshotFormat.SECTION_HEADER_BYTES;
+import static datastructures.snapshot.SnapshotFormat.SET;
+import static datastructures.snapshot.SnapshotFormat.VERSION;
+
+/**
+ * Writes data structures to a channel in the binary snapshot format described
+ * in SnapshotFormat, to be read back with SnapshotReader.
+ *
+ * Items are encoded with the given codecs into blocks of about 64 KB, so the
+ * channel sees a few large writes no matter how small the items are. Several
+ * data structures can be written one after another to the same channel.
+ *
+ * Note: the data structure being written must not change while it is written.
+ */
+public class SnapshotWriter implements Closeable {
+    private final WritableByteChannel channel;
+    private final boolean checksum;
+    private final CRC32 crc;
+    private ByteBuffer block;  // Block header, then the payload collected so far
+    private int blockItems;    // Number of items in the payload
+
+    /**
+     * Creates a writer that checksums every block.
+     */
+    public SnapshotWriter(WritableByteChannel channel) {
+        this(channel, true);
+    }
+
+    /**
+     * Creates a writer that checksums every block only if checksum is true.
+     *
+     * @throws IllegalArgumentException  if the channel is null
+     */
+    public SnapshotWriter(WritableByteChannel channel, boolean checksum) {
+        if (channel == null) {
+            throw new IllegalArgumentException("channel must not be null");
+        }
+        this.channel = channel;
+        this.checksum = checksum;
+        this.crc = new CRC32();
+        this.block = ByteBuffer.allocate(BLOCK_HEADER_BYTES + BLOCK_SIZE + CHECKSUM_BYTES);
+        this.blockItems = 0;
+    }
+
+    /**
+     * Writes every key-value pair in the given dictionary.
+     *
+     * @throws IllegalArgumentException  if either codec is null
+     * @throws IllegalStateException     if a codec writes a different number of bytes than it reported
+     * @throws IOException               if the channel can not be written to
+     */
+    public <K, V> void writeDictionary(IDictionary<K, V> dictionary, ICodec<K> keyCodec, ICodec<V> valueCodec)
+            throws IOException {
+        checkCodec(keyCodec);
+        checkCodec(valueCodec);
+        this.writeSectionHeader(DICTIONARY, dictionary.size());
+        IDictionaryCursor<K, V> cursor = dictionary.cursor();
+        while (cursor.advance()) {
+            K key = cursor.key();
+            V value = cursor.value();
+            int keyLength = lengthOf(keyCodec, key);
+            int valueLength = lengthOf(valueCodec, value);
+            this.ensureRoom(itemBytes(keyLength) + itemBytes(valueLength));
+            this.putItem(keyCodec, key, keyLength);
+            this.putItem(valueCodec, value, valueLength);
+            blockItems++;
+        }
+        this.finishSection();
+    }
+
+    /**
+     * Writes every item in the given list, in order.
+     *
+     * @throws IllegalArgumentException  if the codec is null
+     * @throws IllegalStateException     if the codec writes a different number of bytes than it reported
+     * @throws IOException               if the channel can not be written to
+     */
+    public <T> void writeList(IList<T> list, ICodec<T> codec) throws IOException {
+        this.writeItems(LIST, list, list.size(), codec);
+    }
+
+    /**
+     * Writes every item in the given set.
+     *
+     * @throws IllegalArgumentException  if the codec is null
+     * @throws IllegalStateException     if the codec writes a different number of bytes than it reported
+     * @throws IOException               if the channel can not be written to
+     */
+    public <T> void writeSet(ISet<T> set, ICodec<T> codec) throws IOException {
+        this.writeItems(SET, set, set.size(), codec);
+    }
+
+    /**
+     * Closes the underlying channel.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private <T> void writeItems(byte kind, Iterable<T> items, int count, ICodec<T> codec) throws IOException {
+        checkCodec(codec);
+        this.writeSectionHeader(kind, count);
+        for (T item : items) {
+            int length = lengthOf(codec, item);
+            this.ensureRoom(itemBytes(length));
+            this.putItem(codec, item, length);
+            blockItems++;
+        }
+        this.finishSection();
+    }
+
+    private void writeSectionHeader(byte kind, int count) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SECTION_HEADER_BYTES);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.put(kind);
+        header.put(checksum ? CHECKSUM : 0);
+        header.putInt(count);
+        header.flip();
+        this.writeFully(header);
+        this.startBlock();
+    }
+
+    /**
+     * Writes out the last block of the section, followed by the empty block
+     * that ends it.
+     */
+    private void finishSection() throws IOException {
+        if (blockItems > 0) {
+            this.flushBlock();
+        }
+        ByteBuffer end = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+        end.putInt(0);
+        end.putInt(0);
+        end.flip();
+        this.writeFully(end);
+    }
+
+    /**
+     * Makes sure the current block has room for the given number of payload
+     * bytes, writing it out first if it does not. An item bigger than a whole
+     * block gets a block of its own.
+     */
+    private void ensureRoom(int bytes) throws IOException {
+        if (block.remaining() - CHECKSUM_BYTES >= bytes) {
+            return;
+        }
+        if (blockItems > 0) {
+            this.flushBlock();
+        }
+        if (block.remaining() - CHECKSUM_BYTES < bytes) {
+            block = ByteBuffer.allocate(BLOCK_HEADER_BYTES + bytes + CHECKSUM_BYTES);
+            this.startBlock();
+        }
+    }
+
+    private <T> void putItem(ICodec<T> codec, T item, int length) {
+        block.putInt(length);
+        if (item == null) {
+            return;
+        }
+        int start = block.position();
+        codec.encode(item, block);
+        if (block.position() - start != length) {
+            throw new IllegalStateException("codec wrote " + (block.position() - start)
+                    + " bytes but reported " + length);
+        }
+    }
+
+    /**
+     * Fills in the header and checksum of the current block, writes it to the
+     * channel and starts a new one.
+     */
+    private void flushBlock() throws IOException {
+        int payloadEnd = block.position();
+        int length = payloadEnd - BLOCK_HEADER_BYTES;
+        block.putInt(0, length);
+        block.putInt(4, blockItems);
+        if (checksum) {
+            crc.reset();
+            crc.update(block.array(), block.arrayOffset() + BLOCK_HEADER_BYTES, length);
+            block.putInt((int) crc.getValue());
+        }
+        block.flip();
+        this.writeFully(block);
+        if (block.capacity() > BLOCK_HEADER_BYTES + BLOCK_SIZE + CHECKSUM_BYTES) {
+            // Don't hold on to a block that was only grown for one huge item
+            block = ByteBuffer.allocate(BLOCK_HEADER_BYTES + BLOCK_SIZE + CHECKSUM_BYTES);
+        }
+        this.startBlock();
+    }
+
+    private void startBlock() {
+        block.clear();
+        block.position(BLOCK_HEADER_BYTES);
+        blockItems = 0;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Returns the encoded length of the given item, or NULL_LENGTH for null.
+     */
+    private static <T> int lengthOf(ICodec<T> codec, T item) {
+        return item == null ? NULL_LENGTH : codec.sizeOf(item);
+    }
+
+    /**
+     * Returns the number of payload bytes taken by an item of the given length.
+     */
+    private static int itemBytes(int length) {
+        return Integer.BYTES + Math.max(length, 0);
+    }
+
+    private static void checkCodec(ICodec<?> codec) {
+        if (codec == null) {
+            throw new IllegalArgumentException("codec must not be null");
+        }
+    }
+}
@@ -6,12 +6,14 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 import datastructures.concrete.ChainedHashSet;
+import datastructures.concrete.HashStrategies;
 import datastructures.interfaces.ISet;
 import misc.BaseTest;
 import org.junit.Test;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
 
 public class TestChainedHashSet extends BaseTest {
     protected <T> ISet<T> makeInstance() {
@@ -85,6 +87,24 @@ public class TestChainedHashSet extends BaseTest {
         assertFalse(set.contains("qux"));
     }
 
+    @Test(timeout=SECOND)
+    public void testIdentityHashStrategy() {
+        ISet<String> set = new ChainedHashSet<>(HashStrategies.identity());
+        String a = "abc";
+        String b = new String(a);
+
+        set.add(a);
+        set.add(b);
+        set.add(a);
+
+        assertEquals(2, set.size());
+        assertTrue(set.contains(a));
+        assertFalse(set.contains(new String(a)));
+
+        set.remove(b);
+        this.assertSetMatches(new String[] {a}, set);
+    }
+
     @Test(timeout=10 * SECOND)
     public void testAddAndCheckMany() {
         ISet<Integer> set = this.makeInstance();
@@ -390,4 +410,21 @@ public class TestChainedHashSet extends BaseTest {
             assertFalse(set.contains(i));
         }
     }
+
+    @Test(timeout=5 * SECOND)
+    public void testParallelStream() {
+        ISet<Integer> set = this.makeInstance();
+        int cap = 20000;
+        for (int i = 0; i < cap; i++) {
+            set.add(i);
+        }
+        set.add(null);
+
+        Spliterator<Integer> spliterator = set.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.DISTINCT));
+        assertFalse(spliterator.hasCharacteristics(Spliterator.NONNULL));
+        assertEquals((long) cap + 1, set.stream().count());
+        assertEquals((long) cap * (cap - 1) / 2,
+                set.parallelStream().filter(x -> x != null).mapToLong(x -> x).sum());
+    }
 }
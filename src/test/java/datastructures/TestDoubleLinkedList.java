@@ -17,6 +17,7 @@ import org.junit.Test;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.Spliterator;
 
 public class TestDoubleLinkedList extends BaseTest {
     /**
@@ -629,5 +630,24 @@ public class TestDoubleLinkedList extends BaseTest {
         }
         assertEquals(0, list.size());
     }
-    
+
+    @Test(timeout=5 * SECOND)
+    public void testStreamsKeepOrder() {
+        IList<Integer> list = this.makeInstance();
+        int cap = 100000;
+        for (int i = 0; i < cap; i++) {
+            list.add(i);
+        }
+
+        Spliterator<Integer> spliterator = list.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED | Spliterator.SIZED));
+        assertEquals((long) cap, spliterator.estimateSize());
+
+        Object[] items = list.parallelStream().map(x -> x * 2).toArray();
+        assertEquals(cap, items.length);
+        for (int i = 0; i < cap; i++) {
+            assertEquals(i * 2, items[i]);
+        }
+        assertEquals((long) cap * (cap - 1) / 2, list.stream().mapToLong(x -> x).sum());
+    }
 }
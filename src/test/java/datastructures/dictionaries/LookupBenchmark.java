@@ -0,0 +1,67 @@
+package datastructures.dictionaries;
+
+import datastructures.concrete.dictionaries.ChainedHashDictionary;
+import datastructures.concrete.dictionaries.SwissTableDictionary;
+import datastructures.interfaces.IDictionary;
+
+import java.util.Random;
+
+/**
+ * Compares how long SwissTableDictionary and ChainedHashDictionary take to look up
+ * keys that are there (hits) and keys that aren't (misses).
+ *
+ * This is not part of the test suite, since timings vary from machine to machine.
+ * Run it with "gradle benchmark".
+ */
+public class LookupBenchmark {
+    private static final int KEYS = 200000;
+    private static final int ROUNDS = 5;
+    private static volatile long sink; // Where lookup results go, so they can't be skipped
+
+    public static void main(String[] args) {
+        Random rand = new Random(29);
+        Integer[] present = new Integer[KEYS];
+        Integer[] absent = new Integer[KEYS];
+        IDictionary<Integer, Integer> swiss = new SwissTableDictionary<>();
+        IDictionary<Integer, Integer> chained = new ChainedHashDictionary<>();
+        for (int i = 0; i < KEYS; i++) {
+            present[i] = rand.nextInt() & ~1; // Even keys are put, odd keys never are
+            absent[i] = present[i] | 1;
+            swiss.put(present[i], i);
+            chained.put(present[i], i);
+        }
+
+        double swissHits = timeLookups(swiss, present);
+        double chainedHits = timeLookups(chained, present);
+        double swissMisses = timeLookups(swiss, absent);
+        double chainedMisses = timeLookups(chained, absent);
+        System.out.printf("%d keys, ns per lookup: hits %.1f (SwissTable) vs %.1f (Chained), "
+                + "misses %.1f (SwissTable) vs %.1f (Chained)%n",
+                swiss.size(), swissHits, chainedHits, swissMisses, chainedMisses);
+    }
+
+    // Looks up every key in the array the given number of times, returning the
+    // sum of the values found
+    private static long lookUpAll(IDictionary<Integer, Integer> dict, Integer[] keys, int rounds) {
+        long sum = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (Integer key : keys) {
+                Integer value = dict.getOrDefault(key, null);
+                if (value != null) {
+                    sum += value;
+                }
+            }
+        }
+        return sum;
+    }
+
+    // Returns the average time in nanoseconds of one lookup of the given keys
+    private static double timeLookups(IDictionary<Integer, Integer> dict, Integer[] keys) {
+        lookUpAll(dict, keys, 2); // Warm up
+        long start = System.nanoTime();
+        long sum = lookUpAll(dict, keys, ROUNDS);
+        long elapsed = System.nanoTime() - start;
+        sink += sum;
+        return (double) elapsed / ((long) keys.length * ROUNDS);
+    }
+}
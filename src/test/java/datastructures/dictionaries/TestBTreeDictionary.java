@@ -0,0 +1,330 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.DoubleLinkedList;
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.BTreeDictionary;
+import datastructures.interfaces.IDictionaryCursor;
+import datastructures.interfaces.IList;
+import datastructures.interfaces.ISortedDictionary;
+import misc.BaseTest;
+import misc.exceptions.EmptyContainerException;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class TestBTreeDictionary extends BaseTest {
+    protected <K extends Comparable<K>, V> ISortedDictionary<K, V> newDictionary() {
+        return new BTreeDictionary<>();
+    }
+
+    // Checks that the iterator returns exactly the entries of the map, in order
+    protected <K, V> void assertSameEntries(Iterable<Map.Entry<K, V>> expected, Iterator<KVPair<K, V>> iter) {
+        for (Map.Entry<K, V> entry : expected) {
+            assertTrue(iter.hasNext());
+            KVPair<K, V> pair = iter.next();
+            assertEquals(entry.getKey(), pair.getKey());
+            assertEquals(entry.getValue(), pair.getValue());
+        }
+        assertFalse(iter.hasNext());
+    }
+
+    // Checks that the dictionary holds exactly the pairs of the map, in order
+    protected <K extends Comparable<K>, V> void assertSamePairs(TreeMap<K, V> expected,
+            ISortedDictionary<K, V> dict) {
+        assertEquals(expected.size(), dict.size());
+        this.assertSameEntries(expected.entrySet(), dict.iterator());
+        if (!expected.isEmpty()) {
+            assertEquals(expected.firstKey(), dict.firstKey());
+            assertEquals(expected.lastKey(), dict.lastKey());
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void basicTestConstructor() {
+        ISortedDictionary<String, Integer> dict = this.newDictionary();
+        assertEquals(0, dict.size());
+        assertFalse(dict.iterator().hasNext());
+        assertFalse(dict.range("a", "z").hasNext());
+        assertEquals(null, dict.floorKey("a"));
+        assertEquals(null, dict.ceilingKey("a"));
+    }
+
+    @Test(timeout=SECOND)
+    public void testPutGetAndRemove() {
+        ISortedDictionary<String, Integer> dict = this.newDictionary();
+        dict.put("b", 2);
+        dict.put("a", 1);
+        dict.put("c", 3);
+        dict.put("b", 20);
+        assertEquals(3, dict.size());
+        assertEquals(20, dict.get("b"));
+        assertEquals(1, dict.getOrDefault("a", -1));
+        assertEquals(-1, dict.getOrDefault("d", -1));
+        assertTrue(dict.containsKey("c"));
+        assertFalse(dict.containsKey("d"));
+
+        assertEquals(20, dict.remove("b"));
+        assertEquals(2, dict.size());
+        assertFalse(dict.containsKey("b"));
+        try {
+            dict.remove("b");
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok
+        }
+        try {
+            dict.get("b");
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testFloorAndCeiling() {
+        ISortedDictionary<Integer, Integer> dict = this.newDictionary();
+        for (int i = 0; i < 1000; i++) {
+            dict.put(i * 10, i);
+        }
+        assertEquals(null, dict.floorKey(-1));
+        assertEquals(0, dict.floorKey(0));
+        assertEquals(0, dict.floorKey(9));
+        assertEquals(10, dict.floorKey(10));
+        assertEquals(9990, dict.floorKey(100000));
+
+        assertEquals(0, dict.ceilingKey(-1));
+        assertEquals(10, dict.ceilingKey(1));
+        assertEquals(9990, dict.ceilingKey(9990));
+        assertEquals(null, dict.ceilingKey(9991));
+
+        // Checks every key near the edges of the leaves
+        for (int i = -5; i < 10000; i++) {
+            int floor = i < 0 ? -1 : i - i % 10;
+            int ceiling = i <= 0 ? 0 : ((i + 9) / 10) * 10;
+            assertEquals(floor < 0 ? null : floor, dict.floorKey(i));
+            assertEquals(ceiling > 9990 ? null : ceiling, dict.ceilingKey(i));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testRange() {
+        ISortedDictionary<Integer, String> dict = this.newDictionary();
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        for (int i = 0; i < 2000; i += 2) {
+            dict.put(i, "v" + i);
+            expected.put(i, "v" + i);
+        }
+        this.assertSameEntries(expected.subMap(100, 300).entrySet(), dict.range(100, 300));
+        this.assertSameEntries(expected.subMap(101, 301).entrySet(), dict.range(101, 301));
+        this.assertSameEntries(expected.subMap(-50, 50).entrySet(), dict.range(-50, 50));
+        this.assertSameEntries(expected.subMap(1900, 5000).entrySet(), dict.range(1900, 5000));
+        assertFalse(dict.range(500, 500).hasNext());
+        assertFalse(dict.range(3000, 4000).hasNext());
+
+        Iterator<KVPair<Integer, String>> iter = dict.range(10, 12);
+        assertEquals(10, iter.next().getKey());
+        assertFalse(iter.hasNext());
+        try {
+            iter.next();
+            fail("Expected NoSuchElementException");
+        } catch (NoSuchElementException ex) {
+            // This is ok
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testMatchesTreeMapUnderChurn() {
+        // Enough keys for a tree three levels deep, with removes mixed in so
+        // nodes keep borrowing from and merging with their neighbors
+        ISortedDictionary<Integer, Integer> dict = this.newDictionary();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random rand = new Random(31);
+        for (int i = 0; i < 200000; i++) {
+            int key = rand.nextInt(20000);
+            if (rand.nextInt(5) < 2) {
+                if (expected.containsKey(key)) {
+                    assertEquals(expected.remove(key), dict.remove(key));
+                }
+            } else {
+                expected.put(key, i);
+                dict.put(key, i);
+            }
+            if (i % 1000 == 0) {
+                assertEquals(expected.floorKey(key), dict.floorKey(key));
+                assertEquals(expected.ceilingKey(key), dict.ceilingKey(key));
+            }
+        }
+        this.assertSamePairs(expected, dict);
+        for (int i = 0; i < 100; i++) {
+            int from = rand.nextInt(20000);
+            int to = from + rand.nextInt(500);
+            this.assertSameEntries(expected.subMap(from, to).entrySet(), dict.range(from, to));
+        }
+
+        // Emptying the tree collapses it back down to a single leaf
+        while (!expected.isEmpty()) {
+            Integer key = expected.firstKey();
+            assertEquals(expected.remove(key), dict.remove(key));
+        }
+        this.assertSamePairs(expected, dict);
+        dict.put(7, 7);
+        assertEquals(7, dict.firstKey());
+    }
+
+    @Test(timeout=SECOND)
+    public void testBuildFromSortedPairs() {
+        for (int n : new int[] {0, 1, 64, 65, 4096, 4097, 100000}) {
+            @SuppressWarnings("unchecked")
+            KVPair<Integer, Integer>[] pairs = (KVPair<Integer, Integer>[]) new KVPair[n];
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            for (int i = 0; i < n; i++) {
+                pairs[i] = new KVPair<>(i * 3, i);
+                expected.put(i * 3, i);
+            }
+            ISortedDictionary<Integer, Integer> dict = BTreeDictionary.build(pairs);
+            this.assertSamePairs(expected, dict);
+
+            // The tree must still take changes after being built
+            for (int i = 0; i < n; i += 7) {
+                dict.put(i * 3 + 1, -i);
+                expected.put(i * 3 + 1, -i);
+            }
+            for (int i = 0; i < n; i += 5) {
+                assertEquals(expected.remove(i * 3), dict.remove(i * 3));
+            }
+            this.assertSamePairs(expected, dict);
+            assertEquals(expected.floorKey(n), dict.floorKey(n));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testBuildFromList() {
+        IList<KVPair<String, Integer>> pairs = new DoubleLinkedList<>();
+        pairs.add(new KVPair<>("a", 1));
+        pairs.add(new KVPair<>("b", 2));
+        pairs.add(new KVPair<>("c", 3));
+        ISortedDictionary<String, Integer> dict = BTreeDictionary.build(pairs);
+        assertEquals(3, dict.size());
+        assertEquals("a", dict.firstKey());
+        assertEquals("c", dict.lastKey());
+        assertEquals(2, dict.get("b"));
+    }
+
+    @Test(timeout=SECOND)
+    public void testBuildRejectsUnsortedPairs() {
+        @SuppressWarnings("unchecked")
+        KVPair<Integer, Integer>[] unsorted = (KVPair<Integer, Integer>[]) new KVPair[] {
+            new KVPair<>(1, 1), new KVPair<>(3, 3), new KVPair<>(2, 2)
+        };
+        try {
+            BTreeDictionary.build(unsorted);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+        @SuppressWarnings("unchecked")
+        KVPair<Integer, Integer>[] duplicated = (KVPair<Integer, Integer>[]) new KVPair[] {
+            new KVPair<>(1, 1), new KVPair<>(1, 2)
+        };
+        try {
+            BTreeDictionary.build(duplicated);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testEmptyAndNullThrowException() {
+        ISortedDictionary<String, Integer> dict = this.newDictionary();
+        try {
+            dict.firstKey();
+            fail("Expected EmptyContainerException");
+        } catch (EmptyContainerException ex) {
+            // This is ok
+        }
+        try {
+            dict.lastKey();
+            fail("Expected EmptyContainerException");
+        } catch (EmptyContainerException ex) {
+            // This is ok
+        }
+        try {
+            dict.put(null, 1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+        try {
+            dict.floorKey(null);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+        try {
+            dict.range("b", "a");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testCursorSetValue() {
+        ISortedDictionary<Integer, Integer> dict = this.newDictionary();
+        for (int i = 500; i > 0; i--) {
+            dict.put(i, i);
+        }
+        IDictionaryCursor<Integer, Integer> cursor = dict.cursor();
+        int expectedKey = 1;
+        while (cursor.advance()) {
+            assertEquals(expectedKey, cursor.key());
+            cursor.setValue(-cursor.value());
+            expectedKey++;
+        }
+        assertEquals(501, expectedKey);
+        try {
+            cursor.key();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // This is ok
+        }
+        for (int i = 1; i <= 500; i++) {
+            assertEquals(-i, dict.get(i));
+        }
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void stressTest() {
+        int limit = 1000000;
+        ISortedDictionary<Integer, Integer> dict = this.newDictionary();
+
+        for (int i = 0; i < limit; i++) {
+            dict.put(i, i);
+            assertEquals(i, dict.get(i));
+        }
+
+        for (int i = 0; i < limit; i++) {
+            assertFalse(dict.containsKey(-1));
+        }
+
+        for (int i = 0; i < limit; i++) {
+            dict.put(i, -i);
+        }
+
+        for (int i = 0; i < limit; i++) {
+            assertEquals(-i, dict.get(i));
+            dict.remove(i);
+        }
+        assertEquals(0, dict.size());
+    }
+}
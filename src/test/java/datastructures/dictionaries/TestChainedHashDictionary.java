@@ -2,11 +2,25 @@ package datastructures.dictionaries;
 
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
 
+import datastructures.concrete.DoubleLinkedList;
+import datastructures.concrete.HashStrategies;
+import datastructures.concrete.KVPair;
 import datastructures.concrete.dictionaries.ChainedHashDictionary;
 import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IDictionaryCursor;
+import datastructures.interfaces.IHashStrategy;
+import datastructures.interfaces.IList;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
 public class TestChainedHashDictionary extends TestDictionary {
     protected <K, V> IDictionary<K, V> newDictionary() {
         return new ChainedHashDictionary<>();
@@ -63,6 +77,373 @@ public class TestChainedHashDictionary extends TestDictionary {
         assertFalse(dict.containsKey(key1));
     }
 
+    @Test(timeout=SECOND)
+    public void testOperationsDuringResize() {
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+
+        // Push the dictionary past its resize point, then keep checking every
+        // key while the old chains are moved over a few at a time.
+        for (int i = 0; i < 200; i++) {
+            dict.put(i, i);
+            for (int j = 0; j <= i; j += 7) {
+                assertEquals(j, dict.get(j));
+            }
+        }
+
+        int count = 0;
+        for (KVPair<Integer, Integer> pair : dict) {
+            assertEquals(pair.getKey(), pair.getValue());
+            count++;
+        }
+        assertEquals(200, count);
+
+        for (int i = 0; i < 200; i += 2) {
+            assertEquals(i, dict.remove(i));
+        }
+
+        assertEquals(100, dict.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i % 2 == 1, dict.containsKey(i));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testManyComparableKeysWithSameHashCode() {
+        // "Aa" and "BB" have the same hash code, so every string built out of
+        // those two blocks collides with every other one of the same length.
+        String[] keys = new String[] {""};
+        for (int round = 0; round < 12; round++) {
+            String[] next = new String[keys.length * 2];
+            for (int i = 0; i < keys.length; i++) {
+                next[2 * i] = keys[i] + "Aa";
+                next[2 * i + 1] = keys[i] + "BB";
+            }
+            keys = next;
+        }
+
+        IDictionary<String, Integer> dict = this.newDictionary();
+        for (int i = 0; i < keys.length; i++) {
+            dict.put(keys[i], i);
+        }
+
+        assertEquals(keys.length, dict.size());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, dict.get(keys[i]));
+            assertFalse(dict.containsKey(keys[i] + "Aa"));
+        }
+
+        // Shrink the chain back down past the point where it stops being a tree
+        for (int i = 0; i < keys.length - 5; i++) {
+            assertEquals(i, dict.remove(keys[i]));
+        }
+
+        assertEquals(5, dict.size());
+        for (int i = keys.length - 5; i < keys.length; i++) {
+            assertEquals(i, dict.get(keys[i]));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testSeededHashStrategies() {
+        IHashStrategy<Integer> murmur = HashStrategies.murmur(42);
+        IHashStrategy<Integer> fxHash = HashStrategies.fxHash(42);
+        assertEquals(murmur.hash(7), HashStrategies.<Integer>murmur(42).hash(7));
+        assertEquals(fxHash.hash(7), HashStrategies.<Integer>fxHash(42).hash(7));
+
+        for (IHashStrategy<Integer> strategy : Arrays.asList(murmur, fxHash, HashStrategies.<Integer>murmur())) {
+            IDictionary<Integer, Integer> dict = new ChainedHashDictionary<>(strategy);
+            for (int i = 0; i < 5000; i++) {
+                dict.put(i, i * 2);
+            }
+            dict.put(null, -1);
+
+            assertEquals(5001, dict.size());
+            for (int i = 0; i < 5000; i++) {
+                assertEquals(i * 2, dict.get(i));
+            }
+            assertEquals(-1, dict.remove(null));
+            assertFalse(dict.containsKey(5000));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testCustomHashStrategy() {
+        IHashStrategy<String> ignoreCase = HashStrategies.of(
+                (String str) -> str.toLowerCase().hashCode(),
+                (String a, String b) -> a.equalsIgnoreCase(b));
+        IDictionary<String, Integer> dict = new ChainedHashDictionary<>(ignoreCase);
+
+        // Enough keys to force resizes and long chains
+        for (int i = 0; i < 1000; i++) {
+            dict.put("Key" + i, i);
+        }
+        dict.put("KEY5", -5);
+        dict.put(null, 0);
+
+        assertEquals(1001, dict.size());
+        assertEquals(-5, dict.get("key5"));
+        assertTrue(dict.containsKey("kEy999"));
+        assertEquals(0, dict.get(null));
+        assertEquals(-5, dict.remove("Key5"));
+        assertFalse(dict.containsKey("key5"));
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testBuildMatchesPutsInOrder() {
+        int cap = 100000;
+        @SuppressWarnings("unchecked")
+        KVPair<Integer, Integer>[] pairs = new KVPair[2 * cap];
+        for (int i = 0; i < cap; i++) {
+            pairs[i] = new KVPair<>(i, i);
+            pairs[cap + i] = new KVPair<>(i, -i);
+        }
+
+        // The expected size is far too small, so the build has to rehash
+        IDictionary<Integer, Integer> dict = ChainedHashDictionary.build(pairs, 10);
+        assertEquals(cap, dict.size());
+        for (int i = 0; i < cap; i++) {
+            assertEquals(-i, dict.get(i));
+        }
+
+        dict.put(cap, cap);
+        dict.remove(0);
+        assertEquals(cap, dict.size());
+        assertTrue(dict.containsKey(cap));
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testBuildFromListWithCollidingKeys() {
+        IList<KVPair<Wrapper<Integer>, Integer>> pairs = new DoubleLinkedList<>();
+        for (int i = 0; i < 20000; i++) {
+            // Every tenth key shares one hash code, so that chain becomes a tree
+            pairs.add(new KVPair<>(new Wrapper<>(i, i % 10 == 0 ? 7 : i), i));
+        }
+
+        IDictionary<Wrapper<Integer>, Integer> dict = ChainedHashDictionary.build(pairs, pairs.size());
+        assertEquals(20000, dict.size());
+        for (int i = 0; i < 20000; i++) {
+            assertEquals(i, dict.get(new Wrapper<>(i, i % 10 == 0 ? 7 : i)));
+        }
+        assertFalse(dict.containsKey(new Wrapper<>(-1, 7)));
+    }
+
+    @Test(timeout=SECOND)
+    public void testCapacityArgumentsAreChecked() {
+        try {
+            new ChainedHashDictionary<String, String>(-1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+        try {
+            new ChainedHashDictionary<String, String>(10, 0.0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+        try {
+            new ChainedHashDictionary<String, String>(10, Double.NaN);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testPresizedAndLowLoadFactor() {
+        ChainedHashDictionary<Integer, Integer> dict = new ChainedHashDictionary<>(100000, 0.75);
+        for (int i = 0; i < 200000; i++) {
+            dict.put(i, i);
+        }
+        for (int i = 0; i < 200000; i += 2) {
+            assertEquals(i, dict.remove(i));
+        }
+        assertEquals(100000, dict.size());
+        for (int i = 0; i < 200000; i++) {
+            assertEquals(i % 2 == 1, dict.containsKey(i));
+        }
+    }
+
+    @Test(timeout=2 * SECOND)
+    public void testShrinksAfterRemovingMost() {
+        ChainedHashDictionary<Integer, Integer> dict = new ChainedHashDictionary<>();
+        for (int i = 0; i < 200000; i++) {
+            dict.put(i, i);
+        }
+        for (int i = 1; i < 200000; i++) {
+            dict.remove(i);
+        }
+        assertEquals(1, dict.size());
+
+        // Iterating walks every chain, so this only finishes in time if the
+        // chain array shrank along with the dictionary
+        for (int i = 0; i < 100000; i++) {
+            Iterator<KVPair<Integer, Integer>> iter = dict.iterator();
+            assertEquals(new KVPair<>(0, 0), iter.next());
+            assertFalse(iter.hasNext());
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testEnsureCapacityAndTrimToSize() {
+        ChainedHashDictionary<Integer, Integer> dict = new ChainedHashDictionary<>();
+        for (int i = 0; i < 1000; i++) {
+            dict.put(i, i);
+        }
+        dict.ensureCapacity(100000);
+        for (int i = 1000; i < 100000; i++) {
+            dict.put(i, i);
+        }
+        assertEquals(100000, dict.size());
+
+        for (int i = 10; i < 100000; i++) {
+            dict.remove(i);
+        }
+        dict.trimToSize();
+        assertEquals(10, dict.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, dict.get(i));
+        }
+        assertFalse(dict.containsKey(10));
+
+        for (int i = 0; i < 100000; i++) {
+            Iterator<KVPair<Integer, Integer>> iter = dict.iterator();
+            for (int j = 0; j < 10; j++) {
+                iter.next();
+            }
+            assertFalse(iter.hasNext());
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testSnapshotsDoNotSeeLaterChanges() {
+        ChainedHashDictionary<Wrapper<Integer>, Integer> dict = new ChainedHashDictionary<>();
+        Map<Wrapper<Integer>, Integer> map = new HashMap<>();
+        IDictionary<Wrapper<Integer>, Integer> first = dict.snapshot();
+        Map<Wrapper<Integer>, Integer> firstExpected = new HashMap<>();
+
+        // Every fourth key shares a hash code, so some chains turn into trees
+        Random rand = new Random(11);
+        IDictionary<Wrapper<Integer>, Integer> last = null;
+        Map<Wrapper<Integer>, Integer> lastExpected = null;
+        for (int i = 0; i < 30000; i++) {
+            int n = rand.nextInt(3000);
+            Wrapper<Integer> key = new Wrapper<>(n, n % 4 == 0 ? 7 : n);
+            int op = rand.nextInt(4);
+            if (op == 0) {
+                if (map.containsKey(key)) {
+                    assertEquals(map.remove(key), dict.remove(key));
+                }
+            } else if (op == 1) {
+                dict.merge(key, i, Integer::sum);
+                map.merge(key, i, Integer::sum);
+            } else {
+                dict.put(key, i);
+                map.put(key, i);
+            }
+            if (i % 1000 == 0) {
+                // Older snapshots must still hold what they did
+                if (last != null) {
+                    assertSamePairs(lastExpected, last);
+                }
+                last = dict.snapshot();
+                lastExpected = new HashMap<>(map);
+            }
+        }
+        assertSamePairs(map, dict);
+        assertSamePairs(lastExpected, last);
+        assertSamePairs(firstExpected, first);
+
+        // Changing values through a cursor doesn't reach the snapshot either
+        IDictionary<Wrapper<Integer>, Integer> before = dict.snapshot();
+        Map<Wrapper<Integer>, Integer> beforeExpected = new HashMap<>(map);
+        IDictionaryCursor<Wrapper<Integer>, Integer> cursor = dict.cursor();
+        while (cursor.advance()) {
+            cursor.setValue(-cursor.value());
+            map.put(cursor.key(), -map.get(cursor.key()));
+        }
+        assertSamePairs(map, dict);
+        assertSamePairs(beforeExpected, before);
+
+        // So doesn't rehashing everything
+        dict.trimToSize();
+        dict.put(new Wrapper<>(-1, -1), -1);
+        map.put(new Wrapper<>(-1, -1), -1);
+        assertSamePairs(map, dict);
+        assertSamePairs(beforeExpected, before);
+    }
+
+    @Test(timeout=SECOND)
+    public void testSnapshotsAreReadOnly() {
+        ChainedHashDictionary<String, Integer> dict = new ChainedHashDictionary<>();
+        dict.put("a", 1);
+        IDictionary<String, Integer> snapshot = dict.snapshot();
+        try {
+            snapshot.put("b", 2);
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException ex) {
+            // This is ok
+        }
+        try {
+            snapshot.remove("a");
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException ex) {
+            // This is ok
+        }
+        IDictionaryCursor<String, Integer> cursor = snapshot.cursor();
+        assertTrue(cursor.advance());
+        try {
+            cursor.setValue(5);
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException ex) {
+            // This is ok
+        }
+        assertEquals(1, snapshot.get("a"));
+        assertEquals(1, snapshot.size());
+        assertEquals(-1, snapshot.getOrDefault("b", -1));
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testSnapshotsCanBeReadWhileWriting() throws InterruptedException {
+        // Every snapshot holds the keys 0 to 999, with values that add up to a
+        // multiple of 1000, since the writer changes them all by the same amount
+        ChainedHashDictionary<Integer, Integer> dict = new ChainedHashDictionary<>();
+        for (int i = 0; i < 1000; i++) {
+            dict.put(i, 0);
+        }
+        AtomicReference<IDictionary<Integer, Integer>> latest = new AtomicReference<>(dict.snapshot());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                for (int round = 0; round < 200; round++) {
+                    IDictionary<Integer, Integer> snapshot = latest.get();
+                    long sum = 0;
+                    int count = 0;
+                    for (KVPair<Integer, Integer> pair : snapshot) {
+                        sum += pair.getValue();
+                        count++;
+                    }
+                    assertEquals(1000, count);
+                    assertEquals(0L, sum % 1000);
+                    assertEquals(snapshot.get(0), snapshot.get(999));
+                }
+            } catch (Throwable ex) {
+                failure.set(ex);
+            }
+        });
+        reader.start();
+        for (int round = 1; reader.isAlive(); round++) {
+            for (int i = 0; i < 1000; i++) {
+                dict.put(i, round);
+            }
+            latest.set(dict.snapshot());
+        }
+        reader.join();
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+
     @Test(timeout=10* SECOND)
     public void stressTest() {
         int limit = 1000000;
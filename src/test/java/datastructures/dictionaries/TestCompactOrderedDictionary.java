@@ -0,0 +1,114 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertFalse;
+
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.CompactOrderedDictionary;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IDictionaryCursor;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class TestCompactOrderedDictionary extends TestPresizableDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new CompactOrderedDictionary<>();
+    }
+
+    protected <K, V> IDictionary<K, V> newDictionary(int expectedSize) {
+        return new CompactOrderedDictionary<>(expectedSize);
+    }
+
+    // Checks that the dictionary holds the pairs of the map, in the same order
+    protected <K, V> void assertSameOrder(Map<K, V> expected, IDictionary<K, V> dict) {
+        assertEquals(expected.size(), dict.size());
+        Iterator<KVPair<K, V>> iter = dict.iterator();
+        for (Map.Entry<K, V> entry : expected.entrySet()) {
+            KVPair<K, V> pair = iter.next();
+            assertEquals(entry.getKey(), pair.getKey());
+            assertEquals(entry.getValue(), pair.getValue());
+        }
+        assertFalse(iter.hasNext());
+    }
+
+    @Test(timeout=SECOND)
+    public void testIteratesInInsertionOrder() {
+        IDictionary<String, Integer> dict = this.newDictionary();
+        dict.put("c", 1);
+        dict.put("a", 2);
+        dict.put(null, 3);
+        dict.put("b", 4);
+
+        // Putting again keeps the place, removing and putting again moves to the end
+        dict.put("c", 10);
+        dict.remove("a");
+        dict.put("a", 20);
+
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        expected.put("c", 10);
+        expected.put(null, 3);
+        expected.put("b", 4);
+        expected.put("a", 20);
+        this.assertSameOrder(expected, dict);
+
+        IDictionaryCursor<String, Integer> cursor = dict.cursor();
+        int count = 0;
+        while (cursor.advance()) {
+            cursor.setValue(cursor.value() + 1);
+            count++;
+        }
+        assertEquals(4, count);
+        assertEquals(11, dict.get("c"));
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testMatchesLinkedHashMapAcrossIndexWidths() {
+        // Grows past 128 and 32768 entries, so every index slot width gets used,
+        // then shrinks back down through compaction
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        Map<Integer, Integer> expected = new LinkedHashMap<>();
+        Random rand = new Random(17);
+        for (int i = 0; i < 150000; i++) {
+            int key = rand.nextInt(i < 100000 ? 80000 : 20000);
+            if (i >= 100000 || rand.nextInt(4) == 0) {
+                if (expected.containsKey(key)) {
+                    assertEquals(expected.remove(key), dict.remove(key));
+                }
+            } else {
+                expected.put(key, i);
+                dict.put(key, i);
+            }
+            if (i % 30011 == 0) {
+                this.assertSameOrder(expected, dict);
+            }
+        }
+        this.assertSameOrder(expected, dict);
+        for (int i = 0; i < 80000; i++) {
+            assertEquals(expected.get(i), dict.getOrDefault(i, null));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testRemovingCollidingKeysKeepsOthersReachable() {
+        // Keys with the same hash code share one probe run in the index;
+        // removing from the middle of it must not cut off the rest
+        IDictionary<Wrapper<Integer>, Integer> dict = this.newDictionary();
+        Map<Wrapper<Integer>, Integer> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 300; i++) {
+            Wrapper<Integer> key = new Wrapper<>(i, i % 5);
+            dict.put(key, i);
+            expected.put(key, i);
+        }
+        for (int i = 0; i < 300; i += 3) {
+            Wrapper<Integer> key = new Wrapper<>(i, i % 5);
+            assertEquals(expected.remove(key), dict.remove(key));
+        }
+        this.assertSameOrder(expected, dict);
+        for (int i = 0; i < 300; i++) {
+            assertEquals(i % 3 != 0, dict.containsKey(new Wrapper<>(i, i % 5)));
+        }
+    }
+}
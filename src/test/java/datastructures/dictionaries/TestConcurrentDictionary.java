@@ -0,0 +1,183 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.ChainedHashDictionary;
+import datastructures.interfaces.IDictionary;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests that every thread-safe dictionary should pass, on top of the usual
+ * single-threaded TestDictionary suite.
+ */
+public abstract class TestConcurrentDictionary extends TestDictionary {
+    // Starts the given number of threads running the given task, passing each
+    // one its thread index, and waits for all of them to finish. Rethrows the
+    // first failure from any thread.
+    private static void runThreads(int threadCount, ThreadTask task) {
+        Thread[] threads = new Thread[threadCount];
+        Throwable[] failure = new Throwable[1];
+        for (int t = 0; t < threadCount; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    task.run(id);
+                } catch (Throwable ex) {
+                    synchronized (failure) {
+                        if (failure[0] == null) {
+                            failure[0] = ex;
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException ex) {
+                throw new AssertionError(ex);
+            }
+        }
+        if (failure[0] != null) {
+            throw new AssertionError("A worker thread failed", failure[0]);
+        }
+    }
+
+    private interface ThreadTask {
+        void run(int threadIndex);
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testConcurrentPutsMatchSingleThreaded() {
+        int threadCount = 8;
+        int perThread = 20000;
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        IDictionary<Integer, Integer> expected = new ChainedHashDictionary<>();
+
+        // Every thread owns its own range of keys, and removes every third one
+        runThreads(threadCount, (id) -> {
+            for (int i = id * perThread; i < (id + 1) * perThread; i++) {
+                dict.put(i, i);
+                if (i % 3 == 0) {
+                    assertEquals(i, dict.remove(i));
+                }
+            }
+        });
+        for (int i = 0; i < threadCount * perThread; i++) {
+            if (i % 3 != 0) {
+                expected.put(i, i);
+            }
+        }
+
+        assertEquals(expected.size(), dict.size());
+        for (KVPair<Integer, Integer> pair : expected) {
+            assertEquals(pair.getValue(), dict.get(pair.getKey()));
+        }
+        int count = 0;
+        for (KVPair<Integer, Integer> pair : dict) {
+            assertTrue(expected.containsKey(pair.getKey()));
+            count++;
+        }
+        assertEquals(expected.size(), count);
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testConcurrentWritersOnSharedKeys() {
+        int threadCount = 8;
+        int keys = 1000;
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+
+        // All threads fight over the same keys while also reading and iterating
+        runThreads(threadCount, (id) -> {
+            for (int round = 0; round < 20; round++) {
+                for (int i = 0; i < keys; i++) {
+                    dict.put(i, id);
+                    int value = dict.getOrDefault(i, -1);
+                    assertTrue(value >= -1 && value < threadCount);
+                }
+                Iterator<KVPair<Integer, Integer>> iter = dict.iterator();
+                while (iter.hasNext()) {
+                    assertTrue(iter.next().getKey() < keys);
+                }
+            }
+        });
+
+        assertEquals(keys, dict.size());
+        for (int i = 0; i < keys; i++) {
+            assertTrue(dict.containsKey(i));
+        }
+        assertFalse(dict.containsKey(keys));
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testConcurrentMergeIsAtomic() {
+        int threadCount = 8;
+        int keys = 500;
+        int rounds = 200;
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+
+        // Every thread increments every counter; no increment may be lost
+        runThreads(threadCount, (id) -> {
+            for (int round = 0; round < rounds; round++) {
+                for (int i = 0; i < keys; i++) {
+                    dict.merge(i, 1, (oldValue, value) -> oldValue + value);
+                }
+            }
+        });
+
+        assertEquals(keys, dict.size());
+        for (int i = 0; i < keys; i++) {
+            assertEquals(threadCount * rounds, dict.get(i));
+        }
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testIteratingWhileOtherThreadsResize() {
+        int writers = 4;
+        int perThread = 50000;
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        AtomicBoolean done = new AtomicBoolean(false);
+
+        // One thread keeps iterating while the others grow the table through
+        // several resizes; the iterator may miss new keys but must never fail
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                IDictionary<Integer, Integer> seen = new ChainedHashDictionary<>();
+                for (KVPair<Integer, Integer> pair : dict) {
+                    assertEquals(pair.getKey(), pair.getValue());
+                    assertFalse(seen.containsKey(pair.getKey()));
+                    seen.put(pair.getKey(), pair.getValue());
+                }
+            }
+        });
+        Throwable[] readerFailure = new Throwable[1];
+        reader.setUncaughtExceptionHandler((thread, ex) -> readerFailure[0] = ex);
+        reader.start();
+
+        runThreads(writers, (id) -> {
+            for (int i = id; i < writers * perThread; i += writers) {
+                dict.put(i, i);
+            }
+        });
+        done.set(true);
+        try {
+            reader.join();
+        } catch (InterruptedException ex) {
+            throw new AssertionError(ex);
+        }
+        if (readerFailure[0] != null) {
+            throw new AssertionError("The reader thread failed", readerFailure[0]);
+        }
+
+        assertEquals(writers * perThread, dict.size());
+        for (int i = 0; i < writers * perThread; i++) {
+            assertEquals(i, dict.get(i));
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package datastructures.dictionaries;
+
+import datastructures.concrete.dictionaries.ConcurrentHashDictionary;
+import datastructures.interfaces.IDictionary;
+
+public class TestConcurrentHashDictionary extends TestConcurrentDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new ConcurrentHashDictionary<>();
+    }
+}
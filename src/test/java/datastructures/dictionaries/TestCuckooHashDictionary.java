@@ -0,0 +1,76 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.dictionaries.CuckooHashDictionary;
+import datastructures.interfaces.IDictionary;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class TestCuckooHashDictionary extends TestPresizableDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new CuckooHashDictionary<>();
+    }
+
+    protected <K, V> IDictionary<K, V> newDictionary(int expectedSize) {
+        return new CuckooHashDictionary<>(expectedSize);
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testMatchesHashMapUnderChurn() {
+        // Keeps the table close to full, so inserts often have to kick entries out
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random rand = new Random(19);
+        for (int i = 0; i < 200000; i++) {
+            int key = rand.nextInt(30000);
+            if (rand.nextInt(3) == 0) {
+                if (expected.containsKey(key)) {
+                    assertEquals(expected.remove(key), dict.remove(key));
+                }
+            } else {
+                expected.put(key, i);
+                dict.put(key, i);
+            }
+        }
+        assertSamePairs(expected, dict);
+        for (int i = 0; i < 30000; i++) {
+            assertEquals(expected.get(i), dict.getOrDefault(i, null));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testKeysWithEqualHashesGoToTheStash() {
+        // No two buckets can hold more than eight of these keys
+        IDictionary<Wrapper<Integer>, Integer> dict = this.newDictionary();
+        Map<Wrapper<Integer>, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            Wrapper<Integer> key = new Wrapper<>(i, i % 3 == 0 ? 5 : i);
+            dict.put(key, i);
+            expected.put(key, i);
+        }
+        assertSamePairs(expected, dict);
+
+        for (int i = 0; i < 300; i += 2) {
+            Wrapper<Integer> key = new Wrapper<>(i, i % 3 == 0 ? 5 : i);
+            assertEquals(expected.remove(key), dict.remove(key));
+        }
+        assertSamePairs(expected, dict);
+        assertFalse(dict.containsKey(new Wrapper<>(0, 5)));
+        assertEquals(3, dict.get(new Wrapper<>(3, 5)));
+    }
+
+    @Test(timeout=SECOND)
+    public void testNullStrategyThrowsException() {
+        try {
+            new CuckooHashDictionary<String, Integer>(null);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+    }
+}
@@ -7,6 +7,7 @@ import static org.junit.Assert.fail;
 import misc.BaseTest;
 import datastructures.concrete.KVPair;
 import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IDictionaryCursor;
 import misc.exceptions.NoSuchKeyException;
 import org.junit.Test;
 
@@ -14,6 +15,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
 
 public abstract class TestDictionary extends BaseTest {
     protected abstract <K, V> IDictionary<K, V> newDictionary();
@@ -327,6 +329,75 @@ public abstract class TestDictionary extends BaseTest {
         }
     }
 
+    @Test(timeout=SECOND)
+    public void testPutIfAbsent() {
+        IDictionary<String, String> dict = this.makeBasicDictionary();
+
+        assertEquals("valA", dict.putIfAbsent("keyA", "other"));
+        assertEquals(null, dict.putIfAbsent("keyD", "valD"));
+        assertEquals(null, dict.putIfAbsent(null, "valNull"));
+
+        this.assertDictMatches(
+                new String[] {"keyA", "keyB", "keyC", "keyD", null},
+                new String[] {"valA", "valB", "valC", "valD", "valNull"},
+                dict);
+    }
+
+    @Test(timeout=SECOND)
+    public void testComputeIfAbsentAndIfPresent() {
+        IDictionary<String, Integer> dict = this.newDictionary();
+        dict.put("a", 1);
+
+        assertEquals(1, dict.computeIfAbsent("a", (key) -> 100));
+        assertEquals(2, dict.computeIfAbsent("b", (key) -> 2));
+        assertEquals(null, dict.computeIfAbsent("c", (key) -> null));
+        assertFalse(dict.containsKey("c"));
+
+        assertEquals(11, dict.computeIfPresent("a", (key, value) -> value + 10));
+        assertEquals(null, dict.computeIfPresent("c", (key, value) -> 100));
+        assertFalse(dict.containsKey("c"));
+        assertEquals(null, dict.computeIfPresent("b", (key, value) -> null));
+
+        this.assertDictMatches(new String[] {"a"}, new Integer[] {11}, dict);
+    }
+
+    @Test(timeout=SECOND)
+    public void testCompute() {
+        IDictionary<String, Integer> dict = this.newDictionary();
+
+        assertEquals(1, dict.compute("a", (key, value) -> value == null ? 1 : value + 1));
+        assertEquals(2, dict.compute("a", (key, value) -> value == null ? 1 : value + 1));
+        assertEquals(null, dict.compute("b", (key, value) -> null));
+        assertEquals(null, dict.compute("a", (key, value) -> null));
+
+        assertTrue(dict.isEmpty());
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testMergeCountsMany() {
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        int cap = 5000;
+
+        for (int repeats = 0; repeats < 3; repeats++) {
+            for (int i = 0; i < cap; i++) {
+                dict.merge(i, 1, (oldValue, value) -> oldValue + value);
+            }
+        }
+
+        assertEquals(cap, dict.size());
+        for (int i = 0; i < cap; i++) {
+            assertEquals(3, dict.get(i));
+        }
+
+        // Merging to null removes the key
+        for (int i = 0; i < cap; i += 2) {
+            assertEquals(null, dict.merge(i, 1, (oldValue, value) -> null));
+        }
+        assertEquals(cap / 2, dict.size());
+        assertFalse(dict.containsKey(0));
+        assertTrue(dict.containsKey(1));
+    }
+
     @Test(timeout=SECOND)
     public void testIterator() {
         IDictionary<String, Integer> dict = this.newDictionary();
@@ -500,4 +571,113 @@ public abstract class TestDictionary extends BaseTest {
             assertFalse(iter.hasNext());
         }
     }
+
+    @Test(timeout=SECOND)
+    public void testForEachVisitsEveryPair() {
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        for (int i = 0; i < 1000; i++) {
+            dict.put(i, i * 2);
+        }
+
+        IDictionary<Integer, Integer> copy = this.newDictionary();
+        dict.forEach((key, value) -> {
+            assertFalse(copy.containsKey(key));
+            copy.put(key, value);
+        });
+
+        assertEquals(1000, copy.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i * 2, copy.get(i));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testCursorSetValue() {
+        IDictionary<Wrapper<Integer>, Integer> dict = this.newDictionary();
+        for (int i = 0; i < 200; i++) {
+            // Half of the keys share a hash code, so they all land in one chain
+            dict.put(new Wrapper<>(i, i % 2 == 0 ? 0 : i), i);
+        }
+
+        IDictionaryCursor<Wrapper<Integer>, Integer> cursor = dict.cursor();
+        int count = 0;
+        while (cursor.advance()) {
+            cursor.setValue(cursor.value() + 1000);
+            count++;
+        }
+        assertFalse(cursor.advance());
+        assertEquals(200, count);
+
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i + 1000, dict.get(new Wrapper<>(i, i % 2 == 0 ? 0 : i)));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testCursorOffPairThrowsException() {
+        IDictionary<String, String> empty = this.newDictionary();
+        IDictionaryCursor<String, String> cursor = empty.cursor();
+        assertFalse(cursor.advance());
+        try {
+            cursor.key();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // This is ok
+        }
+
+        IDictionary<String, String> dict = this.makeBasicDictionary();
+        cursor = dict.cursor();
+        try {
+            cursor.value();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // This is ok
+        }
+        for (int i = 0; i < 3; i++) {
+            assertTrue(cursor.advance());
+        }
+        assertFalse(cursor.advance());
+        try {
+            cursor.setValue("x");
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // This is ok
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testStreamsSeeEveryPair() {
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        int cap = 20000;
+        for (int i = 0; i < cap; i++) {
+            dict.put(i, i);
+        }
+
+        long expectedSum = (long) cap * (cap - 1) / 2;
+        assertEquals((long) cap, dict.stream().count());
+        assertEquals(expectedSum, dict.stream().mapToLong(KVPair::getValue).sum());
+        assertEquals((long) cap, dict.parallelStream().map(KVPair::getKey).distinct().count());
+        assertEquals(expectedSum, dict.parallelStream().mapToLong(KVPair::getKey).sum());
+    }
+
+    @Test(timeout=SECOND)
+    public void testSpliteratorSplitsCoverEveryPair() {
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        for (int i = 0; i < 1000; i++) {
+            dict.put(i, i);
+        }
+
+        Spliterator<KVPair<Integer, Integer>> first = dict.spliterator();
+        assertTrue(first.hasCharacteristics(Spliterator.DISTINCT));
+        Spliterator<KVPair<Integer, Integer>> second = first.trySplit();
+        IDictionary<Integer, Integer> seen = this.newDictionary();
+        first.forEachRemaining(pair -> seen.put(pair.getKey(), pair.getValue()));
+        if (second != null) {
+            second.forEachRemaining(pair -> {
+                assertFalse(seen.containsKey(pair.getKey()));
+                seen.put(pair.getKey(), pair.getValue());
+            });
+        }
+        assertEquals(1000, seen.size());
+    }
 }
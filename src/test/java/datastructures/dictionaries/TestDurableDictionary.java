@@ -0,0 +1,316 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.Codecs;
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.DurableDictionary;
+import datastructures.interfaces.ICodec;
+import misc.BaseTest;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TestDurableDictionary extends BaseTest {
+    private Path directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("durable");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    protected DurableDictionary<String, Integer> open() throws IOException {
+        return DurableDictionary.open(directory, Codecs.strings(), Codecs.integers());
+    }
+
+    protected int countFiles(String suffix) throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + suffix)) {
+            for (Path file : files) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testChangesSurviveReopen() throws IOException {
+        try (DurableDictionary<String, Integer> dict = this.open()) {
+            dict.put("a", 1);
+            dict.put("b", 2);
+            dict.put("a", 3);
+            dict.put(null, 4);
+            dict.put("c", null);
+            assertEquals(2, dict.remove("b"));
+            try {
+                dict.remove("b");
+                fail("Expected NoSuchKeyException");
+            } catch (NoSuchKeyException ex) {
+                // This is ok
+            }
+        }
+
+        try (DurableDictionary<String, Integer> dict = this.open()) {
+            assertEquals(3, dict.size());
+            assertEquals(3, dict.get("a"));
+            assertEquals(4, dict.get(null));
+            assertTrue(dict.containsKey("c"));
+            assertEquals(null, dict.get("c"));
+            assertFalse(dict.containsKey("b"));
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testComputeMethodsAreLogged() throws IOException {
+        try (DurableDictionary<String, Integer> dict = this.open()) {
+            dict.put("count", 1);
+            dict.put("gone", 1);
+            dict.merge("count", 5, Integer::sum);
+            dict.computeIfPresent("gone", (key, value) -> null);
+            dict.computeIfAbsent("new", key -> 7);
+            assertEquals(7, dict.putIfAbsent("new", 8));
+        }
+
+        try (DurableDictionary<String, Integer> dict = this.open()) {
+            assertEquals(2, dict.size());
+            assertEquals(6, dict.get("count"));
+            assertEquals(7, dict.get("new"));
+            assertFalse(dict.containsKey("gone"));
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testChangeThatCannotBeLoggedIsUndone() throws IOException {
+        // Claims one byte too many for negative numbers, so encoding them fails
+        ICodec<Integer> lying = new ICodec<Integer>() {
+            @Override
+            public int sizeOf(Integer value) {
+                return value < 0 ? 5 : 4;
+            }
+
+            @Override
+            public void encode(Integer value, ByteBuffer buffer) {
+                buffer.putInt(value);
+            }
+
+            @Override
+            public Integer decode(ByteBuffer buffer) {
+                return buffer.getInt();
+            }
+        };
+        try (DurableDictionary<String, Integer> dict = DurableDictionary.open(directory, Codecs.strings(), lying)) {
+            dict.put("a", 1);
+            try {
+                dict.merge("a", -5, Integer::sum);
+                fail("Expected IllegalStateException");
+            } catch (IllegalStateException ex) {
+                // This is ok
+            }
+            try {
+                dict.computeIfAbsent("b", key -> -1);
+                fail("Expected IllegalStateException");
+            } catch (IllegalStateException ex) {
+                // This is ok
+            }
+            assertEquals(1, dict.get("a"));
+            assertFalse(dict.containsKey("b"));
+            assertEquals(1, dict.size());
+            dict.put("c", 3);
+        }
+
+        try (DurableDictionary<String, Integer> dict = this.open()) {
+            assertEquals(2, dict.size());
+            assertEquals(1, dict.get("a"));
+            assertEquals(3, dict.get("c"));
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testRecoversFromTornLogTail() throws IOException {
+        DurableDictionary<String, Integer> crashed = this.open();
+        try {
+            for (int i = 0; i < 100; i++) {
+                crashed.put("key" + i, i);
+            }
+            crashed.remove("key50");
+
+            // Pretend the process died halfway through writing another record
+            try (DirectoryStream<Path> logs = Files.newDirectoryStream(directory, "*.wal")) {
+                for (Path log : logs) {
+                    Files.write(log, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+                }
+            }
+
+            try (DurableDictionary<String, Integer> dict = this.open()) {
+                assertEquals(99, dict.size());
+                assertEquals(42, dict.get("key42"));
+                assertFalse(dict.containsKey("key50"));
+                dict.put("after", 1);
+            }
+
+            // The torn record was cut off, so the old log reads cleanly from now on
+            try (DurableDictionary<String, Integer> dict = this.open()) {
+                assertEquals(100, dict.size());
+                assertEquals(1, dict.get("after"));
+            }
+        } finally {
+            crashed.close();
+        }
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testCompactionFoldsLogIntoSnapshot() throws IOException {
+        Map<String, Integer> expected = new HashMap<>();
+        try (DurableDictionary<String, Integer> dict = DurableDictionary.open(directory, Codecs.strings(),
+                Codecs.integers(), 4096)) {
+            // Small enough that the log is compacted many times in the background
+            for (int i = 0; i < 3000; i++) {
+                String key = "key" + (i % 700);
+                if (i % 5 == 0 && expected.containsKey(key)) {
+                    dict.remove(key);
+                    expected.remove(key);
+                } else {
+                    dict.put(key, i);
+                    expected.put(key, i);
+                }
+            }
+            dict.compact();
+            assertEquals(1, this.countFiles(".snap"));
+            assertEquals(1, this.countFiles(".wal"));
+            assertEquals(expected.size(), dict.size());
+        }
+
+        try (DurableDictionary<String, Integer> dict = this.open()) {
+            assertEquals(expected.size(), dict.size());
+            for (KVPair<String, Integer> pair : dict) {
+                assertEquals(expected.get(pair.getKey()), pair.getValue());
+            }
+        }
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testFailedCompactionIsReported() throws IOException {
+        // A directory where the snapshot's temporary file should go makes the
+        // compaction fail
+        Path blocker = directory.resolve("snapshot-1.snap.tmp");
+        try (DurableDictionary<String, Integer> dict = DurableDictionary.open(directory, Codecs.strings(),
+                Codecs.integers(), 100)) {
+            Files.createDirectory(blocker);
+            for (int i = 0; i < 20; i++) {
+                dict.put("key" + i, i);
+            }
+            try {
+                dict.compact();
+                fail("Expected IOException");
+            } catch (IOException ex) {
+                // This is ok
+            }
+            assertFalse(Files.exists(blocker));
+            dict.compact();
+            assertEquals(1, this.countFiles(".snap"));
+
+            // A failure nobody asked about is reported by close()
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.snap")) {
+                String name = files.iterator().next().getFileName().toString();
+                long next = Long.parseLong(name.substring("snapshot-".length(), name.indexOf('.'))) + 1;
+                blocker = directory.resolve("snapshot-" + next + ".snap.tmp");
+            }
+            Files.createDirectory(blocker);
+            for (int i = 20; i < 40; i++) {
+                dict.put("key" + i, i);
+            }
+            try {
+                dict.close();
+                fail("Expected UncheckedIOException");
+            } catch (UncheckedIOException ex) {
+                // This is ok
+            }
+        }
+
+        try (DurableDictionary<String, Integer> dict = this.open()) {
+            assertEquals(40, dict.size());
+            assertEquals(39, dict.get("key39"));
+        }
+    }
+
+    @Test(timeout=20 * SECOND)
+    public void testConcurrentWritersAreAllDurable() throws Exception {
+        int threadCount = 16;
+        int perThread = 125;
+        try (DurableDictionary<String, Integer> dict = this.open()) {
+            Thread[] threads = new Thread[threadCount];
+            for (int t = 0; t < threadCount; t++) {
+                int id = t;
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        dict.put(id + ":" + i, i);
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(threadCount * perThread, dict.size());
+            // Every put() waits for its own record to reach the disk, so without
+            // group commit there would be one sync per write
+            assertTrue(dict.syncCount() < threadCount * perThread / 2);
+        }
+
+        try (DurableDictionary<String, Integer> dict = this.open()) {
+            assertEquals(threadCount * perThread, dict.size());
+            for (int t = 0; t < threadCount; t++) {
+                assertEquals(perThread - 1, dict.get(t + ":" + (perThread - 1)));
+            }
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testClosedDictionaryThrowsException() throws IOException {
+        DurableDictionary<String, Integer> dict = this.open();
+        dict.put("a", 1);
+        dict.close();
+        dict.close();
+        try {
+            dict.get("a");
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // This is ok
+        }
+        try {
+            dict.put("b", 2);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // This is ok
+        }
+        try {
+            DurableDictionary.open(directory, Codecs.strings(), null);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.ExpiringDictionary;
+import datastructures.interfaces.IDictionaryCursor;
+import misc.BaseTest;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TestExpiringDictionary extends BaseTest {
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    // Starts the fake clock somewhere awkward, near where nanoTime() wraps
+    private AtomicLong time = new AtomicLong(Long.MAX_VALUE - 10 * NANOS_PER_SECOND);
+
+    protected ExpiringDictionary<String, Integer> makeDictionary(long ttlSeconds) {
+        return new ExpiringDictionary<>(ttlSeconds, TimeUnit.SECONDS, time::get, null, false);
+    }
+
+    protected void advanceSeconds(long seconds) {
+        time.addAndGet(seconds * NANOS_PER_SECOND);
+    }
+
+    @Test(timeout=SECOND)
+    public void testEntriesExpire() {
+        ExpiringDictionary<String, Integer> dict = this.makeDictionary(10);
+        dict.put("a", 1);
+        dict.put("b", 2, 1, TimeUnit.HOURS);
+        dict.put(null, 3);
+        this.advanceSeconds(5);
+        assertEquals(1, dict.get("a"));
+        assertEquals(3, dict.size());
+
+        // Putting again starts the time to live over
+        dict.put(null, 30);
+        this.advanceSeconds(6);
+        assertFalse(dict.containsKey("a"));
+        assertEquals(-1, dict.getOrDefault("a", -1));
+        try {
+            dict.get("a");
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok
+        }
+        try {
+            dict.remove("a");
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok
+        }
+        assertEquals(30, dict.get(null));
+        assertEquals(2, dict.get("b"));
+        assertEquals(2, dict.size());
+
+        this.advanceSeconds(10);
+        int count = 0;
+        for (KVPair<String, Integer> pair : dict) {
+            assertEquals("b", pair.getKey());
+            count++;
+        }
+        assertEquals(1, count);
+        assertEquals(2, dict.remove("b"));
+        assertEquals(0, dict.size());
+    }
+
+    @Test(timeout=SECOND)
+    public void testComputeMethodsKeepTheDeadline() {
+        ExpiringDictionary<String, Integer> dict = this.makeDictionary(10);
+        dict.put("a", 1, 1, TimeUnit.HOURS);
+        dict.put("b", 2);
+        assertEquals(1, dict.putIfAbsent("a", 10));
+        assertEquals(11, dict.computeIfPresent("a", (key, value) -> value + 10));
+        assertEquals(12, dict.merge("a", 1, Integer::sum));
+        assertEquals(13, dict.compute("a", (key, value) -> value + 1));
+        assertEquals(13, dict.computeIfAbsent("a", key -> 100));
+        IDictionaryCursor<String, Integer> cursor = dict.cursor();
+        while (cursor.advance()) {
+            cursor.setValue(cursor.value() * 2);
+        }
+        assertEquals(4, dict.get("b"));
+
+        // "a" still expires after an hour, not after the default 10 seconds
+        this.advanceSeconds(20);
+        assertEquals(26, dict.get("a"));
+        assertFalse(dict.containsKey("b"));
+
+        // New entries get the default time to live
+        assertEquals(null, dict.putIfAbsent("b", 3));
+        assertEquals(5, dict.merge("c", 5, Integer::sum));
+        assertEquals(null, dict.computeIfPresent("d", (key, value) -> 1));
+        assertEquals(null, dict.compute("a", (key, value) -> null));
+        assertFalse(dict.containsKey("a"));
+        this.advanceSeconds(11);
+        assertEquals(0, dict.size());
+    }
+
+    @Test(timeout=SECOND)
+    public void testEntryExpiringDuringComputeIsLookedUpOnce() {
+        // The clock moves on by a second every time it is read, so an entry can
+        // expire between any two reads
+        ExpiringDictionary<String, Integer> dict = new ExpiringDictionary<>(1, TimeUnit.HOURS,
+                () -> time.addAndGet(NANOS_PER_SECOND), null, false);
+        dict.put("a", 1, 2, TimeUnit.SECONDS);
+        assertEquals(1, dict.computeIfAbsent("a", key -> 2));
+        dict.put("b", 1, 2, TimeUnit.SECONDS);
+        assertEquals(3, dict.merge("b", 2, Integer::sum));
+        dict.put("c", 1, 2, TimeUnit.SECONDS);
+        assertEquals(1, dict.putIfAbsent("c", 2));
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testWheelReclaimsEveryEntryOnTime() {
+        Map<Integer, Long> deadlines = new HashMap<>();
+        AtomicLong reclaimed = new AtomicLong();
+        ExpiringDictionary<Integer, Integer> dict = new ExpiringDictionary<>(1, TimeUnit.HOURS, time::get,
+            (key, value) -> {
+                // Never early, and at most about two ticks late
+                long late = time.get() - deadlines.remove(key);
+                assertTrue(late >= 0 && late < 3 * NANOS_PER_SECOND);
+                reclaimed.incrementAndGet();
+            }, false);
+
+        // Spread the deadlines from seconds to days out, so they start in
+        // every level of the wheel
+        Random rand = new Random(13);
+        for (int i = 0; i < 20000; i++) {
+            long ttl = 1 + (long) (Math.pow(rand.nextDouble(), 4) * 4 * 24 * 3600);
+            deadlines.put(i, time.get() + ttl * NANOS_PER_SECOND);
+            dict.put(i, i, ttl, TimeUnit.SECONDS);
+        }
+        for (int step = 0; step < 5 * 24 * 3600; step++) {
+            this.advanceSeconds(1);
+            dict.cleanUp();
+        }
+        assertEquals(20000L, reclaimed.get());
+        assertTrue(deadlines.isEmpty());
+        assertEquals(0, dict.size());
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testBackgroundCleanup() throws InterruptedException {
+        CountDownLatch expired = new CountDownLatch(1);
+        try (ExpiringDictionary<String, Integer> dict = new ExpiringDictionary<>(50, TimeUnit.MILLISECONDS,
+                System::nanoTime, (key, value) -> expired.countDown(), true)) {
+            dict.put("a", 1);
+            // Nobody reads the entry, so only the background thread can reclaim it
+            assertTrue(expired.await(4, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testUnclosedDictionariesShareOneThreadAndAreCollected() throws InterruptedException {
+        List<WeakReference<ExpiringDictionary<String, Integer>>> refs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ExpiringDictionary<String, Integer> dict = new ExpiringDictionary<>(1, TimeUnit.MINUTES);
+            dict.put("a", i);
+            refs.add(new WeakReference<>(dict));
+        }
+        int cleaners = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("ExpiringDictionary cleaner")) {
+                cleaners++;
+            }
+        }
+        assertTrue(cleaners <= 1);
+
+        // None of them were closed, but the background thread must not keep them alive
+        boolean collected = false;
+        for (int attempt = 0; attempt < 40 && !collected; attempt++) {
+            System.gc();
+            Thread.sleep(25);
+            collected = true;
+            for (WeakReference<ExpiringDictionary<String, Integer>> ref : refs) {
+                collected &= ref.get() == null;
+            }
+        }
+        assertTrue(collected);
+    }
+
+    @Test(timeout=SECOND)
+    public void testBadArgumentsThrowException() {
+        try {
+            this.makeDictionary(0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+        ExpiringDictionary<String, Integer> dict = this.makeDictionary(10);
+        try {
+            dict.put("a", 1, -5, TimeUnit.SECONDS);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+        assertFalse(dict.containsKey("a"));
+    }
+}
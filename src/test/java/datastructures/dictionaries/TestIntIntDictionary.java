@@ -0,0 +1,109 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import datastructures.concrete.dictionaries.IntIntDictionary;
+import org.junit.Test;
+
+public class TestIntIntDictionary extends TestPrimitiveDictionary {
+    @Override
+    protected PrimitiveDictionary newDictionary() {
+        IntIntDictionary dict = new IntIntDictionary();
+        return new PrimitiveDictionary() {
+            @Override
+            public void put(long key, long value) {
+                dict.put((int) key, (int) value);
+            }
+
+            @Override
+            public long get(long key) {
+                return dict.get((int) key);
+            }
+
+            @Override
+            public long getOrDefault(long key, long defaultValue) {
+                return dict.getOrDefault((int) key, (int) defaultValue);
+            }
+
+            @Override
+            public long remove(long key) {
+                return dict.remove((int) key);
+            }
+
+            @Override
+            public boolean containsKey(long key) {
+                return dict.containsKey((int) key);
+            }
+
+            @Override
+            public int size() {
+                return dict.size();
+            }
+
+            @Override
+            public PrimitiveCursor cursor() {
+                IntIntDictionary.Cursor cursor = dict.cursor();
+                return new PrimitiveCursor() {
+                    @Override
+                    public boolean advance() {
+                        return cursor.advance();
+                    }
+
+                    @Override
+                    public long key() {
+                        return cursor.key();
+                    }
+
+                    @Override
+                    public long value() {
+                        return cursor.value();
+                    }
+                };
+            }
+        };
+    }
+
+    @Test(timeout=SECOND)
+    public void testZeroKeyAndZeroValue() {
+        // 0 marks a free slot, so neither a key nor a value of 0 may be mistaken for one
+        IntIntDictionary dict = new IntIntDictionary();
+        assertFalse(dict.containsKey(0));
+        assertEquals(-1, dict.getOrDefault(0, -1));
+        dict.put(0, 3);
+        dict.put(1, 0);
+        assertTrue(dict.containsKey(0));
+        assertTrue(dict.containsKey(1));
+        assertEquals(3, dict.get(0));
+        assertEquals(0, dict.get(1));
+        assertEquals(2, dict.size());
+
+        IntIntDictionary.Cursor cursor = dict.cursor();
+        int count = 0;
+        while (cursor.advance()) {
+            cursor.setValue(cursor.key() == 0 ? 30 : 40);
+            count++;
+        }
+        assertEquals(2, count);
+        assertEquals(30, dict.get(0));
+        assertEquals(40, dict.get(1));
+
+        assertEquals(30, dict.remove(0));
+        assertFalse(dict.containsKey(0));
+        assertEquals(1, dict.size());
+    }
+
+    @Test(timeout=SECOND)
+    public void testExtremeKeysAndValues() {
+        IntIntDictionary dict = new IntIntDictionary();
+        dict.put(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        dict.put(Integer.MAX_VALUE, Integer.MIN_VALUE);
+        dict.put(-1, -1);
+        assertEquals(Integer.MAX_VALUE, dict.get(Integer.MIN_VALUE));
+        assertEquals(Integer.MIN_VALUE, dict.get(Integer.MAX_VALUE));
+        assertEquals(-1, dict.get(-1));
+        assertEquals(Integer.MAX_VALUE, dict.remove(Integer.MIN_VALUE));
+        assertFalse(dict.containsKey(Integer.MIN_VALUE));
+        assertEquals(2, dict.size());
+    }
+}
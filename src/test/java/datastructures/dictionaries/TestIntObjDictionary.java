@@ -0,0 +1,107 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import datastructures.concrete.dictionaries.IntObjDictionary;
+import org.junit.Test;
+
+public class TestIntObjDictionary extends TestPrimitiveDictionary {
+    @Override
+    protected PrimitiveDictionary newDictionary() {
+        IntObjDictionary<Long> dict = new IntObjDictionary<>();
+        return new PrimitiveDictionary() {
+            @Override
+            public void put(long key, long value) {
+                dict.put((int) key, value);
+            }
+
+            @Override
+            public long get(long key) {
+                return dict.get((int) key);
+            }
+
+            @Override
+            public long getOrDefault(long key, long defaultValue) {
+                return dict.getOrDefault((int) key, defaultValue);
+            }
+
+            @Override
+            public long remove(long key) {
+                return dict.remove((int) key);
+            }
+
+            @Override
+            public boolean containsKey(long key) {
+                return dict.containsKey((int) key);
+            }
+
+            @Override
+            public int size() {
+                return dict.size();
+            }
+
+            @Override
+            public PrimitiveCursor cursor() {
+                IntObjDictionary.Cursor<Long> cursor = dict.cursor();
+                return new PrimitiveCursor() {
+                    @Override
+                    public boolean advance() {
+                        return cursor.advance();
+                    }
+
+                    @Override
+                    public long key() {
+                        return cursor.key();
+                    }
+
+                    @Override
+                    public long value() {
+                        return cursor.value();
+                    }
+                };
+            }
+        };
+    }
+
+    @Test(timeout=SECOND)
+    public void testZeroKey() {
+        IntObjDictionary<String> dict = new IntObjDictionary<>();
+        assertFalse(dict.containsKey(0));
+        dict.put(0, "zero");
+        dict.put(1, "one");
+        assertTrue(dict.containsKey(0));
+        assertEquals("zero", dict.get(0));
+        assertEquals(2, dict.size());
+
+        IntObjDictionary.Cursor<String> cursor = dict.cursor();
+        int count = 0;
+        while (cursor.advance()) {
+            cursor.setValue(cursor.value().toUpperCase());
+            count++;
+        }
+        assertEquals(2, count);
+        assertEquals("ZERO", dict.get(0));
+        assertEquals("ONE", dict.get(1));
+
+        assertEquals("ZERO", dict.remove(0));
+        assertFalse(dict.containsKey(0));
+        assertEquals(1, dict.size());
+    }
+
+    @Test(timeout=SECOND)
+    public void testNullValues() {
+        // A null value is still a pair, unlike a missing key
+        IntObjDictionary<String> dict = new IntObjDictionary<>();
+        dict.put(0, null);
+        dict.put(42, null);
+        assertEquals(2, dict.size());
+        assertTrue(dict.containsKey(0));
+        assertTrue(dict.containsKey(42));
+        assertEquals(null, dict.get(42));
+        assertEquals(null, dict.getOrDefault(42, "missing"));
+        assertEquals("missing", dict.getOrDefault(43, "missing"));
+        assertEquals(null, dict.remove(42));
+        assertFalse(dict.containsKey(42));
+    }
+}
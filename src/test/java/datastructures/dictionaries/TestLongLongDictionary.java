@@ -0,0 +1,117 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import datastructures.concrete.dictionaries.LongLongDictionary;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestLongLongDictionary extends TestPrimitiveDictionary {
+    @Override
+    protected PrimitiveDictionary newDictionary() {
+        LongLongDictionary dict = new LongLongDictionary();
+        return new PrimitiveDictionary() {
+            @Override
+            public void put(long key, long value) {
+                dict.put(key, value);
+            }
+
+            @Override
+            public long get(long key) {
+                return dict.get(key);
+            }
+
+            @Override
+            public long getOrDefault(long key, long defaultValue) {
+                return dict.getOrDefault(key, defaultValue);
+            }
+
+            @Override
+            public long remove(long key) {
+                return dict.remove(key);
+            }
+
+            @Override
+            public boolean containsKey(long key) {
+                return dict.containsKey(key);
+            }
+
+            @Override
+            public int size() {
+                return dict.size();
+            }
+
+            @Override
+            public PrimitiveCursor cursor() {
+                LongLongDictionary.Cursor cursor = dict.cursor();
+                return new PrimitiveCursor() {
+                    @Override
+                    public boolean advance() {
+                        return cursor.advance();
+                    }
+
+                    @Override
+                    public long key() {
+                        return cursor.key();
+                    }
+
+                    @Override
+                    public long value() {
+                        return cursor.value();
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    protected long randomKey(Random rand) {
+        // Spread the keys over both halves of the long, so the hash has to mix
+        // in the high bits
+        return (rand.nextInt(4000) - 2000) * 0x100000001L;
+    }
+
+    @Test(timeout=SECOND)
+    public void testZeroKey() {
+        LongLongDictionary dict = new LongLongDictionary();
+        assertFalse(dict.containsKey(0L));
+        dict.put(0L, 3L);
+        dict.put(1L, 4L);
+        assertTrue(dict.containsKey(0L));
+        assertEquals(3L, dict.get(0L));
+        assertEquals(2, dict.size());
+
+        LongLongDictionary.Cursor cursor = dict.cursor();
+        int count = 0;
+        while (cursor.advance()) {
+            cursor.setValue(cursor.value() * 10);
+            count++;
+        }
+        assertEquals(2, count);
+        assertEquals(30L, dict.get(0L));
+        assertEquals(40L, dict.get(1L));
+
+        assertEquals(30L, dict.remove(0L));
+        assertFalse(dict.containsKey(0L));
+        assertEquals(1, dict.size());
+    }
+
+    @Test(timeout=SECOND)
+    public void testKeysDifferingOnlyInHighBits() {
+        // These keys all have the same low 32 bits, so the hash must mix in the high ones
+        LongLongDictionary dict = new LongLongDictionary();
+        for (long high = 0; high < 1000; high++) {
+            dict.put((high << 32) | 7L, high);
+        }
+        assertEquals(1000, dict.size());
+        for (long high = 0; high < 1000; high++) {
+            assertEquals(high, dict.get((high << 32) | 7L));
+        }
+        assertFalse(dict.containsKey(1000L << 32 | 7L));
+        dict.put(Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, dict.get(Long.MIN_VALUE));
+        assertFalse(dict.containsKey(Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,117 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import datastructures.concrete.dictionaries.LongObjDictionary;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestLongObjDictionary extends TestPrimitiveDictionary {
+    @Override
+    protected PrimitiveDictionary newDictionary() {
+        LongObjDictionary<Long> dict = new LongObjDictionary<>();
+        return new PrimitiveDictionary() {
+            @Override
+            public void put(long key, long value) {
+                dict.put(key, value);
+            }
+
+            @Override
+            public long get(long key) {
+                return dict.get(key);
+            }
+
+            @Override
+            public long getOrDefault(long key, long defaultValue) {
+                return dict.getOrDefault(key, defaultValue);
+            }
+
+            @Override
+            public long remove(long key) {
+                return dict.remove(key);
+            }
+
+            @Override
+            public boolean containsKey(long key) {
+                return dict.containsKey(key);
+            }
+
+            @Override
+            public int size() {
+                return dict.size();
+            }
+
+            @Override
+            public PrimitiveCursor cursor() {
+                LongObjDictionary.Cursor<Long> cursor = dict.cursor();
+                return new PrimitiveCursor() {
+                    @Override
+                    public boolean advance() {
+                        return cursor.advance();
+                    }
+
+                    @Override
+                    public long key() {
+                        return cursor.key();
+                    }
+
+                    @Override
+                    public long value() {
+                        return cursor.value();
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    protected long randomKey(Random rand) {
+        // Spread the keys over both halves of the long, so the hash has to mix
+        // in the high bits
+        return (rand.nextInt(4000) - 2000) * 0x100000001L;
+    }
+
+    @Test(timeout=SECOND)
+    public void testZeroKeyAndNullValues() {
+        LongObjDictionary<String> dict = new LongObjDictionary<>();
+        assertFalse(dict.containsKey(0L));
+        dict.put(0L, "v3");
+        dict.put(1L, null);
+        assertTrue(dict.containsKey(0L));
+        assertTrue(dict.containsKey(1L));
+        assertEquals("v3", dict.get(0L));
+        assertEquals(null, dict.getOrDefault(1L, "missing"));
+        assertEquals(2, dict.size());
+
+        LongObjDictionary.Cursor<String> cursor = dict.cursor();
+        int count = 0;
+        while (cursor.advance()) {
+            cursor.setValue(cursor.key() == 0L ? "v30" : "v40");
+            count++;
+        }
+        assertEquals(2, count);
+        assertEquals("v30", dict.get(0L));
+        assertEquals("v40", dict.get(1L));
+
+        assertEquals("v30", dict.remove(0L));
+        assertFalse(dict.containsKey(0L));
+        assertEquals(1, dict.size());
+    }
+
+    @Test(timeout=SECOND)
+    public void testKeysDifferingOnlyInHighBits() {
+        LongObjDictionary<String> dict = new LongObjDictionary<>();
+        dict.put(1L, "low");
+        dict.put(1L << 32 | 1L, "high");
+        dict.put(Long.MIN_VALUE | 1L, "sign");
+        assertEquals(3, dict.size());
+        assertEquals("low", dict.get(1L));
+        assertEquals("high", dict.get(1L << 32 | 1L));
+        assertEquals("sign", dict.get(Long.MIN_VALUE | 1L));
+        assertEquals("high", dict.remove(1L << 32 | 1L));
+        assertEquals("low", dict.get(1L));
+        assertFalse(dict.containsKey(1L << 32 | 1L));
+    }
+}
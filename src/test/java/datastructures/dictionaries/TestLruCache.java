@@ -0,0 +1,190 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.DoubleLinkedList;
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.CacheStats;
+import datastructures.concrete.dictionaries.LruCache;
+import datastructures.interfaces.IList;
+import misc.BaseTest;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class TestLruCache extends BaseTest {
+    protected void assertKeysInOrder(String[] expected, LruCache<String, Integer> cache) {
+        assertEquals(expected.length, cache.size());
+        Iterator<KVPair<String, Integer>> iter = cache.iterator();
+        for (String key : expected) {
+            assertEquals(key, iter.next().getKey());
+        }
+        assertFalse(iter.hasNext());
+    }
+
+    @Test(timeout=SECOND)
+    public void testEvictsLeastRecentlyUsed() {
+        IList<String> evicted = new DoubleLinkedList<>();
+        LruCache<String, Integer> cache = new LruCache<>(3, (key, value) -> evicted.add(key + "=" + value));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        this.assertKeysInOrder(new String[] {"c", "b", "a"}, cache);
+
+        // Using "a" saves it, so "b" goes instead
+        assertEquals(1, cache.get("a"));
+        cache.put("d", 4);
+        this.assertKeysInOrder(new String[] {"d", "a", "c"}, cache);
+        assertFalse(cache.containsKey("b"));
+        assertEquals(1, evicted.size());
+        assertEquals("b=2", evicted.get(0));
+
+        // containsKey() is not a use, but replacing a value is
+        assertTrue(cache.containsKey("c"));
+        cache.put("c", 30);
+        cache.put("e", 5);
+        this.assertKeysInOrder(new String[] {"e", "c", "d"}, cache);
+        assertEquals("a=1", evicted.get(1));
+
+        // Removing is not an eviction
+        assertEquals(30, cache.remove("c"));
+        assertEquals(2, evicted.size());
+        try {
+            cache.get("c");
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok
+        }
+        assertEquals(-1, cache.getOrDefault("c", -1));
+    }
+
+    @Test(timeout=SECOND)
+    public void testBoundedByWeight() {
+        IList<String> evicted = new DoubleLinkedList<>();
+        LruCache<String, String> cache = new LruCache<>(10, (key, value) -> value.length(),
+            (key, value) -> evicted.add(key));
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        assertEquals(8L, cache.weight());
+        cache.put("c", "cc");
+        assertEquals(10L, cache.weight());
+        assertEquals(0, evicted.size());
+
+        // Growing "a" pushes out "b", the least recently used
+        cache.get("a");
+        cache.put("a", "aaaaaaa");
+        assertEquals(1, evicted.size());
+        assertEquals("b", evicted.get(0));
+        assertEquals(9L, cache.weight());
+
+        // An entry heavier than the whole bound doesn't stay, and doesn't push
+        // anything else out either
+        cache.put("huge", "xxxxxxxxxxxx");
+        assertFalse(cache.containsKey("huge"));
+        assertEquals(2, evicted.size());
+        assertEquals("huge", evicted.get(1));
+        assertEquals(2, cache.size());
+        assertEquals(9L, cache.weight());
+
+        // Nor does a new value for a key that is there, which drops the old one
+        cache.put("c", "cccccccccccc");
+        assertFalse(cache.containsKey("c"));
+        assertEquals("aaaaaaa", cache.get("a"));
+        assertEquals(1, cache.size());
+        assertEquals(7L, cache.weight());
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testMatchesLinkedHashMap() {
+        int capacity = 100;
+        Map<Integer, Integer> expected = new LinkedHashMap<Integer, Integer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                return this.size() > capacity;
+            }
+        };
+        LruCache<Integer, Integer> cache = new LruCache<>(capacity);
+        Random rand = new Random(11);
+        for (int i = 0; i < 200000; i++) {
+            int key = rand.nextInt(300);
+            int op = rand.nextInt(10);
+            if (op < 5) {
+                assertEquals(expected.get(key), cache.getOrDefault(key, null));
+            } else if (op < 9) {
+                expected.put(key, i);
+                cache.put(key, i);
+            } else if (expected.containsKey(key)) {
+                assertEquals(expected.remove(key), cache.remove(key));
+            }
+        }
+
+        // Both should be in the same order, least recently used first
+        IList<Integer> order = new DoubleLinkedList<>();
+        for (KVPair<Integer, Integer> pair : cache) {
+            order.insert(0, pair.getKey());
+        }
+        assertEquals(expected.size(), order.size());
+        int index = 0;
+        for (Integer key : expected.keySet()) {
+            assertEquals(key, order.get(index));
+            index++;
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testStatsCountLookups() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        assertEquals(1.0, cache.stats().hitRate());
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.getOrDefault("c", 0);
+        try {
+            cache.get("c");
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok
+        }
+        cache.containsKey("a");
+        CacheStats before = cache.stats();
+        cache.put("c", 3);
+        cache.get("c");
+
+        CacheStats stats = cache.stats();
+        assertEquals(2L, stats.hitCount());
+        assertEquals(2L, stats.missCount());
+        assertEquals(1L, stats.evictionCount());
+        assertEquals(0.5, stats.hitRate());
+        assertEquals(1L, stats.minus(before).hitCount());
+        assertEquals(0L, stats.minus(before).missCount());
+    }
+
+    @Test(timeout=SECOND)
+    public void testBadArgumentsThrowException() {
+        try {
+            new LruCache<String, String>(0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+        try {
+            new LruCache<String, String>(10, null, null);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+        LruCache<String, Integer> cache = new LruCache<>(10, (key, value) -> value, null);
+        try {
+            cache.put("a", -1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.Codecs;
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.MappedFileDictionary;
+import misc.BaseTest;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class TestMappedFileDictionary extends BaseTest {
+    private Path file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = Files.createTempFile("mapped", ".dict");
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    protected MappedFileDictionary<String, Integer> open() throws IOException {
+        return MappedFileDictionary.open(file, Codecs.strings(), Codecs.integers());
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testPutGetAndRemoveBasic() throws IOException {
+        try (MappedFileDictionary<String, Integer> dict = this.open()) {
+            dict.put("a", 1);
+            dict.put("b", 2);
+            dict.put("a", 3);
+            dict.put(null, 4);
+            dict.put("c", null);
+
+            assertEquals(4, dict.size());
+            assertEquals(3, dict.get("a"));
+            assertEquals(4, dict.get(null));
+            assertTrue(dict.containsKey("c"));
+            assertEquals(null, dict.get("c"));
+
+            assertEquals(2, dict.remove("b"));
+            assertFalse(dict.containsKey("b"));
+            assertEquals(-1, dict.getOrDefault("b", -1));
+            try {
+                dict.remove("b");
+                fail("Expected NoSuchKeyException");
+            } catch (NoSuchKeyException ex) {
+                // This is ok
+            }
+        }
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testContentsSurviveReopening() throws IOException {
+        int cap = 50000;
+        try (MappedFileDictionary<String, Integer> dict = this.open()) {
+            for (int i = 0; i < cap; i++) {
+                dict.put("key" + i, i);
+            }
+            for (int i = 0; i < cap; i += 2) {
+                dict.remove("key" + i);
+            }
+            dict.put("key1", -1);
+        }
+
+        try (MappedFileDictionary<String, Integer> dict = this.open()) {
+            assertEquals(cap / 2, dict.size());
+            assertEquals(-1, dict.get("key1"));
+            for (int i = 2; i < cap; i++) {
+                assertEquals(i % 2 == 1, dict.containsKey("key" + i));
+            }
+            dict.put("key0", 0);
+            dict.force();
+
+            int count = 0;
+            for (KVPair<String, Integer> pair : dict) {
+                assertTrue(pair.getKey().startsWith("key"));
+                count++;
+            }
+            assertEquals(cap / 2 + 1, count);
+        }
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testDroppedDictionaryReopensAtLastForce() throws IOException {
+        // Enough keys that the slot table grows both before and after the force
+        int cap = 20000;
+        MappedFileDictionary<String, Integer> dict = this.open();
+        for (int i = 0; i < cap; i++) {
+            dict.put("key" + i, i);
+        }
+        for (int i = 0; i < cap; i += 3) {
+            dict.remove("key" + i);
+        }
+        dict.put("key1", -1);
+        dict.put(null, 7);
+        dict.force();
+
+        // None of these are forced, so they must not survive
+        for (int i = 1; i < cap; i += 2) {
+            if (i % 3 != 0) {
+                dict.remove("key" + i);
+            }
+        }
+        for (int i = cap; i < 3 * cap; i++) {
+            dict.put("key" + i, i);
+        }
+        dict.put("key3", 3);
+        dict.remove(null);
+        dict = null; // Dropped without close(), as if the process had died
+
+        try (MappedFileDictionary<String, Integer> reopened = this.open()) {
+            assertEquals(cap - (cap + 2) / 3 + 1, reopened.size());
+            assertEquals(-1, reopened.get("key1"));
+            assertEquals(7, reopened.get(null));
+            for (int i = 2; i < cap; i++) {
+                assertEquals(i % 3 != 0, reopened.containsKey("key" + i));
+            }
+            assertFalse(reopened.containsKey("key" + cap));
+            int count = 0;
+            for (KVPair<String, Integer> pair : reopened) {
+                count++;
+            }
+            assertEquals(reopened.size(), count);
+
+            // The recovered dictionary works as usual
+            reopened.put("key3", 3);
+            reopened.remove("key2");
+        }
+        try (MappedFileDictionary<String, Integer> reopened = this.open()) {
+            assertEquals(cap - (cap + 2) / 3 + 1, reopened.size());
+            assertEquals(3, reopened.get("key3"));
+            assertFalse(reopened.containsKey("key2"));
+        }
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testRecoveryStepsOverChunkBoundaries() throws IOException {
+        // About 24 MB of values, so records have to skip to the next 16 MB chunk
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 99999; i++) {
+            builder.append((char) ('a' + i % 26));
+        }
+        String big = builder.toString();
+        MappedFileDictionary<String, String> dict = MappedFileDictionary.open(file, Codecs.strings(),
+                Codecs.strings());
+        for (int i = 0; i < 240; i++) {
+            dict.put("key" + i, i + big);
+        }
+        dict.remove("key7");
+        dict.force();
+        dict.put("key8", "lost");
+        dict = null;
+
+        try (MappedFileDictionary<String, String> reopened = MappedFileDictionary.open(file,
+                Codecs.strings(), Codecs.strings())) {
+            assertEquals(239, reopened.size());
+            assertFalse(reopened.containsKey("key7"));
+            for (int i = 0; i < 240; i++) {
+                if (i != 7) {
+                    assertEquals(i + big, reopened.get("key" + i));
+                }
+            }
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testDroppedBeforeAnyForceReopensEmpty() throws IOException {
+        MappedFileDictionary<String, Integer> dict = this.open();
+        dict.put("a", 1);
+        dict.put("b", 2);
+        dict = null;
+        try (MappedFileDictionary<String, Integer> reopened = this.open()) {
+            assertEquals(0, reopened.size());
+            assertFalse(reopened.containsKey("a"));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testOtherFilesAreRejected() throws IOException {
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        try {
+            this.open();
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // This is ok
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testClosedDictionaryThrowsException() throws IOException {
+        MappedFileDictionary<String, Integer> dict = this.open();
+        dict.close();
+        dict.close();
+        try {
+            dict.put("a", 1);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // This is ok
+        }
+    }
+}
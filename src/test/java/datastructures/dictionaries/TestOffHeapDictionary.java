@@ -0,0 +1,154 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.Codecs;
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.OffHeapDictionary;
+import datastructures.interfaces.ICodec;
+import misc.BaseTest;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class TestOffHeapDictionary extends BaseTest {
+    protected OffHeapDictionary<String, String> makeBasicDictionary() {
+        OffHeapDictionary<String, String> dict = new OffHeapDictionary<>(Codecs.strings(), Codecs.strings());
+        dict.put("keyA", "valA");
+        dict.put("keyB", "valB");
+        dict.put("keyC", "valC");
+        return dict;
+    }
+
+    @Test(timeout=SECOND)
+    public void testPutGetAndRemoveBasic() {
+        try (OffHeapDictionary<String, String> dict = this.makeBasicDictionary()) {
+            assertEquals(3, dict.size());
+            assertEquals("valB", dict.get("keyB"));
+            dict.put("keyB", "a much longer replacement value");
+            assertEquals("a much longer replacement value", dict.get("keyB"));
+            assertEquals(3, dict.size());
+
+            assertEquals("valA", dict.remove("keyA"));
+            assertFalse(dict.containsKey("keyA"));
+            assertEquals("none", dict.getOrDefault("keyA", "none"));
+            assertEquals(2, dict.size());
+            try {
+                dict.get("keyA");
+                fail("Expected NoSuchKeyException");
+            } catch (NoSuchKeyException ex) {
+                // This is ok
+            }
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testNullAndEmptyKeysAndValues() {
+        try (OffHeapDictionary<String, String> dict = this.makeBasicDictionary()) {
+            dict.put(null, "nullKey");
+            dict.put("", null);
+            dict.put("\uD83D\uDE00 unicode \u00E9", "\uD800 lone surrogate");
+
+            assertEquals("nullKey", dict.get(null));
+            assertTrue(dict.containsKey(""));
+            assertEquals(null, dict.get(""));
+            assertEquals("? lone surrogate", dict.get("\uD83D\uDE00 unicode \u00E9"));
+            assertEquals(6, dict.size());
+
+            assertEquals("nullKey", dict.remove(null));
+            assertFalse(dict.containsKey(null));
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testMatchesHashMapThroughGrowthAndCompaction() {
+        Random rand = new Random(7);
+        Map<Integer, String> expected = new HashMap<>();
+        try (OffHeapDictionary<Integer, String> dict = new OffHeapDictionary<>(Codecs.integers(), Codecs.strings())) {
+            // Large values make the removed and replaced entries add up to
+            // several data pages, so the dictionary has to compact
+            StringBuilder padding = new StringBuilder();
+            for (int i = 0; i < 200; i++) {
+                padding.append('x');
+            }
+            for (int i = 0; i < 100000; i++) {
+                int key = rand.nextInt(20000);
+                if (rand.nextInt(3) == 0) {
+                    assertEquals(expected.containsKey(key), dict.containsKey(key));
+                    if (expected.containsKey(key)) {
+                        assertEquals(expected.remove(key), dict.remove(key));
+                    }
+                } else {
+                    String value = i + padding.toString();
+                    dict.put(key, value);
+                    expected.put(key, value);
+                }
+            }
+
+            assertEquals(expected.size(), dict.size());
+            int count = 0;
+            for (KVPair<Integer, String> pair : dict) {
+                assertEquals(expected.get(pair.getKey()), pair.getValue());
+                count++;
+            }
+            assertEquals(expected.size(), count);
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testClosedDictionaryThrowsException() {
+        OffHeapDictionary<String, String> dict = this.makeBasicDictionary();
+        dict.close();
+        dict.close();
+        try {
+            dict.get("keyA");
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // This is ok
+        }
+        try {
+            dict.put("keyD", "valD");
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // This is ok
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testBadCodecIsRejected() {
+        ICodec<String> lying = new ICodec<String>() {
+            @Override
+            public int sizeOf(String value) {
+                return 1;
+            }
+
+            @Override
+            public void encode(String value, ByteBuffer buffer) {
+                buffer.putInt(value.length());
+            }
+
+            @Override
+            public String decode(ByteBuffer buffer) {
+                return "";
+            }
+        };
+        try (OffHeapDictionary<String, String> dict = new OffHeapDictionary<>(lying, Codecs.strings())) {
+            dict.put("key", "value");
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // This is ok
+        }
+        try {
+            new OffHeapDictionary<String, String>(null, Codecs.strings());
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+    }
+}
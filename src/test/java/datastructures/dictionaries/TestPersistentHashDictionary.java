@@ -0,0 +1,186 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.dictionaries.PersistentHashDictionary;
+import misc.BaseTest;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class TestPersistentHashDictionary extends BaseTest {
+    @Test(timeout=SECOND)
+    public void testWithAndWithoutLeaveOldVersionsAlone() {
+        PersistentHashDictionary<String, Integer> empty = PersistentHashDictionary.empty();
+        PersistentHashDictionary<String, Integer> one = empty.with("a", 1);
+        PersistentHashDictionary<String, Integer> two = one.with("b", 2);
+        PersistentHashDictionary<String, Integer> changed = two.with("a", 10);
+        PersistentHashDictionary<String, Integer> removed = changed.without("b");
+
+        assertEquals(0, empty.size());
+        assertFalse(empty.containsKey("a"));
+        assertEquals(1, one.size());
+        assertEquals(1, one.get("a"));
+        assertFalse(one.containsKey("b"));
+        assertEquals(2, two.size());
+        assertEquals(1, two.get("a"));
+        assertEquals(10, changed.get("a"));
+        assertEquals(2, changed.get("b"));
+        assertEquals(1, removed.size());
+        assertEquals(10, removed.get("a"));
+        assertEquals(-1, removed.getOrDefault("b", -1));
+        try {
+            removed.get("b");
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok
+        }
+
+        // Changes that change nothing hand back the same version
+        assertSame(removed, removed.without("b"));
+        Integer value = 10;
+        PersistentHashDictionary<String, Integer> same = removed.with("c", value);
+        assertSame(same, same.with("c", value));
+    }
+
+    @Test(timeout=SECOND)
+    public void testCannotBeChangedInPlace() {
+        PersistentHashDictionary<String, Integer> dict = PersistentHashDictionary.<String, Integer>empty().with("a", 1);
+        try {
+            dict.put("b", 2);
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException ex) {
+            // This is ok
+        }
+        try {
+            dict.remove("a");
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException ex) {
+            // This is ok
+        }
+        assertEquals(1, dict.size());
+        assertEquals(1, dict.get("a"));
+    }
+
+    @Test(timeout=SECOND)
+    public void testNullKeysAndValues() {
+        PersistentHashDictionary<String, String> dict = PersistentHashDictionary.<String, String>empty()
+            .with(null, "a")
+            .with("b", null);
+        assertEquals("a", dict.get(null));
+        assertEquals(null, dict.get("b"));
+        assertTrue(dict.containsKey("b"));
+        dict = dict.without(null);
+        assertFalse(dict.containsKey(null));
+        assertEquals(1, dict.size());
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testManyVersionsMatchHashMap() {
+        // Keep every tenth version around, with a copy of what it should hold
+        List<PersistentHashDictionary<Integer, Integer>> versions = new ArrayList<>();
+        List<Map<Integer, Integer>> expected = new ArrayList<>();
+        PersistentHashDictionary<Integer, Integer> dict = PersistentHashDictionary.empty();
+        Map<Integer, Integer> map = new HashMap<>();
+        Random rand = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            int key = rand.nextInt(5000);
+            if (rand.nextInt(3) == 0) {
+                dict = dict.without(key);
+                map.remove(key);
+            } else {
+                dict = dict.with(key, i);
+                map.put(key, i);
+            }
+            if (i % 10 == 0) {
+                versions.add(dict);
+                expected.add(new HashMap<>(map));
+            }
+        }
+        assertSamePairs(map, dict);
+        for (int i = 0; i < versions.size(); i += 97) {
+            assertSamePairs(expected.get(i), versions.get(i));
+        }
+
+        // Removing everything goes back to empty
+        for (Integer key : new ArrayList<>(map.keySet())) {
+            dict = dict.without(key);
+        }
+        assertEquals(0, dict.size());
+        assertFalse(dict.iterator().hasNext());
+    }
+
+    @Test(timeout=SECOND)
+    public void testCollidingKeys() {
+        // Keys with equal hashes, and keys whose hashes differ only in their top bits
+        PersistentHashDictionary<Wrapper<String>, Integer> dict = PersistentHashDictionary.empty();
+        Map<Wrapper<String>, Integer> map = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            Wrapper<String> same = new Wrapper<>("same" + i, 42);
+            Wrapper<String> high = new Wrapper<>("high" + i, (i % 4) << 30);
+            dict = dict.with(same, i).with(high, -i);
+            map.put(same, i);
+            map.put(high, -i);
+        }
+        assertSamePairs(map, dict);
+
+        // Keys that share only the lower bits with the colliding ones
+        for (int i = 0; i < 10; i++) {
+            Wrapper<String> near = new Wrapper<>("near" + i, 42 | (1 << (20 + i)));
+            dict = dict.with(near, 100 + i);
+            map.put(near, 100 + i);
+        }
+        assertSamePairs(map, dict);
+
+        PersistentHashDictionary<Wrapper<String>, Integer> before = dict;
+        for (int i = 0; i < 50; i += 2) {
+            Wrapper<String> same = new Wrapper<>("same" + i, 42);
+            dict = dict.without(same);
+            map.remove(same);
+        }
+        assertSamePairs(map, dict);
+        assertEquals(110, before.size());
+        assertEquals(0, before.get(new Wrapper<>("same0", 42)));
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testBuilderDoesNotChangeBuiltVersions() {
+        PersistentHashDictionary.Builder<Integer, Integer> builder = PersistentHashDictionary.builder();
+        for (int i = 0; i < 10000; i++) {
+            builder.put(i, i);
+        }
+        PersistentHashDictionary<Integer, Integer> first = builder.build();
+
+        // Keep using the builder; the built version must not see it
+        for (int i = 0; i < 10000; i += 2) {
+            builder.remove(i);
+        }
+        builder.put(1, -1);
+        PersistentHashDictionary<Integer, Integer> second = builder.build();
+        builder.put(3, -3);
+
+        assertEquals(10000, first.size());
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, first.get(i));
+        }
+        assertEquals(5000, second.size());
+        assertEquals(-1, second.get(1));
+        assertEquals(3, second.get(3));
+        assertFalse(second.containsKey(2));
+
+        // A builder started from a version doesn't change it either
+        PersistentHashDictionary<Integer, Integer> third = second.toBuilder().put(5, -5).remove(7).build();
+        assertEquals(5, second.get(5));
+        assertTrue(second.containsKey(7));
+        assertEquals(-5, third.get(5));
+        assertEquals(4999, third.size());
+    }
+}
@@ -0,0 +1,63 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import datastructures.interfaces.IDictionary;
+import org.junit.Test;
+
+/**
+ * Tests that every dictionary which can be sized up front, through a constructor
+ * taking the expected number of items, should pass on top of TestDictionary.
+ */
+public abstract class TestPresizableDictionary extends TestDictionary {
+    protected abstract <K, V> IDictionary<K, V> newDictionary(int expectedSize);
+
+    @Test(timeout=SECOND)
+    public void testExpectedSize() {
+        try {
+            this.newDictionary(-1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+        IDictionary<String, Integer> dict = this.newDictionary(1000);
+        for (int i = 0; i < 1000; i++) {
+            dict.put("" + i, i);
+        }
+        assertEquals(1000, dict.size());
+
+        // Going past the expected size just makes the dictionary grow
+        IDictionary<Integer, Integer> small = this.newDictionary(0);
+        for (int i = 0; i < 1000; i++) {
+            small.put(i, -i);
+        }
+        assertEquals(1000, small.size());
+        assertEquals(-999, small.get(999));
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void stressTest() {
+        int limit = 1000000;
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+
+        for (int i = 0; i < limit; i++) {
+            dict.put(i, i);
+            assertEquals(i, dict.get(i));
+        }
+
+        for (int i = 0; i < limit; i++) {
+            assertFalse(dict.containsKey(-1));
+        }
+
+        for (int i = 0; i < limit; i++) {
+            dict.put(i, -i);
+        }
+
+        for (int i = 0; i < limit; i++) {
+            assertEquals(-i, dict.get(i));
+            dict.remove(i);
+        }
+        assertEquals(0, dict.size());
+    }
+}
@@ -0,0 +1,139 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import misc.BaseTest;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests that every primitive dictionary (IntIntDictionary and the like) should pass.
+ *
+ * The primitive dictionaries share no interface, so each subclass wraps its own in a
+ * PrimitiveDictionary, which widens keys and values to long. The tests here only use
+ * keys and values that fit in an int.
+ */
+public abstract class TestPrimitiveDictionary extends BaseTest {
+    protected interface PrimitiveDictionary {
+        void put(long key, long value);
+
+        long get(long key);
+
+        long getOrDefault(long key, long defaultValue);
+
+        long remove(long key);
+
+        boolean containsKey(long key);
+
+        int size();
+
+        PrimitiveCursor cursor();
+    }
+
+    protected interface PrimitiveCursor {
+        boolean advance();
+
+        long key();
+
+        long value();
+    }
+
+    protected abstract PrimitiveDictionary newDictionary();
+
+    // Returns a key for testMatchesHashMap(). Keys from a small range collide
+    // often, so removes shift long probe runs.
+    protected long randomKey(Random rand) {
+        return rand.nextInt(4000) - 2000;
+    }
+
+    @Test(timeout=SECOND)
+    public void testPutGetAndRemoveBasic() {
+        PrimitiveDictionary dict = this.newDictionary();
+        dict.put(5, 50);
+        dict.put(-7, 70);
+        dict.put(5, 55);
+
+        assertEquals(2, dict.size());
+        assertEquals(55L, dict.get(5));
+        assertEquals(70L, dict.getOrDefault(-7, 1));
+        assertEquals(1L, dict.getOrDefault(8, 1));
+        assertFalse(dict.containsKey(8));
+
+        assertEquals(55L, dict.remove(5));
+        assertFalse(dict.containsKey(5));
+        assertEquals(1, dict.size());
+        try {
+            dict.get(5);
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok
+        }
+        try {
+            dict.remove(5);
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testCursorOffPairThrowsException() {
+        PrimitiveDictionary dict = this.newDictionary();
+        dict.put(9, 90);
+        PrimitiveCursor cursor = dict.cursor();
+        try {
+            cursor.key();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // This is ok
+        }
+        assertTrue(cursor.advance());
+        assertEquals(9L, cursor.key());
+        assertEquals(90L, cursor.value());
+        assertFalse(cursor.advance());
+        assertFalse(cursor.advance());
+        try {
+            cursor.value();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // This is ok
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testMatchesHashMap() {
+        Random rand = new Random(12);
+        PrimitiveDictionary dict = this.newDictionary();
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 200000; i++) {
+            long key = this.randomKey(rand);
+            if (rand.nextInt(3) == 0) {
+                assertEquals(expected.containsKey(key), dict.containsKey(key));
+                if (expected.containsKey(key)) {
+                    assertEquals(expected.remove(key), dict.remove(key));
+                }
+            } else {
+                dict.put(key, i);
+                expected.put(key, (long) i);
+            }
+        }
+
+        assertEquals(expected.size(), dict.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), dict.get(entry.getKey()));
+        }
+        PrimitiveCursor cursor = dict.cursor();
+        int count = 0;
+        while (cursor.advance()) {
+            assertEquals(expected.get(cursor.key()), cursor.value());
+            count++;
+        }
+        assertEquals(expected.size(), count);
+    }
+}
@@ -0,0 +1,70 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import datastructures.concrete.dictionaries.RobinHoodHashDictionary;
+import datastructures.interfaces.IDictionary;
+import org.junit.Test;
+
+public class TestRobinHoodHashDictionary extends TestDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new RobinHoodHashDictionary<>();
+    }
+
+    @Test(timeout=SECOND)
+    public void testManyObjectsWithSameHashCode() {
+        IDictionary<Wrapper<String>, Integer> map = this.newDictionary();
+        for (int i = 0; i < 1000; i++) {
+            map.put(new Wrapper<>("" + i, 0), i);
+        }
+
+        for (int i = 999; i >= 0; i--) {
+            String key = "" + i;
+            assertEquals(i, map.get(new Wrapper<>(key, 0)));
+            assertFalse(map.containsKey(new Wrapper<>(key + "a", 0)));
+        }
+
+        assertEquals(1000, map.size());
+    }
+
+    @Test(timeout=SECOND)
+    public void testRemoveKeepsDisplacedKeysReachable() {
+        // Keys that share a home slot form one probe run; removing from the
+        // middle of the run must shift the rest back without losing any.
+        IDictionary<Wrapper<Integer>, Integer> dict = this.newDictionary();
+        for (int i = 0; i < 10; i++) {
+            dict.put(new Wrapper<>(i, i % 3), i);
+        }
+
+        for (int i = 0; i < 10; i += 2) {
+            assertEquals(i, dict.remove(new Wrapper<>(i, i % 3)));
+        }
+
+        assertEquals(5, dict.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i % 2 == 1, dict.containsKey(new Wrapper<>(i, i % 3)));
+        }
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void stressTest() {
+        int limit = 1000000;
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+
+        for (int i = 0; i < limit; i++) {
+            dict.put(i, i);
+            assertEquals(i, dict.get(i));
+        }
+
+        for (int i = 0; i < limit; i++) {
+            assertFalse(dict.containsKey(-1));
+        }
+
+        for (int i = 0; i < limit; i++) {
+            assertEquals(i, dict.remove(i));
+        }
+
+        assertTrue(dict.isEmpty());
+    }
+}
@@ -0,0 +1,10 @@
+package datastructures.dictionaries;
+
+import datastructures.concrete.dictionaries.StripedHashDictionary;
+import datastructures.interfaces.IDictionary;
+
+public class TestStripedHashDictionary extends TestConcurrentDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new StripedHashDictionary<>();
+    }
+}
@@ -0,0 +1,62 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertFalse;
+
+import datastructures.concrete.dictionaries.SwissTableDictionary;
+import datastructures.interfaces.IDictionary;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class TestSwissTableDictionary extends TestPresizableDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new SwissTableDictionary<>();
+    }
+
+    protected <K, V> IDictionary<K, V> newDictionary(int expectedSize) {
+        return new SwissTableDictionary<>(expectedSize);
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testTombstonesAreReusedAndCleanedUp() {
+        // Churns through many more keys than the table ever holds at once, so
+        // it has to clean out its tombstones instead of growing forever
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random rand = new Random(23);
+        for (int i = 0; i < 300000; i++) {
+            int key = rand.nextInt(1000000);
+            if (expected.size() > 500 && rand.nextBoolean()) {
+                Integer victim = expected.keySet().iterator().next();
+                assertEquals(expected.remove(victim), dict.remove(victim));
+            } else {
+                expected.put(key, i);
+                dict.put(key, i);
+            }
+        }
+        assertSamePairs(expected, dict);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(expected.get(-i), dict.getOrDefault(-i, null));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testCollidingKeys() {
+        // Keys that share a hash share h2 as well, so their control bytes all match
+        IDictionary<Wrapper<Integer>, Integer> dict = this.newDictionary();
+        Map<Wrapper<Integer>, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            Wrapper<Integer> key = new Wrapper<>(i, i % 4 == 0 ? 9 : i);
+            dict.put(key, i);
+            expected.put(key, i);
+        }
+        for (int i = 0; i < 500; i += 3) {
+            Wrapper<Integer> key = new Wrapper<>(i, i % 4 == 0 ? 9 : i);
+            assertEquals(expected.remove(key), dict.remove(key));
+        }
+        assertSamePairs(expected, dict);
+        assertFalse(dict.containsKey(new Wrapper<>(0, 9)));
+    }
+}
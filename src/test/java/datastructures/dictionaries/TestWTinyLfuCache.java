@@ -0,0 +1,132 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.CacheStats;
+import datastructures.concrete.dictionaries.LruCache;
+import datastructures.concrete.dictionaries.WTinyLfuCache;
+import datastructures.interfaces.IDictionary;
+import misc.BaseTest;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class TestWTinyLfuCache extends BaseTest {
+    // Replays a trace of a small hot set of keys, interrupted by scans of keys
+    // that are never seen again, putting every key that misses
+    protected void replayScanTrace(IDictionary<Integer, Integer> cache) {
+        Random rand = new Random(3);
+        int scanKey = 1000000;
+        for (int round = 0; round < 40; round++) {
+            for (int i = 0; i < 600; i++) {
+                int key = rand.nextInt(150);
+                if (cache.getOrDefault(key, null) == null) {
+                    cache.put(key, key);
+                }
+            }
+            for (int i = 0; i < 1000; i++) {
+                int key = scanKey++;
+                if (cache.getOrDefault(key, null) == null) {
+                    cache.put(key, key);
+                }
+            }
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testPutGetAndRemoveBasic() {
+        WTinyLfuCache<String, Integer> cache = new WTinyLfuCache<>(10);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put(null, 3);
+        cache.put("a", 4);
+        assertEquals(3, cache.size());
+        assertEquals(4, cache.get("a"));
+        assertEquals(3, cache.get(null));
+        assertEquals(2, cache.remove("b"));
+        assertFalse(cache.containsKey("b"));
+        try {
+            cache.get("b");
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok
+        }
+        assertEquals(-1, cache.getOrDefault("b", -1));
+
+        CacheStats stats = cache.stats();
+        assertEquals(2L, stats.hitCount());
+        assertEquals(2L, stats.missCount());
+        assertEquals(0.5, stats.hitRate());
+
+        int count = 0;
+        for (KVPair<String, Integer> pair : cache) {
+            assertEquals(pair.getKey() == null ? 3 : 4, pair.getValue());
+            count++;
+        }
+        assertEquals(2, count);
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testStaysBoundedAndConsistent() {
+        // Every key is either in the cache, evicted, removed or never put
+        Map<Integer, Integer> expected = new HashMap<>();
+        WTinyLfuCache<Integer, Integer> cache = new WTinyLfuCache<>(300, (key, value) -> {
+            assertEquals(expected.remove(key), value);
+        });
+        Random rand = new Random(5);
+        for (int i = 0; i < 200000; i++) {
+            int key = rand.nextInt(2000);
+            int op = rand.nextInt(10);
+            if (op < 5) {
+                assertEquals(expected.get(key), cache.getOrDefault(key, null));
+            } else if (op < 9) {
+                expected.put(key, i);
+                cache.put(key, i);
+            } else if (expected.containsKey(key)) {
+                assertEquals(expected.remove(key), cache.remove(key));
+            }
+            assertTrue(cache.size() <= 300);
+        }
+        assertEquals(expected.size(), cache.size());
+        for (KVPair<Integer, Integer> pair : cache) {
+            assertEquals(expected.get(pair.getKey()), pair.getValue());
+        }
+        assertTrue(cache.stats().evictionCount() > 0);
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testSurvivesScansBetterThanLru() {
+        LruCache<Integer, Integer> lru = new LruCache<>(200);
+        WTinyLfuCache<Integer, Integer> tinyLfu = new WTinyLfuCache<>(200);
+        this.replayScanTrace(lru);
+        this.replayScanTrace(tinyLfu);
+
+        // Every scan flushes the hot set out of the LRU cache, but only makes it
+        // through the admission window of the other
+        double lruRate = lru.stats().hitRate();
+        double tinyLfuRate = tinyLfu.stats().hitRate();
+        assertTrue("LRU " + lruRate + ", W-TinyLFU " + tinyLfuRate, tinyLfuRate > lruRate + 0.05);
+    }
+
+    @Test(timeout=SECOND)
+    public void testSingleEntryCache() {
+        WTinyLfuCache<String, Integer> cache = new WTinyLfuCache<>(1);
+        for (int i = 0; i < 100; i++) {
+            cache.put("key" + (i % 3), i);
+            cache.getOrDefault("key" + (i % 2), null);
+            assertTrue(cache.size() <= 1);
+        }
+        try {
+            new WTinyLfuCache<String, Integer>(0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+    }
+}
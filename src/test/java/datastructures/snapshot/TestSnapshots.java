@@ -0,0 +1,166 @@
+package datastructures.snapshot;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.ChainedHashSet;
+import datastructures.concrete.Codecs;
+import datastructures.concrete.DoubleLinkedList;
+import datastructures.concrete.dictionaries.ChainedHashDictionary;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IList;
+import datastructures.interfaces.ISet;
+import misc.BaseTest;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+public class TestSnapshots extends BaseTest {
+    protected IDictionary<Integer, String> makeLargeDictionary(int size) {
+        IDictionary<Integer, String> dict = new ChainedHashDictionary<>();
+        for (int i = 0; i < size; i++) {
+            dict.put(i, "value" + i);
+        }
+        dict.put(null, "nullKey");
+        dict.put(-1, null);
+        return dict;
+    }
+
+    protected byte[] writeDictionary(IDictionary<Integer, String> dict, boolean checksum) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SnapshotWriter writer = new SnapshotWriter(Channels.newChannel(out), checksum)) {
+            writer.writeDictionary(dict, Codecs.integers(), Codecs.strings());
+        }
+        return out.toByteArray();
+    }
+
+    protected SnapshotReader reader(byte[] bytes) {
+        return new SnapshotReader(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    protected void assertDictionaryMatches(IDictionary<Integer, String> expected, IDictionary<Integer, String> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = -1; i < expected.size() - 2; i++) {
+            assertEquals(expected.get(i), actual.get(i));
+        }
+        assertEquals("nullKey", actual.get(null));
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testDictionaryRoundTrip() throws IOException {
+        // Big enough to take many blocks
+        IDictionary<Integer, String> dict = this.makeLargeDictionary(50000);
+        for (boolean checksum : new boolean[] {true, false}) {
+            try (SnapshotReader reader = this.reader(this.writeDictionary(dict, checksum))) {
+                this.assertDictionaryMatches(dict, reader.readDictionary(Codecs.integers(), Codecs.strings()));
+            }
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testSeveralSectionsInOneStream() throws IOException {
+        IList<String> list = new DoubleLinkedList<>();
+        ISet<String> set = new ChainedHashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add("item" + (i % 10));
+            set.add("item" + i);
+        }
+        list.add(null);
+        IDictionary<Integer, String> empty = new ChainedHashDictionary<>();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SnapshotWriter writer = new SnapshotWriter(Channels.newChannel(out))) {
+            writer.writeList(list, Codecs.strings());
+            writer.writeDictionary(empty, Codecs.integers(), Codecs.strings());
+            writer.writeSet(set, Codecs.strings());
+        }
+
+        try (SnapshotReader reader = this.reader(out.toByteArray())) {
+            IList<String> readList = reader.readList(Codecs.strings());
+            assertEquals(list.size(), readList.size());
+            for (int i = 0; i < 1000; i++) {
+                assertEquals("item" + (i % 10), readList.get(i));
+            }
+            assertEquals(null, readList.get(1000));
+
+            assertEquals(0, reader.readDictionary(Codecs.integers(), Codecs.strings()).size());
+
+            ISet<String> readSet = reader.readSet(Codecs.strings());
+            assertEquals(set.size(), readSet.size());
+            for (String item : set) {
+                assertTrue(readSet.contains(item));
+            }
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testItemLargerThanBlock() throws IOException {
+        StringBuilder big = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            big.append((char) ('a' + i % 26));
+        }
+        IDictionary<Integer, String> dict = new ChainedHashDictionary<>();
+        dict.put(1, "small");
+        dict.put(2, big.toString());
+        dict.put(3, "small");
+
+        try (SnapshotReader reader = this.reader(this.writeDictionary(dict, true))) {
+            IDictionary<Integer, String> read = reader.readDictionary(Codecs.integers(), Codecs.strings());
+            assertEquals(3, read.size());
+            assertEquals(big.toString(), read.get(2));
+            assertEquals("small", read.get(3));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testCorruptSnapshotThrowsException() throws IOException {
+        byte[] bytes = this.writeDictionary(this.makeLargeDictionary(100), true);
+
+        // Flip a bit in the middle of the payload
+        byte[] corrupt = bytes.clone();
+        corrupt[bytes.length / 2] ^= 1;
+        try (SnapshotReader reader = this.reader(corrupt)) {
+            reader.readDictionary(Codecs.integers(), Codecs.strings());
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // This is ok
+        }
+
+        // Cut off the end
+        byte[] truncated = new byte[bytes.length - 10];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        try (SnapshotReader reader = this.reader(truncated)) {
+            reader.readDictionary(Codecs.integers(), Codecs.strings());
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // This is ok
+        }
+
+        // Read it as the wrong kind of data structure
+        try (SnapshotReader reader = this.reader(bytes)) {
+            reader.readList(Codecs.strings());
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // This is ok
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testNullArgumentsThrowException() throws IOException {
+        try {
+            new SnapshotWriter(null);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+        try (SnapshotWriter writer = new SnapshotWriter(Channels.newChannel(new ByteArrayOutputStream()))) {
+            writer.writeList(new DoubleLinkedList<String>(), null);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok
+        }
+    }
+}
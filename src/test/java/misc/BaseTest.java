@@ -1,7 +1,11 @@
 package misc;
 
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
 import org.junit.Assert;
 
+import java.util.Map;
+
 public class BaseTest {
     protected static final int SECOND = 1000;
 
@@ -13,6 +17,25 @@ public class BaseTest {
         Assert.assertEquals(message, expected, actual);
     }
 
+    /**
+     * Checks that the dictionary holds exactly the pairs of the map, both when
+     * iterated over and when each key is looked up.
+     */
+    protected static <K, V> void assertSamePairs(Map<K, V> expected, IDictionary<K, V> dict) {
+        assertEquals(expected.size(), dict.size());
+        int count = 0;
+        for (KVPair<K, V> pair : dict) {
+            Assert.assertTrue(expected.containsKey(pair.getKey()));
+            assertEquals(expected.get(pair.getKey()), pair.getValue());
+            count++;
+        }
+        assertEquals(expected.size(), count);
+        for (Map.Entry<K, V> entry : expected.entrySet()) {
+            Assert.assertTrue(dict.containsKey(entry.getKey()));
+            assertEquals(entry.getValue(), dict.get(entry.getKey()));
+        }
+    }
+
     /**
      * This wrapper class allows us to define a custom hashcode for arbitrary
      * objects.